@@ -13,6 +13,15 @@ android {
         targetSdk = 34
         versionCode = 1
         versionName = "1.0"
+
+        testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+
+        javaCompileOptions {
+            annotationProcessorOptions {
+                // Keeps schemas/ in step with the entities; DaoQueryPlanTest and MigrationTest run against it
+                arguments += mapOf("room.schemaLocation" to "$projectDir/schemas")
+            }
+        }
     }
 
     buildTypes {
@@ -26,6 +35,17 @@ android {
         sourceCompatibility = JavaVersion.VERSION_1_8
         targetCompatibility = JavaVersion.VERSION_1_8
     }
+
+    testOptions {
+        // JVM tests run code that logs through android.util.Log and throws SQLiteException subclasses
+        unitTests.isReturnDefaultValues = true
+        unitTests.all {
+            // *Benchmark classes only report timings; run them with -Pbenchmarks
+            if (!project.hasProperty("benchmarks")) {
+                it.exclude("**/*Benchmark.class")
+            }
+        }
+    }
 }
 
 dependencies {
@@ -67,4 +87,11 @@ dependencies {
 
     // Charts (for analytics)
     implementation("com.github.PhilJay:MPAndroidChart:v3.1.0")
+
+    // Testing
+    testImplementation("junit:junit:4.13.2")
+    testImplementation("com.squareup.okhttp3:mockwebserver:4.11.0")
+    testImplementation("org.xerial:sqlite-jdbc:3.41.2.2")
+    androidTestImplementation("androidx.test.ext:junit:1.1.5")
+    androidTestImplementation("androidx.test:runner:1.5.2")
 }
\ No newline at end of file
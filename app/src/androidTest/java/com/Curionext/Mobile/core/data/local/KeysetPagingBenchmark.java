@@ -0,0 +1,178 @@
+package com.curionext.mobile.core.data.local;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.curionext.mobile.core.data.local.dao.NotificationDao;
+import com.curionext.mobile.core.data.local.entity.ChildEntity;
+import com.curionext.mobile.core.data.local.entity.NotificationEntity;
+import com.curionext.mobile.core.data.paging.KeysetPager;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Notification list loading over 100k rows: the first keyset page against
+ * reading the whole table as the list used to, and a deep keyset page against
+ * the same page fetched with LIMIT/OFFSET.
+ */
+@RunWith(AndroidJUnit4.class)
+public class KeysetPagingBenchmark {
+
+    private static final String TAG = "KeysetPagingBenchmark";
+    private static final String DB_NAME = "keyset_paging_benchmark.db";
+    private static final String CHILD_ID = "bench_child";
+    private static final int ROWS = 100000;
+    private static final int PAGE_SIZE = 20;
+    private static final int DEPTH = 80000; // rows scrolled past before the deep page
+    private static final int QUERIES = 20;
+    private static final String OFFSET_PAGE = "SELECT id FROM notifications WHERE child_id = ? "
+            + "ORDER BY timestamp DESC, id DESC LIMIT ? OFFSET ?";
+
+    private Context context;
+    private CurioNextDatabase database;
+    private NotificationDao notificationDao;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DB_NAME);
+        database = Room.databaseBuilder(context, CurioNextDatabase.class, DB_NAME).build();
+        notificationDao = database.notificationDao();
+        database.childDao().insertChild(new ChildEntity(CHILD_ID, "Bench", "bench_parent")).blockingAwait();
+
+        long now = System.currentTimeMillis();
+        List<NotificationEntity> batch = new ArrayList<>(1000);
+        for (int i = 0; i < ROWS; i++) {
+            NotificationEntity notification = new NotificationEntity(String.format("n_%06d", i), CHILD_ID,
+                    "Title " + i, "Something happened while exploring, entry " + i, "interest", "learning");
+            // Pairs share a timestamp so pages have to break ties on id
+            notification.setTimestamp(new Date(now - (i / 2) * 60000L));
+            batch.add(notification);
+            if (batch.size() == 1000) {
+                notificationDao.insertNotifications(batch).blockingAwait();
+                batch = new ArrayList<>(1000);
+            }
+        }
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void firstPageBeatsFullLoad() {
+        // Warm up both paths
+        notificationDao.getNotificationsPage(CHILD_ID, PAGE_SIZE).blockingGet();
+        notificationDao.getNotificationsByChild(CHILD_ID).blockingGet();
+
+        long before = usedHeap();
+        long start = System.nanoTime();
+        List<NotificationEntity> all = notificationDao.getNotificationsByChild(CHILD_ID).blockingGet();
+        double fullMillis = (System.nanoTime() - start) / 1e6;
+        long fullBytes = usedHeap() - before;
+        assertEquals(ROWS, all.size());
+        all = null;
+
+        before = usedHeap();
+        start = System.nanoTime();
+        List<NotificationEntity> page = notificationDao.getNotificationsPage(CHILD_ID, PAGE_SIZE).blockingGet();
+        double pageMillis = (System.nanoTime() - start) / 1e6;
+        long pageBytes = usedHeap() - before;
+        assertEquals(PAGE_SIZE, page.size());
+
+        Log.i(TAG, String.format("%d rows: full load %.1f ms / %d KB, first page %.2f ms / %d KB",
+                ROWS, fullMillis, fullBytes / 1024, pageMillis, Math.max(0, pageBytes) / 1024));
+
+        assertTrue(pageMillis < fullMillis);
+        assertTrue(pageBytes < fullBytes);
+    }
+
+    @Test
+    public void deepKeysetPageBeatsOffset() {
+        List<String> expected = offsetPage(DEPTH);
+        NotificationEntity cursor = notificationDao.getNotificationsPage(CHILD_ID, DEPTH).blockingGet().get(DEPTH - 1);
+
+        List<NotificationEntity> keyset = notificationDao.getNotificationsPageBefore(CHILD_ID,
+                cursor.getTimestamp(), cursor.getId(), PAGE_SIZE).blockingGet();
+        assertEquals(expected.size(), keyset.size());
+        for (int i = 0; i < keyset.size(); i++) {
+            assertEquals(expected.get(i), keyset.get(i).getId());
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            offsetPage(DEPTH);
+        }
+        double offsetMillis = (System.nanoTime() - start) / 1e6 / QUERIES;
+
+        start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            notificationDao.getNotificationsPageBefore(CHILD_ID, cursor.getTimestamp(), cursor.getId(), PAGE_SIZE)
+                    .blockingGet();
+        }
+        double keysetMillis = (System.nanoTime() - start) / 1e6 / QUERIES;
+
+        Log.i(TAG, String.format("Page at row %d: OFFSET %.2f ms/query, keyset %.2f ms/query (%.1fx)",
+                DEPTH, offsetMillis, keysetMillis, offsetMillis / keysetMillis));
+
+        assertTrue(keysetMillis < offsetMillis);
+    }
+
+    @Test
+    public void pagerVisitsEveryRowOnce() {
+        KeysetPager<NotificationEntity> pager = new KeysetPager<>(500, (after, pageSize) -> after == null
+                ? notificationDao.getNotificationsPage(CHILD_ID, pageSize)
+                : notificationDao.getNotificationsPageBefore(CHILD_ID, after.getTimestamp(), after.getId(), pageSize));
+
+        Set<String> seen = new HashSet<>(ROWS * 2);
+        long start = System.nanoTime();
+        while (!pager.isExhausted()) {
+            List<NotificationEntity> page = pager.nextPage().blockingGet();
+            for (NotificationEntity notification : page) {
+                assertTrue(notification.getId(), seen.add(notification.getId()));
+            }
+        }
+        Log.i(TAG, String.format("Walked %d rows in pages of 500 in %.1f ms",
+                seen.size(), (System.nanoTime() - start) / 1e6));
+
+        assertEquals(ROWS, seen.size());
+    }
+
+    private List<String> offsetPage(int offset) {
+        List<String> ids = new ArrayList<>(PAGE_SIZE);
+        try (Cursor cursor = database.query(new SimpleSQLiteQuery(OFFSET_PAGE,
+                new Object[]{CHILD_ID, PAGE_SIZE, offset}))) {
+            while (cursor.moveToNext()) {
+                ids.add(cursor.getString(0));
+            }
+        }
+        return ids;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        runtime.gc();
+        runtime.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
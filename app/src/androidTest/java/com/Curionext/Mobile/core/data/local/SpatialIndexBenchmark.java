@@ -0,0 +1,138 @@
+package com.curionext.mobile.core.data.local;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.curionext.mobile.core.data.local.dao.LocationDao;
+import com.curionext.mobile.core.data.local.entity.ChildEntity;
+import com.curionext.mobile.core.data.local.entity.LocationEntity;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Bounding-box query time with BETWEEN filters versus the R*Tree shadow index
+ * over 100k location rows spread across a city-sized area. Timings are only
+ * reported; what is asserted is that both return the same rows and that the
+ * indexed query really is planned through the R*Tree.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SpatialIndexBenchmark {
+
+    private static final String TAG = "SpatialIndexBenchmark";
+    private static final String DB_NAME = "spatial_index_benchmark.db";
+    private static final String CHILD_ID = "bench_child";
+    private static final int ROWS = 100000;
+    private static final int QUERIES = 50;
+    private static final double BASE_LAT = 12.90;
+    private static final double BASE_LNG = 77.50;
+    private static final double SPAN = 0.2; // ~22 km
+    private static final double BOX = 0.005; // ~550 m, a zoomed-in map viewport
+
+    private Context context;
+    private CurioNextDatabase database;
+    private LocationDao locationDao;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DB_NAME);
+        database = Room.databaseBuilder(context, CurioNextDatabase.class, DB_NAME)
+                .addCallback(new SpatialIndexCallback())
+                .build();
+        locationDao = database.locationDao();
+        database.childDao().insertChild(new ChildEntity(CHILD_ID, "Bench", "bench_parent")).blockingAwait();
+
+        Random random = new Random(7);
+        List<LocationEntity> batch = new ArrayList<>(1000);
+        for (int i = 0; i < ROWS; i++) {
+            batch.add(new LocationEntity("loc_" + i, CHILD_ID,
+                    BASE_LAT + random.nextDouble() * SPAN, BASE_LNG + random.nextDouble() * SPAN, 10f));
+            if (batch.size() == 1000) {
+                locationDao.insertLocations(batch).blockingAwait();
+                batch = new ArrayList<>(1000);
+            }
+        }
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void rtreeVersusBetweenScan() {
+        Random random = new Random(11);
+        double[][] boxes = new double[QUERIES][];
+        for (int i = 0; i < QUERIES; i++) {
+            double lat = BASE_LAT + random.nextDouble() * (SPAN - BOX);
+            double lng = BASE_LNG + random.nextDouble() * (SPAN - BOX);
+            boxes[i] = new double[]{lat, lat + BOX, lng, lng + BOX};
+        }
+
+        // Warm up both paths so page cache state is comparable
+        locationDao.getLocationsInBounds(CHILD_ID, boxes[0][0], boxes[0][1], boxes[0][2], boxes[0][3]).blockingGet();
+        locationDao.getLocationsInBoundsIndexed(CHILD_ID, boxes[0][0], boxes[0][1], boxes[0][2], boxes[0][3])
+                .blockingGet();
+
+        int[] scanCounts = new int[QUERIES];
+        long start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            scanCounts[i] = locationDao.getLocationsInBounds(CHILD_ID,
+                    boxes[i][0], boxes[i][1], boxes[i][2], boxes[i][3]).blockingGet().size();
+        }
+        double scanMillis = (System.nanoTime() - start) / 1e6 / QUERIES;
+
+        start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            int count = locationDao.getLocationsInBoundsIndexed(CHILD_ID,
+                    boxes[i][0], boxes[i][1], boxes[i][2], boxes[i][3]).blockingGet().size();
+            assertEquals(scanCounts[i], count);
+        }
+        double indexedMillis = (System.nanoTime() - start) / 1e6 / QUERIES;
+
+        Log.i(TAG, String.format("%d rows: BETWEEN scan %.2f ms/query, R*Tree %.2f ms/query (%.1fx)",
+                ROWS, scanMillis, indexedMillis, scanMillis / indexedMillis));
+    }
+
+    @Test
+    public void indexedQueryIsPlannedThroughRtree() {
+        double minLat = BASE_LAT;
+        double minLng = BASE_LNG;
+        double maxLat = minLat + BOX;
+        double maxLng = minLng + BOX;
+        List<String> plan = new ArrayList<>();
+        try (Cursor cursor = database.query("EXPLAIN QUERY PLAN " + LocationDao.IN_BOUNDS_INDEXED_SQL,
+                new Object[]{maxLat, minLat, maxLng, minLng, CHILD_ID, minLat, maxLat, minLng, maxLng})) {
+            while (cursor.moveToNext()) {
+                plan.add(cursor.getString(cursor.getColumnIndexOrThrow("detail")));
+            }
+        }
+        Log.i(TAG, "Indexed bounds query plan: " + plan);
+
+        // rtree's xBestIndex reports idxNum 2 with one constraint code per bound; a full scan has none
+        boolean rtreeSearch = false;
+        boolean rowidLookup = false;
+        for (String step : plan) {
+            rtreeSearch |= step.matches(".*VIRTUAL TABLE INDEX 2:[A-F]\\d.*");
+            rowidLookup |= step.startsWith("SEARCH") && step.contains("rowid=?");
+        }
+        assertTrue(plan.toString(), rtreeSearch);
+        assertTrue(plan.toString(), rowidLookup);
+    }
+}
@@ -5,6 +5,8 @@ import com.curionext.mobile.core.di.AppComponent;
 import com.curionext.mobile.core.di.DaggerAppComponent;
 import com.curionext.mobile.core.di.AppModule;
 
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
 public class CurioNextApplication extends Application {
     private AppComponent appComponent;
 
@@ -15,9 +17,42 @@ public class CurioNextApplication extends Application {
         appComponent = DaggerAppComponent.builder()
                 .appModule(new AppModule(this))
                 .build();
+
+        installCrashFlush();
+
+        // Resumes batches left in the outbox by a previous process
+        appComponent.locationUploadOutbox().start();
+
+        // Housekeeping: expired geocodes, then roll old location history into coarser tiers
+        appComponent.addressRepository().pruneCache()
+                .onErrorComplete()
+                .andThen(appComponent.locationRollupEngine().run())
+                .subscribeOn(Schedulers.io())
+                .onErrorComplete()
+                .subscribe();
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+
+        // App went to the background: persist buffered location rows before we can be killed
+        if (level >= TRIM_MEMORY_UI_HIDDEN) {
+            appComponent.locationWriteBuffer().flushInBackground();
+        }
     }
 
     public AppComponent getAppComponent() {
         return appComponent;
     }
+
+    private void installCrashFlush() {
+        Thread.UncaughtExceptionHandler defaultHandler = Thread.getDefaultUncaughtExceptionHandler();
+        Thread.setDefaultUncaughtExceptionHandler((thread, throwable) -> {
+            appComponent.locationWriteBuffer().flushNow();
+            if (defaultHandler != null) {
+                defaultHandler.uncaughtException(thread, throwable);
+            }
+        });
+    }
 }
@@ -0,0 +1,153 @@
+package com.curionext.mobile.core.data.local;
+
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.room.RoomDatabase;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps child_stats in step with notifications, preferences and interests.
+ * Each source table gets an insert, update and delete trigger that adds or
+ * subtracts the row's contribution to its child's counters, so badge and
+ * summary reads are a primary-key lookup instead of COUNT/AVG over the child's
+ * rows. Relies on recursive_triggers for REPLACE writes, like
+ * SpatialIndexCallback. If the triggers are missing when the database opens,
+ * the table is rebuilt from the source rows.
+ */
+public class ChildStatsCallback extends RoomDatabase.Callback {
+
+    static final String TABLE = "child_stats";
+    private static final String ROW = "ROW.";
+
+    // Counter columns and the contribution of one source row; ROW. is replaced by NEW., OLD. or nothing
+    private static final Source[] SOURCES = {
+            new Source("notifications", "is_read", "priority")
+                    .counter("notification_count", "1")
+                    .counter("unread_count", "ROW.is_read = 0")
+                    .counter("urgent_unread_count", "ROW.is_read = 0 AND ROW.priority IS 'urgent'"),
+            new Source("preferences", "sentiment", "confidence")
+                    .counter("preference_count", "1")
+                    .counter("likes_count", "ROW.sentiment > 0.1")
+                    .counter("dislikes_count", "ROW.sentiment < -0.1")
+                    .counter("sentiment_sum", "ROW.sentiment")
+                    .counter("confidence_sum", "ROW.confidence"),
+            new Source("interests", "interest_level")
+                    .counter("interest_count", "1")
+                    .counter("interest_level_sum", "ROW.interest_level")
+    };
+
+    @Override
+    public void onOpen(@NonNull SupportSQLiteDatabase db) {
+        db.execSQL("PRAGMA recursive_triggers = ON");
+        List<String> triggers = createTriggerStatements();
+        boolean complete = triggerCount(db) == triggers.size();
+
+        db.beginTransaction();
+        try {
+            for (String sql : triggers) {
+                db.execSQL(sql);
+            }
+            if (!complete) {
+                for (String sql : rebuildStatements()) {
+                    db.execSQL(sql);
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    static List<String> createTriggerStatements() {
+        List<String> statements = new ArrayList<>();
+        for (Source source : SOURCES) {
+            String prefix = "CREATE TRIGGER IF NOT EXISTS " + TABLE + "_" + source.table;
+            statements.add(prefix + "_insert AFTER INSERT ON " + source.table + " BEGIN "
+                    + source.apply("NEW", "+") + " END");
+            statements.add(prefix + "_delete AFTER DELETE ON " + source.table + " BEGIN "
+                    + source.apply("OLD", "-") + " END");
+            statements.add(prefix + "_update AFTER UPDATE OF child_id, " + String.join(", ", source.watched)
+                    + " ON " + source.table + " BEGIN "
+                    + source.apply("OLD", "-") + " " + source.apply("NEW", "+") + " END");
+        }
+        return statements;
+    }
+
+    // Recomputes every child's counters from the source tables
+    static List<String> rebuildStatements() {
+        List<String> columns = new ArrayList<>();
+        for (Source source : SOURCES) {
+            columns.addAll(source.counters.keySet());
+        }
+
+        List<String> selects = new ArrayList<>();
+        for (Source source : SOURCES) {
+            List<String> values = new ArrayList<>();
+            for (String column : columns) {
+                String value = source.counters.get(column);
+                values.add((value == null ? "0" : "SUM(" + value.replace(ROW, "") + ")") + " AS " + column);
+            }
+            selects.add("SELECT child_id, " + String.join(", ", values) + " FROM " + source.table
+                    + " WHERE child_id IS NOT NULL GROUP BY child_id");
+        }
+
+        List<String> totals = new ArrayList<>();
+        for (String column : columns) {
+            totals.add("SUM(" + column + ")");
+        }
+
+        List<String> statements = new ArrayList<>();
+        statements.add("DELETE FROM " + TABLE);
+        statements.add("INSERT INTO " + TABLE + " (child_id, " + String.join(", ", columns) + ")"
+                + " SELECT child_id, " + String.join(", ", totals)
+                + " FROM (" + String.join(" UNION ALL ", selects) + ") GROUP BY child_id");
+        return statements;
+    }
+
+    private static int triggerCount(SupportSQLiteDatabase db) {
+        try (Cursor cursor = db.query("SELECT COUNT(*) FROM sqlite_master WHERE type = 'trigger' AND name GLOB ?",
+                new Object[]{TABLE + "_*"})) {
+            return cursor.moveToFirst() ? cursor.getInt(0) : 0;
+        }
+    }
+
+    private static final class Source {
+        final String table;
+        final String[] watched;
+        final Map<String, String> counters = new LinkedHashMap<>();
+
+        Source(String table, String... watched) {
+            this.table = table;
+            this.watched = watched;
+        }
+
+        Source counter(String column, String value) {
+            counters.put(column, value);
+            return this;
+        }
+
+        // Adds (+) or removes (-) the NEW or OLD row's contribution; a NULL child_id matches no stats row.
+        // The stats row is created with NOT EXISTS rather than INSERT OR IGNORE: a trigger's conflict clause
+        // is overridden by the outer statement's, so a REPLACE write would reset the row to zero.
+        String apply(String row, String sign) {
+            List<String> sets = new ArrayList<>();
+            for (Map.Entry<String, String> counter : counters.entrySet()) {
+                sets.add(counter.getKey() + " = " + counter.getKey() + " " + sign + " ("
+                        + counter.getValue().replace(ROW, row + ".") + ")");
+            }
+            String update = "UPDATE " + TABLE + " SET " + String.join(", ", sets)
+                    + " WHERE child_id = " + row + ".child_id;";
+            return "+".equals(sign)
+                    ? "INSERT INTO " + TABLE + " (child_id) SELECT " + row + ".child_id WHERE " + row
+                    + ".child_id IS NOT NULL AND NOT EXISTS (SELECT 1 FROM " + TABLE + " WHERE child_id = "
+                    + row + ".child_id); " + update
+                    : update;
+        }
+    }
+}
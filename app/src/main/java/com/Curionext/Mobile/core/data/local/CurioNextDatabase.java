@@ -4,18 +4,38 @@ import androidx.room.Database;
 import androidx.room.RoomDatabase;
 import androidx.room.TypeConverters;
 
+import com.curionext.mobile.core.data.local.dao.CacheMetadataDao;
 import com.curionext.mobile.core.data.local.dao.ChildDao;
+import com.curionext.mobile.core.data.local.dao.ChildStatsDao;
+import com.curionext.mobile.core.data.local.dao.GeocodeCacheDao;
 import com.curionext.mobile.core.data.local.dao.InterestDao;
+import com.curionext.mobile.core.data.local.dao.KeywordDao;
 import com.curionext.mobile.core.data.local.dao.LocationDao;
+import com.curionext.mobile.core.data.local.dao.LocationOutboxDao;
+import com.curionext.mobile.core.data.local.dao.LocationRollupDao;
 import com.curionext.mobile.core.data.local.dao.NotificationDao;
 import com.curionext.mobile.core.data.local.dao.PreferenceDao;
 import com.curionext.mobile.core.data.local.dao.SafeZoneDao;
+import com.curionext.mobile.core.data.local.dao.StayPointDao;
+import com.curionext.mobile.core.data.local.dao.TripDao;
+import com.curionext.mobile.core.data.local.entity.CacheMetadataEntity;
 import com.curionext.mobile.core.data.local.entity.ChildEntity;
+import com.curionext.mobile.core.data.local.entity.ChildStatsEntity;
+import com.curionext.mobile.core.data.local.entity.GeocodeCacheEntity;
 import com.curionext.mobile.core.data.local.entity.InterestEntity;
+import com.curionext.mobile.core.data.local.entity.InterestFtsEntity;
+import com.curionext.mobile.core.data.local.entity.InterestKeywordEntity;
+import com.curionext.mobile.core.data.local.entity.KeywordEntity;
 import com.curionext.mobile.core.data.local.entity.LocationEntity;
+import com.curionext.mobile.core.data.local.entity.LocationOutboxEntity;
+import com.curionext.mobile.core.data.local.entity.LocationRollupEntity;
 import com.curionext.mobile.core.data.local.entity.NotificationEntity;
 import com.curionext.mobile.core.data.local.entity.PreferenceEntity;
+import com.curionext.mobile.core.data.local.entity.PreferenceKeywordEntity;
+import com.curionext.mobile.core.data.local.entity.PreferenceFtsEntity;
 import com.curionext.mobile.core.data.local.entity.SafeZoneEntity;
+import com.curionext.mobile.core.data.local.entity.StayPointEntity;
+import com.curionext.mobile.core.data.local.entity.TripEntity;
 import com.curionext.mobile.core.data.local.converter.DateConverter;
 
 @Database(
@@ -25,10 +45,22 @@ import com.curionext.mobile.core.data.local.converter.DateConverter;
                 LocationEntity.class,
                 NotificationEntity.class,
                 PreferenceEntity.class,
-                SafeZoneEntity.class
+                SafeZoneEntity.class,
+                LocationOutboxEntity.class,
+                GeocodeCacheEntity.class,
+                LocationRollupEntity.class,
+                StayPointEntity.class,
+                TripEntity.class,
+                CacheMetadataEntity.class,
+                InterestFtsEntity.class,
+                PreferenceFtsEntity.class,
+                ChildStatsEntity.class,
+                KeywordEntity.class,
+                PreferenceKeywordEntity.class,
+                InterestKeywordEntity.class
         },
-        version = 1,
-        exportSchema = false
+        version = 14,
+        exportSchema = true
 )
 @TypeConverters({DateConverter.class})
 public abstract class CurioNextDatabase extends RoomDatabase {
@@ -38,4 +70,12 @@ public abstract class CurioNextDatabase extends RoomDatabase {
     public abstract NotificationDao notificationDao();
     public abstract PreferenceDao preferenceDao();
     public abstract SafeZoneDao safeZoneDao();
+    public abstract LocationOutboxDao locationOutboxDao();
+    public abstract GeocodeCacheDao geocodeCacheDao();
+    public abstract LocationRollupDao locationRollupDao();
+    public abstract StayPointDao stayPointDao();
+    public abstract TripDao tripDao();
+    public abstract CacheMetadataDao cacheMetadataDao();
+    public abstract ChildStatsDao childStatsDao();
+    public abstract KeywordDao keywordDao();
 }
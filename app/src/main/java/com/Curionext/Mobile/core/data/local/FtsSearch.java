@@ -0,0 +1,91 @@
+package com.curionext.mobile.core.data.local;
+
+import androidx.annotation.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Query building and ranking for the interests_fts and preferences_fts
+ * tables. User input becomes a MATCH expression of prefix terms, so results
+ * show up while the last word is still being typed. FTS4 has no built-in
+ * ranking; search queries select matchinfo(fts, 'pcx') and rows are scored
+ * by which columns matched each term, weighted topic over keywords over
+ * category, plus a smaller boost from the row's own interest level or
+ * confidence.
+ */
+public final class FtsSearch {
+
+    private static final int MAX_TERMS = 8;
+    // Indexed column order shared by both FTS tables: topic, category, keywords
+    private static final double[] COLUMN_WEIGHTS = {3.0, 1.0, 2.0};
+    // Relevances of one query differ by at least the smallest column weight over the total weight of
+    // MAX_TERMS phrases (1/48); half of that orders equally good matches but never beats a better one
+    private static final double BOOST_WEIGHT = 1.0 / (2 * MAX_TERMS * Arrays.stream(COLUMN_WEIGHTS).sum());
+
+    private FtsSearch() {
+        throw new UnsupportedOperationException("FtsSearch class cannot be instantiated");
+    }
+
+    /**
+     * MATCH expression requiring every word of the input as a prefix, or null when there is nothing to search
+     */
+    @Nullable
+    public static String matchQuery(String input) {
+        if (input == null) {
+            return null;
+        }
+        StringBuilder match = new StringBuilder();
+        int terms = 0;
+        // Only letters and digits survive, so user input can never form FTS operators or syntax
+        for (String word : input.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            if (match.length() > 0) {
+                match.append(' ');
+            }
+            match.append(word).append('*');
+            if (++terms == MAX_TERMS) {
+                break;
+            }
+        }
+        return terms == 0 ? null : match.toString();
+    }
+
+    /**
+     * 0 to 1: the weighted share of (term, column) pairs that matched, from matchinfo 'pcx'
+     */
+    public static double relevance(byte[] matchInfo) {
+        if (matchInfo == null || matchInfo.length < 8) {
+            return 0;
+        }
+        IntBuffer info = ByteBuffer.wrap(matchInfo).order(ByteOrder.nativeOrder()).asIntBuffer();
+        int phrases = info.get(0);
+        int columns = info.get(1);
+
+        double matched = 0;
+        double possible = 0;
+        for (int phrase = 0; phrase < phrases; phrase++) {
+            for (int column = 0; column < columns; column++) {
+                double weight = column < COLUMN_WEIGHTS.length ? COLUMN_WEIGHTS[column] : 1.0;
+                // x triples are {hits in this row, hits in all rows, rows with hits}
+                if (info.get(2 + 3 * (phrase * columns + column)) > 0) {
+                    matched += weight;
+                }
+                possible += weight;
+            }
+        }
+        return possible == 0 ? 0 : matched / possible;
+    }
+
+    /**
+     * Ranking score; boost is the row's interest level or confidence scaled to 0..1
+     */
+    public static double score(byte[] matchInfo, double boost) {
+        return relevance(matchInfo) + BOOST_WEIGHT * Math.max(0, Math.min(1, boost));
+    }
+}
@@ -0,0 +1,157 @@
+package com.curionext.mobile.core.data.local;
+
+import com.curionext.mobile.core.data.local.dao.KeywordDao;
+import com.curionext.mobile.core.data.local.entity.InterestEntity;
+import com.curionext.mobile.core.data.local.entity.InterestKeywordEntity;
+import com.curionext.mobile.core.data.local.entity.KeywordEntity;
+import com.curionext.mobile.core.data.local.entity.PreferenceEntity;
+import com.curionext.mobile.core.data.local.entity.PreferenceKeywordEntity;
+import com.curionext.mobile.core.data.mapper.KeywordCodec;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import io.reactivex.rxjava3.core.Completable;
+
+/**
+ * Keeps the keywords dictionary and the preference_keywords/interest_keywords
+ * links in step with the keywords columns. Triggers cannot do it: the column
+ * holds an encoded array and SQLite does not allow the recursive CTE needed to
+ * split it inside a trigger. Instead every write of whole preference or
+ * interest rows is followed by indexPreferences/indexInterests for the same
+ * rows, inside the same transaction; the DAOs only offer list writers, and
+ * PreferenceRepository/InterestRepository are their only callers. Column
+ * updates (sentiment, level, trend, frequency) leave keywords alone. Deleting
+ * a row drops its links through the foreign key, and so does the delete half
+ * of an INSERT OR REPLACE.
+ */
+public final class KeywordIndex {
+
+    private KeywordIndex() {
+        throw new UnsupportedOperationException("KeywordIndex class cannot be instantiated");
+    }
+
+    /**
+     * Dictionary form of a keyword: trimmed and lower-cased; null if nothing is left
+     */
+    public static String normalize(String keyword) {
+        if (keyword == null) {
+            return null;
+        }
+        String normalized = keyword.trim().toLowerCase(Locale.ROOT);
+        return normalized.isEmpty() ? null : normalized;
+    }
+
+    /**
+     * Replace the links of the given preferences with the keywords they hold now
+     */
+    public static Completable indexPreferences(KeywordDao dao, List<PreferenceEntity> preferences) {
+        return Completable.fromAction(() -> {
+            List<String> ids = new ArrayList<>(preferences.size());
+            for (PreferenceEntity preference : preferences) {
+                ids.add(preference.getId());
+            }
+            for (int start = 0; start < ids.size(); start += SyncWriter.MAX_IDS_PER_STATEMENT) {
+                int end = Math.min(ids.size(), start + SyncWriter.MAX_IDS_PER_STATEMENT);
+                dao.deletePreferenceLinks(ids.subList(start, end)).blockingAwait();
+            }
+
+            Map<PreferenceEntity, Set<String>> keywords = new LinkedHashMap<>();
+            for (PreferenceEntity preference : preferences) {
+                if (preference.getChildId() != null) {
+                    keywords.put(preference, keywordsOf(preference.getKeywords()));
+                }
+            }
+            Map<String, Long> keywordIds = keywordIds(dao, keywords.values());
+
+            List<PreferenceKeywordEntity> links = new ArrayList<>();
+            for (Map.Entry<PreferenceEntity, Set<String>> entry : keywords.entrySet()) {
+                PreferenceEntity preference = entry.getKey();
+                for (String keyword : entry.getValue()) {
+                    links.add(new PreferenceKeywordEntity(preference.getChildId(), keywordIds.get(keyword),
+                            preference.getId()));
+                }
+            }
+            if (!links.isEmpty()) {
+                dao.insertPreferenceLinks(links).blockingAwait();
+            }
+        });
+    }
+
+    /**
+     * Replace the links of the given interests with the keywords they hold now
+     */
+    public static Completable indexInterests(KeywordDao dao, List<InterestEntity> interests) {
+        return Completable.fromAction(() -> {
+            List<String> ids = new ArrayList<>(interests.size());
+            for (InterestEntity interest : interests) {
+                ids.add(interest.getId());
+            }
+            for (int start = 0; start < ids.size(); start += SyncWriter.MAX_IDS_PER_STATEMENT) {
+                int end = Math.min(ids.size(), start + SyncWriter.MAX_IDS_PER_STATEMENT);
+                dao.deleteInterestLinks(ids.subList(start, end)).blockingAwait();
+            }
+
+            Map<InterestEntity, Set<String>> keywords = new LinkedHashMap<>();
+            for (InterestEntity interest : interests) {
+                if (interest.getChildId() != null) {
+                    keywords.put(interest, keywordsOf(interest.getKeywords()));
+                }
+            }
+            Map<String, Long> keywordIds = keywordIds(dao, keywords.values());
+
+            List<InterestKeywordEntity> links = new ArrayList<>();
+            for (Map.Entry<InterestEntity, Set<String>> entry : keywords.entrySet()) {
+                InterestEntity interest = entry.getKey();
+                for (String keyword : entry.getValue()) {
+                    links.add(new InterestKeywordEntity(interest.getChildId(), keywordIds.get(keyword),
+                            interest.getId()));
+                }
+            }
+            if (!links.isEmpty()) {
+                dao.insertInterestLinks(links).blockingAwait();
+            }
+        });
+    }
+
+    // Distinct normalized keywords of one stored column
+    private static Set<String> keywordsOf(String stored) {
+        Set<String> keywords = new LinkedHashSet<>();
+        for (String keyword : KeywordCodec.decode(stored)) {
+            String normalized = normalize(keyword);
+            if (normalized != null) {
+                keywords.add(normalized);
+            }
+        }
+        return keywords;
+    }
+
+    // Dictionary ids of all the keywords, adding the ones not seen before
+    private static Map<String, Long> keywordIds(KeywordDao dao, Iterable<Set<String>> rows) {
+        Set<String> distinct = new LinkedHashSet<>();
+        for (Set<String> keywords : rows) {
+            distinct.addAll(keywords);
+        }
+        List<String> all = new ArrayList<>(distinct);
+        Map<String, Long> ids = new HashMap<>();
+        for (int start = 0; start < all.size(); start += SyncWriter.MAX_IDS_PER_STATEMENT) {
+            int end = Math.min(all.size(), start + SyncWriter.MAX_IDS_PER_STATEMENT);
+            List<String> batch = all.subList(start, end);
+            List<KeywordEntity> entries = new ArrayList<>(batch.size());
+            for (String keyword : batch) {
+                entries.add(new KeywordEntity(keyword));
+            }
+            dao.insertKeywords(entries).blockingGet();
+            for (KeywordEntity entry : dao.getKeywords(batch).blockingGet()) {
+                ids.put(entry.getKeyword(), entry.getId());
+            }
+        }
+        return ids;
+    }
+}
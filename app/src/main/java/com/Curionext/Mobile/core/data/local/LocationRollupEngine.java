@@ -0,0 +1,220 @@
+package com.curionext.mobile.core.data.local;
+
+import com.curionext.mobile.core.data.local.dao.LocationDao;
+import com.curionext.mobile.core.data.local.dao.LocationRollupDao;
+import com.curionext.mobile.core.data.local.entity.LocationEntity;
+import com.curionext.mobile.core.data.local.entity.LocationRollupEntity;
+import com.curionext.mobile.core.util.Constants;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import io.reactivex.rxjava3.core.Completable;
+
+/**
+ * Tiered retention for location history.
+ * Raw fixes older than LOCATION_RAW_RETENTION are collapsed into per-minute
+ * rollups, minute rollups older than LOCATION_MINUTE_RETENTION into per-hour
+ * rollups, and hour rollups older than LOCATION_HOUR_RETENTION are deleted.
+ * Work is done in transactions of at most LOCATION_ROLLUP_BATCH_SIZE source
+ * rows so writers are never blocked for long; a bucket split across batches
+ * is merged into the existing rollup row, so the run can stop and resume anywhere.
+ */
+@Singleton
+public class LocationRollupEngine {
+
+    private final CurioNextDatabase database;
+    private final LocationDao locationDao;
+    private final LocationRollupDao rollupDao;
+
+    @Inject
+    public LocationRollupEngine(CurioNextDatabase database, LocationDao locationDao, LocationRollupDao rollupDao) {
+        this.database = database;
+        this.locationDao = locationDao;
+        this.rollupDao = rollupDao;
+    }
+
+    /**
+     * Bring every tier up to date; safe to run repeatedly, does nothing when there is no old data
+     */
+    public Completable run() {
+        return Completable.fromAction(() -> {
+            long now = System.currentTimeMillis();
+            Date rawCutoff = alignedCutoff(now - Constants.LOCATION_RAW_RETENTION, LocationRollupEntity.BUCKET_MINUTE);
+            Date minuteCutoff = alignedCutoff(now - Constants.LOCATION_MINUTE_RETENTION, LocationRollupEntity.BUCKET_HOUR);
+
+            // Each batch commits on its own; a short batch means the tier is done
+            int processed;
+            do {
+                processed = rollupRawBatch(rawCutoff);
+            } while (processed == Constants.LOCATION_ROLLUP_BATCH_SIZE);
+            do {
+                processed = rollupMinuteBatch(minuteCutoff);
+            } while (processed == Constants.LOCATION_ROLLUP_BATCH_SIZE);
+            rollupDao.deleteRollupsBefore(LocationRollupEntity.BUCKET_HOUR,
+                    new Date(now - Constants.LOCATION_HOUR_RETENTION)).blockingAwait();
+        });
+    }
+
+    private int rollupRawBatch(Date cutoff) {
+        return database.runInTransaction(() -> {
+            List<LocationEntity> rows =
+                    locationDao.getLocationsBefore(cutoff, Constants.LOCATION_ROLLUP_BATCH_SIZE).blockingGet();
+            if (rows.isEmpty()) {
+                return 0;
+            }
+
+            List<LocationRollupEntity> samples = new ArrayList<>(rows.size());
+            List<String> ids = new ArrayList<>(rows.size());
+            for (LocationEntity row : rows) {
+                samples.add(toSample(row));
+                ids.add(row.getId());
+            }
+
+            store(aggregate(samples, LocationRollupEntity.BUCKET_MINUTE));
+            locationDao.deleteLocationsByIds(ids).blockingAwait();
+            return rows.size();
+        });
+    }
+
+    private int rollupMinuteBatch(Date cutoff) {
+        return database.runInTransaction(() -> {
+            List<LocationRollupEntity> rows = rollupDao.getRollupsBefore(LocationRollupEntity.BUCKET_MINUTE, cutoff,
+                    Constants.LOCATION_ROLLUP_BATCH_SIZE).blockingGet();
+            if (rows.isEmpty()) {
+                return 0;
+            }
+
+            List<Long> ids = new ArrayList<>(rows.size());
+            for (LocationRollupEntity row : rows) {
+                ids.add(row.getId());
+            }
+
+            rollupDao.deleteRollupsByIds(ids).blockingAwait();
+            store(aggregate(rows, LocationRollupEntity.BUCKET_HOUR));
+            return rows.size();
+        });
+    }
+
+    // Merge with rollups already stored for the same bucket, then write
+    private void store(List<LocationRollupEntity> rollups) {
+        for (LocationRollupEntity rollup : rollups) {
+            LocationRollupEntity existing = rollupDao.getRollup(rollup.getChildId(), rollup.getBucketSize(),
+                    rollup.getBucketStart()).blockingGet();
+            if (existing != null) {
+                merge(existing, rollup);
+            }
+        }
+        rollupDao.insertRollups(rollups).blockingAwait();
+    }
+
+    /**
+     * Group samples (raw fixes as single-sample rows, or finer rollups) into
+     * buckets of bucketSize per child. Centroids are weighted by sample count;
+     * the zone is the one most samples were in.
+     */
+    static List<LocationRollupEntity> aggregate(List<LocationRollupEntity> samples, long bucketSize) {
+        Map<String, Accumulator> buckets = new LinkedHashMap<>();
+        for (LocationRollupEntity sample : samples) {
+            long start = Math.floorDiv(sample.getBucketStart().getTime(), bucketSize) * bucketSize;
+            String key = sample.getChildId() + '|' + start;
+            Accumulator accumulator = buckets.get(key);
+            if (accumulator == null) {
+                accumulator = new Accumulator(sample.getChildId(), start);
+                buckets.put(key, accumulator);
+            }
+            accumulator.add(sample);
+        }
+
+        List<LocationRollupEntity> rollups = new ArrayList<>(buckets.size());
+        for (Accumulator accumulator : buckets.values()) {
+            rollups.add(accumulator.toRollup(bucketSize));
+        }
+        return rollups;
+    }
+
+    /**
+     * Fold an existing row for the same bucket into rollup, keeping the existing
+     * row id. Zone fields come from whichever side has more samples.
+     */
+    static void merge(LocationRollupEntity existing, LocationRollupEntity rollup) {
+        int count = existing.getSampleCount() + rollup.getSampleCount();
+        rollup.setLatitude((existing.getLatitude() * existing.getSampleCount()
+                + rollup.getLatitude() * rollup.getSampleCount()) / count);
+        rollup.setLongitude((existing.getLongitude() * existing.getSampleCount()
+                + rollup.getLongitude() * rollup.getSampleCount()) / count);
+        rollup.setMaxSpeed(Math.max(existing.getMaxSpeed(), rollup.getMaxSpeed()));
+        if (existing.getSampleCount() > rollup.getSampleCount()) {
+            rollup.setInSafeZone(existing.isInSafeZone());
+            rollup.setSafeZoneName(existing.getSafeZoneName());
+        }
+        rollup.setSampleCount(count);
+        rollup.setId(existing.getId());
+    }
+
+    /**
+     * A raw fix as a single-sample rollup row (bucket size BUCKET_RAW)
+     */
+    public static LocationRollupEntity toSample(LocationEntity location) {
+        return new LocationRollupEntity(location.getChildId(), LocationRollupEntity.BUCKET_RAW,
+                location.getTimestamp(), location.getLatitude(), location.getLongitude(), location.getSpeed(),
+                location.isInSafeZone(), location.isInSafeZone() ? location.getSafeZoneName() : null, 1);
+    }
+
+    private static Date alignedCutoff(long time, long bucketSize) {
+        return new Date(Math.floorDiv(time, bucketSize) * bucketSize);
+    }
+
+    private static class Accumulator {
+        final String childId;
+        final long start;
+        double latitudeSum;
+        double longitudeSum;
+        float maxSpeed;
+        int count;
+        int insideCount;
+        final Map<String, Integer> zoneCounts = new HashMap<>();
+
+        Accumulator(String childId, long start) {
+            this.childId = childId;
+            this.start = start;
+        }
+
+        void add(LocationRollupEntity sample) {
+            int weight = sample.getSampleCount();
+            latitudeSum += sample.getLatitude() * weight;
+            longitudeSum += sample.getLongitude() * weight;
+            maxSpeed = Math.max(maxSpeed, sample.getMaxSpeed());
+            count += weight;
+            if (sample.isInSafeZone()) {
+                insideCount += weight;
+                if (sample.getSafeZoneName() != null) {
+                    zoneCounts.merge(sample.getSafeZoneName(), weight, Integer::sum);
+                }
+            }
+        }
+
+        LocationRollupEntity toRollup(long bucketSize) {
+            boolean inside = insideCount * 2 > count;
+            String zone = null;
+            if (inside) {
+                int best = 0;
+                for (Map.Entry<String, Integer> entry : zoneCounts.entrySet()) {
+                    if (entry.getValue() > best) {
+                        best = entry.getValue();
+                        zone = entry.getKey();
+                    }
+                }
+            }
+            return new LocationRollupEntity(childId, bucketSize, new Date(start),
+                    latitudeSum / count, longitudeSum / count, maxSpeed, inside, zone, count);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.curionext.mobile.core.data.local;
+
+import android.database.sqlite.SQLiteConstraintException;
+import android.util.Log;
+
+import com.curionext.mobile.core.data.local.dao.LocationDao;
+import com.curionext.mobile.core.data.local.entity.LocationEntity;
+import com.curionext.mobile.core.util.Constants;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * Write-behind buffer for location rows.
+ * Fixes are collected in memory and written with a single insertLocations
+ * call (one transaction) once LOCATION_WRITE_BATCH_SIZE rows are pending or
+ * the oldest pending row is LOCATION_WRITE_MAX_DELAY old. A batch that fails
+ * transiently goes back in front of the queue, at most LOCATION_WRITE_MAX_ATTEMPTS
+ * times; a batch rejected by a constraint is retried row by row so only the
+ * offending rows are dropped. The buffer is also drained when the app goes to
+ * the background and, synchronously, from the uncaught exception handler.
+ */
+@Singleton
+public class LocationWriteBuffer {
+
+    private static final String TAG = "LocationWriteBuffer";
+
+    private final LocationDao locationDao;
+    private final Scheduler scheduler;
+    private final int batchSize;
+    private final long maxDelayMillis;
+
+    private final Object lock = new Object();
+    private List<LocationEntity> pending = new ArrayList<>();
+    private Disposable scheduledFlush;
+    private int failedAttempts;
+
+    @Inject
+    public LocationWriteBuffer(LocationDao locationDao) {
+        this(locationDao, Schedulers.io(), Constants.LOCATION_WRITE_BATCH_SIZE, Constants.LOCATION_WRITE_MAX_DELAY);
+    }
+
+    public LocationWriteBuffer(LocationDao locationDao, Scheduler scheduler, int batchSize, long maxDelayMillis) {
+        this.locationDao = locationDao;
+        this.scheduler = scheduler;
+        this.batchSize = batchSize;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    /**
+     * Queue a row; triggers an asynchronous flush when the size threshold is hit
+     * and arms the age timer for the first row of a new batch
+     */
+    public void enqueue(LocationEntity location) {
+        boolean sizeReached = false;
+        synchronized (lock) {
+            pending.add(location);
+            if (pending.size() >= batchSize) {
+                sizeReached = true;
+            } else {
+                armTimer();
+            }
+        }
+
+        if (sizeReached) {
+            flushInBackground();
+        }
+    }
+
+    /**
+     * Write everything pending in one transaction. On a transient failure the
+     * batch is re-queued ahead of newer rows so nothing is reordered; a constraint
+     * violation falls back to row-by-row inserts.
+     */
+    public Completable flush() {
+        return Completable.defer(() -> {
+            List<LocationEntity> batch = drain();
+            if (batch.isEmpty()) {
+                return Completable.complete();
+            }
+            return locationDao.insertLocations(batch)
+                    .onErrorResumeNext(throwable -> isConstraintViolation(throwable)
+                            ? insertRowByRow(batch)
+                            : Completable.error(throwable))
+                    .doOnComplete(this::resetAttempts)
+                    .doOnError(throwable -> retryOrDrop(batch, throwable));
+        });
+    }
+
+    /**
+     * Fire-and-forget flush on the write scheduler, e.g. when the app is backgrounded
+     */
+    public void flushInBackground() {
+        flush().subscribeOn(scheduler)
+                .subscribe(() -> {}, throwable -> Log.e(TAG, "Location batch flush failed", throwable));
+    }
+
+    /**
+     * Blocking flush for uncaught exception handlers; safe to call from the main thread
+     */
+    public void flushNow() {
+        try {
+            flush().subscribeOn(scheduler).blockingAwait();
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Forced flush failed", e);
+        }
+    }
+
+    public int getPendingCount() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    // Must be called holding lock
+    private void armTimer() {
+        if (scheduledFlush == null) {
+            scheduledFlush = Completable.timer(maxDelayMillis, TimeUnit.MILLISECONDS, scheduler)
+                    .subscribe(() -> {
+                        synchronized (lock) {
+                            scheduledFlush = null;
+                        }
+                        flushInBackground();
+                    });
+        }
+    }
+
+    private List<LocationEntity> drain() {
+        synchronized (lock) {
+            if (scheduledFlush != null) {
+                scheduledFlush.dispose();
+                scheduledFlush = null;
+            }
+            List<LocationEntity> batch = pending;
+            pending = new ArrayList<>();
+            return batch;
+        }
+    }
+
+    // Rows that still violate a constraint on their own (e.g. no children row) can never be written
+    private Completable insertRowByRow(List<LocationEntity> batch) {
+        return Completable.fromAction(() -> {
+            for (int i = 0; i < batch.size(); i++) {
+                LocationEntity location = batch.get(i);
+                try {
+                    locationDao.insertLocations(Collections.singletonList(location)).blockingAwait();
+                } catch (RuntimeException e) {
+                    if (!isConstraintViolation(e)) {
+                        // Only the rows not written yet are retried
+                        batch.subList(0, i).clear();
+                        throw e;
+                    }
+                    Log.w(TAG, "Dropping location " + location.getId() + " of " + location.getChildId(), e);
+                }
+            }
+        });
+    }
+
+    private void retryOrDrop(List<LocationEntity> batch, Throwable throwable) {
+        synchronized (lock) {
+            if (++failedAttempts >= Constants.LOCATION_WRITE_MAX_ATTEMPTS) {
+                Log.e(TAG, "Dropping " + batch.size() + " locations after " + failedAttempts + " failed flushes",
+                        throwable);
+                failedAttempts = 0;
+                return;
+            }
+            batch.addAll(pending);
+            pending = batch;
+            armTimer();
+        }
+    }
+
+    private void resetAttempts() {
+        synchronized (lock) {
+            failedAttempts = 0;
+        }
+    }
+
+    private static boolean isConstraintViolation(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLiteConstraintException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,203 @@
+package com.curionext.mobile.core.data.local;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Schema upgrades from version 1 on. locations, location_outbox, stay_points,
+ * trips and location_rollups exist only on the device (the outbox holds fixes
+ * not uploaded yet), so every step keeps their rows. Interests and preferences
+ * are copies of server data: when their stored format changes they are
+ * emptied and their cache entries dropped, so the next read refetches them.
+ * Objects Room does not declare (R*Tree indexes, child_stats triggers) are
+ * created by their callbacks when the database opens.
+ */
+public final class Migrations {
+
+    private static final String[] CLEAR_INTERESTS_AND_PREFERENCES = {
+            "DELETE FROM `interests`",
+            "DELETE FROM `preferences`",
+            "DELETE FROM `cache_metadata` WHERE `cache_key` GLOB 'interests/*' OR `cache_key` GLOB 'preferences/*'"
+    };
+
+    // STEPS[i] takes the schema from version i + 1 to i + 2
+    static final String[][] STEPS = {
+            // 1 -> 2: upload outbox
+            {
+                    "CREATE TABLE IF NOT EXISTS `location_outbox` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL,"
+                            + " `child_id` TEXT, `payload` TEXT, `created_at` INTEGER, `batch_id` TEXT,"
+                            + " `attempts` INTEGER NOT NULL, `next_attempt_at` INTEGER)",
+                    "CREATE INDEX IF NOT EXISTS `index_location_outbox_child_id` ON `location_outbox` (`child_id`)",
+                    "CREATE INDEX IF NOT EXISTS `index_location_outbox_batch_id` ON `location_outbox` (`batch_id`)"
+            },
+            // 2 -> 3: reverse geocoding cache
+            {
+                    "CREATE TABLE IF NOT EXISTS `geocode_cache` (`cell_key` TEXT NOT NULL, `address` TEXT,"
+                            + " `resolved_at` INTEGER, PRIMARY KEY(`cell_key`))"
+            },
+            // 3 -> 4: minute and hour rollups
+            {
+                    "CREATE TABLE IF NOT EXISTS `location_rollups` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL,"
+                            + " `child_id` TEXT, `bucket_size` INTEGER NOT NULL, `bucket_start` INTEGER,"
+                            + " `latitude` REAL NOT NULL, `longitude` REAL NOT NULL, `max_speed` REAL NOT NULL,"
+                            + " `is_in_safe_zone` INTEGER NOT NULL, `safe_zone_name` TEXT, `sample_count` INTEGER NOT NULL)",
+                    "CREATE UNIQUE INDEX IF NOT EXISTS `index_location_rollups_child_id_bucket_size_bucket_start`"
+                            + " ON `location_rollups` (`child_id`, `bucket_size`, `bucket_start`)"
+            },
+            // 4 -> 5: stay points
+            {
+                    "CREATE TABLE IF NOT EXISTS `stay_points` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL,"
+                            + " `child_id` TEXT, `latitude` REAL NOT NULL, `longitude` REAL NOT NULL, `arrival` INTEGER,"
+                            + " `departure` INTEGER, `sample_count` INTEGER NOT NULL, `safe_zone_id` TEXT,"
+                            + " `safe_zone_name` TEXT, FOREIGN KEY(`child_id`) REFERENCES `children`(`child_id`)"
+                            + " ON UPDATE NO ACTION ON DELETE CASCADE )",
+                    "CREATE INDEX IF NOT EXISTS `index_stay_points_child_id_arrival` ON `stay_points` (`child_id`, `arrival`)",
+                    "CREATE INDEX IF NOT EXISTS `index_stay_points_safe_zone_id` ON `stay_points` (`safe_zone_id`)"
+            },
+            // 5 -> 6: trips
+            {
+                    "CREATE TABLE IF NOT EXISTS `trips` (`id` TEXT NOT NULL, `child_id` TEXT, `start_time` INTEGER,"
+                            + " `end_time` INTEGER, `start_latitude` REAL NOT NULL, `start_longitude` REAL NOT NULL,"
+                            + " `end_latitude` REAL NOT NULL, `end_longitude` REAL NOT NULL, `distance` REAL NOT NULL,"
+                            + " `max_speed` REAL NOT NULL, `average_speed` REAL NOT NULL, `point_count` INTEGER NOT NULL,"
+                            + " `start_zone_name` TEXT, `end_zone_name` TEXT, `is_open` INTEGER NOT NULL,"
+                            + " PRIMARY KEY(`id`), FOREIGN KEY(`child_id`) REFERENCES `children`(`child_id`)"
+                            + " ON UPDATE NO ACTION ON DELETE CASCADE )",
+                    "CREATE INDEX IF NOT EXISTS `index_trips_child_id_start_time` ON `trips` (`child_id`, `start_time`)"
+            },
+            // 6 -> 7: offline cache bookkeeping
+            {
+                    "CREATE TABLE IF NOT EXISTS `cache_metadata` (`cache_key` TEXT NOT NULL, `fetched_at` INTEGER,"
+                            + " PRIMARY KEY(`cache_key`))"
+            },
+            // 7 -> 8: keyset pagination
+            {
+                    "CREATE INDEX IF NOT EXISTS `index_locations_child_id_timestamp_id`"
+                            + " ON `locations` (`child_id`, `timestamp`, `id`)",
+                    "CREATE INDEX IF NOT EXISTS `index_notifications_child_id_timestamp_id`"
+                            + " ON `notifications` (`child_id`, `timestamp`, `id`)"
+            },
+            // 8 -> 9: composite indices replace single-column ones
+            {
+                    "DROP INDEX IF EXISTS `index_interests_child_id`",
+                    "DROP INDEX IF EXISTS `index_locations_child_id`",
+                    "DROP INDEX IF EXISTS `index_notifications_child_id`",
+                    "DROP INDEX IF EXISTS `index_notifications_is_read`",
+                    "DROP INDEX IF EXISTS `index_notifications_timestamp`",
+                    "DROP INDEX IF EXISTS `index_preferences_child_id`",
+                    "DROP INDEX IF EXISTS `index_preferences_sentiment`",
+                    "CREATE INDEX IF NOT EXISTS `index_children_parent_id_is_active` ON `children` (`parent_id`, `is_active`)",
+                    "CREATE INDEX IF NOT EXISTS `index_children_device_id` ON `children` (`device_id`)",
+                    "CREATE INDEX IF NOT EXISTS `index_interests_child_id_interest_level`"
+                            + " ON `interests` (`child_id`, `interest_level`)",
+                    "CREATE INDEX IF NOT EXISTS `index_interests_child_id_category_interest_level`"
+                            + " ON `interests` (`child_id`, `category`, `interest_level`)",
+                    "CREATE INDEX IF NOT EXISTS `index_interests_child_id_last_explored`"
+                            + " ON `interests` (`child_id`, `last_explored`)",
+                    "CREATE INDEX IF NOT EXISTS `index_notifications_child_id_is_read` ON `notifications` (`child_id`, `is_read`)",
+                    "CREATE INDEX IF NOT EXISTS `index_notifications_child_id_type` ON `notifications` (`child_id`, `type`)",
+                    "CREATE INDEX IF NOT EXISTS `index_notifications_child_id_category` ON `notifications` (`child_id`, `category`)",
+                    "CREATE INDEX IF NOT EXISTS `index_notifications_expires_at` ON `notifications` (`expires_at`)",
+                    "CREATE INDEX IF NOT EXISTS `index_preferences_child_id_confidence` ON `preferences` (`child_id`, `confidence`)",
+                    "CREATE INDEX IF NOT EXISTS `index_preferences_child_id_sentiment` ON `preferences` (`child_id`, `sentiment`)",
+                    "CREATE INDEX IF NOT EXISTS `index_preferences_child_id_category_confidence`"
+                            + " ON `preferences` (`child_id`, `category`, `confidence`)",
+                    "CREATE INDEX IF NOT EXISTS `index_preferences_child_id_last_updated`"
+                            + " ON `preferences` (`child_id`, `last_updated`)"
+            },
+            // 9 -> 10: full-text search over the stored rows
+            concat(fts("interests_fts", "interests"), fts("preferences_fts", "preferences")),
+            // 10 -> 11: badge counters; ChildStatsCallback adds the triggers and fills the table on open
+            {
+                    "CREATE TABLE IF NOT EXISTS `child_stats` (`child_id` TEXT NOT NULL,"
+                            + " `notification_count` INTEGER NOT NULL DEFAULT 0, `unread_count` INTEGER NOT NULL DEFAULT 0,"
+                            + " `urgent_unread_count` INTEGER NOT NULL DEFAULT 0, `preference_count` INTEGER NOT NULL DEFAULT 0,"
+                            + " `likes_count` INTEGER NOT NULL DEFAULT 0, `dislikes_count` INTEGER NOT NULL DEFAULT 0,"
+                            + " `sentiment_sum` REAL NOT NULL DEFAULT 0, `confidence_sum` REAL NOT NULL DEFAULT 0,"
+                            + " `interest_count` INTEGER NOT NULL DEFAULT 0, `interest_level_sum` REAL NOT NULL DEFAULT 0,"
+                            + " PRIMARY KEY(`child_id`))"
+            },
+            // 11 -> 12: content hashes; 0 never matches, so the next sync rewrites each row once
+            {
+                    "ALTER TABLE `interests` ADD COLUMN `content_hash` INTEGER NOT NULL DEFAULT 0",
+                    "ALTER TABLE `notifications` ADD COLUMN `content_hash` INTEGER NOT NULL DEFAULT 0",
+                    "ALTER TABLE `preferences` ADD COLUMN `content_hash` INTEGER NOT NULL DEFAULT 0",
+                    "ALTER TABLE `safe_zones` ADD COLUMN `content_hash` INTEGER NOT NULL DEFAULT 0"
+            },
+            // 12 -> 13: keywords switch from JSON arrays to KeywordCodec's format
+            CLEAR_INTERESTS_AND_PREFERENCES,
+            // 13 -> 14: keyword link tables, filled as the cleared rows are fetched again
+            concat(new String[]{
+                    "CREATE TABLE IF NOT EXISTS `keywords` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL,"
+                            + " `keyword` TEXT NOT NULL)",
+                    "CREATE UNIQUE INDEX IF NOT EXISTS `index_keywords_keyword` ON `keywords` (`keyword`)",
+                    "CREATE TABLE IF NOT EXISTS `preference_keywords` (`child_id` TEXT NOT NULL,"
+                            + " `keyword_id` INTEGER NOT NULL, `preference_id` TEXT NOT NULL,"
+                            + " PRIMARY KEY(`child_id`, `keyword_id`, `preference_id`), FOREIGN KEY(`preference_id`)"
+                            + " REFERENCES `preferences`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )",
+                    "CREATE INDEX IF NOT EXISTS `index_preference_keywords_preference_id`"
+                            + " ON `preference_keywords` (`preference_id`)",
+                    "CREATE TABLE IF NOT EXISTS `interest_keywords` (`child_id` TEXT NOT NULL,"
+                            + " `keyword_id` INTEGER NOT NULL, `interest_id` TEXT NOT NULL,"
+                            + " PRIMARY KEY(`child_id`, `keyword_id`, `interest_id`), FOREIGN KEY(`interest_id`)"
+                            + " REFERENCES `interests`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )",
+                    "CREATE INDEX IF NOT EXISTS `index_interest_keywords_interest_id` ON `interest_keywords` (`interest_id`)"
+            }, CLEAR_INTERESTS_AND_PREFERENCES)
+    };
+
+    private Migrations() {
+        throw new UnsupportedOperationException("Migrations class cannot be instantiated");
+    }
+
+    /**
+     * One Migration per step, for RoomDatabase.Builder.addMigrations
+     */
+    public static Migration[] all() {
+        Migration[] migrations = new Migration[STEPS.length];
+        for (int i = 0; i < STEPS.length; i++) {
+            String[] statements = STEPS[i];
+            migrations[i] = new Migration(i + 1, i + 2) {
+                @Override
+                public void migrate(@NonNull SupportSQLiteDatabase database) {
+                    for (String sql : statements) {
+                        database.execSQL(sql);
+                    }
+                }
+            };
+        }
+        return migrations;
+    }
+
+    // The FTS4 table Room declares for an @Fts4(contentEntity) entity, its sync triggers and the initial fill
+    private static String[] fts(String table, String content) {
+        String columns = "`docid`, `topic`, `category`, `keywords`";
+        String values = "NEW.`rowid`, NEW.`topic`, NEW.`category`, NEW.`keywords`";
+        String trigger = "CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_" + table + "_";
+        return new String[]{
+                "CREATE VIRTUAL TABLE IF NOT EXISTS `" + table + "` USING FTS4(`topic` TEXT, `category` TEXT,"
+                        + " `keywords` TEXT, tokenize=unicode61, content=`" + content + "`)",
+                trigger + "BEFORE_UPDATE BEFORE UPDATE ON `" + content + "` BEGIN DELETE FROM `" + table
+                        + "` WHERE `docid`=OLD.`rowid`; END",
+                trigger + "BEFORE_DELETE BEFORE DELETE ON `" + content + "` BEGIN DELETE FROM `" + table
+                        + "` WHERE `docid`=OLD.`rowid`; END",
+                trigger + "AFTER_UPDATE AFTER UPDATE ON `" + content + "` BEGIN INSERT INTO `" + table + "`("
+                        + columns + ") VALUES (" + values + "); END",
+                trigger + "AFTER_INSERT AFTER INSERT ON `" + content + "` BEGIN INSERT INTO `" + table + "`("
+                        + columns + ") VALUES (" + values + "); END",
+                "INSERT INTO `" + table + "`(`" + table + "`) VALUES('rebuild')"
+        };
+    }
+
+    private static String[] concat(String[]... parts) {
+        List<String> statements = new ArrayList<>();
+        for (String[] part : parts) {
+            statements.addAll(Arrays.asList(part));
+        }
+        return statements.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,49 @@
+package com.curionext.mobile.core.data.local;
+
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteQuery;
+
+import java.util.List;
+
+/**
+ * "First N rows of each child" for several children as one statement: a
+ * UNION ALL of one SELECT per child, each walking that child's (child_id,
+ * order column) index and stopping at its own LIMIT. A single IN query cannot
+ * express this, as its LIMIT caps the total rather than each child, and
+ * window functions need SQLite 3.25, which API 24 does not ship. Rows come
+ * back grouped by child in the order of childIds.
+ */
+public final class PerChildQuery {
+
+    private PerChildQuery() {
+        throw new UnsupportedOperationException("PerChildQuery class cannot be instantiated");
+    }
+
+    /**
+     * @param table   table with a child_id column
+     * @param orderBy ORDER BY terms within each child, e.g. "interest_level DESC"
+     * @param limit   rows per child
+     */
+    public static SupportSQLiteQuery firstRows(String table, String orderBy, List<String> childIds, int limit) {
+        Object[] args = new Object[childIds.size() * 2];
+        for (int i = 0; i < childIds.size(); i++) {
+            args[i * 2] = childIds.get(i);
+            args[i * 2 + 1] = limit;
+        }
+        return new SimpleSQLiteQuery(sql(table, orderBy, childIds.size()), args);
+    }
+
+    // One (child id, limit) argument pair per child; a parent has a handful of children,
+    // far below SQLite's 500 terms per compound SELECT
+    static String sql(String table, String orderBy, int children) {
+        StringBuilder sql = new StringBuilder();
+        for (int i = 0; i < children; i++) {
+            if (i > 0) {
+                sql.append(" UNION ALL ");
+            }
+            sql.append("SELECT * FROM (SELECT * FROM ").append(table)
+                    .append(" WHERE child_id = ? ORDER BY ").append(orderBy).append(" LIMIT ?)");
+        }
+        return sql.toString();
+    }
+}
@@ -0,0 +1,101 @@
+package com.curionext.mobile.core.data.local;
+
+import android.database.Cursor;
+import android.database.SQLException;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.room.RoomDatabase;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * Maintains R*Tree shadow indexes for the locations and safe_zones tables.
+ * Room cannot declare virtual tables, so they are created here together with
+ * triggers that mirror every insert/update/delete by rowid. recursive_triggers
+ * is turned on so rows replaced through OnConflictStrategy.REPLACE also fire
+ * the delete trigger. R*Tree boxes are stored as 32-bit floats, so queries
+ * joining through them must re-check the exact coordinates on the base row.
+ * If SQLite was built without the rtree module the index is simply absent and
+ * the *Indexed DAO methods fall back to a table scan. The base tables have
+ * no INTEGER PRIMARY KEY, so VACUUM may renumber their rowids; on open an
+ * index whose count, largest id or id total differs from its table is
+ * rebuilt. VACUUM renumbers from 1 in rowid order, so a renumbering that
+ * leaves the count and id total unchanged moved no row.
+ */
+public class SpatialIndexCallback extends RoomDatabase.Callback {
+
+    private static final String TAG = "SpatialIndexCallback";
+
+    public static final String LOCATIONS_RTREE = "locations_rtree";
+    public static final String SAFE_ZONES_RTREE = "safe_zones_rtree";
+
+    @Override
+    public void onOpen(@NonNull SupportSQLiteDatabase db) {
+        db.execSQL("PRAGMA recursive_triggers = ON");
+        try {
+            createIndex(db, LOCATIONS_RTREE, "locations");
+            createIndex(db, SAFE_ZONES_RTREE, "safe_zones");
+        } catch (SQLException e) {
+            Log.w(TAG, "R*Tree unavailable, spatial queries will scan", e);
+        }
+    }
+
+    @Override
+    public void onDestructiveMigration(@NonNull SupportSQLiteDatabase db) {
+        // Room only drops its own tables; the shadow indexes would keep stale rowids
+        db.execSQL("DROP TABLE IF EXISTS " + LOCATIONS_RTREE);
+        db.execSQL("DROP TABLE IF EXISTS " + SAFE_ZONES_RTREE);
+    }
+
+    private static void createIndex(SupportSQLiteDatabase db, String index, String table) {
+        boolean exists = tableExists(db, index);
+
+        db.beginTransaction();
+        try {
+            db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS " + index
+                    + " USING rtree(id, min_lat, max_lat, min_lng, max_lng)");
+
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS " + index + "_insert AFTER INSERT ON " + table + " BEGIN"
+                    + " INSERT OR REPLACE INTO " + index + " VALUES"
+                    + " (NEW.rowid, NEW.latitude, NEW.latitude, NEW.longitude, NEW.longitude); END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS " + index + "_update AFTER UPDATE OF latitude, longitude ON "
+                    + table + " BEGIN"
+                    + " UPDATE " + index + " SET min_lat = NEW.latitude, max_lat = NEW.latitude,"
+                    + " min_lng = NEW.longitude, max_lng = NEW.longitude WHERE id = NEW.rowid; END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS " + index + "_delete AFTER DELETE ON " + table + " BEGIN"
+                    + " DELETE FROM " + index + " WHERE id = OLD.rowid; END");
+
+            if (exists && !inSync(db, index, table)) {
+                Log.w(TAG, index + " out of step with " + table + ", rebuilding");
+                db.execSQL("DELETE FROM " + index);
+                exists = false;
+            }
+            if (!exists) {
+                // Rows written before the index existed, or renumbered since
+                db.execSQL("INSERT INTO " + index
+                        + " SELECT rowid, latitude, latitude, longitude, longitude FROM " + table);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private static boolean inSync(SupportSQLiteDatabase db, String index, String table) {
+        try (Cursor indexed = db.query("SELECT COUNT(*), MAX(id), TOTAL(id) FROM " + index);
+             Cursor rows = db.query("SELECT COUNT(*), MAX(rowid), TOTAL(rowid) FROM " + table)) {
+            indexed.moveToFirst();
+            rows.moveToFirst();
+            return indexed.getLong(0) == rows.getLong(0)
+                    && indexed.getLong(1) == rows.getLong(1)
+                    && indexed.getDouble(2) == rows.getDouble(2);
+        }
+    }
+
+    private static boolean tableExists(SupportSQLiteDatabase db, String name) {
+        try (Cursor cursor = db.query("SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = ?",
+                new Object[]{name})) {
+            return cursor.moveToFirst();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.curionext.mobile.core.data.local;
+
+import com.curionext.mobile.core.data.local.entity.RowVersion;
+import com.curionext.mobile.core.data.local.entity.SyncableEntity;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Single;
+
+/**
+ * Brings a child's stored rows in line with the list the server returned.
+ * Stored (id, content_hash) pairs are compared with the incoming entities:
+ * unknown ids are inserted, rows whose hash differs are updated in place and
+ * stored ids missing from the list are deleted. Unchanged rows are not written
+ * at all, so an identical resync issues no statements, fires no triggers and
+ * leaves Room's observers alone. Updates are plain UPDATEs rather than a
+ * REPLACE, which would delete and re-insert the row, cascading to its
+ * dependants. Must run inside the caller's transaction; the DAO calls block.
+ */
+public final class SyncWriter {
+
+    // Ids bound in one IN (...) list; SQLite before 3.32 allows 999 bound variables per statement
+    static final int MAX_IDS_PER_STATEMENT = 500;
+
+    private SyncWriter() {
+        throw new UnsupportedOperationException("SyncWriter class cannot be instantiated");
+    }
+
+    /**
+     * @param fresh  entities built from the server response, content hash set; a repeated id keeps the last one
+     * @param stored versions of the rows the response replaces
+     * @param insert writes rows not stored yet
+     * @param update rewrites changed rows by primary key
+     * @param delete removes rows by id
+     */
+    public static <E extends SyncableEntity> Result sync(List<E> fresh,
+                                                         Single<List<RowVersion>> stored,
+                                                         Function<List<E>, Completable> insert,
+                                                         Function<List<E>, Completable> update,
+                                                         Function<List<String>, Completable> delete) {
+        Map<String, E> incoming = new LinkedHashMap<>();
+        for (E entity : fresh) {
+            incoming.put(entity.getId(), entity);
+        }
+
+        Map<String, Long> versions = new HashMap<>();
+        for (RowVersion version : stored.blockingGet()) {
+            versions.put(version.getId(), version.getContentHash());
+        }
+
+        List<E> inserted = new ArrayList<>();
+        List<E> updated = new ArrayList<>();
+        for (E entity : incoming.values()) {
+            Long hash = versions.remove(entity.getId());
+            if (hash == null) {
+                inserted.add(entity);
+            } else if (hash != entity.getContentHash()) {
+                updated.add(entity);
+            }
+        }
+        // Whatever is left in versions is no longer on the server
+        Collection<String> vanished = versions.keySet();
+
+        if (!vanished.isEmpty()) {
+            List<String> ids = new ArrayList<>(vanished);
+            for (int start = 0; start < ids.size(); start += MAX_IDS_PER_STATEMENT) {
+                delete.apply(ids.subList(start, Math.min(ids.size(), start + MAX_IDS_PER_STATEMENT))).blockingAwait();
+            }
+        }
+        if (!updated.isEmpty()) {
+            update.apply(updated).blockingAwait();
+        }
+        if (!inserted.isEmpty()) {
+            insert.apply(inserted).blockingAwait();
+        }
+
+        return new Result(inserted.size(), updated.size(), vanished.size(),
+                incoming.size() - inserted.size() - updated.size());
+    }
+
+    /**
+     * Rows written by one sync
+     */
+    public static final class Result {
+        private final int inserted;
+        private final int updated;
+        private final int deleted;
+        private final int unchanged;
+
+        Result(int inserted, int updated, int deleted, int unchanged) {
+            this.inserted = inserted;
+            this.updated = updated;
+            this.deleted = deleted;
+            this.unchanged = unchanged;
+        }
+
+        public int getInserted() { return inserted; }
+        public int getUpdated() { return updated; }
+        public int getDeleted() { return deleted; }
+        public int getUnchanged() { return unchanged; }
+
+        public int getTouched() {
+            return inserted + updated + deleted;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d inserted, %d updated, %d deleted, %d unchanged",
+                    inserted, updated, deleted, unchanged);
+        }
+    }
+}
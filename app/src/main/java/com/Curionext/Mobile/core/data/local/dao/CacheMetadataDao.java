@@ -0,0 +1,36 @@
+package com.curionext.mobile.core.data.local.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import com.curionext.mobile.core.data.local.entity.CacheMetadataEntity;
+
+import java.util.List;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Single;
+
+@Dao
+public interface CacheMetadataDao {
+
+    @Query("SELECT * FROM cache_metadata WHERE cache_key = :cacheKey")
+    Maybe<CacheMetadataEntity> getEntry(String cacheKey);
+
+    @Query("SELECT * FROM cache_metadata WHERE cache_key IN (:cacheKeys)")
+    Single<List<CacheMetadataEntity>> getEntries(List<String> cacheKeys);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    Completable insertEntry(CacheMetadataEntity entry);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    Completable insertEntries(List<CacheMetadataEntity> entries);
+
+    @Query("DELETE FROM cache_metadata WHERE cache_key = :cacheKey")
+    Completable deleteEntry(String cacheKey);
+
+    @Query("DELETE FROM cache_metadata")
+    Completable deleteAllEntries();
+}
@@ -35,6 +35,10 @@ public interface ChildDao {
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     Completable insertChildren(List<ChildEntity> children);
 
+    // REPLACE would delete the row and cascade to every table keyed by child_id
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    Completable insertChildIfAbsent(ChildEntity child);
+
     @Update
     Completable updateChild(ChildEntity child);
 
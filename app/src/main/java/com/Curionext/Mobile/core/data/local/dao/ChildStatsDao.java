@@ -0,0 +1,30 @@
+package com.curionext.mobile.core.data.local.dao;
+
+import androidx.room.Dao;
+import androidx.room.Query;
+
+import com.curionext.mobile.core.data.local.entity.ChildStatsEntity;
+
+import java.util.List;
+
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Single;
+
+/**
+ * Read-only: child_stats is maintained by the triggers of ChildStatsCallback
+ */
+@Dao
+public interface ChildStatsDao {
+
+    @Query("SELECT * FROM child_stats WHERE child_id = :childId")
+    Maybe<ChildStatsEntity> getStats(String childId);
+
+    // Empty until the child has a notification, preference or interest
+    @Query("SELECT * FROM child_stats WHERE child_id = :childId")
+    Flowable<List<ChildStatsEntity>> observeStats(String childId);
+
+    // Children without a row yet are missing from the result
+    @Query("SELECT * FROM child_stats WHERE child_id IN (:childIds)")
+    Single<List<ChildStatsEntity>> getStatsByChildren(List<String> childIds);
+}
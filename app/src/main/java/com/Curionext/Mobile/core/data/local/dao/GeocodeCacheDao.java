@@ -0,0 +1,29 @@
+package com.curionext.mobile.core.data.local.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import com.curionext.mobile.core.data.local.entity.GeocodeCacheEntity;
+
+import java.util.Date;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Maybe;
+
+@Dao
+public interface GeocodeCacheDao {
+
+    @Query("SELECT * FROM geocode_cache WHERE cell_key = :cellKey")
+    Maybe<GeocodeCacheEntity> getEntry(String cellKey);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    Completable insertEntry(GeocodeCacheEntity entry);
+
+    @Query("DELETE FROM geocode_cache WHERE resolved_at < :beforeDate")
+    Completable deleteEntriesOlderThan(Date beforeDate);
+
+    @Query("DELETE FROM geocode_cache")
+    Completable deleteAllEntries();
+}
@@ -4,16 +4,22 @@ import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.RawQuery;
 import androidx.room.Update;
 import androidx.room.Delete;
+import androidx.sqlite.db.SupportSQLiteQuery;
 
+import com.curionext.mobile.core.data.local.PerChildQuery;
 import com.curionext.mobile.core.data.local.entity.InterestEntity;
+import com.curionext.mobile.core.data.local.entity.RowVersion;
+import com.curionext.mobile.core.data.local.entity.InterestSearchResult;
 
 import java.util.List;
 import java.util.Date;
 
 import io.reactivex.rxjava3.core.Single;
 import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
 
 @Dao
 public interface InterestDao {
@@ -21,9 +27,26 @@ public interface InterestDao {
     @Query("SELECT * FROM interests WHERE child_id = :childId ORDER BY interest_level DESC")
     Single<List<InterestEntity>> getInterestsByChild(String childId);
 
+    // Re-emits whenever the interests table changes
+    @Query("SELECT * FROM interests WHERE child_id = :childId ORDER BY interest_level DESC")
+    Flowable<List<InterestEntity>> observeInterestsByChild(String childId);
+
     @Query("SELECT * FROM interests WHERE child_id = :childId ORDER BY interest_level DESC LIMIT :limit")
     Single<List<InterestEntity>> getTopInterestsByChild(String childId, int limit);
 
+    @Query("SELECT * FROM interests WHERE child_id = :childId ORDER BY interest_level DESC LIMIT :limit")
+    Flowable<List<InterestEntity>> observeTopInterestsByChild(String childId, int limit);
+
+    @RawQuery
+    Single<List<InterestEntity>> queryInterests(SupportSQLiteQuery query);
+
+    /**
+     * getTopInterestsByChild for several children in one statement, grouped by child in the order given
+     */
+    default Single<List<InterestEntity>> getTopInterestsByChildren(List<String> childIds, int limit) {
+        return queryInterests(PerChildQuery.firstRows("interests", "interest_level DESC", childIds, limit));
+    }
+
     @Query("SELECT * FROM interests WHERE child_id = :childId AND category = :category ORDER BY interest_level DESC")
     Single<List<InterestEntity>> getInterestsByChildAndCategory(String childId, String category);
 
@@ -42,14 +65,15 @@ public interface InterestDao {
     @Query("SELECT * FROM interests WHERE id = :interestId")
     Single<InterestEntity> getInterestById(String interestId);
 
-    @Insert(onConflict = OnConflictStrategy.REPLACE)
-    Completable insertInterest(InterestEntity interest);
+    @Query("SELECT id, content_hash FROM interests WHERE child_id = :childId")
+    Single<List<RowVersion>> getInterestVersions(String childId);
 
+    // Whole-row writes change keywords: callers follow them with KeywordIndex.indexInterests in the same transaction
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     Completable insertInterests(List<InterestEntity> interests);
 
     @Update
-    Completable updateInterest(InterestEntity interest);
+    Completable updateInterests(List<InterestEntity> interests);
 
     @Delete
     Completable deleteInterest(InterestEntity interest);
@@ -57,6 +81,9 @@ public interface InterestDao {
     @Query("DELETE FROM interests WHERE id = :interestId")
     Completable deleteInterestById(String interestId);
 
+    @Query("DELETE FROM interests WHERE id IN (:ids)")
+    Completable deleteInterestsByIds(List<String> ids);
+
     @Query("DELETE FROM interests WHERE child_id = :childId")
     Completable deleteAllInterestsByChild(String childId);
 
@@ -72,12 +99,10 @@ public interface InterestDao {
     @Query("UPDATE interests SET trend_direction = :trendDirection WHERE id = :interestId")
     Completable updateInterestTrend(String interestId, String trendDirection);
 
-    @Query("SELECT COUNT(*) FROM interests WHERE child_id = :childId")
-    Single<Integer> getInterestCount(String childId);
-
-    @Query("SELECT AVG(interest_level) FROM interests WHERE child_id = :childId")
-    Single<Double> getAverageInterestLevel(String childId);
-
-    @Query("SELECT * FROM interests WHERE child_id = :childId AND topic LIKE '%' || :searchTerm || '%' ORDER BY interest_level DESC")
-    Single<List<InterestEntity>> searchInterestsByTopic(String childId, String searchTerm);
+    // Full-text match on topic, category and keywords; build :match with FtsSearch.matchQuery and rank with
+    // FtsSearch.score. CROSS JOIN keeps the FTS index as the outer loop instead of probing it per child row.
+    @Query("SELECT interests.*, matchinfo(interests_fts, 'pcx') AS match_info FROM interests_fts"
+            + " CROSS JOIN interests ON interests.rowid = interests_fts.rowid"
+            + " WHERE interests_fts MATCH :match AND interests.child_id = :childId")
+    Single<List<InterestSearchResult>> searchInterests(String childId, String match);
 }
\ No newline at end of file
@@ -0,0 +1,67 @@
+package com.curionext.mobile.core.data.local.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import com.curionext.mobile.core.data.local.entity.InterestEntity;
+import com.curionext.mobile.core.data.local.entity.InterestKeywordEntity;
+import com.curionext.mobile.core.data.local.entity.KeywordCount;
+import com.curionext.mobile.core.data.local.entity.KeywordEntity;
+import com.curionext.mobile.core.data.local.entity.PreferenceEntity;
+import com.curionext.mobile.core.data.local.entity.PreferenceKeywordEntity;
+
+import java.util.List;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Single;
+
+/**
+ * Keyword dictionary and the preference/interest links KeywordIndex maintains.
+ * Lookups take a keyword normalized with KeywordIndex.normalize.
+ */
+@Dao
+public interface KeywordDao {
+
+    @Query("SELECT preferences.* FROM keywords"
+            + " JOIN preference_keywords ON preference_keywords.child_id = :childId"
+            + " AND preference_keywords.keyword_id = keywords.id"
+            + " JOIN preferences ON preferences.id = preference_keywords.preference_id"
+            + " WHERE keywords.keyword = :keyword")
+    Single<List<PreferenceEntity>> getPreferencesByKeyword(String childId, String keyword);
+
+    @Query("SELECT interests.* FROM keywords"
+            + " JOIN interest_keywords ON interest_keywords.child_id = :childId"
+            + " AND interest_keywords.keyword_id = keywords.id"
+            + " JOIN interests ON interests.id = interest_keywords.interest_id"
+            + " WHERE keywords.keyword = :keyword")
+    Single<List<InterestEntity>> getInterestsByKeyword(String childId, String keyword);
+
+    // Preferences and interests together, most used keyword first
+    @Query("SELECT keywords.keyword AS keyword, COUNT(*) AS count FROM"
+            + " (SELECT keyword_id FROM preference_keywords WHERE child_id = :childId"
+            + " UNION ALL SELECT keyword_id FROM interest_keywords WHERE child_id = :childId) AS links"
+            + " JOIN keywords ON keywords.id = links.keyword_id"
+            + " GROUP BY links.keyword_id ORDER BY count DESC, keywords.keyword LIMIT :limit")
+    Single<List<KeywordCount>> getKeywordCounts(String childId, int limit);
+
+    @Query("SELECT * FROM keywords WHERE keyword IN (:keywords)")
+    Single<List<KeywordEntity>> getKeywords(List<String> keywords);
+
+    // Known keywords are skipped and come back as -1
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    Single<List<Long>> insertKeywords(List<KeywordEntity> keywords);
+
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    Completable insertPreferenceLinks(List<PreferenceKeywordEntity> links);
+
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    Completable insertInterestLinks(List<InterestKeywordEntity> links);
+
+    @Query("DELETE FROM preference_keywords WHERE preference_id IN (:preferenceIds)")
+    Completable deletePreferenceLinks(List<String> preferenceIds);
+
+    @Query("DELETE FROM interest_keywords WHERE interest_id IN (:interestIds)")
+    Completable deleteInterestLinks(List<String> interestIds);
+}
@@ -4,9 +4,13 @@ import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.RawQuery;
 import androidx.room.Update;
 import androidx.room.Delete;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteQuery;
 
+import com.curionext.mobile.core.data.local.SpatialIndexCallback;
 import com.curionext.mobile.core.data.local.entity.LocationEntity;
 
 import java.util.List;
@@ -21,6 +25,13 @@ public interface LocationDao {
     @Query("SELECT * FROM locations WHERE child_id = :childId ORDER BY timestamp DESC")
     Single<List<LocationEntity>> getLocationsByChild(String childId);
 
+    // Keyset pages, newest first; "timestamp <= :beforeTimestamp" lets the (child_id, timestamp, id) index seek
+    @Query("SELECT * FROM locations WHERE child_id = :childId ORDER BY timestamp DESC, id DESC LIMIT :limit")
+    Single<List<LocationEntity>> getLocationsPage(String childId, int limit);
+
+    @Query("SELECT * FROM locations WHERE child_id = :childId AND timestamp <= :beforeTimestamp AND (timestamp < :beforeTimestamp OR id < :beforeId) ORDER BY timestamp DESC, id DESC LIMIT :limit")
+    Single<List<LocationEntity>> getLocationsPageBefore(String childId, Date beforeTimestamp, String beforeId, int limit);
+
     @Query("SELECT * FROM locations WHERE child_id = :childId ORDER BY timestamp DESC LIMIT 1")
     Single<LocationEntity> getLatestLocationByChild(String childId);
 
@@ -63,6 +74,12 @@ public interface LocationDao {
     @Query("DELETE FROM locations WHERE timestamp < :beforeDate")
     Completable deleteOldLocations(Date beforeDate);
 
+    @Query("SELECT * FROM locations WHERE timestamp < :beforeDate ORDER BY timestamp LIMIT :limit")
+    Single<List<LocationEntity>> getLocationsBefore(Date beforeDate, int limit);
+
+    @Query("DELETE FROM locations WHERE id IN (:locationIds)")
+    Completable deleteLocationsByIds(List<String> locationIds);
+
     @Query("DELETE FROM locations")
     Completable deleteAllLocations();
 
@@ -87,6 +104,31 @@ public interface LocationDao {
     @Query("SELECT * FROM locations WHERE child_id = :childId AND latitude BETWEEN :minLat AND :maxLat AND longitude BETWEEN :minLng AND :maxLng ORDER BY timestamp DESC")
     Single<List<LocationEntity>> getLocationsInBounds(String childId, double minLat, double maxLat, double minLng, double maxLng);
 
+    @RawQuery
+    Single<List<LocationEntity>> queryLocations(SupportSQLiteQuery query);
+
+    // Bound as (maxLat, minLat, maxLng, minLng, childId, minLat, maxLat, minLng, maxLng)
+    String IN_BOUNDS_INDEXED_SQL = "SELECT l.* FROM " + SpatialIndexCallback.LOCATIONS_RTREE + " r"
+            + " JOIN locations l ON l.rowid = r.id"
+            + " WHERE r.min_lat <= ? AND r.max_lat >= ? AND r.min_lng <= ? AND r.max_lng >= ?"
+            + " AND l.child_id = ? AND l.latitude BETWEEN ? AND ? AND l.longitude BETWEEN ? AND ?"
+            + " ORDER BY l.timestamp DESC";
+
+    /**
+     * Same result as getLocationsInBounds, but candidates come from the R*Tree
+     * (see SpatialIndexCallback) instead of scanning every row of the child
+     */
+    default Single<List<LocationEntity>> getLocationsInBoundsIndexed(String childId, double minLat, double maxLat,
+                                                                     double minLng, double maxLng) {
+        SimpleSQLiteQuery query = new SimpleSQLiteQuery(IN_BOUNDS_INDEXED_SQL,
+                new Object[]{maxLat, minLat, maxLng, minLng, childId, minLat, maxLat, minLng, maxLng});
+        return queryLocations(query)
+                .onErrorResumeWith(getLocationsInBounds(childId, minLat, maxLat, minLng, maxLng));
+    }
+
     @Query("UPDATE locations SET is_in_safe_zone = :inSafeZone, safe_zone_name = :safeZoneName WHERE id = :locationId")
     Completable updateSafeZoneStatus(String locationId, boolean inSafeZone, String safeZoneName);
+
+    @Query("UPDATE locations SET address = :address WHERE id = :locationId")
+    Completable updateAddress(String locationId, String address);
 }
\ No newline at end of file
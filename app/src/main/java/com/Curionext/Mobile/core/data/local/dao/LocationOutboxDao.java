@@ -0,0 +1,47 @@
+package com.curionext.mobile.core.data.local.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+
+import com.curionext.mobile.core.data.local.entity.LocationOutboxEntity;
+
+import java.util.List;
+import java.util.Date;
+
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.core.Completable;
+
+@Dao
+public interface LocationOutboxDao {
+
+    @Insert
+    Completable insertEntry(LocationOutboxEntity entry);
+
+    @Query("SELECT DISTINCT child_id FROM location_outbox WHERE batch_id IS NULL")
+    Single<List<String>> getChildrenWithUnbatchedEntries();
+
+    @Query("SELECT * FROM location_outbox WHERE child_id = :childId AND batch_id IS NULL ORDER BY id LIMIT :limit")
+    Single<List<LocationOutboxEntity>> getUnbatchedEntries(String childId, int limit);
+
+    @Query("SELECT DISTINCT batch_id FROM location_outbox WHERE batch_id IS NOT NULL AND (next_attempt_at IS NULL OR next_attempt_at <= :now)")
+    Single<List<String>> getDueBatchIds(Date now);
+
+    @Query("SELECT * FROM location_outbox WHERE batch_id = :batchId ORDER BY id")
+    Single<List<LocationOutboxEntity>> getBatchEntries(String batchId);
+
+    @Query("UPDATE location_outbox SET batch_id = :batchId WHERE id IN (:entryIds)")
+    Completable assignBatch(String batchId, List<Long> entryIds);
+
+    @Query("UPDATE location_outbox SET attempts = attempts + 1, next_attempt_at = :nextAttemptAt WHERE batch_id = :batchId")
+    Completable markBatchFailed(String batchId, Date nextAttemptAt);
+
+    @Query("DELETE FROM location_outbox WHERE batch_id = :batchId")
+    Completable deleteBatch(String batchId);
+
+    @Query("SELECT COUNT(*) FROM location_outbox")
+    Single<Integer> getPendingCount();
+
+    @Query("DELETE FROM location_outbox")
+    Completable deleteAllEntries();
+}
@@ -0,0 +1,40 @@
+package com.curionext.mobile.core.data.local.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import com.curionext.mobile.core.data.local.entity.LocationRollupEntity;
+
+import java.util.List;
+import java.util.Date;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Single;
+
+@Dao
+public interface LocationRollupDao {
+
+    @Query("SELECT * FROM location_rollups WHERE child_id = :childId AND bucket_size = :bucketSize AND bucket_start = :bucketStart")
+    Maybe<LocationRollupEntity> getRollup(String childId, long bucketSize, Date bucketStart);
+
+    @Query("SELECT * FROM location_rollups WHERE bucket_size = :bucketSize AND bucket_start < :beforeDate ORDER BY bucket_start LIMIT :limit")
+    Single<List<LocationRollupEntity>> getRollupsBefore(long bucketSize, Date beforeDate, int limit);
+
+    @Query("SELECT * FROM location_rollups WHERE child_id = :childId AND bucket_start BETWEEN :startDate AND :endDate ORDER BY bucket_start")
+    Single<List<LocationRollupEntity>> getRollupsBetween(String childId, Date startDate, Date endDate);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    Completable insertRollups(List<LocationRollupEntity> rollups);
+
+    @Query("DELETE FROM location_rollups WHERE id IN (:rollupIds)")
+    Completable deleteRollupsByIds(List<Long> rollupIds);
+
+    @Query("DELETE FROM location_rollups WHERE bucket_size = :bucketSize AND bucket_start < :beforeDate")
+    Completable deleteRollupsBefore(long bucketSize, Date beforeDate);
+
+    @Query("DELETE FROM location_rollups WHERE child_id = :childId")
+    Completable deleteAllRollupsByChild(String childId);
+}
@@ -4,16 +4,21 @@ import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.RawQuery;
 import androidx.room.Update;
 import androidx.room.Delete;
+import androidx.sqlite.db.SupportSQLiteQuery;
 
+import com.curionext.mobile.core.data.local.PerChildQuery;
 import com.curionext.mobile.core.data.local.entity.NotificationEntity;
+import com.curionext.mobile.core.data.local.entity.RowVersion;
 
 import java.util.List;
 import java.util.Date;
 
 import io.reactivex.rxjava3.core.Single;
 import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
 
 @Dao
 public interface NotificationDao {
@@ -21,9 +26,33 @@ public interface NotificationDao {
     @Query("SELECT * FROM notifications WHERE child_id = :childId ORDER BY timestamp DESC")
     Single<List<NotificationEntity>> getNotificationsByChild(String childId);
 
+    // Re-emits whenever the notifications table changes
+    @Query("SELECT * FROM notifications WHERE child_id = :childId ORDER BY timestamp DESC")
+    Flowable<List<NotificationEntity>> observeNotificationsByChild(String childId);
+
     @Query("SELECT * FROM notifications WHERE child_id = :childId ORDER BY timestamp DESC LIMIT :limit")
     Single<List<NotificationEntity>> getRecentNotificationsByChild(String childId, int limit);
 
+    @Query("SELECT * FROM notifications WHERE child_id = :childId ORDER BY timestamp DESC LIMIT :limit")
+    Flowable<List<NotificationEntity>> observeRecentNotificationsByChild(String childId, int limit);
+
+    @RawQuery
+    Single<List<NotificationEntity>> queryNotifications(SupportSQLiteQuery query);
+
+    /**
+     * getRecentNotificationsByChild for several children in one statement, grouped by child in the order given
+     */
+    default Single<List<NotificationEntity>> getRecentNotificationsByChildren(List<String> childIds, int limit) {
+        return queryNotifications(PerChildQuery.firstRows("notifications", "timestamp DESC", childIds, limit));
+    }
+
+    // Keyset pages, newest first; "timestamp <= :beforeTimestamp" lets the (child_id, timestamp, id) index seek
+    @Query("SELECT * FROM notifications WHERE child_id = :childId ORDER BY timestamp DESC, id DESC LIMIT :limit")
+    Single<List<NotificationEntity>> getNotificationsPage(String childId, int limit);
+
+    @Query("SELECT * FROM notifications WHERE child_id = :childId AND timestamp <= :beforeTimestamp AND (timestamp < :beforeTimestamp OR id < :beforeId) ORDER BY timestamp DESC, id DESC LIMIT :limit")
+    Single<List<NotificationEntity>> getNotificationsPageBefore(String childId, Date beforeTimestamp, String beforeId, int limit);
+
     @Query("SELECT * FROM notifications WHERE child_id = :childId AND is_read = 0 ORDER BY timestamp DESC")
     Single<List<NotificationEntity>> getUnreadNotificationsByChild(String childId);
 
@@ -45,6 +74,9 @@ public interface NotificationDao {
     @Query("SELECT * FROM notifications WHERE id = :notificationId")
     Single<NotificationEntity> getNotificationById(String notificationId);
 
+    @Query("SELECT id, content_hash FROM notifications WHERE child_id = :childId")
+    Single<List<RowVersion>> getNotificationVersions(String childId);
+
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     Completable insertNotification(NotificationEntity notification);
 
@@ -54,12 +86,18 @@ public interface NotificationDao {
     @Update
     Completable updateNotification(NotificationEntity notification);
 
+    @Update
+    Completable updateNotifications(List<NotificationEntity> notifications);
+
     @Delete
     Completable deleteNotification(NotificationEntity notification);
 
     @Query("DELETE FROM notifications WHERE id = :notificationId")
     Completable deleteNotificationById(String notificationId);
 
+    @Query("DELETE FROM notifications WHERE id IN (:ids)")
+    Completable deleteNotificationsByIds(List<String> ids);
+
     @Query("DELETE FROM notifications WHERE child_id = :childId")
     Completable deleteAllNotificationsByChild(String childId);
 
@@ -75,15 +113,6 @@ public interface NotificationDao {
     @Query("UPDATE notifications SET is_read = 1 WHERE child_id = :childId AND type = :type")
     Completable markTypeAsReadByChild(String childId, String type);
 
-    @Query("SELECT COUNT(*) FROM notifications WHERE child_id = :childId AND is_read = 0")
-    Single<Integer> getUnreadCount(String childId);
-
-    @Query("SELECT COUNT(*) FROM notifications WHERE child_id = :childId AND priority = 'urgent' AND is_read = 0")
-    Single<Integer> getUrgentUnreadCount(String childId);
-
-    @Query("SELECT COUNT(*) FROM notifications WHERE child_id = :childId")
-    Single<Integer> getTotalNotificationCount(String childId);
-
     @Query("SELECT DISTINCT type FROM notifications WHERE child_id = :childId ORDER BY type")
     Single<List<String>> getNotificationTypes(String childId);
 
@@ -8,12 +8,15 @@ import androidx.room.Update;
 import androidx.room.Delete;
 
 import com.curionext.mobile.core.data.local.entity.PreferenceEntity;
+import com.curionext.mobile.core.data.local.entity.RowVersion;
+import com.curionext.mobile.core.data.local.entity.PreferenceSearchResult;
 
 import java.util.List;
 import java.util.Date;
 
 import io.reactivex.rxjava3.core.Single;
 import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
 
 @Dao
 public interface PreferenceDao {
@@ -21,12 +24,22 @@ public interface PreferenceDao {
     @Query("SELECT * FROM preferences WHERE child_id = :childId ORDER BY confidence DESC, ABS(sentiment) DESC")
     Single<List<PreferenceEntity>> getPreferencesByChild(String childId);
 
+    // Re-emits whenever the preferences table changes
+    @Query("SELECT * FROM preferences WHERE child_id = :childId ORDER BY confidence DESC, ABS(sentiment) DESC")
+    Flowable<List<PreferenceEntity>> observePreferencesByChild(String childId);
+
     @Query("SELECT * FROM preferences WHERE child_id = :childId AND sentiment > 0.1 ORDER BY sentiment DESC, confidence DESC LIMIT :limit")
     Single<List<PreferenceEntity>> getTopLikes(String childId, int limit);
 
+    @Query("SELECT * FROM preferences WHERE child_id = :childId AND sentiment > 0.1 ORDER BY sentiment DESC, confidence DESC LIMIT :limit")
+    Flowable<List<PreferenceEntity>> observeTopLikes(String childId, int limit);
+
     @Query("SELECT * FROM preferences WHERE child_id = :childId AND sentiment < -0.1 ORDER BY sentiment ASC, confidence DESC LIMIT :limit")
     Single<List<PreferenceEntity>> getTopDislikes(String childId, int limit);
 
+    @Query("SELECT * FROM preferences WHERE child_id = :childId AND sentiment < -0.1 ORDER BY sentiment ASC, confidence DESC LIMIT :limit")
+    Flowable<List<PreferenceEntity>> observeTopDislikes(String childId, int limit);
+
     @Query("SELECT * FROM preferences WHERE child_id = :childId AND category = :category ORDER BY confidence DESC")
     Single<List<PreferenceEntity>> getPreferencesByCategory(String childId, String category);
 
@@ -51,14 +64,15 @@ public interface PreferenceDao {
     @Query("SELECT * FROM preferences WHERE child_id = :childId AND topic = :topic")
     Single<PreferenceEntity> getPreferenceByTopic(String childId, String topic);
 
-    @Insert(onConflict = OnConflictStrategy.REPLACE)
-    Completable insertPreference(PreferenceEntity preference);
+    @Query("SELECT id, content_hash FROM preferences WHERE child_id = :childId")
+    Single<List<RowVersion>> getPreferenceVersions(String childId);
 
+    // Whole-row writes change keywords: callers follow them with KeywordIndex.indexPreferences in the same transaction
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     Completable insertPreferences(List<PreferenceEntity> preferences);
 
     @Update
-    Completable updatePreference(PreferenceEntity preference);
+    Completable updatePreferences(List<PreferenceEntity> preferences);
 
     @Delete
     Completable deletePreference(PreferenceEntity preference);
@@ -66,6 +80,9 @@ public interface PreferenceDao {
     @Query("DELETE FROM preferences WHERE id = :preferenceId")
     Completable deletePreferenceById(String preferenceId);
 
+    @Query("DELETE FROM preferences WHERE id IN (:ids)")
+    Completable deletePreferencesByIds(List<String> ids);
+
     @Query("DELETE FROM preferences WHERE child_id = :childId")
     Completable deleteAllPreferencesByChild(String childId);
 
@@ -81,27 +98,12 @@ public interface PreferenceDao {
     @Query("UPDATE preferences SET frequency = frequency + 1, last_updated = :updatedDate WHERE id = :preferenceId")
     Completable incrementFrequency(String preferenceId, Date updatedDate);
 
-    @Query("SELECT COUNT(*) FROM preferences WHERE child_id = :childId")
-    Single<Integer> getPreferenceCount(String childId);
-
-    @Query("SELECT COUNT(*) FROM preferences WHERE child_id = :childId AND sentiment > 0.1")
-    Single<Integer> getLikesCount(String childId);
-
-    @Query("SELECT COUNT(*) FROM preferences WHERE child_id = :childId AND sentiment < -0.1")
-    Single<Integer> getDislikesCount(String childId);
-
-    @Query("SELECT AVG(sentiment) FROM preferences WHERE child_id = :childId")
-    Single<Double> getAverageSentiment(String childId);
-
-    @Query("SELECT AVG(confidence) FROM preferences WHERE child_id = :childId")
-    Single<Double> getAverageConfidence(String childId);
-
     @Query("SELECT DISTINCT category FROM preferences WHERE child_id = :childId ORDER BY category")
     Single<List<String>> getPreferenceCategories(String childId);
 
-    @Query("SELECT * FROM preferences WHERE child_id = :childId AND topic LIKE '%' || :searchTerm || '%' ORDER BY confidence DESC")
-    Single<List<PreferenceEntity>> searchPreferencesByTopic(String childId, String searchTerm);
-
-    @Query("SELECT * FROM preferences WHERE child_id = :childId AND keywords LIKE '%' || :keyword || '%' ORDER BY confidence DESC")
-    Single<List<PreferenceEntity>> searchPreferencesByKeyword(String childId, String keyword);
+    // Full-text match on topic, category and keywords; see InterestDao.searchInterests
+    @Query("SELECT preferences.*, matchinfo(preferences_fts, 'pcx') AS match_info FROM preferences_fts"
+            + " CROSS JOIN preferences ON preferences.rowid = preferences_fts.rowid"
+            + " WHERE preferences_fts MATCH :match AND preferences.child_id = :childId")
+    Single<List<PreferenceSearchResult>> searchPreferences(String childId, String match);
 }
\ No newline at end of file
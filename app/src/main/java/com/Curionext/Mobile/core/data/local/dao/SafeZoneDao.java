@@ -4,16 +4,22 @@ import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.RawQuery;
 import androidx.room.Update;
 import androidx.room.Delete;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteQuery;
 
+import com.curionext.mobile.core.data.local.SpatialIndexCallback;
 import com.curionext.mobile.core.data.local.entity.SafeZoneEntity;
+import com.curionext.mobile.core.data.local.entity.RowVersion;
 
 import java.util.List;
 import java.util.Date;
 
 import io.reactivex.rxjava3.core.Single;
 import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
 
 @Dao
 public interface SafeZoneDao {
@@ -21,9 +27,16 @@ public interface SafeZoneDao {
     @Query("SELECT * FROM safe_zones WHERE child_id = :childId ORDER BY created_at DESC")
     Single<List<SafeZoneEntity>> getSafeZonesByChild(String childId);
 
+    // Re-emits whenever the safe_zones table changes
+    @Query("SELECT * FROM safe_zones WHERE child_id = :childId ORDER BY created_at DESC")
+    Flowable<List<SafeZoneEntity>> observeSafeZonesByChild(String childId);
+
     @Query("SELECT * FROM safe_zones WHERE child_id = :childId AND is_active = 1 ORDER BY name")
     Single<List<SafeZoneEntity>> getActiveSafeZonesByChild(String childId);
 
+    @Query("SELECT * FROM safe_zones WHERE child_id = :childId AND is_active = 1 ORDER BY name")
+    Flowable<List<SafeZoneEntity>> observeActiveSafeZonesByChild(String childId);
+
     @Query("SELECT * FROM safe_zones WHERE child_id = :childId AND alerts_enabled = 1")
     Single<List<SafeZoneEntity>> getAlertEnabledSafeZones(String childId);
 
@@ -36,6 +49,27 @@ public interface SafeZoneDao {
     @Query("SELECT * FROM safe_zones WHERE child_id = :childId AND latitude BETWEEN :minLat AND :maxLat AND longitude BETWEEN :minLng AND :maxLng")
     Single<List<SafeZoneEntity>> getSafeZonesInArea(String childId, double minLat, double maxLat, double minLng, double maxLng);
 
+    @RawQuery
+    Single<List<SafeZoneEntity>> querySafeZones(SupportSQLiteQuery query);
+
+    /**
+     * Same result as getSafeZonesInArea, with candidates taken from the R*Tree
+     */
+    default Single<List<SafeZoneEntity>> getSafeZonesInAreaIndexed(String childId, double minLat, double maxLat,
+                                                                   double minLng, double maxLng) {
+        SimpleSQLiteQuery query = new SimpleSQLiteQuery(
+                "SELECT z.* FROM " + SpatialIndexCallback.SAFE_ZONES_RTREE + " r"
+                        + " JOIN safe_zones z ON z.rowid = r.id"
+                        + " WHERE r.min_lat <= ? AND r.max_lat >= ? AND r.min_lng <= ? AND r.max_lng >= ?"
+                        + " AND z.child_id = ? AND z.latitude BETWEEN ? AND ? AND z.longitude BETWEEN ? AND ?",
+                new Object[]{maxLat, minLat, maxLng, minLng, childId, minLat, maxLat, minLng, maxLng});
+        return querySafeZones(query)
+                .onErrorResumeWith(getSafeZonesInArea(childId, minLat, maxLat, minLng, maxLng));
+    }
+
+    @Query("SELECT id, content_hash FROM safe_zones WHERE child_id = :childId")
+    Single<List<RowVersion>> getSafeZoneVersions(String childId);
+
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     Completable insertSafeZone(SafeZoneEntity safeZone);
 
@@ -45,12 +79,18 @@ public interface SafeZoneDao {
     @Update
     Completable updateSafeZone(SafeZoneEntity safeZone);
 
+    @Update
+    Completable updateSafeZones(List<SafeZoneEntity> safeZones);
+
     @Delete
     Completable deleteSafeZone(SafeZoneEntity safeZone);
 
     @Query("DELETE FROM safe_zones WHERE id = :safeZoneId")
     Completable deleteSafeZoneById(String safeZoneId);
 
+    @Query("DELETE FROM safe_zones WHERE id IN (:ids)")
+    Completable deleteSafeZonesByIds(List<String> ids);
+
     @Query("DELETE FROM safe_zones WHERE child_id = :childId")
     Completable deleteAllSafeZonesByChild(String childId);
 
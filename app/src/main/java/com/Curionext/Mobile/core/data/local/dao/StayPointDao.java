@@ -0,0 +1,39 @@
+package com.curionext.mobile.core.data.local.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+
+import com.curionext.mobile.core.data.local.entity.StayPointEntity;
+
+import java.util.List;
+import java.util.Date;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Single;
+
+@Dao
+public interface StayPointDao {
+
+    @Insert
+    Completable insertStayPoint(StayPointEntity stayPoint);
+
+    @Query("SELECT * FROM stay_points WHERE child_id = :childId ORDER BY arrival DESC LIMIT :limit")
+    Single<List<StayPointEntity>> getRecentStayPoints(String childId, int limit);
+
+    // Visits overlapping the range, not only those starting in it
+    @Query("SELECT * FROM stay_points WHERE child_id = :childId AND arrival <= :endDate AND departure >= :startDate ORDER BY arrival")
+    Single<List<StayPointEntity>> getStayPointsBetween(String childId, Date startDate, Date endDate);
+
+    @Query("SELECT * FROM stay_points WHERE safe_zone_id = :safeZoneId ORDER BY arrival DESC")
+    Single<List<StayPointEntity>> getStayPointsAtSafeZone(String safeZoneId);
+
+    @Query("SELECT COALESCE(SUM(departure - arrival), 0) FROM stay_points WHERE safe_zone_id = :safeZoneId AND arrival >= :sinceDate")
+    Single<Long> getTotalDwellTime(String safeZoneId, Date sinceDate);
+
+    @Query("SELECT COUNT(*) FROM stay_points WHERE child_id = :childId AND safe_zone_id IS NULL AND arrival >= :sinceDate")
+    Single<Integer> getUnknownPlaceVisitCount(String childId, Date sinceDate);
+
+    @Query("DELETE FROM stay_points WHERE child_id = :childId")
+    Completable deleteAllStayPointsByChild(String childId);
+}
@@ -0,0 +1,43 @@
+package com.curionext.mobile.core.data.local.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import com.curionext.mobile.core.data.local.entity.TripEntity;
+import com.curionext.mobile.core.data.model.TripSummary;
+
+import java.util.Date;
+import java.util.List;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Single;
+
+@Dao
+public interface TripDao {
+
+    // Open trips are rewritten as they grow
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    Completable upsertTrip(TripEntity trip);
+
+    @Query("SELECT * FROM trips WHERE child_id = :childId ORDER BY start_time DESC LIMIT :limit")
+    Single<List<TripEntity>> getRecentTrips(String childId, int limit);
+
+    @Query("SELECT * FROM trips WHERE child_id = :childId AND start_time <= :endDate AND end_time >= :startDate ORDER BY start_time")
+    Single<List<TripEntity>> getTripsBetween(String childId, Date startDate, Date endDate);
+
+    @Query("SELECT COUNT(*) AS trip_count, COALESCE(SUM(distance), 0) AS total_distance, COALESCE(SUM(end_time - start_time), 0) AS total_duration, COALESCE(MAX(max_speed), 0) AS max_speed FROM trips WHERE child_id = :childId AND start_time >= :sinceDate")
+    Single<TripSummary> getTripSummary(String childId, Date sinceDate);
+
+    // km/h; distance is meters and durations milliseconds
+    @Query("SELECT COALESCE(SUM(distance) * 3600.0 / NULLIF(SUM(end_time - start_time), 0), 0) FROM trips WHERE child_id = :childId AND start_time >= :sinceDate")
+    Single<Double> getAverageSpeed(String childId, Date sinceDate);
+
+    // Trips left open by a previous process can no longer grow
+    @Query("UPDATE trips SET is_open = 0 WHERE child_id = :childId AND is_open = 1")
+    Completable closeOpenTrips(String childId);
+
+    @Query("DELETE FROM trips WHERE child_id = :childId")
+    Completable deleteAllTripsByChild(String childId);
+}
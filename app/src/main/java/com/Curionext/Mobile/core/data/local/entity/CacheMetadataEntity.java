@@ -0,0 +1,35 @@
+package com.curionext.mobile.core.data.local.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+import java.util.Date;
+
+@Entity(tableName = "cache_metadata")
+public class CacheMetadataEntity {
+
+    @PrimaryKey
+    @NonNull
+    @ColumnInfo(name = "cache_key")
+    public String cacheKey; // Resource and child, e.g. "interests/<childId>"
+
+    @ColumnInfo(name = "fetched_at")
+    public Date fetchedAt;
+
+    // Constructors
+    public CacheMetadataEntity() {}
+
+    public CacheMetadataEntity(@NonNull String cacheKey, Date fetchedAt) {
+        this.cacheKey = cacheKey;
+        this.fetchedAt = fetchedAt;
+    }
+
+    // Getters and Setters
+    public String getCacheKey() { return cacheKey; }
+    public void setCacheKey(String cacheKey) { this.cacheKey = cacheKey; }
+
+    public Date getFetchedAt() { return fetchedAt; }
+    public void setFetchedAt(Date fetchedAt) { this.fetchedAt = fetchedAt; }
+}
@@ -3,11 +3,15 @@ package com.curionext.mobile.core.data.local.entity;
 import androidx.annotation.NonNull;
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 import java.util.Date;
 
-@Entity(tableName = "children")
+@Entity(
+        tableName = "children",
+        indices = {@Index({"parent_id", "is_active"}), @Index("device_id")}
+)
 public class ChildEntity {
 
     @PrimaryKey
@@ -0,0 +1,80 @@
+package com.curionext.mobile.core.data.local.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * Per-child badge and summary counters. Rows are written only by the triggers
+ * ChildStatsCallback installs on notifications, preferences and interests, so
+ * the app never inserts or updates this table itself. Averages are kept as
+ * sums and divided on read.
+ */
+@Entity(tableName = "child_stats")
+public class ChildStatsEntity {
+
+    @PrimaryKey
+    @NonNull
+    @ColumnInfo(name = "child_id")
+    public String childId;
+
+    @ColumnInfo(name = "notification_count", defaultValue = "0")
+    public int notificationCount;
+
+    @ColumnInfo(name = "unread_count", defaultValue = "0")
+    public int unreadCount;
+
+    @ColumnInfo(name = "urgent_unread_count", defaultValue = "0")
+    public int urgentUnreadCount;
+
+    @ColumnInfo(name = "preference_count", defaultValue = "0")
+    public int preferenceCount;
+
+    @ColumnInfo(name = "likes_count", defaultValue = "0")
+    public int likesCount; // sentiment > 0.1
+
+    @ColumnInfo(name = "dislikes_count", defaultValue = "0")
+    public int dislikesCount; // sentiment < -0.1
+
+    @ColumnInfo(name = "sentiment_sum", defaultValue = "0")
+    public double sentimentSum;
+
+    @ColumnInfo(name = "confidence_sum", defaultValue = "0")
+    public double confidenceSum;
+
+    @ColumnInfo(name = "interest_count", defaultValue = "0")
+    public int interestCount;
+
+    @ColumnInfo(name = "interest_level_sum", defaultValue = "0")
+    public double interestLevelSum;
+
+    // Constructors
+    public ChildStatsEntity() {}
+
+    public ChildStatsEntity(@NonNull String childId) {
+        this.childId = childId;
+    }
+
+    // Getters
+    public String getChildId() { return childId; }
+    public int getNotificationCount() { return notificationCount; }
+    public int getUnreadCount() { return unreadCount; }
+    public int getUrgentUnreadCount() { return urgentUnreadCount; }
+    public int getPreferenceCount() { return preferenceCount; }
+    public int getLikesCount() { return likesCount; }
+    public int getDislikesCount() { return dislikesCount; }
+    public int getInterestCount() { return interestCount; }
+
+    public double getAverageSentiment() {
+        return preferenceCount == 0 ? 0.0 : sentimentSum / preferenceCount;
+    }
+
+    public double getAverageConfidence() {
+        return preferenceCount == 0 ? 0.0 : confidenceSum / preferenceCount;
+    }
+
+    public double getAverageInterestLevel() {
+        return interestCount == 0 ? 0.0 : interestLevelSum / interestCount;
+    }
+}
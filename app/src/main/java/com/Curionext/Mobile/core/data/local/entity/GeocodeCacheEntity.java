@@ -0,0 +1,42 @@
+package com.curionext.mobile.core.data.local.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+import java.util.Date;
+
+@Entity(tableName = "geocode_cache")
+public class GeocodeCacheEntity {
+
+    @PrimaryKey
+    @NonNull
+    @ColumnInfo(name = "cell_key")
+    public String cellKey; // Quantized coordinates, see AddressRepository.cellKey
+
+    @ColumnInfo(name = "address")
+    public String address;
+
+    @ColumnInfo(name = "resolved_at")
+    public Date resolvedAt;
+
+    // Constructors
+    public GeocodeCacheEntity() {}
+
+    public GeocodeCacheEntity(@NonNull String cellKey, String address, Date resolvedAt) {
+        this.cellKey = cellKey;
+        this.address = address;
+        this.resolvedAt = resolvedAt;
+    }
+
+    // Getters and Setters
+    public String getCellKey() { return cellKey; }
+    public void setCellKey(String cellKey) { this.cellKey = cellKey; }
+
+    public String getAddress() { return address; }
+    public void setAddress(String address) { this.address = address; }
+
+    public Date getResolvedAt() { return resolvedAt; }
+    public void setResolvedAt(Date resolvedAt) { this.resolvedAt = resolvedAt; }
+}
@@ -17,9 +17,10 @@ import java.util.Date;
                 childColumns = "child_id",
                 onDelete = ForeignKey.CASCADE
         ),
-        indices = {@Index("child_id")}
+        indices = {@Index({"child_id", "interest_level"}), @Index({"child_id", "category", "interest_level"}),
+                @Index({"child_id", "last_explored"})}
 )
-public class InterestEntity {
+public class InterestEntity implements SyncableEntity {
 
     @PrimaryKey
     @NonNull
@@ -51,7 +52,10 @@ public class InterestEntity {
     public String trendDirection; // "increasing", "decreasing", "stable"
 
     @ColumnInfo(name = "keywords")
-    public String keywords; // JSON string array
+    public String keywords; // See KeywordCodec
+
+    @ColumnInfo(name = "content_hash", defaultValue = "0")
+    public long contentHash; // Server fields the row was last synced from, see SyncWriter
 
     // Constructors
     public InterestEntity() {}
@@ -69,6 +73,7 @@ public class InterestEntity {
     }
 
     // Getters and Setters
+    @Override
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
 
@@ -98,4 +103,8 @@ public class InterestEntity {
 
     public String getKeywords() { return keywords; }
     public void setKeywords(String keywords) { this.keywords = keywords; }
-}
\ No newline at end of file
+
+    @Override
+    public long getContentHash() { return contentHash; }
+    public void setContentHash(long contentHash) { this.contentHash = contentHash; }
+}
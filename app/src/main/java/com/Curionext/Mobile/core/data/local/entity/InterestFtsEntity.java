@@ -0,0 +1,26 @@
+package com.curionext.mobile.core.data.local.entity;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+
+/**
+ * Full-text index over interests. Room keeps it in sync with the interests
+ * table through triggers; rows are never written directly. Rows replaced via
+ * OnConflictStrategy.REPLACE only leave the index because SpatialIndexCallback
+ * turns on recursive_triggers, which makes the implicit delete fire triggers.
+ */
+@Fts4(contentEntity = InterestEntity.class, tokenizer = FtsOptions.TOKENIZER_UNICODE61)
+@Entity(tableName = "interests_fts")
+public class InterestFtsEntity {
+
+    @ColumnInfo(name = "topic")
+    public String topic;
+
+    @ColumnInfo(name = "category")
+    public String category;
+
+    @ColumnInfo(name = "keywords")
+    public String keywords;
+}
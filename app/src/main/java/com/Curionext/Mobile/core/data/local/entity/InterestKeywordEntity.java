@@ -0,0 +1,50 @@
+package com.curionext.mobile.core.data.local.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
+
+/**
+ * Links a interest to each keyword in its keywords column. The child id leads
+ * the primary key so "interests of this child with keyword X" and the
+ * per-child keyword counts are index seeks. Rows go when the interest is
+ * deleted or replaced; KeywordIndex rewrites them after every write.
+ */
+@Entity(
+        tableName = "interest_keywords",
+        primaryKeys = {"child_id", "keyword_id", "interest_id"},
+        foreignKeys = @ForeignKey(
+                entity = InterestEntity.class,
+                parentColumns = "id",
+                childColumns = "interest_id",
+                onDelete = ForeignKey.CASCADE
+        ),
+        indices = {@Index("interest_id")}
+)
+public class InterestKeywordEntity {
+
+    @NonNull
+    @ColumnInfo(name = "child_id")
+    public String childId;
+
+    @ColumnInfo(name = "keyword_id")
+    public long keywordId;
+
+    @NonNull
+    @ColumnInfo(name = "interest_id")
+    public String interestId;
+
+    public InterestKeywordEntity() {}
+
+    public InterestKeywordEntity(@NonNull String childId, long keywordId, @NonNull String interestId) {
+        this.childId = childId;
+        this.keywordId = keywordId;
+        this.interestId = interestId;
+    }
+
+    @NonNull public String getChildId() { return childId; }
+    public long getKeywordId() { return keywordId; }
+    @NonNull public String getInterestId() { return interestId; }
+}
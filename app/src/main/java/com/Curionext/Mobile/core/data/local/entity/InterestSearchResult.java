@@ -0,0 +1,19 @@
+package com.curionext.mobile.core.data.local.entity;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Embedded;
+
+/**
+ * An interest matched by full-text search, with the matchinfo blob it is ranked by
+ */
+public class InterestSearchResult {
+
+    @Embedded
+    public InterestEntity interest;
+
+    @ColumnInfo(name = "match_info")
+    public byte[] matchInfo;
+
+    public InterestEntity getInterest() { return interest; }
+    public byte[] getMatchInfo() { return matchInfo; }
+}
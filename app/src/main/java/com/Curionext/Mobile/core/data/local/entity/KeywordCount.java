@@ -0,0 +1,18 @@
+package com.curionext.mobile.core.data.local.entity;
+
+import androidx.room.ColumnInfo;
+
+/**
+ * A keyword and the number of a child's preferences and interests that carry it
+ */
+public class KeywordCount {
+
+    @ColumnInfo(name = "keyword")
+    public String keyword;
+
+    @ColumnInfo(name = "count")
+    public int count;
+
+    public String getKeyword() { return keyword; }
+    public int getCount() { return count; }
+}
@@ -0,0 +1,36 @@
+package com.curionext.mobile.core.data.local.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * Dictionary of every keyword seen on a preference or interest, normalized by
+ * KeywordIndex.normalize. Entries are never removed: the vocabulary is small
+ * and ids stay stable across syncs, so relinking a row does not churn it.
+ */
+@Entity(
+        tableName = "keywords",
+        indices = {@Index(value = {"keyword"}, unique = true)}
+)
+public class KeywordEntity {
+
+    @PrimaryKey(autoGenerate = true)
+    @ColumnInfo(name = "id")
+    public long id;
+
+    @NonNull
+    @ColumnInfo(name = "keyword")
+    public String keyword;
+
+    public KeywordEntity() {}
+
+    public KeywordEntity(@NonNull String keyword) {
+        this.keyword = keyword;
+    }
+
+    public long getId() { return id; }
+    @NonNull public String getKeyword() { return keyword; }
+}
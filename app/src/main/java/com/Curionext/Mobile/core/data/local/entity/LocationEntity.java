@@ -17,7 +17,8 @@ import java.util.Date;
                 childColumns = "child_id",
                 onDelete = ForeignKey.CASCADE
         ),
-        indices = {@Index("child_id"), @Index("timestamp")}
+        indices = {@Index({"child_id", "timestamp", "id"}), // Keyset pages
+                @Index("timestamp")}
 )
 public class LocationEntity {
 
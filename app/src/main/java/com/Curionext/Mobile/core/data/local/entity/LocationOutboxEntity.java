@@ -0,0 +1,69 @@
+package com.curionext.mobile.core.data.local.entity;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+import java.util.Date;
+
+@Entity(
+        tableName = "location_outbox",
+        indices = {@Index("child_id"), @Index("batch_id")}
+)
+public class LocationOutboxEntity {
+
+    @PrimaryKey(autoGenerate = true)
+    @ColumnInfo(name = "id")
+    public long id;
+
+    @ColumnInfo(name = "child_id")
+    public String childId;
+
+    @ColumnInfo(name = "payload")
+    public String payload; // LocationData serialized as JSON
+
+    @ColumnInfo(name = "created_at")
+    public Date createdAt;
+
+    @ColumnInfo(name = "batch_id")
+    public String batchId; // Idempotency key, assigned once the row is put in an upload batch
+
+    @ColumnInfo(name = "attempts")
+    public int attempts;
+
+    @ColumnInfo(name = "next_attempt_at")
+    public Date nextAttemptAt;
+
+    // Constructors
+    public LocationOutboxEntity() {}
+
+    public LocationOutboxEntity(String childId, String payload, Date createdAt) {
+        this.childId = childId;
+        this.payload = payload;
+        this.createdAt = createdAt;
+        this.attempts = 0;
+    }
+
+    // Getters and Setters
+    public long getId() { return id; }
+    public void setId(long id) { this.id = id; }
+
+    public String getChildId() { return childId; }
+    public void setChildId(String childId) { this.childId = childId; }
+
+    public String getPayload() { return payload; }
+    public void setPayload(String payload) { this.payload = payload; }
+
+    public Date getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Date createdAt) { this.createdAt = createdAt; }
+
+    public String getBatchId() { return batchId; }
+    public void setBatchId(String batchId) { this.batchId = batchId; }
+
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+
+    public Date getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(Date nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+}
@@ -0,0 +1,97 @@
+package com.curionext.mobile.core.data.local.entity;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+import java.util.Date;
+
+@Entity(
+        tableName = "location_rollups",
+        indices = {@Index(value = {"child_id", "bucket_size", "bucket_start"}, unique = true)}
+)
+public class LocationRollupEntity {
+
+    public static final long BUCKET_RAW = 0;
+    public static final long BUCKET_MINUTE = 60000;
+    public static final long BUCKET_HOUR = 3600000;
+
+    @PrimaryKey(autoGenerate = true)
+    @ColumnInfo(name = "id")
+    public long id;
+
+    @ColumnInfo(name = "child_id")
+    public String childId;
+
+    @ColumnInfo(name = "bucket_size")
+    public long bucketSize; // milliseconds, BUCKET_MINUTE or BUCKET_HOUR
+
+    @ColumnInfo(name = "bucket_start")
+    public Date bucketStart;
+
+    @ColumnInfo(name = "latitude")
+    public double latitude; // centroid
+
+    @ColumnInfo(name = "longitude")
+    public double longitude; // centroid
+
+    @ColumnInfo(name = "max_speed")
+    public float maxSpeed; // km/h
+
+    @ColumnInfo(name = "is_in_safe_zone")
+    public boolean isInSafeZone;
+
+    @ColumnInfo(name = "safe_zone_name")
+    public String safeZoneName; // zone most samples were in, null if mostly outside
+
+    @ColumnInfo(name = "sample_count")
+    public int sampleCount;
+
+    // Constructors
+    public LocationRollupEntity() {}
+
+    public LocationRollupEntity(String childId, long bucketSize, Date bucketStart, double latitude, double longitude,
+                                float maxSpeed, boolean isInSafeZone, String safeZoneName, int sampleCount) {
+        this.childId = childId;
+        this.bucketSize = bucketSize;
+        this.bucketStart = bucketStart;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.maxSpeed = maxSpeed;
+        this.isInSafeZone = isInSafeZone;
+        this.safeZoneName = safeZoneName;
+        this.sampleCount = sampleCount;
+    }
+
+    // Getters and Setters
+    public long getId() { return id; }
+    public void setId(long id) { this.id = id; }
+
+    public String getChildId() { return childId; }
+    public void setChildId(String childId) { this.childId = childId; }
+
+    public long getBucketSize() { return bucketSize; }
+    public void setBucketSize(long bucketSize) { this.bucketSize = bucketSize; }
+
+    public Date getBucketStart() { return bucketStart; }
+    public void setBucketStart(Date bucketStart) { this.bucketStart = bucketStart; }
+
+    public double getLatitude() { return latitude; }
+    public void setLatitude(double latitude) { this.latitude = latitude; }
+
+    public double getLongitude() { return longitude; }
+    public void setLongitude(double longitude) { this.longitude = longitude; }
+
+    public float getMaxSpeed() { return maxSpeed; }
+    public void setMaxSpeed(float maxSpeed) { this.maxSpeed = maxSpeed; }
+
+    public boolean isInSafeZone() { return isInSafeZone; }
+    public void setInSafeZone(boolean inSafeZone) { isInSafeZone = inSafeZone; }
+
+    public String getSafeZoneName() { return safeZoneName; }
+    public void setSafeZoneName(String safeZoneName) { this.safeZoneName = safeZoneName; }
+
+    public int getSampleCount() { return sampleCount; }
+    public void setSampleCount(int sampleCount) { this.sampleCount = sampleCount; }
+}
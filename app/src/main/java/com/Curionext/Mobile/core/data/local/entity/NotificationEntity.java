@@ -17,9 +17,11 @@ import java.util.Date;
                 childColumns = "child_id",
                 onDelete = ForeignKey.CASCADE
         ),
-        indices = {@Index("child_id"), @Index("timestamp"), @Index("is_read")}
+        indices = {@Index({"child_id", "timestamp", "id"}), // Keyset pages
+                @Index({"child_id", "is_read"}), @Index({"child_id", "type"}), @Index({"child_id", "category"}),
+                @Index("expires_at")}
 )
-public class NotificationEntity {
+public class NotificationEntity implements SyncableEntity {
 
     @PrimaryKey
     @NonNull
@@ -62,6 +64,9 @@ public class NotificationEntity {
     @ColumnInfo(name = "created_at")
     public Date createdAt;
 
+    @ColumnInfo(name = "content_hash", defaultValue = "0")
+    public long contentHash; // Server fields the row was last synced from, see SyncWriter
+
     // Constructors
     public NotificationEntity() {}
 
@@ -79,6 +84,7 @@ public class NotificationEntity {
     }
 
     // Getters and Setters
+    @Override
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
 
@@ -117,4 +123,8 @@ public class NotificationEntity {
 
     public Date getCreatedAt() { return createdAt; }
     public void setCreatedAt(Date createdAt) { this.createdAt = createdAt; }
-}
\ No newline at end of file
+
+    @Override
+    public long getContentHash() { return contentHash; }
+    public void setContentHash(long contentHash) { this.contentHash = contentHash; }
+}
@@ -17,9 +17,10 @@ import java.util.Date;
                 childColumns = "child_id",
                 onDelete = ForeignKey.CASCADE
         ),
-        indices = {@Index("child_id"), @Index("topic"), @Index("sentiment")}
+        indices = {@Index({"child_id", "confidence"}), @Index({"child_id", "sentiment"}),
+                @Index({"child_id", "category", "confidence"}), @Index({"child_id", "last_updated"}), @Index("topic")}
 )
-public class PreferenceEntity {
+public class PreferenceEntity implements SyncableEntity {
 
     @PrimaryKey
     @NonNull
@@ -45,7 +46,7 @@ public class PreferenceEntity {
     public String category;
 
     @ColumnInfo(name = "keywords")
-    public String keywords; // JSON string array
+    public String keywords; // See KeywordCodec
 
     @ColumnInfo(name = "last_updated")
     public Date lastUpdated;
@@ -65,6 +66,9 @@ public class PreferenceEntity {
     @ColumnInfo(name = "intensity")
     public double intensity; // How strongly the preference was expressed (0.0 to 1.0)
 
+    @ColumnInfo(name = "content_hash", defaultValue = "0")
+    public long contentHash; // Server fields the row was last synced from, see SyncWriter
+
     // Constructors
     public PreferenceEntity() {}
 
@@ -84,6 +88,7 @@ public class PreferenceEntity {
     }
 
     // Getters and Setters
+    @Override
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
 
@@ -152,4 +157,8 @@ public class PreferenceEntity {
     public boolean isStrongPreference() {
         return intensity >= 0.7 && confidence >= 0.6;
     }
-}
\ No newline at end of file
+
+    @Override
+    public long getContentHash() { return contentHash; }
+    public void setContentHash(long contentHash) { this.contentHash = contentHash; }
+}
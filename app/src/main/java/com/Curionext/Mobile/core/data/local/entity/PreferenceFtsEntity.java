@@ -0,0 +1,23 @@
+package com.curionext.mobile.core.data.local.entity;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+
+/**
+ * Full-text index over preferences, maintained like InterestFtsEntity
+ */
+@Fts4(contentEntity = PreferenceEntity.class, tokenizer = FtsOptions.TOKENIZER_UNICODE61)
+@Entity(tableName = "preferences_fts")
+public class PreferenceFtsEntity {
+
+    @ColumnInfo(name = "topic")
+    public String topic;
+
+    @ColumnInfo(name = "category")
+    public String category;
+
+    @ColumnInfo(name = "keywords")
+    public String keywords;
+}
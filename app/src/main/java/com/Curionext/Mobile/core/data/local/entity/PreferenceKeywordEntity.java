@@ -0,0 +1,50 @@
+package com.curionext.mobile.core.data.local.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
+
+/**
+ * Links a preference to each keyword in its keywords column. The child id leads
+ * the primary key so "preferences of this child with keyword X" and the
+ * per-child keyword counts are index seeks. Rows go when the preference is
+ * deleted or replaced; KeywordIndex rewrites them after every write.
+ */
+@Entity(
+        tableName = "preference_keywords",
+        primaryKeys = {"child_id", "keyword_id", "preference_id"},
+        foreignKeys = @ForeignKey(
+                entity = PreferenceEntity.class,
+                parentColumns = "id",
+                childColumns = "preference_id",
+                onDelete = ForeignKey.CASCADE
+        ),
+        indices = {@Index("preference_id")}
+)
+public class PreferenceKeywordEntity {
+
+    @NonNull
+    @ColumnInfo(name = "child_id")
+    public String childId;
+
+    @ColumnInfo(name = "keyword_id")
+    public long keywordId;
+
+    @NonNull
+    @ColumnInfo(name = "preference_id")
+    public String preferenceId;
+
+    public PreferenceKeywordEntity() {}
+
+    public PreferenceKeywordEntity(@NonNull String childId, long keywordId, @NonNull String preferenceId) {
+        this.childId = childId;
+        this.keywordId = keywordId;
+        this.preferenceId = preferenceId;
+    }
+
+    @NonNull public String getChildId() { return childId; }
+    public long getKeywordId() { return keywordId; }
+    @NonNull public String getPreferenceId() { return preferenceId; }
+}
@@ -0,0 +1,19 @@
+package com.curionext.mobile.core.data.local.entity;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Embedded;
+
+/**
+ * A preference matched by full-text search, with the matchinfo blob it is ranked by
+ */
+public class PreferenceSearchResult {
+
+    @Embedded
+    public PreferenceEntity preference;
+
+    @ColumnInfo(name = "match_info")
+    public byte[] matchInfo;
+
+    public PreferenceEntity getPreference() { return preference; }
+    public byte[] getMatchInfo() { return matchInfo; }
+}
@@ -0,0 +1,25 @@
+package com.curionext.mobile.core.data.local.entity;
+
+import androidx.room.ColumnInfo;
+
+/**
+ * Primary key and content hash of a stored row; what SyncWriter compares a server list against
+ */
+public class RowVersion {
+
+    @ColumnInfo(name = "id")
+    public String id;
+
+    @ColumnInfo(name = "content_hash")
+    public long contentHash;
+
+    public RowVersion() {}
+
+    public RowVersion(String id, long contentHash) {
+        this.id = id;
+        this.contentHash = contentHash;
+    }
+
+    public String getId() { return id; }
+    public long getContentHash() { return contentHash; }
+}
@@ -19,7 +19,7 @@ import java.util.Date;
         ),
         indices = {@Index("child_id")}
 )
-public class SafeZoneEntity {
+public class SafeZoneEntity implements SyncableEntity {
 
     @PrimaryKey
     @NonNull
@@ -54,7 +54,7 @@ public class SafeZoneEntity {
     public boolean isActive;
 
     @ColumnInfo(name = "schedule")
-    public String schedule; // JSON string for time-based restrictions
+    public String schedule; // time-based restrictions, format in ZoneSchedule
 
     @ColumnInfo(name = "alerts_enabled")
     public boolean alertsEnabled;
@@ -80,6 +80,9 @@ public class SafeZoneEntity {
     @ColumnInfo(name = "visit_count")
     public int visitCount;
 
+    @ColumnInfo(name = "content_hash", defaultValue = "0")
+    public long contentHash; // Server fields the row was last synced from, see SyncWriter
+
     // Constructors
     public SafeZoneEntity() {}
 
@@ -104,6 +107,7 @@ public class SafeZoneEntity {
     }
 
     // Getters and Setters
+    @Override
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
 
@@ -160,4 +164,8 @@ public class SafeZoneEntity {
 
     public int getVisitCount() { return visitCount; }
     public void setVisitCount(int visitCount) { this.visitCount = visitCount; }
-}
\ No newline at end of file
+
+    @Override
+    public long getContentHash() { return contentHash; }
+    public void setContentHash(long contentHash) { this.contentHash = contentHash; }
+}
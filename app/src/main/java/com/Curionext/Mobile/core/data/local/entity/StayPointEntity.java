@@ -0,0 +1,98 @@
+package com.curionext.mobile.core.data.local.entity;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+import java.util.Date;
+
+@Entity(
+        tableName = "stay_points",
+        foreignKeys = @ForeignKey(
+                entity = ChildEntity.class,
+                parentColumns = "child_id",
+                childColumns = "child_id",
+                onDelete = ForeignKey.CASCADE
+        ),
+        indices = {@Index({"child_id", "arrival"}), @Index("safe_zone_id")}
+)
+public class StayPointEntity {
+
+    @PrimaryKey(autoGenerate = true)
+    @ColumnInfo(name = "id")
+    public long id;
+
+    @ColumnInfo(name = "child_id")
+    public String childId;
+
+    @ColumnInfo(name = "latitude")
+    public double latitude; // centroid
+
+    @ColumnInfo(name = "longitude")
+    public double longitude; // centroid
+
+    @ColumnInfo(name = "arrival")
+    public Date arrival;
+
+    @ColumnInfo(name = "departure")
+    public Date departure;
+
+    @ColumnInfo(name = "sample_count")
+    public int sampleCount;
+
+    @ColumnInfo(name = "safe_zone_id")
+    public String safeZoneId; // zone containing the centroid, null if none
+
+    @ColumnInfo(name = "safe_zone_name")
+    public String safeZoneName;
+
+    // Constructors
+    public StayPointEntity() {}
+
+    public StayPointEntity(String childId, double latitude, double longitude, Date arrival, Date departure,
+                           int sampleCount) {
+        this.childId = childId;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.arrival = arrival;
+        this.departure = departure;
+        this.sampleCount = sampleCount;
+    }
+
+    // Getters and Setters
+    public long getId() { return id; }
+    public void setId(long id) { this.id = id; }
+
+    public String getChildId() { return childId; }
+    public void setChildId(String childId) { this.childId = childId; }
+
+    public double getLatitude() { return latitude; }
+    public void setLatitude(double latitude) { this.latitude = latitude; }
+
+    public double getLongitude() { return longitude; }
+    public void setLongitude(double longitude) { this.longitude = longitude; }
+
+    public Date getArrival() { return arrival; }
+    public void setArrival(Date arrival) { this.arrival = arrival; }
+
+    public Date getDeparture() { return departure; }
+    public void setDeparture(Date departure) { this.departure = departure; }
+
+    public int getSampleCount() { return sampleCount; }
+    public void setSampleCount(int sampleCount) { this.sampleCount = sampleCount; }
+
+    public String getSafeZoneId() { return safeZoneId; }
+    public void setSafeZoneId(String safeZoneId) { this.safeZoneId = safeZoneId; }
+
+    public String getSafeZoneName() { return safeZoneName; }
+    public void setSafeZoneName(String safeZoneName) { this.safeZoneName = safeZoneName; }
+
+    /**
+     * Dwell time in milliseconds
+     */
+    public long getDuration() {
+        return departure.getTime() - arrival.getTime();
+    }
+}
@@ -0,0 +1,14 @@
+package com.curionext.mobile.core.data.local.entity;
+
+/**
+ * A row mirrored from the server and written through SyncWriter
+ */
+public interface SyncableEntity {
+
+    String getId();
+
+    /**
+     * Fingerprint of the server fields the row was last written from; 0 if it never came from a sync
+     */
+    long getContentHash();
+}
@@ -0,0 +1,140 @@
+package com.curionext.mobile.core.data.local.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+import java.util.Date;
+
+@Entity(
+        tableName = "trips",
+        foreignKeys = @ForeignKey(
+                entity = ChildEntity.class,
+                parentColumns = "child_id",
+                childColumns = "child_id",
+                onDelete = ForeignKey.CASCADE
+        ),
+        indices = {@Index({"child_id", "start_time"})}
+)
+public class TripEntity {
+
+    @PrimaryKey
+    @NonNull
+    @ColumnInfo(name = "id")
+    public String id;
+
+    @ColumnInfo(name = "child_id")
+    public String childId;
+
+    @ColumnInfo(name = "start_time")
+    public Date startTime;
+
+    @ColumnInfo(name = "end_time")
+    public Date endTime;
+
+    @ColumnInfo(name = "start_latitude")
+    public double startLatitude;
+
+    @ColumnInfo(name = "start_longitude")
+    public double startLongitude;
+
+    @ColumnInfo(name = "end_latitude")
+    public double endLatitude;
+
+    @ColumnInfo(name = "end_longitude")
+    public double endLongitude;
+
+    @ColumnInfo(name = "distance")
+    public double distance; // meters
+
+    @ColumnInfo(name = "max_speed")
+    public float maxSpeed; // km/h
+
+    @ColumnInfo(name = "average_speed")
+    public float averageSpeed; // km/h, distance over duration
+
+    @ColumnInfo(name = "point_count")
+    public int pointCount;
+
+    @ColumnInfo(name = "start_zone_name")
+    public String startZoneName;
+
+    @ColumnInfo(name = "end_zone_name")
+    public String endZoneName;
+
+    @ColumnInfo(name = "is_open")
+    public boolean isOpen; // still in progress
+
+    // Constructors
+    public TripEntity() {}
+
+    public TripEntity(@NonNull String id, String childId, Date startTime, double startLatitude, double startLongitude) {
+        this.id = id;
+        this.childId = childId;
+        this.startTime = startTime;
+        this.endTime = startTime;
+        this.startLatitude = startLatitude;
+        this.startLongitude = startLongitude;
+        this.endLatitude = startLatitude;
+        this.endLongitude = startLongitude;
+        this.distance = 0;
+        this.pointCount = 1;
+        this.isOpen = true;
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getChildId() { return childId; }
+    public void setChildId(String childId) { this.childId = childId; }
+
+    public Date getStartTime() { return startTime; }
+    public void setStartTime(Date startTime) { this.startTime = startTime; }
+
+    public Date getEndTime() { return endTime; }
+    public void setEndTime(Date endTime) { this.endTime = endTime; }
+
+    public double getStartLatitude() { return startLatitude; }
+    public void setStartLatitude(double startLatitude) { this.startLatitude = startLatitude; }
+
+    public double getStartLongitude() { return startLongitude; }
+    public void setStartLongitude(double startLongitude) { this.startLongitude = startLongitude; }
+
+    public double getEndLatitude() { return endLatitude; }
+    public void setEndLatitude(double endLatitude) { this.endLatitude = endLatitude; }
+
+    public double getEndLongitude() { return endLongitude; }
+    public void setEndLongitude(double endLongitude) { this.endLongitude = endLongitude; }
+
+    public double getDistance() { return distance; }
+    public void setDistance(double distance) { this.distance = distance; }
+
+    public float getMaxSpeed() { return maxSpeed; }
+    public void setMaxSpeed(float maxSpeed) { this.maxSpeed = maxSpeed; }
+
+    public float getAverageSpeed() { return averageSpeed; }
+    public void setAverageSpeed(float averageSpeed) { this.averageSpeed = averageSpeed; }
+
+    public int getPointCount() { return pointCount; }
+    public void setPointCount(int pointCount) { this.pointCount = pointCount; }
+
+    public String getStartZoneName() { return startZoneName; }
+    public void setStartZoneName(String startZoneName) { this.startZoneName = startZoneName; }
+
+    public String getEndZoneName() { return endZoneName; }
+    public void setEndZoneName(String endZoneName) { this.endZoneName = endZoneName; }
+
+    public boolean isOpen() { return isOpen; }
+    public void setOpen(boolean open) { isOpen = open; }
+
+    /**
+     * Duration in milliseconds
+     */
+    public long getDuration() {
+        return endTime.getTime() - startTime.getTime();
+    }
+}
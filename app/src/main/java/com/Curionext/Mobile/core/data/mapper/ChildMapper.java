@@ -0,0 +1,40 @@
+package com.curionext.mobile.core.data.mapper;
+
+import com.curionext.mobile.core.data.local.entity.ChildEntity;
+import com.curionext.mobile.core.data.model.Child;
+
+public final class ChildMapper {
+
+    private ChildMapper() {
+        throw new UnsupportedOperationException("ChildMapper class cannot be instantiated");
+    }
+
+    public static Child toModel(ChildEntity entity) {
+        Child child = new Child();
+        child.setId(entity.getChildId());
+        child.setName(entity.getName());
+        child.setAge(entity.getAge() != null ? entity.getAge() : 0);
+        child.setAvatarUrl(entity.getAvatarUrl());
+        child.setParentId(entity.getParentId());
+        child.setDeviceId(entity.getDeviceId());
+        child.setActive(entity.getIsActive() == null || entity.getIsActive());
+        child.setCreatedAt(entity.getCreatedAt());
+        child.setUpdatedAt(entity.getUpdatedAt());
+        return child;
+    }
+
+    public static ChildEntity toEntity(String childId, Child child) {
+        ChildEntity entity = new ChildEntity(childId, child.getName(), child.getParentId());
+        entity.setAge(child.getAge());
+        entity.setAvatarUrl(child.getAvatarUrl());
+        entity.setDeviceId(child.getDeviceId());
+        entity.setIsActive(child.isActive());
+        if (child.getCreatedAt() != null) {
+            entity.setCreatedAt(child.getCreatedAt());
+        }
+        if (child.getUpdatedAt() != null) {
+            entity.setUpdatedAt(child.getUpdatedAt());
+        }
+        return entity;
+    }
+}
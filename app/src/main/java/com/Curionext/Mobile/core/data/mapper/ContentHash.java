@@ -0,0 +1,75 @@
+package com.curionext.mobile.core.data.mapper;
+
+import java.util.Date;
+
+/**
+ * 64-bit FNV-1a over a sequence of field values, used by the mappers to
+ * fingerprint the server fields an entity is built from. Strings and arrays
+ * are length-prefixed and nulls get their own marker, so neighbouring fields
+ * cannot shift into each other. The value is stored in content_hash columns
+ * and must stay stable across releases.
+ */
+public final class ContentHash {
+
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+    private static final long NULL = -1L;
+
+    private long hash = OFFSET_BASIS;
+
+    public ContentHash add(String value) {
+        if (value == null) {
+            return mix(NULL);
+        }
+        mix(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            mixByte(c >>> 8);
+            mixByte(c);
+        }
+        return this;
+    }
+
+    public ContentHash add(String[] values) {
+        if (values == null) {
+            return mix(NULL);
+        }
+        mix(values.length);
+        for (String value : values) {
+            add(value);
+        }
+        return this;
+    }
+
+    public ContentHash add(Date value) {
+        return value == null ? mix(NULL) : mix(value.getTime());
+    }
+
+    public ContentHash add(double value) {
+        return mix(Double.doubleToLongBits(value));
+    }
+
+    public ContentHash add(long value) {
+        return mix(value);
+    }
+
+    public ContentHash add(boolean value) {
+        return mix(value ? 1 : 0);
+    }
+
+    public long value() {
+        return hash;
+    }
+
+    private ContentHash mix(long value) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            mixByte((int) (value >>> shift));
+        }
+        return this;
+    }
+
+    private void mixByte(int value) {
+        hash ^= value & 0xff;
+        hash *= PRIME;
+    }
+}
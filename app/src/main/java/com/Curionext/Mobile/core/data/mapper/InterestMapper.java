@@ -0,0 +1,75 @@
+package com.curionext.mobile.core.data.mapper;
+
+import com.curionext.mobile.core.data.local.entity.InterestEntity;
+import com.curionext.mobile.core.data.model.Interest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+public final class InterestMapper {
+
+    private InterestMapper() {
+        throw new UnsupportedOperationException("InterestMapper class cannot be instantiated");
+    }
+
+    public static Interest toModel(InterestEntity entity) {
+        Interest interest = new Interest();
+        interest.setId(entity.getId());
+        interest.setChildId(entity.getChildId());
+        interest.setTopic(entity.getTopic());
+        interest.setCategory(entity.getCategory());
+        interest.setInterestLevel(entity.getInterestLevel());
+        interest.setFrequency(entity.getFrequency());
+        interest.setLastExplored(entity.getLastExplored());
+        interest.setCreatedAt(entity.getCreatedAt());
+        interest.setTrendDirection(entity.getTrendDirection());
+        interest.setStoredKeywords(entity.getKeywords());
+        return interest;
+    }
+
+    public static InterestEntity toEntity(String childId, Interest interest) {
+        String id = interest.getId() != null ? interest.getId() : UUID.randomUUID().toString();
+        InterestEntity entity = new InterestEntity(id, childId, interest.getTopic(), interest.getCategory(),
+                interest.getInterestLevel());
+        entity.setFrequency(interest.getFrequency());
+        entity.setLastExplored(interest.getLastExplored());
+        if (interest.getCreatedAt() != null) {
+            entity.setCreatedAt(interest.getCreatedAt());
+        }
+        entity.setTrendDirection(interest.getTrendDirection());
+        entity.setKeywords(KeywordCodec.encode(interest.getKeywords()));
+        entity.setContentHash(contentHash(interest));
+        return entity;
+    }
+
+    private static long contentHash(Interest interest) {
+        return new ContentHash()
+                .add(interest.getId())
+                .add(interest.getTopic())
+                .add(interest.getCategory())
+                .add(interest.getInterestLevel())
+                .add(interest.getFrequency())
+                .add(interest.getLastExplored())
+                .add(interest.getCreatedAt())
+                .add(interest.getTrendDirection())
+                .add(interest.getKeywords())
+                .value();
+    }
+
+    public static List<Interest> toModels(List<InterestEntity> entities) {
+        List<Interest> interests = new ArrayList<>(entities.size());
+        for (InterestEntity entity : entities) {
+            interests.add(toModel(entity));
+        }
+        return interests;
+    }
+
+    public static List<InterestEntity> toEntities(String childId, List<Interest> interests) {
+        List<InterestEntity> entities = new ArrayList<>(interests.size());
+        for (Interest interest : interests) {
+            entities.add(toEntity(childId, interest));
+        }
+        return entities;
+    }
+}
@@ -0,0 +1,120 @@
+package com.curionext.mobile.core.data.mapper;
+
+/**
+ * Storage format of keyword arrays in the interests/preferences keywords columns.
+ * Every keyword is written as-is and followed by a unit separator (U+001F);
+ * a separator or backslash inside a keyword is preceded by a backslash. So
+ * {"space", "a, b"} is stored as "space\u001Fa, b\u001F", an empty array as ""
+ * and a null array as NULL. Separators are not token characters for the FTS
+ * tokenizer, so the stored text indexes as the keywords themselves.
+ * <p>
+ * Decoding is one pass over the column: the separators are counted to size
+ * the array, then each keyword is cut out with substring. Only a keyword that
+ * contains an escape is rebuilt character by character.
+ */
+public final class KeywordCodec {
+
+    static final char SEPARATOR = '\u001F';
+    static final char ESCAPE = '\\';
+
+    private static final String[] NONE = new String[0];
+
+    private KeywordCodec() {
+        throw new UnsupportedOperationException("KeywordCodec class cannot be instantiated");
+    }
+
+    /**
+     * Encode for storage; null entries are stored as empty keywords
+     */
+    public static String encode(String[] keywords) {
+        if (keywords == null) {
+            return null;
+        }
+        int length = 0;
+        for (String keyword : keywords) {
+            length += (keyword != null ? keyword.length() : 0) + 1;
+        }
+        StringBuilder builder = new StringBuilder(length);
+        for (String keyword : keywords) {
+            if (keyword != null) {
+                appendEscaped(builder, keyword);
+            }
+            builder.append(SEPARATOR);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Decode a stored column; NULL comes back as no keywords and an unterminated
+     * last keyword is kept rather than failing the read
+     */
+    public static String[] decode(String stored) {
+        if (stored == null || stored.isEmpty()) {
+            return NONE;
+        }
+        int length = stored.length();
+        String[] keywords = new String[count(stored)];
+        int index = 0;
+        int start = 0;
+        boolean escaped = false;
+        for (int i = 0; i < length; i++) {
+            char c = stored.charAt(i);
+            if (c == ESCAPE && i + 1 < length) {
+                escaped = true;
+                i++;
+            } else if (c == SEPARATOR) {
+                keywords[index++] = escaped ? unescape(stored, start, i) : stored.substring(start, i);
+                start = i + 1;
+                escaped = false;
+            }
+        }
+        if (start < length) {
+            keywords[index] = escaped ? unescape(stored, start, length) : stored.substring(start);
+        }
+        return keywords;
+    }
+
+    /**
+     * Number of keywords in a stored column, without decoding them
+     */
+    public static int count(String stored) {
+        if (stored == null) {
+            return 0;
+        }
+        int length = stored.length();
+        int count = 0;
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            char c = stored.charAt(i);
+            if (c == ESCAPE) {
+                i++;
+            } else if (c == SEPARATOR) {
+                count++;
+                start = i + 1;
+            }
+        }
+        return start < length ? count + 1 : count;
+    }
+
+    private static void appendEscaped(StringBuilder builder, String keyword) {
+        for (int i = 0; i < keyword.length(); i++) {
+            char c = keyword.charAt(i);
+            if (c == SEPARATOR || c == ESCAPE) {
+                builder.append(ESCAPE);
+            }
+            builder.append(c);
+        }
+    }
+
+    private static String unescape(String stored, int start, int end) {
+        StringBuilder builder = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            char c = stored.charAt(i);
+            if (c == ESCAPE && i + 1 < end) {
+                c = stored.charAt(++i);
+            }
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+}
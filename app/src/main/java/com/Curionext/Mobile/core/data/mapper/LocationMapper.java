@@ -0,0 +1,45 @@
+package com.curionext.mobile.core.data.mapper;
+
+import com.curionext.mobile.core.data.local.entity.LocationEntity;
+import com.curionext.mobile.core.data.model.LocationData;
+import com.curionext.mobile.core.util.LocationUtils;
+
+import java.util.UUID;
+
+public final class LocationMapper {
+
+    private LocationMapper() {
+        throw new UnsupportedOperationException("LocationMapper class cannot be instantiated");
+    }
+
+    public static LocationData toModel(LocationEntity entity) {
+        LocationData location = new LocationData(entity.getChildId(), entity.getLatitude(), entity.getLongitude(),
+                entity.getAccuracy());
+        location.setId(entity.getId());
+        location.setAddress(entity.getAddress());
+        location.setTimestamp(entity.getTimestamp());
+        location.setInSafeZone(entity.isInSafeZone());
+        location.setSafeZoneName(entity.getSafeZoneName());
+        location.setBatteryLevel(entity.getBatteryLevel());
+        location.setSpeed(entity.getSpeed() / 3.6f);
+        return location;
+    }
+
+    /**
+     * Map a fix for the locations table; speed goes from m/s to the stored km/h
+     */
+    public static LocationEntity toEntity(String childId, LocationData location) {
+        String id = location.getId() != null ? location.getId() : UUID.randomUUID().toString();
+        LocationEntity entity = new LocationEntity(id, childId,
+                location.getLatitude(), location.getLongitude(), location.getAccuracy());
+        if (location.getTimestamp() != null) {
+            entity.setTimestamp(location.getTimestamp());
+        }
+        entity.setAddress(location.getAddress());
+        entity.setBatteryLevel(location.getBatteryLevel());
+        entity.setSpeed((float) LocationUtils.convertSpeedToKmh(location.getSpeed()));
+        entity.setInSafeZone(location.isInSafeZone());
+        entity.setSafeZoneName(location.getSafeZoneName());
+        return entity;
+    }
+}
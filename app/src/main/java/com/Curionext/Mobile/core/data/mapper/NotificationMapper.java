@@ -0,0 +1,80 @@
+package com.curionext.mobile.core.data.mapper;
+
+import com.curionext.mobile.core.data.local.entity.NotificationEntity;
+import com.curionext.mobile.core.data.model.NotificationItem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+public final class NotificationMapper {
+
+    private NotificationMapper() {
+        throw new UnsupportedOperationException("NotificationMapper class cannot be instantiated");
+    }
+
+    public static NotificationItem toModel(NotificationEntity entity) {
+        NotificationItem notification = new NotificationItem();
+        notification.setId(entity.getId());
+        notification.setChildId(entity.getChildId());
+        notification.setTitle(entity.getTitle());
+        notification.setDescription(entity.getDescription());
+        notification.setType(entity.getType());
+        notification.setCategory(entity.getCategory());
+        notification.setTimestamp(entity.getTimestamp());
+        notification.setRead(entity.isRead());
+        notification.setPriority(entity.getPriority());
+        notification.setActionUrl(entity.getActionUrl());
+        notification.setMetadata(entity.getMetadata());
+        return notification;
+    }
+
+    public static NotificationEntity toEntity(String childId, NotificationItem notification) {
+        String id = notification.getId() != null ? notification.getId() : UUID.randomUUID().toString();
+        NotificationEntity entity = new NotificationEntity(id, childId, notification.getTitle(),
+                notification.getDescription(), notification.getType(), notification.getCategory());
+        if (notification.getTimestamp() != null) {
+            entity.setTimestamp(notification.getTimestamp());
+        }
+        entity.setRead(notification.isRead());
+        if (notification.getPriority() != null) {
+            entity.setPriority(notification.getPriority());
+        }
+        entity.setActionUrl(notification.getActionUrl());
+        entity.setMetadata(notification.getMetadata());
+        entity.setContentHash(contentHash(notification));
+        return entity;
+    }
+
+    // Server fields only, so the constructor's "now" fallbacks don't make every resync look like a change
+    private static long contentHash(NotificationItem notification) {
+        return new ContentHash()
+                .add(notification.getId())
+                .add(notification.getTitle())
+                .add(notification.getDescription())
+                .add(notification.getType())
+                .add(notification.getCategory())
+                .add(notification.getTimestamp())
+                .add(notification.isRead())
+                .add(notification.getPriority())
+                .add(notification.getActionUrl())
+                .add(notification.getMetadata())
+                .value();
+    }
+
+    public static List<NotificationItem> toModels(List<NotificationEntity> entities) {
+        List<NotificationItem> notifications = new ArrayList<>(entities.size());
+        for (NotificationEntity entity : entities) {
+            notifications.add(toModel(entity));
+        }
+        return notifications;
+    }
+
+    public static List<NotificationEntity> toEntities(String childId, List<NotificationItem> notifications) {
+        List<NotificationEntity> entities = new ArrayList<>(notifications.size());
+        for (NotificationItem notification : notifications) {
+            entities.add(toEntity(childId, notification));
+        }
+        return entities;
+    }
+}
@@ -0,0 +1,81 @@
+package com.curionext.mobile.core.data.mapper;
+
+import com.curionext.mobile.core.data.local.entity.PreferenceEntity;
+import com.curionext.mobile.core.data.model.Preference;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+public final class PreferenceMapper {
+
+    private PreferenceMapper() {
+        throw new UnsupportedOperationException("PreferenceMapper class cannot be instantiated");
+    }
+
+    public static Preference toModel(PreferenceEntity entity) {
+        Preference preference = new Preference();
+        preference.setId(entity.getId());
+        preference.setChildId(entity.getChildId());
+        preference.setTopic(entity.getTopic());
+        preference.setSentiment(entity.getSentiment());
+        preference.setConfidence(entity.getConfidence());
+        preference.setFrequency(entity.getFrequency());
+        preference.setCategory(entity.getCategory());
+        preference.setStoredKeywords(entity.getKeywords());
+        preference.setLastUpdated(entity.getLastUpdated());
+        preference.setCreatedAt(entity.getCreatedAt());
+        preference.setTrend(entity.getTrend());
+        return preference;
+    }
+
+    public static PreferenceEntity toEntity(String childId, Preference preference) {
+        String id = preference.getId() != null ? preference.getId() : UUID.randomUUID().toString();
+        PreferenceEntity entity = new PreferenceEntity(id, childId, preference.getTopic(),
+                preference.getSentiment(), preference.getConfidence(), preference.getCategory());
+        entity.setFrequency(preference.getFrequency());
+        entity.setKeywords(KeywordCodec.encode(preference.getKeywords()));
+        if (preference.getLastUpdated() != null) {
+            entity.setLastUpdated(preference.getLastUpdated());
+        }
+        if (preference.getCreatedAt() != null) {
+            entity.setCreatedAt(preference.getCreatedAt());
+        }
+        if (preference.getTrend() != null) {
+            entity.setTrend(preference.getTrend());
+        }
+        entity.setContentHash(contentHash(preference));
+        return entity;
+    }
+
+    private static long contentHash(Preference preference) {
+        return new ContentHash()
+                .add(preference.getId())
+                .add(preference.getTopic())
+                .add(preference.getSentiment())
+                .add(preference.getConfidence())
+                .add(preference.getCategory())
+                .add(preference.getFrequency())
+                .add(preference.getKeywords())
+                .add(preference.getLastUpdated())
+                .add(preference.getCreatedAt())
+                .add(preference.getTrend())
+                .value();
+    }
+
+    public static List<Preference> toModels(List<PreferenceEntity> entities) {
+        List<Preference> preferences = new ArrayList<>(entities.size());
+        for (PreferenceEntity entity : entities) {
+            preferences.add(toModel(entity));
+        }
+        return preferences;
+    }
+
+    public static List<PreferenceEntity> toEntities(String childId, List<Preference> preferences) {
+        List<PreferenceEntity> entities = new ArrayList<>(preferences.size());
+        for (Preference preference : preferences) {
+            entities.add(toEntity(childId, preference));
+        }
+        return entities;
+    }
+}
@@ -0,0 +1,92 @@
+package com.curionext.mobile.core.data.mapper;
+
+import com.curionext.mobile.core.data.local.entity.SafeZoneEntity;
+import com.curionext.mobile.core.data.model.SafeZone;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+public final class SafeZoneMapper {
+
+    private SafeZoneMapper() {
+        throw new UnsupportedOperationException("SafeZoneMapper class cannot be instantiated");
+    }
+
+    public static SafeZone toModel(SafeZoneEntity entity) {
+        SafeZone zone = new SafeZone();
+        zone.setId(entity.getId());
+        zone.setChildId(entity.getChildId());
+        zone.setName(entity.getName());
+        zone.setAddress(entity.getAddress());
+        zone.setLatitude(entity.getLatitude());
+        zone.setLongitude(entity.getLongitude());
+        zone.setRadius(entity.getRadius());
+        zone.setColor(entity.getColor());
+        zone.setIcon(entity.getIcon());
+        zone.setActive(entity.isActive());
+        zone.setSchedule(entity.getSchedule());
+        zone.setAlertsEnabled(entity.isAlertsEnabled());
+        zone.setCreatedAt(entity.getCreatedAt());
+        return zone;
+    }
+
+    /**
+     * Map a server zone; pass the stored row (or null) so locally tracked visit state survives the refresh
+     */
+    public static SafeZoneEntity toEntity(String childId, SafeZone zone, SafeZoneEntity existing) {
+        String id = zone.getId() != null ? zone.getId() : UUID.randomUUID().toString();
+        SafeZoneEntity entity = new SafeZoneEntity(id, childId, zone.getName(), zone.getAddress(),
+                zone.getLatitude(), zone.getLongitude(), zone.getRadius());
+        if (zone.getColor() != null) {
+            entity.setColor(zone.getColor());
+        }
+        if (zone.getIcon() != null) {
+            entity.setIcon(zone.getIcon());
+        }
+        entity.setActive(zone.isActive());
+        if (zone.getSchedule() != null) {
+            entity.setSchedule(zone.getSchedule());
+        }
+        entity.setAlertsEnabled(zone.isAlertsEnabled());
+        if (zone.getCreatedAt() != null) {
+            entity.setCreatedAt(zone.getCreatedAt());
+        }
+
+        if (existing != null) {
+            entity.setEntryNotifications(existing.isEntryNotifications());
+            entity.setExitNotifications(existing.isExitNotifications());
+            entity.setLastEntered(existing.getLastEntered());
+            entity.setLastExited(existing.getLastExited());
+            entity.setVisitCount(existing.getVisitCount());
+        }
+        entity.setContentHash(contentHash(zone));
+        return entity;
+    }
+
+    // Visit tracking and notification toggles are local and copied from the stored row, so they are left out
+    private static long contentHash(SafeZone zone) {
+        return new ContentHash()
+                .add(zone.getId())
+                .add(zone.getName())
+                .add(zone.getAddress())
+                .add(zone.getLatitude())
+                .add(zone.getLongitude())
+                .add(zone.getRadius())
+                .add(zone.getColor())
+                .add(zone.getIcon())
+                .add(zone.isActive())
+                .add(zone.getSchedule())
+                .add(zone.isAlertsEnabled())
+                .add(zone.getCreatedAt())
+                .value();
+    }
+
+    public static List<SafeZone> toModels(List<SafeZoneEntity> entities) {
+        List<SafeZone> zones = new ArrayList<>(entities.size());
+        for (SafeZoneEntity entity : entities) {
+            zones.add(toModel(entity));
+        }
+        return zones;
+    }
+}
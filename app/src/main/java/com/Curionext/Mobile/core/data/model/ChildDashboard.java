@@ -0,0 +1,57 @@
+package com.curionext.mobile.core.data.model;
+
+import com.curionext.mobile.core.data.local.entity.ChildStatsEntity;
+import com.google.gson.annotations.SerializedName;
+
+import java.util.List;
+
+/**
+ * Everything the dashboard shows for one child. The batch endpoint returns
+ * the child's full interest and notification lists; when read back from the
+ * database the lists hold the top DASHBOARD_ITEMS_LIMIT entries and the badge
+ * counters are filled in.
+ */
+public class ChildDashboard {
+    @SerializedName("child_id")
+    private String childId;
+
+    @SerializedName("child")
+    private Child child;
+
+    @SerializedName("interests")
+    private List<Interest> interests;
+
+    @SerializedName("notifications")
+    private List<NotificationItem> notifications;
+
+    // Local only: maintained by the child_stats triggers
+    private transient ChildStatsEntity stats;
+
+    // Constructors
+    public ChildDashboard() {}
+
+    public ChildDashboard(String childId, Child child, List<Interest> interests,
+                          List<NotificationItem> notifications, ChildStatsEntity stats) {
+        this.childId = childId;
+        this.child = child;
+        this.interests = interests;
+        this.notifications = notifications;
+        this.stats = stats;
+    }
+
+    // Getters and Setters
+    public String getChildId() { return childId; }
+    public void setChildId(String childId) { this.childId = childId; }
+
+    public Child getChild() { return child; }
+    public void setChild(Child child) { this.child = child; }
+
+    public List<Interest> getInterests() { return interests; }
+    public void setInterests(List<Interest> interests) { this.interests = interests; }
+
+    public List<NotificationItem> getNotifications() { return notifications; }
+    public void setNotifications(List<NotificationItem> notifications) { this.notifications = notifications; }
+
+    public ChildStatsEntity getStats() { return stats; }
+    public void setStats(ChildStatsEntity stats) { this.stats = stats; }
+}
@@ -0,0 +1,62 @@
+package com.curionext.mobile.core.data.model;
+
+import java.util.Date;
+
+public class GeofenceTransition {
+
+    public static final String TYPE_ENTER = "enter";
+    public static final String TYPE_EXIT = "exit";
+
+    private String childId;
+    private String safeZoneId;
+    private String safeZoneName;
+    private String type; // "enter", "exit"
+    private Date timestamp;
+    private double distance; // meters from zone center at transition time
+    private boolean notify; // zone has entry/exit notifications enabled for this type
+
+    // Constructors
+    public GeofenceTransition() {}
+
+    public GeofenceTransition(String childId, String safeZoneId, String safeZoneName, String type,
+                              Date timestamp, double distance, boolean notify) {
+        this.childId = childId;
+        this.safeZoneId = safeZoneId;
+        this.safeZoneName = safeZoneName;
+        this.type = type;
+        this.timestamp = timestamp;
+        this.distance = distance;
+        this.notify = notify;
+    }
+
+    // Getters and Setters
+    public String getChildId() { return childId; }
+    public void setChildId(String childId) { this.childId = childId; }
+
+    public String getSafeZoneId() { return safeZoneId; }
+    public void setSafeZoneId(String safeZoneId) { this.safeZoneId = safeZoneId; }
+
+    public String getSafeZoneName() { return safeZoneName; }
+    public void setSafeZoneName(String safeZoneName) { this.safeZoneName = safeZoneName; }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public Date getTimestamp() { return timestamp; }
+    public void setTimestamp(Date timestamp) { this.timestamp = timestamp; }
+
+    public double getDistance() { return distance; }
+    public void setDistance(double distance) { this.distance = distance; }
+
+    public boolean isNotify() { return notify; }
+    public void setNotify(boolean notify) { this.notify = notify; }
+
+    // Helper methods
+    public boolean isEntry() {
+        return TYPE_ENTER.equals(type);
+    }
+
+    public boolean isExit() {
+        return TYPE_EXIT.equals(type);
+    }
+}
@@ -1,5 +1,6 @@
 package com.curionext.mobile.core.data.model;
 
+import com.curionext.mobile.core.data.mapper.KeywordCodec;
 import com.google.gson.annotations.SerializedName;
 import java.util.Date;
 
@@ -34,6 +35,9 @@ public class Interest {
     @SerializedName("keywords")
     private String[] keywords;
 
+    // keywords column as read from the local table, decoded on first getKeywords()
+    private transient String storedKeywords;
+
     // Constructors
     public Interest() {}
 
@@ -76,6 +80,25 @@ public class Interest {
     public String getTrendDirection() { return trendDirection; }
     public void setTrendDirection(String trendDirection) { this.trendDirection = trendDirection; }
 
-    public String[] getKeywords() { return keywords; }
-    public void setKeywords(String[] keywords) { this.keywords = keywords; }
+    public String[] getKeywords() {
+        if (storedKeywords != null) {
+            keywords = KeywordCodec.decode(storedKeywords);
+            storedKeywords = null;
+        }
+        return keywords;
+    }
+
+    public void setKeywords(String[] keywords) {
+        this.keywords = keywords;
+        this.storedKeywords = null;
+    }
+
+    /**
+     * Keep the stored keywords column undecoded until getKeywords() is called
+     */
+    public void setStoredKeywords(String storedKeywords) {
+        this.keywords = null;
+        // NULL decodes to no keywords, like any other stored value
+        this.storedKeywords = storedKeywords != null ? storedKeywords : "";
+    }
 }
@@ -34,6 +34,9 @@ public class LocationData {
     @SerializedName("battery_level")
     private int batteryLevel;
 
+    @SerializedName("speed")
+    private float speed; // m/s
+
     // Constructors
     public LocationData() {}
 
@@ -76,4 +79,7 @@ public class LocationData {
 
     public int getBatteryLevel() { return batteryLevel; }
     public void setBatteryLevel(int batteryLevel) { this.batteryLevel = batteryLevel; }
+
+    public float getSpeed() { return speed; }
+    public void setSpeed(float speed) { this.speed = speed; }
 }
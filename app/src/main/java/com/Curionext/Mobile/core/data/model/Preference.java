@@ -1,5 +1,6 @@
 package com.curionext.mobile.core.data.model;
 
+import com.curionext.mobile.core.data.mapper.KeywordCodec;
 import com.google.gson.annotations.SerializedName;
 import java.util.Date;
 
@@ -28,6 +29,9 @@ public class Preference {
     @SerializedName("keywords")
     private String[] keywords;
 
+    // keywords column as read from the local table, decoded on first getKeywords()
+    private transient String storedKeywords;
+
     @SerializedName("last_updated")
     private Date lastUpdated;
 
@@ -74,8 +78,27 @@ public class Preference {
     public String getCategory() { return category; }
     public void setCategory(String category) { this.category = category; }
 
-    public String[] getKeywords() { return keywords; }
-    public void setKeywords(String[] keywords) { this.keywords = keywords; }
+    public String[] getKeywords() {
+        if (storedKeywords != null) {
+            keywords = KeywordCodec.decode(storedKeywords);
+            storedKeywords = null;
+        }
+        return keywords;
+    }
+
+    public void setKeywords(String[] keywords) {
+        this.keywords = keywords;
+        this.storedKeywords = null;
+    }
+
+    /**
+     * Keep the stored keywords column undecoded until getKeywords() is called
+     */
+    public void setStoredKeywords(String storedKeywords) {
+        this.keywords = null;
+        // NULL decodes to no keywords, like any other stored value
+        this.storedKeywords = storedKeywords != null ? storedKeywords : "";
+    }
 
     public Date getLastUpdated() { return lastUpdated; }
     public void setLastUpdated(Date lastUpdated) { this.lastUpdated = lastUpdated; }
@@ -0,0 +1,41 @@
+package com.curionext.mobile.core.data.model;
+
+import androidx.room.ColumnInfo;
+
+/**
+ * Aggregate over a child's trips, read straight from the trips table
+ */
+public class TripSummary {
+
+    @ColumnInfo(name = "trip_count")
+    private int tripCount;
+
+    @ColumnInfo(name = "total_distance")
+    private double totalDistance; // meters
+
+    @ColumnInfo(name = "total_duration")
+    private long totalDuration; // milliseconds
+
+    @ColumnInfo(name = "max_speed")
+    private float maxSpeed; // km/h
+
+    // Getters and Setters
+    public int getTripCount() { return tripCount; }
+    public void setTripCount(int tripCount) { this.tripCount = tripCount; }
+
+    public double getTotalDistance() { return totalDistance; }
+    public void setTotalDistance(double totalDistance) { this.totalDistance = totalDistance; }
+
+    public long getTotalDuration() { return totalDuration; }
+    public void setTotalDuration(long totalDuration) { this.totalDuration = totalDuration; }
+
+    public float getMaxSpeed() { return maxSpeed; }
+    public void setMaxSpeed(float maxSpeed) { this.maxSpeed = maxSpeed; }
+
+    /**
+     * Average moving speed in km/h
+     */
+    public double getAverageSpeed() {
+        return totalDuration == 0 ? 0 : totalDistance / totalDuration * 3600;
+    }
+}
@@ -0,0 +1,73 @@
+package com.curionext.mobile.core.data.paging;
+
+import androidx.annotation.Nullable;
+
+import java.util.List;
+
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Single;
+
+/**
+ * Walks a query page by page using the last row seen as the cursor.
+ * The page source seeks past that row ((timestamp, id) in this app) instead
+ * of skipping OFFSET rows, so every page costs the same however deep the
+ * list is scrolled, and rows inserted at the head while scrolling do not
+ * shift later pages. Only one page load is in flight at a time; create a new
+ * pager to start over.
+ */
+public class KeysetPager<T> {
+
+    /**
+     * Loads up to pageSize rows after the given row, or the first page when it is null
+     */
+    public interface PageSource<T> {
+        Single<List<T>> loadPage(@Nullable T after, int pageSize);
+    }
+
+    private final PageSource<T> source;
+    private final int pageSize;
+
+    private T last;
+    private boolean loading;
+    private boolean exhausted;
+
+    public KeysetPager(int pageSize, PageSource<T> source) {
+        this.pageSize = pageSize;
+        this.source = source;
+    }
+
+    /**
+     * The next page; completes empty when a load is already running or the end was reached
+     */
+    public Maybe<List<T>> nextPage() {
+        return Maybe.defer(() -> {
+            T after;
+            synchronized (this) {
+                if (loading || exhausted) {
+                    return Maybe.empty();
+                }
+                loading = true;
+                after = last;
+            }
+            return source.loadPage(after, pageSize)
+                    .doOnSuccess(this::onPageLoaded)
+                    .doFinally(this::onLoadFinished)
+                    .toMaybe();
+        });
+    }
+
+    public synchronized boolean isExhausted() {
+        return exhausted;
+    }
+
+    private synchronized void onPageLoaded(List<T> page) {
+        if (!page.isEmpty()) {
+            last = page.get(page.size() - 1);
+        }
+        exhausted = page.size() < pageSize;
+    }
+
+    private synchronized void onLoadFinished() {
+        loading = false;
+    }
+}
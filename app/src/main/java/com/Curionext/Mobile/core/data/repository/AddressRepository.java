@@ -0,0 +1,176 @@
+package com.curionext.mobile.core.data.repository;
+
+import android.content.Context;
+import android.location.Address;
+import android.location.Geocoder;
+import android.util.Log;
+import android.util.LruCache;
+
+import com.curionext.mobile.core.data.local.dao.GeocodeCacheDao;
+import com.curionext.mobile.core.data.local.dao.LocationDao;
+import com.curionext.mobile.core.data.local.entity.GeocodeCacheEntity;
+import com.curionext.mobile.core.data.local.entity.LocationEntity;
+import com.curionext.mobile.core.util.Constants;
+import com.curionext.mobile.core.util.LocationUtils;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * Reverse geocoding behind two cache levels.
+ * Coordinates are quantized to GEOCODE_CELL_SIZE cells; a lookup checks the
+ * in-memory LRU, then the geocode_cache table, and only then calls Geocoder.
+ * Concurrent lookups of the same cell share one Geocoder call. Lookups never
+ * fail: without an address they complete empty, nothing is cached or stored,
+ * and the next lookup tries again. Callers that need a label format the
+ * coordinates themselves (LocationUtils.formatCoordinates) at display time.
+ */
+@Singleton
+public class AddressRepository {
+
+    private static final String TAG = "AddressRepository";
+
+    private final Context context;
+    private final GeocodeCacheDao geocodeCacheDao;
+    private final LocationDao locationDao;
+
+    private final LruCache<String, String> memoryCache = new LruCache<>(Constants.GEOCODE_MEMORY_CACHE_SIZE);
+    private final Map<String, Maybe<String>> inFlight = new ConcurrentHashMap<>();
+    private Geocoder geocoder;
+
+    @Inject
+    public AddressRepository(Context context, GeocodeCacheDao geocodeCacheDao, LocationDao locationDao) {
+        this.context = context;
+        this.geocodeCacheDao = geocodeCacheDao;
+        this.locationDao = locationDao;
+    }
+
+    /**
+     * Memory-only lookup for binding views; null when the cell has not been resolved yet
+     */
+    public String peekAddress(double latitude, double longitude) {
+        return memoryCache.get(cellKey(latitude, longitude));
+    }
+
+    /**
+     * The address of the cell; completes empty when none could be found
+     */
+    public Maybe<String> resolveAddress(double latitude, double longitude) {
+        String key = cellKey(latitude, longitude);
+        String cached = memoryCache.get(key);
+        if (cached != null) {
+            return Maybe.just(cached);
+        }
+
+        return inFlight.computeIfAbsent(key, k -> lookup(k, latitude, longitude)
+                .doFinally(() -> inFlight.remove(k))
+                .cache());
+    }
+
+    /**
+     * The fix with its address set, for rows that have not been handed to the
+     * write buffer yet; emits the same entity. Never fails: without an address
+     * the entity is emitted as is, so fillMissingAddresses can retry it later.
+     */
+    public Single<LocationEntity> withAddress(LocationEntity location) {
+        if (hasAddress(location)) {
+            return Single.just(location);
+        }
+
+        return resolveAddress(location.getLatitude(), location.getLongitude())
+                .map(address -> {
+                    location.setAddress(address);
+                    return location;
+                })
+                .defaultIfEmpty(location);
+    }
+
+    /**
+     * Resolve and store the address of a row already in locations that has none
+     */
+    public Completable fillAddress(LocationEntity location) {
+        if (hasAddress(location)) {
+            return Completable.complete();
+        }
+
+        return resolveAddress(location.getLatitude(), location.getLongitude())
+                .flatMapCompletable(address -> locationDao.updateAddress(location.getId(), address));
+    }
+
+    public Completable fillMissingAddresses(List<LocationEntity> locations) {
+        return Observable.fromIterable(locations)
+                .concatMapCompletable(location -> fillAddress(location).onErrorComplete());
+    }
+
+    /**
+     * Drop persisted entries older than GEOCODE_CACHE_EXPIRY
+     */
+    public Completable pruneCache() {
+        return geocodeCacheDao.deleteEntriesOlderThan(
+                new Date(System.currentTimeMillis() - Constants.GEOCODE_CACHE_EXPIRY));
+    }
+
+    private Maybe<String> lookup(String key, double latitude, double longitude) {
+        return geocodeCacheDao.getEntry(key)
+                .filter(entry -> !isExpired(entry))
+                .map(GeocodeCacheEntity::getAddress)
+                .switchIfEmpty(Maybe.fromCallable(() -> geocode(latitude, longitude))
+                        .flatMap(address -> geocodeCacheDao.insertEntry(new GeocodeCacheEntity(key, address, new Date()))
+                                .onErrorComplete()
+                                .andThen(Maybe.just(address))))
+                .doOnSuccess(address -> memoryCache.put(key, address))
+                .onErrorComplete()
+                .subscribeOn(Schedulers.io());
+    }
+
+    // Returns null when no address could be found, which Maybe.fromCallable turns into empty
+    private String geocode(double latitude, double longitude) {
+        if (!Geocoder.isPresent()) {
+            return null;
+        }
+
+        try {
+            List<Address> addresses = getGeocoder().getFromLocation(latitude, longitude, 1);
+            if (addresses != null && !addresses.isEmpty()) {
+                return LocationUtils.formatAddress(addresses.get(0));
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Reverse geocoding failed", e);
+        }
+        return null;
+    }
+
+    private synchronized Geocoder getGeocoder() {
+        if (geocoder == null) {
+            geocoder = new Geocoder(context, Locale.getDefault());
+        }
+        return geocoder;
+    }
+
+    private static boolean hasAddress(LocationEntity location) {
+        return location.getAddress() != null && !location.getAddress().isEmpty();
+    }
+
+    private static boolean isExpired(GeocodeCacheEntity entry) {
+        return entry.getResolvedAt() == null
+                || System.currentTimeMillis() - entry.getResolvedAt().getTime() > Constants.GEOCODE_CACHE_EXPIRY;
+    }
+
+    static String cellKey(double latitude, double longitude) {
+        return Math.round(latitude / Constants.GEOCODE_CELL_SIZE) + ":"
+                + Math.round(longitude / Constants.GEOCODE_CELL_SIZE);
+    }
+}
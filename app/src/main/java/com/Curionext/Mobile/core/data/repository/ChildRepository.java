@@ -1,6 +1,10 @@
 package com.curionext.mobile.core.data.repository;
 
 import com.curionext.mobile.core.data.local.dao.ChildDao;
+import com.curionext.mobile.core.data.local.dao.ChildStatsDao;
+import com.curionext.mobile.core.data.local.entity.ChildEntity;
+import com.curionext.mobile.core.data.local.entity.ChildStatsEntity;
+import com.curionext.mobile.core.data.mapper.ChildMapper;
 import com.curionext.mobile.core.data.model.Child;
 import com.curionext.mobile.core.data.model.WeeklySummary;
 import com.curionext.mobile.core.network.ApiService;
@@ -8,37 +12,61 @@ import com.curionext.mobile.core.network.ApiService;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Observable;
 import io.reactivex.rxjava3.core.Single;
 
 @Singleton
 public class ChildRepository {
 
+    static final String CACHE_KEY_PREFIX = "child/";
+
     private final ApiService apiService;
     private final ChildDao childDao;
+    private final ChildStatsDao childStatsDao;
+    private final OfflineCache offlineCache;
 
     @Inject
-    public ChildRepository(ApiService apiService, ChildDao childDao) {
+    public ChildRepository(ApiService apiService, ChildDao childDao, ChildStatsDao childStatsDao,
+                           OfflineCache offlineCache) {
         this.apiService = apiService;
         this.childDao = childDao;
+        this.childStatsDao = childStatsDao;
+        this.offlineCache = offlineCache;
     }
 
-    public Single<Child> getChildProfile(String childId) {
-        return apiService.getChildProfile(childId)
-                .doOnSuccess(child -> {
-                    // Cache in local database
-                    // childDao.insertChild(child);
-                });
+    /**
+     * Stored profile first, then the server's if the stored one has expired
+     */
+    public Observable<Child> getChildProfile(String childId) {
+        return offlineCache.load(CACHE_KEY_PREFIX + childId,
+                childDao.getChildById(childId).map(ChildMapper::toModel),
+                apiService.getChildProfile(childId),
+                child -> saveChild(childId, child));
     }
 
     public Single<Child> updateChildProfile(String childId, Child child) {
         return apiService.updateChildProfile(childId, child)
-                .doOnSuccess(updatedChild -> {
-                    // Update local cache
-                    // childDao.updateChild(updatedChild);
-                });
+                .doOnSuccess(updatedChild -> saveChild(childId, updatedChild));
+    }
+
+    /**
+     * Badge and summary counters of the stored notifications, preferences and interests, re-emitted after
+     * every local write; all zero until the child has any of them
+     */
+    public Flowable<ChildStatsEntity> observeStats(String childId) {
+        return childStatsDao.observeStats(childId)
+                .map(rows -> rows.isEmpty() ? new ChildStatsEntity(childId) : rows.get(0));
     }
 
     public Single<WeeklySummary> getWeeklySummary(String childId) {
         return apiService.getWeeklySummary(childId);
     }
+
+    // Insert-then-update: a REPLACE would cascade-delete everything stored for the child
+    void saveChild(String childId, Child child) {
+        ChildEntity entity = ChildMapper.toEntity(childId, child);
+        childDao.insertChildIfAbsent(entity).blockingAwait();
+        childDao.updateChild(entity).blockingAwait();
+    }
 }
@@ -0,0 +1,140 @@
+package com.curionext.mobile.core.data.repository;
+
+import com.curionext.mobile.core.data.local.CurioNextDatabase;
+import com.curionext.mobile.core.data.local.dao.ChildDao;
+import com.curionext.mobile.core.data.local.dao.ChildStatsDao;
+import com.curionext.mobile.core.data.local.dao.InterestDao;
+import com.curionext.mobile.core.data.local.dao.NotificationDao;
+import com.curionext.mobile.core.data.local.entity.ChildEntity;
+import com.curionext.mobile.core.data.local.entity.ChildStatsEntity;
+import com.curionext.mobile.core.data.local.entity.InterestEntity;
+import com.curionext.mobile.core.data.local.entity.NotificationEntity;
+import com.curionext.mobile.core.data.mapper.ChildMapper;
+import com.curionext.mobile.core.data.mapper.InterestMapper;
+import com.curionext.mobile.core.data.mapper.NotificationMapper;
+import com.curionext.mobile.core.data.model.ChildDashboard;
+import com.curionext.mobile.core.network.ApiService;
+import com.curionext.mobile.core.util.Constants;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.core.Single;
+
+/**
+ * Dashboard data of all of a parent's active children at once. Reading the
+ * children back takes four statements however many there are: the children,
+ * their badge counters, and the top interests and recent notifications of
+ * each through one compound SELECT per table. A refresh is a single batch
+ * request whose response is stored for every child in one transaction, and
+ * it also renews the per-child cache entries that ChildRepository,
+ * InterestRepository and NotificationRepository check.
+ */
+@Singleton
+public class DashboardRepository {
+
+    private final ApiService apiService;
+    private final CurioNextDatabase database;
+    private final ChildDao childDao;
+    private final ChildStatsDao childStatsDao;
+    private final InterestDao interestDao;
+    private final NotificationDao notificationDao;
+    private final ChildRepository childRepository;
+    private final InterestRepository interestRepository;
+    private final NotificationRepository notificationRepository;
+    private final OfflineCache offlineCache;
+
+    @Inject
+    public DashboardRepository(ApiService apiService, CurioNextDatabase database, ChildDao childDao,
+                               ChildStatsDao childStatsDao, InterestDao interestDao, NotificationDao notificationDao,
+                               ChildRepository childRepository, InterestRepository interestRepository,
+                               NotificationRepository notificationRepository, OfflineCache offlineCache) {
+        this.apiService = apiService;
+        this.database = database;
+        this.childDao = childDao;
+        this.childStatsDao = childStatsDao;
+        this.interestDao = interestDao;
+        this.notificationDao = notificationDao;
+        this.childRepository = childRepository;
+        this.interestRepository = interestRepository;
+        this.notificationRepository = notificationRepository;
+        this.offlineCache = offlineCache;
+    }
+
+    /**
+     * Stored dashboards of the parent's active children, in ChildDao order, then the refreshed ones
+     * if any child's stored data has expired
+     */
+    public Observable<List<ChildDashboard>> getDashboards(String parentId) {
+        return childDao.getActiveChildrenByParent(parentId).flatMapObservable(children -> {
+            if (children.isEmpty()) {
+                return Observable.just(Collections.<ChildDashboard>emptyList());
+            }
+            List<String> childIds = new ArrayList<>(children.size());
+            List<String> keys = new ArrayList<>(children.size() * 3);
+            for (ChildEntity child : children) {
+                childIds.add(child.getChildId());
+                keys.add(ChildRepository.CACHE_KEY_PREFIX + child.getChildId());
+                keys.add(InterestRepository.CACHE_KEY_PREFIX + child.getChildId());
+                keys.add(NotificationRepository.CACHE_KEY_PREFIX + child.getChildId());
+            }
+            return offlineCache.loadAll(keys,
+                    readDashboards(parentId),
+                    apiService.getDashboards(childIds),
+                    this::storeDashboards);
+        });
+    }
+
+    // Runs inside the cache transaction
+    private void storeDashboards(List<ChildDashboard> dashboards) {
+        for (ChildDashboard dashboard : dashboards) {
+            String childId = dashboard.getChildId();
+            if (dashboard.getChild() != null) {
+                childRepository.saveChild(childId, dashboard.getChild());
+            }
+            if (dashboard.getInterests() != null) {
+                interestRepository.storeInterests(childId, dashboard.getInterests());
+            }
+            if (dashboard.getNotifications() != null) {
+                notificationRepository.storeNotifications(childId, dashboard.getNotifications());
+            }
+        }
+    }
+
+    // One read transaction, so counters and lists are from the same state of the database
+    private Single<List<ChildDashboard>> readDashboards(String parentId) {
+        return Single.fromCallable(() -> database.runInTransaction(() -> {
+            List<ChildEntity> children = childDao.getActiveChildrenByParent(parentId).blockingGet();
+            Map<String, ChildDashboard> dashboards = new LinkedHashMap<>();
+            for (ChildEntity child : children) {
+                dashboards.put(child.getChildId(), new ChildDashboard(child.getChildId(), ChildMapper.toModel(child),
+                        new ArrayList<>(), new ArrayList<>(), new ChildStatsEntity(child.getChildId())));
+            }
+            if (dashboards.isEmpty()) {
+                return Collections.<ChildDashboard>emptyList();
+            }
+            List<String> childIds = new ArrayList<>(dashboards.keySet());
+
+            for (ChildStatsEntity stats : childStatsDao.getStatsByChildren(childIds).blockingGet()) {
+                dashboards.get(stats.getChildId()).setStats(stats);
+            }
+            for (InterestEntity interest : interestDao.getTopInterestsByChildren(childIds,
+                    Constants.DASHBOARD_ITEMS_LIMIT).blockingGet()) {
+                dashboards.get(interest.getChildId()).getInterests().add(InterestMapper.toModel(interest));
+            }
+            for (NotificationEntity notification : notificationDao.getRecentNotificationsByChildren(childIds,
+                    Constants.DASHBOARD_ITEMS_LIMIT).blockingGet()) {
+                dashboards.get(notification.getChildId()).getNotifications()
+                        .add(NotificationMapper.toModel(notification));
+            }
+            return new ArrayList<>(dashboards.values());
+        }));
+    }
+}
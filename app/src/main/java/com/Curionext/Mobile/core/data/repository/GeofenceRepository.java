@@ -0,0 +1,128 @@
+package com.curionext.mobile.core.data.repository;
+
+import com.curionext.mobile.core.data.local.CurioNextDatabase;
+import com.curionext.mobile.core.data.local.dao.SafeZoneDao;
+import com.curionext.mobile.core.data.local.entity.SafeZoneEntity;
+import com.curionext.mobile.core.data.model.GeofenceTransition;
+import com.curionext.mobile.core.data.model.LocationData;
+import com.curionext.mobile.core.util.GeofenceEngine;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Single;
+
+@Singleton
+public class GeofenceRepository {
+
+    private final CurioNextDatabase database;
+    private final SafeZoneDao safeZoneDao;
+
+    // One state machine per child, created lazily from the active zones in Room
+    private final Map<String, GeofenceEngine> engines = new ConcurrentHashMap<>();
+
+    @Inject
+    public GeofenceRepository(CurioNextDatabase database, SafeZoneDao safeZoneDao) {
+        this.database = database;
+        this.safeZoneDao = safeZoneDao;
+    }
+
+    /**
+     * (Re)load the child's active safe zones into a fresh engine
+     */
+    public Completable loadSafeZones(String childId) {
+        return safeZoneDao.getActiveSafeZonesForLocationCheck(childId)
+                .doOnSuccess(zones -> engines.put(childId, new GeofenceEngine(childId, zones)))
+                .ignoreElement();
+    }
+
+    /**
+     * Drop the cached engine so the next fix reloads zones (call after zone edits)
+     */
+    public void invalidate(String childId) {
+        engines.remove(childId);
+    }
+
+    /**
+     * First zone the child is currently inside according to its engine, or null
+     */
+    public SafeZoneEntity getCurrentZone(String childId) {
+        GeofenceEngine engine = engines.get(childId);
+        if (engine == null) {
+            return null;
+        }
+
+        synchronized (engine) {
+            List<SafeZoneEntity> occupied = engine.getOccupiedZones();
+            return occupied.isEmpty() ? null : occupied.get(0);
+        }
+    }
+
+    /**
+     * Meters between the child's last fix and the nearest zone threshold; 0 when unknown
+     */
+    public double getBoundaryDistance(String childId) {
+        GeofenceEngine engine = engines.get(childId);
+        if (engine == null) {
+            return 0;
+        }
+
+        synchronized (engine) {
+            return engine.getBoundarySlack();
+        }
+    }
+
+    public Single<List<GeofenceTransition>> processLocation(String childId, LocationData location) {
+        Date timestamp = location.getTimestamp() != null ? location.getTimestamp() : new Date();
+        return processLocation(childId, location.getLatitude(), location.getLongitude(),
+                location.getAccuracy(), timestamp);
+    }
+
+    /**
+     * Run a fix through the child's geofence engine.
+     * Only transitions are emitted, and they are persisted through
+     * recordEntry/recordExit in a single transaction.
+     */
+    public Single<List<GeofenceTransition>> processLocation(String childId, double latitude, double longitude,
+                                                            float accuracy, Date timestamp) {
+        return Single.fromCallable(() -> {
+            GeofenceEngine engine = engines.get(childId);
+            if (engine == null) {
+                engine = new GeofenceEngine(childId,
+                        safeZoneDao.getActiveSafeZonesForLocationCheck(childId).blockingGet());
+                GeofenceEngine existing = engines.putIfAbsent(childId, engine);
+                if (existing != null) {
+                    engine = existing;
+                }
+            }
+
+            List<GeofenceTransition> transitions;
+            synchronized (engine) {
+                transitions = engine.evaluate(latitude, longitude, accuracy, timestamp);
+            }
+
+            if (!transitions.isEmpty()) {
+                persistTransitions(transitions);
+            }
+            return transitions;
+        });
+    }
+
+    private void persistTransitions(List<GeofenceTransition> transitions) {
+        database.runInTransaction(() -> {
+            for (GeofenceTransition transition : transitions) {
+                if (transition.isEntry()) {
+                    safeZoneDao.recordEntry(transition.getSafeZoneId(), transition.getTimestamp()).blockingAwait();
+                } else {
+                    safeZoneDao.recordExit(transition.getSafeZoneId(), transition.getTimestamp()).blockingAwait();
+                }
+            }
+        });
+    }
+}
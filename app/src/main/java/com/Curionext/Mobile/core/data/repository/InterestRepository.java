@@ -1,46 +1,112 @@
 package com.curionext.mobile.core.data.repository;
 
+import com.curionext.mobile.core.data.local.FtsSearch;
+import com.curionext.mobile.core.data.local.KeywordIndex;
+import com.curionext.mobile.core.data.local.SyncWriter;
+import com.curionext.mobile.core.data.local.dao.ChildDao;
 import com.curionext.mobile.core.data.local.dao.InterestDao;
+import com.curionext.mobile.core.data.local.dao.KeywordDao;
+import com.curionext.mobile.core.data.local.entity.ChildEntity;
+import com.curionext.mobile.core.data.local.entity.InterestEntity;
+import com.curionext.mobile.core.data.local.entity.InterestSearchResult;
+import com.curionext.mobile.core.data.mapper.InterestMapper;
 import com.curionext.mobile.core.data.model.Interest;
 import com.curionext.mobile.core.network.ApiService;
+import com.curionext.mobile.core.util.Constants;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.core.Single;
 
 @Singleton
 public class InterestRepository {
 
+    static final String CACHE_KEY_PREFIX = "interests/";
+
     private final ApiService apiService;
     private final InterestDao interestDao;
+    private final ChildDao childDao;
+    private final KeywordDao keywordDao;
+    private final OfflineCache offlineCache;
 
     @Inject
-    public InterestRepository(ApiService apiService, InterestDao interestDao) {
+    public InterestRepository(ApiService apiService, InterestDao interestDao, ChildDao childDao,
+                              KeywordDao keywordDao, OfflineCache offlineCache) {
         this.apiService = apiService;
         this.interestDao = interestDao;
+        this.childDao = childDao;
+        this.keywordDao = keywordDao;
+        this.offlineCache = offlineCache;
+    }
+
+    /**
+     * Stored copy, re-emitted after every local write; refreshed from the server once expired
+     */
+    public Flowable<List<Interest>> getChildInterests(String childId) {
+        return observe(childId, interestDao.observeInterestsByChild(childId));
     }
 
-    public Single<List<Interest>> getChildInterests(String childId) {
-        return apiService.getChildInterests(childId)
-                .doOnSuccess(interests -> {
-                    // Cache in local database
-                    // interestDao.insertInterests(interests);
-                });
+    public Flowable<List<Interest>> getTopInterests(String childId, int limit) {
+        return observe(childId, interestDao.observeTopInterestsByChild(childId, limit));
     }
 
-    public Single<List<Interest>> getTopInterests(String childId, int limit) {
-        return apiService.getChildInterests(childId)
-                .map(interests -> {
-                    // Sort by interest level and return top items
-                    interests.sort((a, b) -> Double.compare(b.getInterestLevel(), a.getInterestLevel()));
-                    return interests.subList(0, Math.min(limit, interests.size()));
-                });
+    /**
+     * Stored interests whose topic, category or keywords start with every word typed, best match first
+     */
+    public Single<List<Interest>> searchInterests(String childId, String query) {
+        String match = FtsSearch.matchQuery(query);
+        if (match == null) {
+            return Single.just(Collections.emptyList());
+        }
+        return interestDao.searchInterests(childId, match).map(results -> {
+            results.sort(Comparator.comparingDouble(InterestRepository::searchScore).reversed());
+            List<Interest> interests = new ArrayList<>(results.size());
+            for (InterestSearchResult result : results) {
+                interests.add(InterestMapper.toModel(result.getInterest()));
+            }
+            return interests;
+        });
     }
 
     public Single<List<Interest>> getInterestTrends(String childId, String period) {
         return apiService.getInterestTrends(childId, period);
     }
+
+    private static double searchScore(InterestSearchResult result) {
+        return FtsSearch.score(result.getMatchInfo(),
+                result.getInterest().getInterestLevel() / Constants.MAX_INTEREST_LEVEL);
+    }
+
+    // Every interest read is a view of the same server list, so they share one cache entry
+    private Flowable<List<Interest>> observe(String childId, Flowable<List<InterestEntity>> query) {
+        return offlineCache.observe(CACHE_KEY_PREFIX + childId,
+                query.map(InterestMapper::toModels),
+                apiService.getChildInterests(childId),
+                interests -> storeInterests(childId, interests));
+    }
+
+    // Brings the stored interests in line with a server list; blocks, so the caller holds the transaction
+    void storeInterests(String childId, List<Interest> interests) {
+        childDao.insertChildIfAbsent(new ChildEntity(childId, null, null)).blockingAwait();
+        SyncWriter.sync(InterestMapper.toEntities(childId, interests),
+                interestDao.getInterestVersions(childId), this::insertInterests,
+                this::updateInterests, interestDao::deleteInterestsByIds);
+    }
+
+    // Whole-row writes relink the keywords of the rows in the same transaction
+    private Completable insertInterests(List<InterestEntity> rows) {
+        return interestDao.insertInterests(rows).andThen(KeywordIndex.indexInterests(keywordDao, rows));
+    }
+
+    private Completable updateInterests(List<InterestEntity> rows) {
+        return interestDao.updateInterests(rows).andThen(KeywordIndex.indexInterests(keywordDao, rows));
+    }
 }
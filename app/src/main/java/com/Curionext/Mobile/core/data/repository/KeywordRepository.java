@@ -0,0 +1,72 @@
+package com.curionext.mobile.core.data.repository;
+
+import com.curionext.mobile.core.data.local.KeywordIndex;
+import com.curionext.mobile.core.data.local.dao.KeywordDao;
+import com.curionext.mobile.core.data.local.entity.KeywordCount;
+import com.curionext.mobile.core.data.mapper.InterestMapper;
+import com.curionext.mobile.core.data.mapper.PreferenceMapper;
+import com.curionext.mobile.core.data.model.Interest;
+import com.curionext.mobile.core.data.model.Preference;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import io.reactivex.rxjava3.core.Single;
+
+/**
+ * Exact keyword lookups over the stored preferences and interests, answered
+ * from the keyword link tables. Matching ignores case and surrounding spaces;
+ * for prefix matches on any word use the search methods of
+ * PreferenceRepository and InterestRepository.
+ */
+@Singleton
+public class KeywordRepository {
+
+    private final KeywordDao keywordDao;
+
+    @Inject
+    public KeywordRepository(KeywordDao keywordDao) {
+        this.keywordDao = keywordDao;
+    }
+
+    /**
+     * Preferences carrying the keyword, most confident first
+     */
+    public Single<List<Preference>> getPreferencesWithKeyword(String childId, String keyword) {
+        String normalized = KeywordIndex.normalize(keyword);
+        if (normalized == null) {
+            return Single.just(Collections.emptyList());
+        }
+        return keywordDao.getPreferencesByKeyword(childId, normalized).map(entities -> {
+            List<Preference> preferences = PreferenceMapper.toModels(entities);
+            preferences.sort(Comparator.comparingDouble(Preference::getConfidence).reversed());
+            return preferences;
+        });
+    }
+
+    /**
+     * Interests carrying the keyword, strongest first
+     */
+    public Single<List<Interest>> getInterestsWithKeyword(String childId, String keyword) {
+        String normalized = KeywordIndex.normalize(keyword);
+        if (normalized == null) {
+            return Single.just(Collections.emptyList());
+        }
+        return keywordDao.getInterestsByKeyword(childId, normalized).map(entities -> {
+            List<Interest> interests = InterestMapper.toModels(entities);
+            interests.sort(Comparator.comparingDouble(Interest::getInterestLevel).reversed());
+            return interests;
+        });
+    }
+
+    /**
+     * The child's most used keywords over preferences and interests together
+     */
+    public Single<List<KeywordCount>> getKeywordCounts(String childId, int limit) {
+        return keywordDao.getKeywordCounts(childId, limit);
+    }
+}
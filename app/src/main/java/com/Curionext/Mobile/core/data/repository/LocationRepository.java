@@ -1,65 +1,332 @@
 package com.curionext.mobile.core.data.repository;
 
+import android.util.Log;
+
+import com.curionext.mobile.core.data.local.LocationRollupEngine;
+import com.curionext.mobile.core.data.local.LocationWriteBuffer;
+import com.curionext.mobile.core.data.local.SyncWriter;
+import com.curionext.mobile.core.data.local.dao.ChildDao;
 import com.curionext.mobile.core.data.local.dao.LocationDao;
+import com.curionext.mobile.core.data.local.dao.LocationRollupDao;
 import com.curionext.mobile.core.data.local.dao.SafeZoneDao;
+import com.curionext.mobile.core.data.local.entity.ChildEntity;
+import com.curionext.mobile.core.data.local.entity.LocationEntity;
+import com.curionext.mobile.core.data.local.entity.LocationRollupEntity;
+import com.curionext.mobile.core.data.local.entity.SafeZoneEntity;
+import com.curionext.mobile.core.data.mapper.LocationMapper;
+import com.curionext.mobile.core.data.mapper.SafeZoneMapper;
 import com.curionext.mobile.core.data.model.LocationData;
 import com.curionext.mobile.core.data.model.SafeZone;
+import com.curionext.mobile.core.data.paging.KeysetPager;
 import com.curionext.mobile.core.network.ApiService;
+import com.curionext.mobile.core.util.Constants;
+import com.curionext.mobile.core.util.SamplingDecision;
+import com.curionext.mobile.core.util.SamplingPolicy;
+import com.curionext.mobile.core.util.TrajectorySimplifier;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.disposables.CompositeDisposable;
 
 @Singleton
 public class LocationRepository {
 
+    private static final String TAG = "LocationRepository";
+    private static final String SAFE_ZONES_CACHE_KEY_PREFIX = "safe_zones/";
+
     private final ApiService apiService;
     private final LocationDao locationDao;
+    private final LocationRollupDao locationRollupDao;
     private final SafeZoneDao safeZoneDao;
+    private final ChildDao childDao;
+    private final OfflineCache offlineCache;
+    private final GeofenceRepository geofenceRepository;
+    private final LocationWriteBuffer locationWriteBuffer;
+    private final LocationUploadOutbox locationUploadOutbox;
+    private final SamplingPolicy samplingPolicy;
+    private final AddressRepository addressRepository;
+    private final StayPointRepository stayPointRepository;
+    private final TripRepository tripRepository;
+
+    // Per-child simplifiers deciding which ingested fixes are worth a row in locations
+    private final Map<String, TrajectorySimplifier> simplifiers = new ConcurrentHashMap<>();
+
+    // Geocoding of significant fixes still on their way to the write buffer
+    private final CompositeDisposable addressLookups = new CompositeDisposable();
+
+    // Children whose children row this process already made sure of
+    private final Set<String> childrenWithRow = ConcurrentHashMap.newKeySet();
 
     @Inject
-    public LocationRepository(ApiService apiService, LocationDao locationDao, SafeZoneDao safeZoneDao) {
+    public LocationRepository(ApiService apiService, LocationDao locationDao, LocationRollupDao locationRollupDao,
+                              SafeZoneDao safeZoneDao, ChildDao childDao, OfflineCache offlineCache,
+                              GeofenceRepository geofenceRepository,
+                              LocationWriteBuffer locationWriteBuffer,
+                              LocationUploadOutbox locationUploadOutbox, SamplingPolicy samplingPolicy,
+                              AddressRepository addressRepository, StayPointRepository stayPointRepository,
+                              TripRepository tripRepository) {
         this.apiService = apiService;
         this.locationDao = locationDao;
+        this.locationRollupDao = locationRollupDao;
         this.safeZoneDao = safeZoneDao;
+        this.childDao = childDao;
+        this.offlineCache = offlineCache;
+        this.geofenceRepository = geofenceRepository;
+        this.locationWriteBuffer = locationWriteBuffer;
+        this.locationUploadOutbox = locationUploadOutbox;
+        this.samplingPolicy = samplingPolicy;
+        this.addressRepository = addressRepository;
+        this.stayPointRepository = stayPointRepository;
+        this.tripRepository = tripRepository;
     }
 
     public Single<LocationData> getCurrentLocation(String childId) {
         return apiService.getCurrentLocation(childId);
     }
 
+    /**
+     * The server's history for the date; the fixes are also stored in the local
+     * history, so a pager created after this emits includes them
+     */
     public Single<List<LocationData>> getLocationHistory(String childId, String date) {
-        return apiService.getLocationHistory(childId, date);
+        return apiService.getLocationHistory(childId, date)
+                .flatMap(history -> ensureChild(childId)
+                        .andThen(Completable.defer(() -> locationDao.insertLocations(toEntities(childId, history))))
+                        .toSingleDefault(history));
     }
 
-    public Single<LocationData> updateLocation(String childId, LocationData location) {
-        return apiService.updateLocation(childId, location)
-                .doOnSuccess(updatedLocation -> {
-                    // Cache in local database
-                    // locationDao.insertLocation(updatedLocation);
-                });
+    /**
+     * Stored fixes newest first, LOCATION_HISTORY_PAGE_SIZE at a time
+     */
+    public KeysetPager<LocationData> pageLocationHistory(String childId) {
+        return new KeysetPager<>(Constants.LOCATION_HISTORY_PAGE_SIZE, (after, pageSize) -> (after == null
+                ? locationDao.getLocationsPage(childId, pageSize)
+                : locationDao.getLocationsPageBefore(childId, after.getTimestamp(), after.getId(), pageSize))
+                .map(LocationRepository::toModels));
     }
 
-    public Single<List<SafeZone>> getSafeZones(String childId) {
-        return apiService.getSafeZones(childId)
-                .doOnSuccess(safeZones -> {
-                    // Cache in local database
-                    // safeZoneDao.insertSafeZones(safeZones);
+    /**
+     * Local history for a time range in chronological order: raw fixes where
+     * they are still kept, minute/hour rollups (see LocationRollupEngine) for older data
+     */
+    public Single<List<LocationRollupEntity>> getTimeline(String childId, Date startDate, Date endDate) {
+        return Single.zip(
+                locationRollupDao.getRollupsBetween(childId, startDate, endDate),
+                locationDao.getLocationsBetween(childId, startDate, endDate),
+                (rollups, locations) -> {
+                    List<LocationRollupEntity> timeline = new ArrayList<>(rollups.size() + locations.size());
+                    timeline.addAll(rollups);
+                    for (LocationEntity location : locations) {
+                        timeline.add(LocationRollupEngine.toSample(location));
+                    }
+                    Collections.sort(timeline, Comparator.comparing(LocationRollupEntity::getBucketStart));
+                    return timeline;
                 });
     }
 
+    /**
+     * Ingest a fix: geofence evaluation and local history are best-effort, the
+     * upload goes through the durable outbox and is sent in batches.
+     * Emits the fix once it is safely queued, not when the server has it.
+     */
+    public Single<LocationData> updateLocation(String childId, LocationData location) {
+        return geofenceRepository.processLocation(childId, location)
+                .onErrorReturnItem(Collections.emptyList())
+                .flatMapCompletable(transitions -> recordLocation(toEntity(childId, location)).onErrorComplete())
+                .andThen(locationUploadOutbox.enqueue(childId, location))
+                .toSingleDefault(location);
+    }
+
+    /**
+     * Feed every fix to stay-point detection and trip segmentation, then store
+     * it in the local history only if the trajectory simplifier considers it
+     * significant; redundant fixes complete without a write.
+     * Significant fixes get their address first (from cache, or geocoded in the
+     * background) and then go through the write-behind buffer to Room in batches,
+     * so the row is written once, complete.
+     */
+    public Completable recordLocation(LocationEntity location) {
+        return ensureChild(location.getChildId())
+                .andThen(stayPointRepository.offer(location).onErrorComplete())
+                .andThen(tripRepository.offer(location).onErrorComplete())
+                .andThen(Completable.defer(() -> {
+                    TrajectorySimplifier simplifier =
+                            simplifiers.computeIfAbsent(location.getChildId(), id -> new TrajectorySimplifier());
+
+                    boolean significant;
+                    synchronized (simplifier) {
+                        significant = simplifier.offer(location);
+                    }
+                    if (significant) {
+                        addressRepository.withAddress(location).subscribe(locationWriteBuffer::enqueue,
+                                throwable -> Log.w(TAG, "Address lookup failed for " + location.getId(), throwable),
+                                addressLookups);
+                    }
+                    return Completable.complete();
+                }));
+    }
+
+    /**
+     * Close the child's stay and trip in progress when tracking is switched off,
+     * rather than leaving them open until a fix that will not come
+     */
+    public Completable stopTracking(String childId) {
+        return stayPointRepository.flush(childId).onErrorComplete()
+                .andThen(tripRepository.flush(childId).onErrorComplete());
+    }
+
+    /**
+     * Fixes seen per fix stored for the child since the app started (1.0 if nothing was dropped)
+     */
+    public double getCompressionRatio(String childId) {
+        TrajectorySimplifier simplifier = simplifiers.get(childId);
+        return simplifier == null ? 1.0 : simplifier.getCompressionRatio();
+    }
+
+    /**
+     * Location request parameters to use after this fix; call once it went through updateLocation
+     */
+    public SamplingDecision nextSamplingDecision(String childId, LocationData location) {
+        return samplingPolicy.decide(location, geofenceRepository.getBoundaryDistance(childId));
+    }
+
+    /**
+     * Stored zones, re-emitted after every local write; refreshed from the server once expired
+     */
+    public Flowable<List<SafeZone>> getSafeZones(String childId) {
+        return observeSafeZones(childId, safeZoneDao.observeSafeZonesByChild(childId));
+    }
+
+    public Flowable<List<SafeZone>> getActiveSafeZones(String childId) {
+        return observeSafeZones(childId, safeZoneDao.observeActiveSafeZonesByChild(childId));
+    }
+
     public Single<SafeZone> createSafeZone(String childId, SafeZone safeZone) {
-        return apiService.createSafeZone(childId, safeZone);
+        return apiService.createSafeZone(childId, safeZone)
+                .doOnSuccess(createdZone -> {
+                    storeSafeZone(childId, createdZone);
+                    geofenceRepository.invalidate(childId);
+                });
     }
 
     public Single<SafeZone> updateSafeZone(String childId, String zoneId, SafeZone safeZone) {
-        return apiService.updateSafeZone(childId, zoneId, safeZone);
+        return apiService.updateSafeZone(childId, zoneId, safeZone)
+                .doOnSuccess(updatedZone -> {
+                    storeSafeZone(childId, updatedZone);
+                    geofenceRepository.invalidate(childId);
+                });
     }
 
     public Single<Void> deleteSafeZone(String childId, String zoneId) {
-        return apiService.deleteSafeZone(childId, zoneId);
+        return apiService.deleteSafeZone(childId, zoneId)
+                .doOnSuccess(result -> {
+                    safeZoneDao.deleteSafeZoneById(zoneId).blockingAwait();
+                    geofenceRepository.invalidate(childId);
+                });
+    }
+
+    private Flowable<List<SafeZone>> observeSafeZones(String childId, Flowable<List<SafeZoneEntity>> query) {
+        return Flowable.defer(() -> {
+            // Reset the engine only once the new zones are committed, or it could reload the old ones
+            AtomicBoolean geofenceChanged = new AtomicBoolean();
+            return offlineCache.observe(SAFE_ZONES_CACHE_KEY_PREFIX + childId,
+                    query.map(SafeZoneMapper::toModels),
+                    apiService.getSafeZones(childId),
+                    safeZones -> geofenceChanged.set(replaceSafeZones(childId, safeZones)),
+                    () -> {
+                        if (geofenceChanged.get()) {
+                            geofenceRepository.invalidate(childId);
+                        }
+                    });
+        });
+    }
+
+    private static List<LocationData> toModels(List<LocationEntity> entities) {
+        List<LocationData> locations = new ArrayList<>(entities.size());
+        for (LocationEntity entity : entities) {
+            locations.add(LocationMapper.toModel(entity));
+        }
+        return locations;
+    }
+
+    private static List<LocationEntity> toEntities(String childId, List<LocationData> locations) {
+        List<LocationEntity> entities = new ArrayList<>(locations.size());
+        for (LocationData location : locations) {
+            entities.add(LocationMapper.toEntity(childId, location));
+        }
+        return entities;
+    }
+
+    // locations, stay_points and trips reference children; without the row every write would fail its FK
+    private Completable ensureChild(String childId) {
+        if (childrenWithRow.contains(childId)) {
+            return Completable.complete();
+        }
+        return childDao.insertChildIfAbsent(new ChildEntity(childId, null, null))
+                .doOnComplete(() -> childrenWithRow.add(childId));
+    }
+
+    private LocationEntity toEntity(String childId, LocationData location) {
+        LocationEntity entity = LocationMapper.toEntity(childId, location);
+        SafeZoneEntity currentZone = geofenceRepository.getCurrentZone(childId);
+        if (currentZone != null) {
+            entity.setInSafeZone(true);
+            entity.setSafeZoneName(currentZone.getName());
+        }
+        return entity;
+    }
+
+    private void storeSafeZone(String childId, SafeZone zone) {
+        SafeZoneEntity existing = zone.getId() == null ? null
+                : safeZoneDao.getSafeZoneById(zone.getId()).toMaybe().onErrorComplete().blockingGet();
+        childDao.insertChildIfAbsent(new ChildEntity(childId, null, null)).blockingAwait();
+        safeZoneDao.insertSafeZone(SafeZoneMapper.toEntity(childId, zone, existing)).blockingAwait();
+    }
+
+    /**
+     * Bring the child's stored zones in line with the server's list, keeping locally
+     * tracked visits; returns whether a zone the geofence engine evaluates changed
+     */
+    private boolean replaceSafeZones(String childId, List<SafeZone> safeZones) {
+        Map<String, SafeZoneEntity> existing = new HashMap<>();
+        for (SafeZoneEntity zone : safeZoneDao.getSafeZonesByChild(childId).blockingGet()) {
+            existing.put(zone.getId(), zone);
+        }
+
+        List<SafeZoneEntity> entities = new ArrayList<>(safeZones.size());
+        boolean geofenceChanged = existing.size() != safeZones.size();
+        for (SafeZone zone : safeZones) {
+            SafeZoneEntity previous = zone.getId() != null ? existing.get(zone.getId()) : null;
+            SafeZoneEntity entity = SafeZoneMapper.toEntity(childId, zone, previous);
+            geofenceChanged |= previous == null || !sameGeofence(previous, entity);
+            entities.add(entity);
+        }
+
+        childDao.insertChildIfAbsent(new ChildEntity(childId, null, null)).blockingAwait();
+        SyncWriter.sync(entities, safeZoneDao.getSafeZoneVersions(childId),
+                safeZoneDao::insertSafeZones, safeZoneDao::updateSafeZones, safeZoneDao::deleteSafeZonesByIds);
+        return geofenceChanged;
+    }
+
+    private static boolean sameGeofence(SafeZoneEntity a, SafeZoneEntity b) {
+        return a.getLatitude() == b.getLatitude() && a.getLongitude() == b.getLongitude()
+                && a.getRadius() == b.getRadius() && a.isActive() == b.isActive()
+                && Objects.equals(a.getSchedule(), b.getSchedule());
     }
 }
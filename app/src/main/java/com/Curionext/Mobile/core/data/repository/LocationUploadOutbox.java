@@ -0,0 +1,228 @@
+package com.curionext.mobile.core.data.repository;
+
+import android.util.Log;
+
+import com.curionext.mobile.core.data.local.dao.LocationOutboxDao;
+import com.curionext.mobile.core.data.local.entity.LocationOutboxEntity;
+import com.curionext.mobile.core.data.model.LocationData;
+import com.curionext.mobile.core.network.ApiService;
+import com.curionext.mobile.core.util.Constants;
+import com.google.gson.Gson;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+import java.util.zip.GZIPOutputStream;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import retrofit2.HttpException;
+
+/**
+ * Durable outbox for location uploads.
+ * Every fix is first written to the location_outbox table, then pending rows
+ * are coalesced per child into gzip-compressed JSON batches once
+ * OUTBOX_BATCH_SIZE rows are waiting or the oldest is OUTBOX_MAX_AGE old.
+ * A batch gets its idempotency key (batch_id) persisted before the first
+ * attempt, so a retry after a timeout or process death resends the same key
+ * and the server can drop duplicates. Failed batches back off exponentially.
+ */
+@Singleton
+public class LocationUploadOutbox {
+
+    private static final String TAG = "LocationUploadOutbox";
+    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+    private static final String CONTENT_ENCODING_GZIP = "gzip";
+
+    private final LocationOutboxDao outboxDao;
+    private final ApiService apiService;
+    private final Gson gson;
+    private final LongSupplier clock;
+    private final Scheduler flushScheduler;
+
+    private final AtomicBoolean flushing = new AtomicBoolean(false);
+    private Disposable periodicCheck;
+
+    @Inject
+    public LocationUploadOutbox(LocationOutboxDao outboxDao, ApiService apiService, Gson gson) {
+        this(outboxDao, apiService, gson, System::currentTimeMillis, Schedulers.io());
+    }
+
+    /**
+     * @param flushScheduler runs the flush that enqueue kicks off
+     */
+    public LocationUploadOutbox(LocationOutboxDao outboxDao, ApiService apiService, Gson gson, LongSupplier clock,
+                                Scheduler flushScheduler) {
+        this.outboxDao = outboxDao;
+        this.apiService = apiService;
+        this.gson = gson;
+        this.clock = clock;
+        this.flushScheduler = flushScheduler;
+    }
+
+    /**
+     * Persist a fix for upload. Completes as soon as the row is written; the
+     * flush of any batch that became due then runs on its own, so only the
+     * local write can fail and upload problems are retried later.
+     */
+    public Completable enqueue(String childId, LocationData location) {
+        return Completable.defer(() -> outboxDao.insertEntry(
+                        new LocationOutboxEntity(childId, gson.toJson(location), new Date(clock.getAsLong()))))
+                .doOnComplete(() -> flushDue()
+                        .subscribeOn(flushScheduler)
+                        .subscribe(() -> {}, throwable -> Log.w(TAG, "Outbox flush failed", throwable)));
+    }
+
+    /**
+     * Re-check the outbox every OUTBOX_CHECK_INTERVAL; also resumes work left over from a previous process
+     */
+    public synchronized void start() {
+        if (periodicCheck == null || periodicCheck.isDisposed()) {
+            periodicCheck = Observable.interval(0, Constants.OUTBOX_CHECK_INTERVAL, TimeUnit.MILLISECONDS, Schedulers.io())
+                    .flatMapCompletable(tick -> flushDue().onErrorComplete())
+                    .subscribe();
+        }
+    }
+
+    public synchronized void stop() {
+        if (periodicCheck != null) {
+            periodicCheck.dispose();
+            periodicCheck = null;
+        }
+    }
+
+    /**
+     * Upload every batch whose size/age trigger fired and whose backoff expired
+     */
+    public Completable flushDue() {
+        return flushInternal(false);
+    }
+
+    /**
+     * Upload everything pending regardless of size/age triggers (backoff still applies)
+     */
+    public Completable flushAll() {
+        return flushInternal(true);
+    }
+
+    private Completable flushInternal(boolean force) {
+        return Completable.fromAction(() -> {
+            if (!flushing.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                createDueBatches(force);
+                uploadDueBatches();
+            } finally {
+                flushing.set(false);
+            }
+        });
+    }
+
+    private void createDueBatches(boolean force) {
+        long now = clock.getAsLong();
+        for (String childId : outboxDao.getChildrenWithUnbatchedEntries().blockingGet()) {
+            while (true) {
+                List<LocationOutboxEntity> entries =
+                        outboxDao.getUnbatchedEntries(childId, Constants.OUTBOX_BATCH_SIZE).blockingGet();
+                if (entries.isEmpty()) {
+                    break;
+                }
+
+                boolean full = entries.size() >= Constants.OUTBOX_BATCH_SIZE;
+                boolean stale = now - entries.get(0).getCreatedAt().getTime() >= Constants.OUTBOX_MAX_AGE;
+                if (!full && !stale && !force) {
+                    break;
+                }
+
+                List<Long> ids = new ArrayList<>(entries.size());
+                for (LocationOutboxEntity entry : entries) {
+                    ids.add(entry.getId());
+                }
+                outboxDao.assignBatch(UUID.randomUUID().toString(), ids).blockingAwait();
+            }
+        }
+    }
+
+    private void uploadDueBatches() throws IOException {
+        for (String batchId : outboxDao.getDueBatchIds(new Date(clock.getAsLong())).blockingGet()) {
+            List<LocationOutboxEntity> entries = outboxDao.getBatchEntries(batchId).blockingGet();
+            if (entries.isEmpty()) {
+                continue;
+            }
+
+            try {
+                apiService.uploadLocationBatch(entries.get(0).getChildId(), batchId, CONTENT_ENCODING_GZIP,
+                        RequestBody.create(gzipBatch(entries), JSON)).blockingAwait();
+                outboxDao.deleteBatch(batchId).blockingAwait();
+            } catch (RuntimeException e) {
+                if (isPermanentFailure(e)) {
+                    // The server will never accept this payload; keeping it would block the queue
+                    Log.e(TAG, "Dropping batch " + batchId + " of " + entries.size() + " fixes for "
+                            + entries.get(0).getChildId() + ", rejected by the server", e);
+                    outboxDao.deleteBatch(batchId).blockingAwait();
+                } else {
+                    int attempts = entries.get(0).getAttempts() + 1;
+                    outboxDao.markBatchFailed(batchId, new Date(clock.getAsLong() + backoffDelay(attempts)))
+                            .blockingAwait();
+                    if (!(e instanceof HttpException)) {
+                        // Network is down; don't wake the radio for the remaining batches
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * OUTBOX_BASE_BACKOFF doubled per failed attempt, capped at OUTBOX_MAX_BACKOFF
+     */
+    static long backoffDelay(int attempts) {
+        int exponent = Math.min(Math.max(attempts - 1, 0), 20);
+        return Math.min(Constants.OUTBOX_MAX_BACKOFF, Constants.OUTBOX_BASE_BACKOFF << exponent);
+    }
+
+    /**
+     * Client errors other than timeout/throttling mean the batch itself is bad
+     */
+    static boolean isPermanentFailure(Throwable throwable) {
+        if (throwable instanceof HttpException) {
+            int code = ((HttpException) throwable).code();
+            return code >= 400 && code < 500 && code != 408 && code != 429;
+        }
+        return false;
+    }
+
+    /**
+     * Stored payloads are already JSON, so the batch body is just their concatenation in a JSON array
+     */
+    static byte[] gzipBatch(List<LocationOutboxEntity> entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write('[');
+            for (int i = 0; i < entries.size(); i++) {
+                if (i > 0) {
+                    gzip.write(',');
+                }
+                gzip.write(entries.get(i).getPayload().getBytes(StandardCharsets.UTF_8));
+            }
+            gzip.write(']');
+        }
+        return bytes.toByteArray();
+    }
+}
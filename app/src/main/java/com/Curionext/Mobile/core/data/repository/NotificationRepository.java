@@ -1,46 +1,96 @@
 package com.curionext.mobile.core.data.repository;
 
+import com.curionext.mobile.core.data.local.SyncWriter;
+import com.curionext.mobile.core.data.local.dao.ChildDao;
 import com.curionext.mobile.core.data.local.dao.NotificationDao;
+import com.curionext.mobile.core.data.local.entity.ChildEntity;
+import com.curionext.mobile.core.data.local.entity.NotificationEntity;
+import com.curionext.mobile.core.data.mapper.NotificationMapper;
 import com.curionext.mobile.core.data.model.NotificationItem;
+import com.curionext.mobile.core.data.paging.KeysetPager;
 import com.curionext.mobile.core.network.ApiService;
+import com.curionext.mobile.core.util.Constants;
 
 import java.util.List;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.core.Single;
 
 @Singleton
 public class NotificationRepository {
 
+    static final String CACHE_KEY_PREFIX = "notifications/";
+
     private final ApiService apiService;
     private final NotificationDao notificationDao;
+    private final ChildDao childDao;
+    private final OfflineCache offlineCache;
 
     @Inject
-    public NotificationRepository(ApiService apiService, NotificationDao notificationDao) {
+    public NotificationRepository(ApiService apiService, NotificationDao notificationDao, ChildDao childDao,
+                                  OfflineCache offlineCache) {
         this.apiService = apiService;
         this.notificationDao = notificationDao;
+        this.childDao = childDao;
+        this.offlineCache = offlineCache;
+    }
+
+    /**
+     * Stored copy, re-emitted after every local write; refreshed from the server once expired
+     */
+    public Flowable<List<NotificationItem>> getNotifications(String childId) {
+        return observe(childId, notificationDao.observeNotificationsByChild(childId));
     }
 
-    public Single<List<NotificationItem>> getNotifications(String childId) {
-        return apiService.getNotifications(childId)
-                .doOnSuccess(notifications -> {
-                    // Cache in local database
-                    // notificationDao.insertNotifications(notifications);
-                });
+    public Flowable<List<NotificationItem>> getRecentNotifications(String childId, int limit) {
+        return observe(childId, notificationDao.observeRecentNotificationsByChild(childId, limit));
     }
 
-    public Single<List<NotificationItem>> getRecentNotifications(String childId, int limit) {
-        return apiService.getNotifications(childId)
-                .map(notifications -> {
-                    // Sort by timestamp and return recent items
-                    notifications.sort((a, b) -> b.getTimestamp().compareTo(a.getTimestamp()));
-                    return notifications.subList(0, Math.min(limit, notifications.size()));
-                });
+    /**
+     * Stored notifications newest first, NOTIFICATION_PAGE_SIZE at a time
+     */
+    public KeysetPager<NotificationItem> pageNotifications(String childId) {
+        return new KeysetPager<>(Constants.NOTIFICATION_PAGE_SIZE, (after, pageSize) -> (after == null
+                ? notificationDao.getNotificationsPage(childId, pageSize)
+                : notificationDao.getNotificationsPageBefore(childId, after.getTimestamp(), after.getId(), pageSize))
+                .map(NotificationMapper::toModels));
     }
 
     public Single<Void> markAsRead(String notificationId) {
-        return apiService.markNotificationAsRead(notificationId);
+        return apiService.markNotificationAsRead(notificationId)
+                .doOnSuccess(result -> notificationDao.markAsRead(notificationId).blockingAwait());
+    }
+
+    // Local only, like the rest of the list management; getNotifications re-emits after each of these
+
+    public Completable deleteNotification(String notificationId) {
+        return notificationDao.deleteNotificationById(notificationId);
+    }
+
+    public Completable markAllAsRead(String childId) {
+        return notificationDao.markAllAsReadByChild(childId);
+    }
+
+    public Completable clearNotifications(String childId) {
+        return notificationDao.deleteAllNotificationsByChild(childId);
+    }
+
+    private Flowable<List<NotificationItem>> observe(String childId, Flowable<List<NotificationEntity>> query) {
+        return offlineCache.observe(CACHE_KEY_PREFIX + childId,
+                query.map(NotificationMapper::toModels),
+                apiService.getNotifications(childId),
+                notifications -> storeNotifications(childId, notifications));
+    }
+
+    // Also called for each child of a DashboardRepository batch, inside that one transaction
+    void storeNotifications(String childId, List<NotificationItem> notifications) {
+        childDao.insertChildIfAbsent(new ChildEntity(childId, null, null)).blockingAwait();
+        SyncWriter.sync(NotificationMapper.toEntities(childId, notifications),
+                notificationDao.getNotificationVersions(childId), notificationDao::insertNotifications,
+                notificationDao::updateNotifications, notificationDao::deleteNotificationsByIds);
     }
 }
@@ -0,0 +1,156 @@
+package com.curionext.mobile.core.data.repository;
+
+import com.curionext.mobile.core.data.local.CurioNextDatabase;
+import com.curionext.mobile.core.data.local.dao.CacheMetadataDao;
+import com.curionext.mobile.core.data.local.entity.CacheMetadataEntity;
+import com.curionext.mobile.core.util.Constants;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.core.Single;
+
+/**
+ * Stale-while-revalidate reads over Room.
+ * A read emits the stored copy right away if one was ever fetched, and goes
+ * to the network only when there is none or it is older than
+ * CACHE_EXPIRY_TIME. A fresh response is written back together with its
+ * fetch time in one transaction and then emitted as re-read from Room, so
+ * both emissions come from the same query. When the stored copy was already
+ * emitted a failed refresh just completes, which keeps screens usable offline.
+ * observe() does the same over a Room Flowable: the refresh only writes, and
+ * the write reaches subscribers through Room's table invalidation, as does
+ * any later local write.
+ */
+@Singleton
+public class OfflineCache {
+
+    /**
+     * Stores a network response; runs inside the cache transaction, so DAO calls must block
+     */
+    public interface Writer<T> {
+        void write(T fresh);
+    }
+
+    /**
+     * Runs the body in one database transaction
+     */
+    interface Transactions {
+        void run(Runnable body);
+    }
+
+    private final Transactions transactions;
+    private final CacheMetadataDao cacheMetadataDao;
+    private final LongSupplier clock;
+
+    @Inject
+    public OfflineCache(CurioNextDatabase database, CacheMetadataDao cacheMetadataDao) {
+        this(database, cacheMetadataDao, System::currentTimeMillis);
+    }
+
+    public OfflineCache(CurioNextDatabase database, CacheMetadataDao cacheMetadataDao, LongSupplier clock) {
+        this(database::runInTransaction, cacheMetadataDao, clock);
+    }
+
+    OfflineCache(Transactions transactions, CacheMetadataDao cacheMetadataDao, LongSupplier clock) {
+        this.transactions = transactions;
+        this.cacheMetadataDao = cacheMetadataDao;
+        this.clock = clock;
+    }
+
+    /**
+     * @param key    identifies the remote resource, e.g. "interests/" + childId
+     * @param local  query for the stored copy
+     * @param remote network call for a fresh copy
+     * @param writer replaces the stored copy with a fresh one
+     */
+    public <T> Observable<T> load(String key, Single<T> local, Single<T> remote, Writer<T> writer) {
+        Single<T> refresh = remote.flatMap(fresh -> store(key, fresh, writer).andThen(local));
+
+        return cacheMetadataDao.getEntry(key)
+                .flatMap(entry -> local.toMaybe().onErrorComplete()
+                        .map(cached -> isExpired(entry)
+                                ? Observable.just(cached).concatWith(refresh.toMaybe().onErrorComplete())
+                                : Observable.just(cached)))
+                .switchIfEmpty(Single.fromCallable(refresh::toObservable))
+                .flatMapObservable(emissions -> emissions);
+    }
+
+    /**
+     * Like load, but keeps emitting the stored copy every time its tables change
+     */
+    public <T> Flowable<T> observe(String key, Flowable<T> local, Single<T> remote, Writer<T> writer) {
+        return observe(key, local, remote, writer, () -> { });
+    }
+
+    /**
+     * Like observe, running afterCommit once a refresh is committed, for side effects that must
+     * not see the write before other readers can
+     */
+    public <T> Flowable<T> observe(String key, Flowable<T> local, Single<T> remote, Writer<T> writer,
+                                   Runnable afterCommit) {
+        Completable refresh = remote.flatMapCompletable(fresh -> store(key, fresh, writer)
+                .doOnComplete(afterCommit::run));
+
+        return cacheMetadataDao.getEntry(key)
+                .map(entry -> isExpired(entry) ? local.mergeWith(refresh.onErrorComplete()) : local)
+                // Never fetched: an empty table is not an answer yet, wait for the server
+                .defaultIfEmpty(refresh.andThen(local))
+                .flatMapPublisher(emissions -> emissions);
+    }
+
+    /**
+     * Like load, for one response that covers several keys, e.g. a batch endpoint serving several
+     * children. The stored copy is emitted only if every key was fetched before; one expired key
+     * refreshes them all, and the write and the fetch times of all keys share one transaction.
+     */
+    public <T> Observable<T> loadAll(List<String> keys, Single<T> local, Single<T> remote, Writer<T> writer) {
+        Single<T> refresh = remote.flatMap(fresh -> store(keys, fresh, writer).andThen(local));
+
+        return cacheMetadataDao.getEntries(keys)
+                .flatMapObservable(entries -> {
+                    if (entries.size() < new HashSet<>(keys).size()) {
+                        return refresh.toObservable();
+                    }
+                    Observable<T> cached = local.toMaybe().onErrorComplete().toObservable();
+                    for (CacheMetadataEntity entry : entries) {
+                        if (isExpired(entry)) {
+                            return cached.concatWith(refresh.toMaybe().onErrorComplete());
+                        }
+                    }
+                    return cached;
+                });
+    }
+
+    private <T> Completable store(String key, T fresh, Writer<T> writer) {
+        return store(Collections.singletonList(key), fresh, writer);
+    }
+
+    private <T> Completable store(List<String> keys, T fresh, Writer<T> writer) {
+        return Completable.fromAction(() -> transactions.run(() -> {
+            writer.write(fresh);
+            Date fetchedAt = new Date(clock.getAsLong());
+            List<CacheMetadataEntity> entries = new ArrayList<>(keys.size());
+            for (String key : keys) {
+                entries.add(new CacheMetadataEntity(key, fetchedAt));
+            }
+            cacheMetadataDao.insertEntries(entries).blockingAwait();
+        }));
+    }
+
+    private boolean isExpired(CacheMetadataEntity entry) {
+        return entry.getFetchedAt() == null
+                || clock.getAsLong() - entry.getFetchedAt().getTime() >= Constants.CACHE_EXPIRY_TIME;
+    }
+}
@@ -1,59 +1,111 @@
 package com.curionext.mobile.core.data.repository;
 
+import com.curionext.mobile.core.data.local.FtsSearch;
+import com.curionext.mobile.core.data.local.KeywordIndex;
+import com.curionext.mobile.core.data.local.SyncWriter;
+import com.curionext.mobile.core.data.local.dao.ChildDao;
+import com.curionext.mobile.core.data.local.dao.KeywordDao;
 import com.curionext.mobile.core.data.local.dao.PreferenceDao;
+import com.curionext.mobile.core.data.local.entity.ChildEntity;
+import com.curionext.mobile.core.data.local.entity.PreferenceEntity;
+import com.curionext.mobile.core.data.local.entity.PreferenceSearchResult;
+import com.curionext.mobile.core.data.mapper.PreferenceMapper;
 import com.curionext.mobile.core.data.model.Preference;
 import com.curionext.mobile.core.network.ApiService;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.core.Single;
 
 @Singleton
 public class PreferenceRepository {
 
+    private static final String CACHE_KEY_PREFIX = "preferences/";
+
     private final ApiService apiService;
     private final PreferenceDao preferenceDao;
+    private final ChildDao childDao;
+    private final KeywordDao keywordDao;
+    private final OfflineCache offlineCache;
 
     @Inject
-    public PreferenceRepository(ApiService apiService, PreferenceDao preferenceDao) {
+    public PreferenceRepository(ApiService apiService, PreferenceDao preferenceDao, ChildDao childDao,
+                                KeywordDao keywordDao, OfflineCache offlineCache) {
         this.apiService = apiService;
         this.preferenceDao = preferenceDao;
+        this.childDao = childDao;
+        this.keywordDao = keywordDao;
+        this.offlineCache = offlineCache;
     }
 
-    public Single<List<Preference>> getPreferences(String childId) {
-        return apiService.getPreferences(childId)
-                .doOnSuccess(preferences -> {
-                    // Cache in local database
-                    // preferenceDao.insertPreferences(preferences);
-                });
+    /**
+     * Stored copy, re-emitted after every local write; refreshed from the server once expired
+     */
+    public Flowable<List<Preference>> getPreferences(String childId) {
+        return observe(childId, preferenceDao.observePreferencesByChild(childId));
     }
 
     public Single<List<Preference>> getPreferenceAnalysis(String childId) {
         return apiService.getPreferenceAnalysis(childId);
     }
 
-    public Single<List<Preference>> getTopLikes(String childId, int limit) {
-        return getPreferences(childId)
-                .map(preferences -> {
-                    return preferences.stream()
-                            .filter(Preference::isPositive)
-                            .sorted((a, b) -> Double.compare(b.getSentiment(), a.getSentiment()))
-                            .limit(limit)
-                            .collect(java.util.stream.Collectors.toList());
-                });
+    public Flowable<List<Preference>> getTopLikes(String childId, int limit) {
+        return observe(childId, preferenceDao.observeTopLikes(childId, limit));
+    }
+
+    public Flowable<List<Preference>> getTopDislikes(String childId, int limit) {
+        return observe(childId, preferenceDao.observeTopDislikes(childId, limit));
+    }
+
+    /**
+     * Stored preferences whose topic, category or keywords start with every word typed, best match first
+     */
+    public Single<List<Preference>> searchPreferences(String childId, String query) {
+        String match = FtsSearch.matchQuery(query);
+        if (match == null) {
+            return Single.just(Collections.emptyList());
+        }
+        return preferenceDao.searchPreferences(childId, match).map(results -> {
+            results.sort(Comparator.comparingDouble(PreferenceRepository::searchScore).reversed());
+            List<Preference> preferences = new ArrayList<>(results.size());
+            for (PreferenceSearchResult result : results) {
+                preferences.add(PreferenceMapper.toModel(result.getPreference()));
+            }
+            return preferences;
+        });
     }
 
-    public Single<List<Preference>> getTopDislikes(String childId, int limit) {
-        return getPreferences(childId)
-                .map(preferences -> {
-                    return preferences.stream()
-                            .filter(Preference::isNegative)
-                            .sorted((a, b) -> Double.compare(a.getSentiment(), b.getSentiment()))
-                            .limit(limit)
-                            .collect(java.util.stream.Collectors.toList());
+    // Confidence is already 0..1
+    private static double searchScore(PreferenceSearchResult result) {
+        return FtsSearch.score(result.getMatchInfo(), result.getPreference().getConfidence());
+    }
+
+    private Flowable<List<Preference>> observe(String childId, Flowable<List<PreferenceEntity>> query) {
+        return offlineCache.observe(CACHE_KEY_PREFIX + childId,
+                query.map(PreferenceMapper::toModels),
+                apiService.getPreferences(childId),
+                preferences -> {
+                    childDao.insertChildIfAbsent(new ChildEntity(childId, null, null)).blockingAwait();
+                    SyncWriter.sync(PreferenceMapper.toEntities(childId, preferences),
+                            preferenceDao.getPreferenceVersions(childId), this::insertPreferences,
+                            this::updatePreferences, preferenceDao::deletePreferencesByIds);
                 });
     }
+
+    // Whole-row writes relink the keywords of the rows in the same transaction
+    private Completable insertPreferences(List<PreferenceEntity> rows) {
+        return preferenceDao.insertPreferences(rows).andThen(KeywordIndex.indexPreferences(keywordDao, rows));
+    }
+
+    private Completable updatePreferences(List<PreferenceEntity> rows) {
+        return preferenceDao.updatePreferences(rows).andThen(KeywordIndex.indexPreferences(keywordDao, rows));
+    }
 }
@@ -1,12 +1,17 @@
 package com.curionext.mobile.core.data.repository;
 
 import com.curionext.mobile.core.data.model.SafeZone;
+import com.curionext.mobile.core.util.SafeZoneIndex;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Maybe;
 import io.reactivex.rxjava3.core.Single;
 
 @Singleton
@@ -14,49 +19,55 @@ public class SafetyRepository {
 
     private final LocationRepository locationRepository;
 
+    // Spatial index per child, rebuilt only when the zones' geometry actually changes
+    private final Map<String, SafeZoneIndex> safeZoneIndexes = new ConcurrentHashMap<>();
+
     @Inject
     public SafetyRepository(LocationRepository locationRepository) {
         this.locationRepository = locationRepository;
     }
 
-    public Single<List<SafeZone>> getActiveSafeZones(String childId) {
-        return locationRepository.getSafeZones(childId)
-                .map(safeZones -> {
-                    return safeZones.stream()
-                            .filter(SafeZone::isActive)
-                            .collect(java.util.stream.Collectors.toList());
-                });
+    /**
+     * Active zones, re-emitted (and re-indexed) whenever the stored zones change
+     */
+    public Flowable<List<SafeZone>> getActiveSafeZones(String childId) {
+        return locationRepository.getActiveSafeZones(childId)
+                .doOnNext(activeZones -> indexFor(childId, activeZones));
     }
 
     public Single<Boolean> isLocationInSafeZone(double latitude, double longitude, List<SafeZone> safeZones) {
-        return Single.fromCallable(() -> {
-            for (SafeZone zone : safeZones) {
-                if (zone.isActive() && isWithinRadius(latitude, longitude, zone)) {
-                    return true;
-                }
-            }
-            return false;
+        return Single.fromCallable(() -> indexFor(safeZones).isInAnyZone(latitude, longitude));
+    }
+
+    /**
+     * Find the safe zone containing the location in a single indexed lookup.
+     * Completes empty when the location is outside every active zone.
+     */
+    public Maybe<SafeZone> findContainingSafeZone(double latitude, double longitude, List<SafeZone> safeZones) {
+        return Maybe.fromCallable(() -> {
+            int position = indexFor(safeZones).indexOfContainingZone(latitude, longitude);
+            // The cached index may hold an earlier but equal list; answer with the caller's instance
+            return position < 0 ? null : safeZones.get(position);
         });
     }
 
-    private boolean isWithinRadius(double lat1, double lon1, SafeZone safeZone) {
-        double lat2 = safeZone.getLatitude();
-        double lon2 = safeZone.getLongitude();
-        int radius = safeZone.getRadius();
-
-        // Calculate distance using Haversine formula
-        double R = 6371e3; // Earth radius in meters
-        double φ1 = Math.toRadians(lat1);
-        double φ2 = Math.toRadians(lat2);
-        double Δφ = Math.toRadians(lat2 - lat1);
-        double Δλ = Math.toRadians(lon2 - lon1);
-
-        double a = Math.sin(Δφ / 2) * Math.sin(Δφ / 2) +
-                Math.cos(φ1) * Math.cos(φ2) *
-                        Math.sin(Δλ / 2) * Math.sin(Δλ / 2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        double distance = R * c;
-
-        return distance <= radius;
+    /**
+     * Index built by the last getActiveSafeZones call for the child, or null if none yet
+     */
+    public SafeZoneIndex getSafeZoneIndex(String childId) {
+        return safeZoneIndexes.get(childId);
+    }
+
+    private SafeZoneIndex indexFor(List<SafeZone> safeZones) {
+        String childId = safeZones == null || safeZones.isEmpty() ? null : safeZones.get(0).getChildId();
+        if (childId == null) {
+            return SafeZoneIndex.build(safeZones);
+        }
+        return indexFor(childId, safeZones);
+    }
+
+    private SafeZoneIndex indexFor(String childId, List<SafeZone> safeZones) {
+        return safeZoneIndexes.compute(childId, (key, cached) ->
+                cached != null && cached.hasSameZones(safeZones) ? cached : SafeZoneIndex.build(safeZones));
     }
 }
@@ -0,0 +1,108 @@
+package com.curionext.mobile.core.data.repository;
+
+import com.curionext.mobile.core.data.local.dao.SafeZoneDao;
+import com.curionext.mobile.core.data.local.dao.StayPointDao;
+import com.curionext.mobile.core.data.local.entity.LocationEntity;
+import com.curionext.mobile.core.data.local.entity.SafeZoneEntity;
+import com.curionext.mobile.core.data.local.entity.StayPointEntity;
+import com.curionext.mobile.core.util.GeoDistance;
+import com.curionext.mobile.core.util.StayPointDetector;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Single;
+
+@Singleton
+public class StayPointRepository {
+
+    private final StayPointDao stayPointDao;
+    private final SafeZoneDao safeZoneDao;
+
+    // One detector per child; a visit still open when the process dies is lost
+    private final Map<String, StayPointDetector> detectors = new ConcurrentHashMap<>();
+
+    @Inject
+    public StayPointRepository(StayPointDao stayPointDao, SafeZoneDao safeZoneDao) {
+        this.stayPointDao = stayPointDao;
+        this.safeZoneDao = safeZoneDao;
+    }
+
+    /**
+     * Run a fix through the child's detector and store the stay point it completed, if any
+     */
+    public Completable offer(LocationEntity location) {
+        return Maybe.fromCallable(() -> {
+                    StayPointDetector detector =
+                            detectors.computeIfAbsent(location.getChildId(), StayPointDetector::new);
+                    synchronized (detector) {
+                        return detector.offer(location);
+                    }
+                })
+                .flatMapCompletable(this::store);
+    }
+
+    /**
+     * Close the child's open visit, e.g. when tracking is switched off
+     */
+    public Completable flush(String childId) {
+        return Maybe.fromCallable(() -> {
+                    StayPointDetector detector = detectors.remove(childId);
+                    if (detector == null) {
+                        return null;
+                    }
+                    synchronized (detector) {
+                        return detector.flush();
+                    }
+                })
+                .flatMapCompletable(this::store);
+    }
+
+    public Single<List<StayPointEntity>> getStayPoints(String childId, Date startDate, Date endDate) {
+        return stayPointDao.getStayPointsBetween(childId, startDate, endDate);
+    }
+
+    public Single<List<StayPointEntity>> getRecentStayPoints(String childId, int limit) {
+        return stayPointDao.getRecentStayPoints(childId, limit);
+    }
+
+    public Single<Long> getTotalDwellTime(String safeZoneId, Date sinceDate) {
+        return stayPointDao.getTotalDwellTime(safeZoneId, sinceDate);
+    }
+
+    // Stamp the zone containing the centroid, then insert
+    private Completable store(StayPointEntity stayPoint) {
+        return safeZoneDao.getActiveSafeZonesForLocationCheck(stayPoint.getChildId())
+                .onErrorReturnItem(Collections.emptyList())
+                .flatMapCompletable(zones -> {
+                    SafeZoneEntity zone = findZone(stayPoint, zones);
+                    if (zone != null) {
+                        stayPoint.setSafeZoneId(zone.getId());
+                        stayPoint.setSafeZoneName(zone.getName());
+                    }
+                    return stayPointDao.insertStayPoint(stayPoint);
+                });
+    }
+
+    private static SafeZoneEntity findZone(StayPointEntity stayPoint, List<SafeZoneEntity> zones) {
+        SafeZoneEntity best = null;
+        double bestDistance = Double.MAX_VALUE;
+        for (SafeZoneEntity zone : zones) {
+            double distance = GeoDistance.haversine(zone.getLatitude(), zone.getLongitude(),
+                    stayPoint.getLatitude(), stayPoint.getLongitude());
+            if (distance <= zone.getRadius() && distance < bestDistance) {
+                best = zone;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+}
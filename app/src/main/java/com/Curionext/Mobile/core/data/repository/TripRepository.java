@@ -0,0 +1,132 @@
+package com.curionext.mobile.core.data.repository;
+
+import com.curionext.mobile.core.data.local.dao.TripDao;
+import com.curionext.mobile.core.data.local.entity.LocationEntity;
+import com.curionext.mobile.core.data.local.entity.TripEntity;
+import com.curionext.mobile.core.data.model.TripSummary;
+import com.curionext.mobile.core.util.Constants;
+import com.curionext.mobile.core.util.TripSegmenter;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Single;
+
+@Singleton
+public class TripRepository {
+
+    private final TripDao tripDao;
+
+    // One segmenter per child; trip statistics are read from the trips table, never recomputed from locations
+    private final Map<String, ChildTrips> segmenters = new ConcurrentHashMap<>();
+
+    @Inject
+    public TripRepository(TripDao tripDao) {
+        this.tripDao = tripDao;
+    }
+
+    /**
+     * Run a fix through the child's segmenter. A trip is written when it closes;
+     * the open trip lives in memory and is checkpointed when it first becomes
+     * reportable and then once per TRIP_CHECKPOINT_INTERVAL, so a crash loses
+     * at most that much of it.
+     */
+    public Completable offer(LocationEntity location) {
+        return Completable.defer(() -> {
+            String childId = location.getChildId();
+            ChildTrips trips = segmenters.get(childId);
+            Completable recovery = Completable.complete();
+            if (trips == null) {
+                ChildTrips created = new ChildTrips(new TripSegmenter(childId));
+                trips = segmenters.putIfAbsent(childId, created);
+                if (trips == null) {
+                    trips = created;
+                    recovery = tripDao.closeOpenTrips(childId).onErrorComplete();
+                }
+            }
+
+            ChildTrips current = trips;
+            return recovery.andThen(Maybe.fromCallable(() -> {
+                        synchronized (current) {
+                            return current.offer(location);
+                        }
+                    }))
+                    .flatMapCompletable(tripDao::upsertTrip);
+        });
+    }
+
+    /**
+     * Close the child's trip in progress, e.g. when tracking is switched off
+     */
+    public Completable flush(String childId) {
+        return Maybe.fromCallable(() -> {
+                    ChildTrips trips = segmenters.remove(childId);
+                    if (trips == null) {
+                        return null;
+                    }
+                    synchronized (trips) {
+                        return trips.segmenter.flush();
+                    }
+                })
+                .flatMapCompletable(tripDao::upsertTrip);
+    }
+
+    public Single<TripSummary> getTripSummary(String childId, Date sinceDate) {
+        return tripDao.getTripSummary(childId, sinceDate);
+    }
+
+    /**
+     * Distance-weighted average speed over all trips since the date, km/h
+     */
+    public Single<Double> getAverageSpeed(String childId, Date sinceDate) {
+        return tripDao.getAverageSpeed(childId, sinceDate);
+    }
+
+    public Single<List<TripEntity>> getRecentTrips(String childId, int limit) {
+        return tripDao.getRecentTrips(childId, limit);
+    }
+
+    public Single<List<TripEntity>> getTrips(String childId, Date startDate, Date endDate) {
+        return tripDao.getTripsBetween(childId, startDate, endDate);
+    }
+
+    // A child's segmenter and which open trip was last written, and when
+    private static final class ChildTrips {
+
+        final TripSegmenter segmenter;
+        String checkpointTripId;
+        long checkpointTime;
+
+        ChildTrips(TripSegmenter segmenter) {
+            this.segmenter = segmenter;
+        }
+
+        // The trip to write for this fix, or null
+        TripEntity offer(LocationEntity location) {
+            TripEntity closed = segmenter.offer(location);
+            if (closed != null) {
+                checkpointTripId = null;
+                return closed;
+            }
+
+            TripEntity open = segmenter.getOpenTrip();
+            if (open == null) {
+                return null;
+            }
+            long time = open.getEndTime().getTime();
+            if (open.getId().equals(checkpointTripId) && time - checkpointTime < Constants.TRIP_CHECKPOINT_INTERVAL) {
+                return null;
+            }
+            checkpointTripId = open.getId();
+            checkpointTime = time;
+            return open;
+        }
+    }
+}
@@ -8,6 +8,11 @@ import com.curionext.mobile.features.preferences.PreferenceAnalysisActivity;
 import com.curionext.mobile.features.profile.ChildProfileActivity;
 import com.curionext.mobile.features.safety.SafetySettingsActivity;
 
+import com.curionext.mobile.core.data.local.LocationRollupEngine;
+import com.curionext.mobile.core.data.local.LocationWriteBuffer;
+import com.curionext.mobile.core.data.repository.AddressRepository;
+import com.curionext.mobile.core.data.repository.LocationUploadOutbox;
+
 import javax.inject.Singleton;
 import dagger.Component;
 
@@ -21,4 +26,9 @@ public interface AppComponent {
     void inject(PreferenceAnalysisActivity activity);
     void inject(ChildProfileActivity activity);
     void inject(SafetySettingsActivity activity);
+
+    LocationWriteBuffer locationWriteBuffer();
+    LocationUploadOutbox locationUploadOutbox();
+    AddressRepository addressRepository();
+    LocationRollupEngine locationRollupEngine();
 }
@@ -10,6 +10,8 @@ import com.curionext.mobile.core.data.repository.LocationRepository;
 import com.curionext.mobile.core.data.repository.NotificationRepository;
 import com.curionext.mobile.core.data.repository.PreferenceRepository;
 import com.curionext.mobile.core.data.repository.SafetyRepository;
+import com.curionext.mobile.core.util.AdaptiveSamplingPolicy;
+import com.curionext.mobile.core.util.SamplingPolicy;
 
 import javax.inject.Singleton;
 import dagger.Module;
@@ -70,4 +72,10 @@ public class AppModule {
     SafetyRepository provideSafetyRepository() {
         return new SafetyRepository();
     }
+
+    @Provides
+    @Singleton
+    SamplingPolicy provideSamplingPolicy() {
+        return new AdaptiveSamplingPolicy();
+    }
 }
@@ -3,13 +3,24 @@ package com.curionext.mobile.core.di;
 import android.content.Context;
 import androidx.room.Room;
 
+import com.curionext.mobile.core.data.local.ChildStatsCallback;
 import com.curionext.mobile.core.data.local.CurioNextDatabase;
+import com.curionext.mobile.core.data.local.Migrations;
+import com.curionext.mobile.core.data.local.SpatialIndexCallback;
+import com.curionext.mobile.core.data.local.dao.CacheMetadataDao;
 import com.curionext.mobile.core.data.local.dao.ChildDao;
+import com.curionext.mobile.core.data.local.dao.ChildStatsDao;
+import com.curionext.mobile.core.data.local.dao.GeocodeCacheDao;
 import com.curionext.mobile.core.data.local.dao.InterestDao;
+import com.curionext.mobile.core.data.local.dao.KeywordDao;
 import com.curionext.mobile.core.data.local.dao.LocationDao;
+import com.curionext.mobile.core.data.local.dao.LocationOutboxDao;
+import com.curionext.mobile.core.data.local.dao.LocationRollupDao;
 import com.curionext.mobile.core.data.local.dao.NotificationDao;
 import com.curionext.mobile.core.data.local.dao.PreferenceDao;
 import com.curionext.mobile.core.data.local.dao.SafeZoneDao;
+import com.curionext.mobile.core.data.local.dao.StayPointDao;
+import com.curionext.mobile.core.data.local.dao.TripDao;
 
 import javax.inject.Singleton;
 import dagger.Module;
@@ -25,7 +36,14 @@ public class DatabaseModule {
                 context.getApplicationContext(),
                 CurioNextDatabase.class,
                 "curionext_database"
-        ).build();
+        )
+                // locations, the outbox, stay points and trips exist only on this device,
+                // so upgrades migrate; Migrations clears server copies whose format changed
+                .addMigrations(Migrations.all())
+                .fallbackToDestructiveMigrationOnDowngrade()
+                .addCallback(new SpatialIndexCallback())
+                .addCallback(new ChildStatsCallback())
+                .build();
     }
 
     @Provides
@@ -57,4 +75,44 @@ public class DatabaseModule {
     SafeZoneDao provideSafeZoneDao(CurioNextDatabase database) {
         return database.safeZoneDao();
     }
+
+    @Provides
+    LocationOutboxDao provideLocationOutboxDao(CurioNextDatabase database) {
+        return database.locationOutboxDao();
+    }
+
+    @Provides
+    GeocodeCacheDao provideGeocodeCacheDao(CurioNextDatabase database) {
+        return database.geocodeCacheDao();
+    }
+
+    @Provides
+    LocationRollupDao provideLocationRollupDao(CurioNextDatabase database) {
+        return database.locationRollupDao();
+    }
+
+    @Provides
+    StayPointDao provideStayPointDao(CurioNextDatabase database) {
+        return database.stayPointDao();
+    }
+
+    @Provides
+    TripDao provideTripDao(CurioNextDatabase database) {
+        return database.tripDao();
+    }
+
+    @Provides
+    CacheMetadataDao provideCacheMetadataDao(CurioNextDatabase database) {
+        return database.cacheMetadataDao();
+    }
+
+    @Provides
+    ChildStatsDao provideChildStatsDao(CurioNextDatabase database) {
+        return database.childStatsDao();
+    }
+
+    @Provides
+    KeywordDao provideKeywordDao(CurioNextDatabase database) {
+        return database.keywordDao();
+    }
 }
@@ -25,5 +25,20 @@ public interface ApiService {
             @Query("days") int days
     );
 
+    // Profile, interests and notifications of several children in one round trip
+    @GET("analytics/dashboard/batch")
+    Single<List<ChildDashboard>> getDashboards(
+            @Query("childIds") List<String> childIds
+    );
+
+    // Body is a gzip-compressed JSON array of LocationData; the server dedupes on Idempotency-Key
+    @POST("locations/{childId}/batch")
+    Completable uploadLocationBatch(
+            @Path("childId") String childId,
+            @Header("Idempotency-Key") String idempotencyKey,
+            @Header("Content-Encoding") String contentEncoding,
+            @Body RequestBody body
+    );
+
     // Add all other endpoints from your controllers...
 }
\ No newline at end of file
@@ -0,0 +1,59 @@
+package com.curionext.mobile.core.util;
+
+import com.curionext.mobile.core.data.model.LocationData;
+
+/**
+ * Sampling policy driven by movement, geofence proximity and battery.
+ * A base interval/displacement is picked from the movement status, stretched
+ * when the battery is low, and then capped so that a child heading for the
+ * nearest zone boundary is sampled at least twice before reaching it.
+ * Proximity wins over battery: missing a zone exit costs more than a few fixes.
+ */
+public class AdaptiveSamplingPolicy implements SamplingPolicy {
+
+    @Override
+    public SamplingDecision decide(LocationData location, double boundaryDistance) {
+        long interval;
+        float displacement;
+        switch (LocationUtils.getMovementStatus(location)) {
+            case "Stationary":
+                interval = Constants.SAMPLING_MAX_INTERVAL;
+                displacement = 50.0f;
+                break;
+            case "Walking":
+                interval = 60000;
+                displacement = 20.0f;
+                break;
+            case "Running/Cycling":
+                interval = 30000;
+                displacement = 30.0f;
+                break;
+            default:
+                interval = 15000;
+                displacement = 75.0f;
+                break;
+        }
+
+        int battery = location.getBatteryLevel();
+        if (battery > 0 && battery <= Constants.SAMPLING_CRITICAL_BATTERY) {
+            interval *= 3;
+        } else if (battery > 0 && battery <= Constants.SAMPLING_LOW_BATTERY) {
+            interval = interval * 3 / 2;
+        }
+
+        // A stationary child can start walking at any moment
+        double speed = Math.max(location.getSpeed(), Constants.SAMPLING_ASSUMED_SPEED);
+        double timeToBoundary = boundaryDistance / speed * 1000;
+        if (timeToBoundary / 2 < interval) {
+            interval = (long) (timeToBoundary / 2);
+        }
+        if (boundaryDistance / 2 < displacement) {
+            displacement = (float) (boundaryDistance / 2);
+        }
+
+        interval = Math.max(Constants.LOCATION_FASTEST_INTERVAL, Math.min(interval, Constants.SAMPLING_MAX_INTERVAL));
+        displacement = Math.max(Constants.SAMPLING_MIN_DISPLACEMENT, displacement);
+        long fastest = Math.min(interval, Constants.LOCATION_FASTEST_INTERVAL);
+        return new SamplingDecision(interval, fastest, displacement);
+    }
+}
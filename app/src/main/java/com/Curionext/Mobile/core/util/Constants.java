@@ -33,7 +33,7 @@ public class Constants {
 
     // Database Constants
     public static final String DB_NAME = "curionext_database";
-    public static final int DB_VERSION = 1;
+    public static final int DB_VERSION = 14;
 
     // Location Constants
     public static final int LOCATION_PERMISSION_REQUEST_CODE = 1001;
@@ -43,6 +43,31 @@ public class Constants {
     public static final int DEFAULT_SAFE_ZONE_RADIUS = 100; // 100 meters
     public static final int MAX_SAFE_ZONE_RADIUS = 1000; // 1 km
     public static final int MIN_SAFE_ZONE_RADIUS = 25; // 25 meters
+    public static final float GEOFENCE_MIN_HYSTERESIS = 10.0f; // 10 meters
+    public static final float TRAJECTORY_MIN_TOLERANCE = 15.0f; // 15 meters
+    public static final long TRAJECTORY_MAX_GAP = 600000; // 10 minutes
+    public static final int LOCATION_WRITE_BATCH_SIZE = 25;
+    public static final long LOCATION_WRITE_MAX_DELAY = 120000; // 2 minutes
+    public static final int LOCATION_WRITE_MAX_ATTEMPTS = 5;
+    public static final int SAMPLING_MAX_INTERVAL = 300000; // 5 minutes
+    public static final float SAMPLING_MIN_DISPLACEMENT = 5.0f; // 5 meters
+    public static final float SAMPLING_ASSUMED_SPEED = 1.4f; // walking pace, m/s
+    public static final int SAMPLING_LOW_BATTERY = 30; // percent
+    public static final int SAMPLING_CRITICAL_BATTERY = 15; // percent
+    public static final double GEOCODE_CELL_SIZE = 0.0005; // degrees, ~55 meters
+    public static final int GEOCODE_MEMORY_CACHE_SIZE = 200;
+    public static final long GEOCODE_CACHE_EXPIRY = 2592000000L; // 30 days
+    public static final long LOCATION_RAW_RETENTION = 604800000L; // 7 days
+    public static final long LOCATION_MINUTE_RETENTION = 2592000000L; // 30 days
+    public static final long LOCATION_HOUR_RETENTION = 31536000000L; // 365 days
+    public static final int LOCATION_ROLLUP_BATCH_SIZE = 500;
+    public static final float STAY_RADIUS = 100.0f; // 100 meters
+    public static final long STAY_MIN_DURATION = 600000; // 10 minutes
+    public static final float STAY_MAX_ACCURACY = 100.0f; // fixes worse than this are ignored
+    public static final long TRIP_END_DWELL = 180000; // 3 minutes
+    public static final long TRIP_MAX_GAP = 600000; // 10 minutes
+    public static final double TRIP_MIN_DISTANCE = 200.0; // 200 meters
+    public static final long TRIP_CHECKPOINT_INTERVAL = 300000; // 5 minutes; closed trips are written at once
 
     // Audio Constants
     public static final int AUDIO_PERMISSION_REQUEST_CODE = 1002;
@@ -73,12 +98,18 @@ public class Constants {
     public static final int ANALYTICS_PERIOD_DEFAULT = 30;
     public static final long SYNC_INTERVAL = 300000; // 5 minutes
     public static final long CACHE_EXPIRY_TIME = 3600000; // 1 hour
+    public static final long OUTBOX_CHECK_INTERVAL = 60000; // 1 minute
+    public static final long OUTBOX_MAX_AGE = 300000; // 5 minutes
+    public static final long OUTBOX_BASE_BACKOFF = 30000; // 30 seconds
+    public static final long OUTBOX_MAX_BACKOFF = 1800000; // 30 minutes
+    public static final int OUTBOX_BATCH_SIZE = 50;
 
     // UI Constants
     public static final int DASHBOARD_ITEMS_LIMIT = 5;
     public static final int INTEREST_GRID_COLUMNS = 2;
     public static final int NOTIFICATION_PAGE_SIZE = 20;
     public static final int LOCATION_HISTORY_PAGE_SIZE = 50;
+    public static final int PAGE_PREFETCH_DISTANCE = 10; // rows before the end that trigger the next page
     public static final int ANIMATION_DURATION_SHORT = 200;
     public static final int ANIMATION_DURATION_MEDIUM = 400;
     public static final int ANIMATION_DURATION_LONG = 600;
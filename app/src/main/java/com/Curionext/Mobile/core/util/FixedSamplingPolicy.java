@@ -0,0 +1,14 @@
+package com.curionext.mobile.core.util;
+
+import com.curionext.mobile.core.data.model.LocationData;
+
+/**
+ * Always samples at the static LOCATION_* rates; the baseline for the simulator
+ */
+public class FixedSamplingPolicy implements SamplingPolicy {
+
+    @Override
+    public SamplingDecision decide(LocationData location, double boundaryDistance) {
+        return SamplingDecision.DEFAULT;
+    }
+}
@@ -0,0 +1,264 @@
+package com.curionext.mobile.core.util;
+
+/**
+ * Single geodesic distance kernel for the app (spherical earth, meters).
+ *
+ * Besides plain Haversine it offers an equirectangular fast path for radius
+ * tests. Writing the exact Haversine as
+ *   hav(c) = hav(dLat) + (cos^2(midLat) - sin^2(dLat / 2)) * hav(dLng)
+ * and comparing with the equirectangular c^2 = dLat^2 + cos^2(midLat) * dLng^2,
+ * the relative error of c^2 is bounded by dLng^2 / 12 + dLat^2 / (4 * cos^2(midLat)).
+ * For separations up to FAST_PATH_MAX_DISTANCE at latitudes within
+ * FAST_PATH_MAX_LATITUDE that is below 5e-4, so the distance itself is off by
+ * less than FAST_PATH_RELATIVE_ERROR. Only fixes whose approximate distance is
+ * within that error of the radius fall back to Haversine.
+ *
+ * Far-away zones are rejected before that with the rigorous lower bound
+ * c >= max(|dLat|, (2 / pi) * min(cosLat1, cosLat2) * |dLng|), which follows
+ * from hav(c) >= hav(dLat) and hav(c) >= cosLat1 * cosLat2 * hav(dLng).
+ */
+public final class GeoDistance {
+
+    public static final double EARTH_RADIUS_METERS = 6371000.0;
+
+    static final double FAST_PATH_MAX_DISTANCE = 20000.0; // 20 km
+    static final double FAST_PATH_MAX_LATITUDE = 85.0;
+    static final double FAST_PATH_RELATIVE_ERROR = 1e-3;
+
+    private static final double DEG_TO_RAD = Math.PI / 180.0;
+    private static final double TWO_OVER_PI = 2.0 / Math.PI;
+
+    private GeoDistance() {
+        throw new UnsupportedOperationException("GeoDistance class cannot be instantiated");
+    }
+
+    /**
+     * Haversine distance between two points given in degrees
+     */
+    public static double haversine(double lat1, double lng1, double lat2, double lng2) {
+        double lat1Rad = lat1 * DEG_TO_RAD;
+        double lat2Rad = lat2 * DEG_TO_RAD;
+        return haversineRadians(lat1Rad, lng1 * DEG_TO_RAD, Math.cos(lat1Rad),
+                lat2Rad, lng2 * DEG_TO_RAD, Math.cos(lat2Rad));
+    }
+
+    /**
+     * Equirectangular approximation; see the class comment for its error bound
+     */
+    public static double equirectangular(double lat1, double lng1, double lat2, double lng2) {
+        double lat1Rad = lat1 * DEG_TO_RAD;
+        double lat2Rad = lat2 * DEG_TO_RAD;
+        double x = wrapLongitude((lng2 - lng1) * DEG_TO_RAD) * Math.cos((lat1Rad + lat2Rad) / 2);
+        double y = lat2Rad - lat1Rad;
+        return EARTH_RADIUS_METERS * Math.sqrt(x * x + y * y);
+    }
+
+    /**
+     * Radius test that only pays for Haversine near the boundary
+     */
+    public static boolean isWithin(double lat1, double lng1, double lat2, double lng2, double radius) {
+        return new Anchor(lat2, lng2).isWithin(lat1, lng1, radius);
+    }
+
+    // ---- Batch API over primitive arrays (no allocation) ----
+
+    /**
+     * Fill out[i] with the Haversine distance from (lat, lng) to (lats[i], lngs[i]) for i < count
+     */
+    public static void distances(double lat, double lng, double[] lats, double[] lngs, int count, double[] out) {
+        double latRad = lat * DEG_TO_RAD;
+        double lngRad = lng * DEG_TO_RAD;
+        double cosLat = Math.cos(latRad);
+        for (int i = 0; i < count; i++) {
+            double otherLatRad = lats[i] * DEG_TO_RAD;
+            out[i] = haversineRadians(latRad, lngRad, cosLat,
+                    otherLatRad, lngs[i] * DEG_TO_RAD, Math.cos(otherLatRad));
+        }
+    }
+
+    /**
+     * Total length of the polyline through the first count points, e.g. a stretch of location history
+     */
+    public static double pathLength(double[] lats, double[] lngs, int count) {
+        if (count < 2) {
+            return 0.0;
+        }
+
+        double total = 0.0;
+        double prevLatRad = lats[0] * DEG_TO_RAD;
+        double prevLngRad = lngs[0] * DEG_TO_RAD;
+        double prevCos = Math.cos(prevLatRad);
+        for (int i = 1; i < count; i++) {
+            double latRad = lats[i] * DEG_TO_RAD;
+            double lngRad = lngs[i] * DEG_TO_RAD;
+            double cosLat = Math.cos(latRad);
+            total += haversineRadians(prevLatRad, prevLngRad, prevCos, latRad, lngRad, cosLat);
+            prevLatRad = latRad;
+            prevLngRad = lngRad;
+            prevCos = cosLat;
+        }
+        return total;
+    }
+
+    /**
+     * Precompute cos(latitude) for zone centers so zone scans never call Math.cos per fix
+     */
+    public static void cosLatitudes(double[] lats, int count, double[] out) {
+        for (int i = 0; i < count; i++) {
+            out[i] = Math.cos(lats[i] * DEG_TO_RAD);
+        }
+    }
+
+    /**
+     * Index of the first zone (center lats/lngs in degrees, cached cosines, radii in meters)
+     * containing the point, or -1
+     */
+    public static int indexOfContaining(double lat, double lng,
+                                        double[] zoneLats, double[] zoneLngs, double[] zoneCos,
+                                        double[] radii, int count) {
+        double latRad = lat * DEG_TO_RAD;
+        double lngRad = lng * DEG_TO_RAD;
+        double cosLat = Math.cos(latRad);
+        boolean fastPath = Math.abs(lat) <= FAST_PATH_MAX_LATITUDE;
+
+        for (int i = 0; i < count; i++) {
+            double zoneLatRad = zoneLats[i] * DEG_TO_RAD;
+            double zoneLngRad = zoneLngs[i] * DEG_TO_RAD;
+            if (withinRadians(latRad, lngRad, cosLat, zoneLatRad, zoneLngRad, zoneCos[i], radii[i], fastPath)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Number of points within radius of (lat, lng)
+     */
+    public static int countWithin(double lat, double lng, double[] lats, double[] lngs, int count, double radius) {
+        Anchor anchor = new Anchor(lat, lng);
+        int within = 0;
+        for (int i = 0; i < count; i++) {
+            if (anchor.isWithin(lats[i], lngs[i], radius)) {
+                within++;
+            }
+        }
+        return within;
+    }
+
+    // ---- Internals ----
+
+    private static double haversineRadians(double lat1Rad, double lng1Rad, double cos1,
+                                           double lat2Rad, double lng2Rad, double cos2) {
+        double sinDLat = Math.sin((lat2Rad - lat1Rad) / 2);
+        double sinDLng = Math.sin((lng2Rad - lng1Rad) / 2);
+        double a = sinDLat * sinDLat + cos1 * cos2 * sinDLng * sinDLng;
+        return 2 * EARTH_RADIUS_METERS * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    private static boolean withinRadians(double latRad, double lngRad, double cosLat,
+                                         double zoneLatRad, double zoneLngRad, double zoneCos,
+                                         double radius, boolean fastPath) {
+        double dLat = latRad - zoneLatRad;
+        double dLng = wrapLongitude(lngRad - zoneLngRad);
+
+        if (lowerBoundRadians(dLat, dLng, cosLat, zoneCos) > radius) {
+            return false;
+        }
+
+        if (fastPath) {
+            double approx = fastDistanceRadians(dLat, dLng, cosLat, zoneCos);
+            if (approx <= FAST_PATH_MAX_DISTANCE) {
+                double margin = approx * FAST_PATH_RELATIVE_ERROR;
+                if (approx + margin <= radius) {
+                    return true;
+                }
+                if (approx - margin > radius) {
+                    return false;
+                }
+            }
+        }
+        return haversineRadians(latRad, lngRad, cosLat, zoneLatRad, zoneLngRad, zoneCos) <= radius;
+    }
+
+    /**
+     * The early-reject bound of withinRadians in meters; never exceeds the Haversine distance
+     */
+    static double lowerBound(double lat1, double lng1, double lat2, double lng2) {
+        double lat1Rad = lat1 * DEG_TO_RAD;
+        double lat2Rad = lat2 * DEG_TO_RAD;
+        return lowerBoundRadians(lat2Rad - lat1Rad, wrapLongitude((lng2 - lng1) * DEG_TO_RAD),
+                Math.cos(lat1Rad), Math.cos(lat2Rad));
+    }
+
+    /**
+     * The fast-path distance of withinRadians in meters; within FAST_PATH_RELATIVE_ERROR of
+     * Haversine up to FAST_PATH_MAX_DISTANCE at latitudes within FAST_PATH_MAX_LATITUDE
+     */
+    static double fastDistance(double lat1, double lng1, double lat2, double lng2) {
+        double lat1Rad = lat1 * DEG_TO_RAD;
+        double lat2Rad = lat2 * DEG_TO_RAD;
+        return fastDistanceRadians(lat2Rad - lat1Rad, wrapLongitude((lng2 - lng1) * DEG_TO_RAD),
+                Math.cos(lat1Rad), Math.cos(lat2Rad));
+    }
+
+    private static double lowerBoundRadians(double dLat, double dLng, double cos1, double cos2) {
+        return EARTH_RADIUS_METERS * Math.max(Math.abs(dLat), TWO_OVER_PI * Math.min(cos1, cos2) * Math.abs(dLng));
+    }
+
+    private static double fastDistanceRadians(double dLat, double dLng, double cos1, double cos2) {
+        // cos(midLat) ~ (cosA + cosB) / 2 is within the same error budget for these separations
+        double x = dLng * (cos1 + cos2) / 2;
+        return EARTH_RADIUS_METERS * Math.sqrt(x * x + dLat * dLat);
+    }
+
+    private static double wrapLongitude(double dLngRad) {
+        if (dLngRad > Math.PI) {
+            return dLngRad - 2 * Math.PI;
+        }
+        if (dLngRad < -Math.PI) {
+            return dLngRad + 2 * Math.PI;
+        }
+        return dLngRad;
+    }
+
+    /**
+     * A fixed point (zone center, last fix) with its radians and cosine cached
+     */
+    public static final class Anchor {
+        private final double latitude;
+        private final double longitude;
+        private final double latRad;
+        private final double lngRad;
+        private final double cosLat;
+
+        public Anchor(double latitude, double longitude) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.latRad = latitude * DEG_TO_RAD;
+            this.lngRad = longitude * DEG_TO_RAD;
+            this.cosLat = Math.cos(latRad);
+        }
+
+        public double getLatitude() { return latitude; }
+        public double getLongitude() { return longitude; }
+
+        /**
+         * Exact (Haversine) distance to a point
+         */
+        public double distanceTo(double lat, double lng) {
+            double otherLatRad = lat * DEG_TO_RAD;
+            return haversineRadians(latRad, lngRad, cosLat, otherLatRad, lng * DEG_TO_RAD, Math.cos(otherLatRad));
+        }
+
+        /**
+         * Check if a point lies within radius meters, using the fast path away from the boundary
+         */
+        public boolean isWithin(double lat, double lng, double radius) {
+            double otherLatRad = lat * DEG_TO_RAD;
+            boolean fastPath = Math.abs(lat) <= FAST_PATH_MAX_LATITUDE
+                    && Math.abs(latitude) <= FAST_PATH_MAX_LATITUDE;
+            return withinRadians(otherLatRad, lng * DEG_TO_RAD, Math.cos(otherLatRad),
+                    latRad, lngRad, cosLat, radius, fastPath);
+        }
+    }
+}
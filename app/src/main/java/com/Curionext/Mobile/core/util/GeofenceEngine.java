@@ -0,0 +1,183 @@
+package com.curionext.mobile.core.util;
+
+import com.curionext.mobile.core.data.local.entity.SafeZoneEntity;
+import com.curionext.mobile.core.data.model.GeofenceTransition;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * Per-child geofence state machine.
+ * Keeps the last known inside/outside state of every zone and only reports
+ * enter/exit transitions. A zone is entered once the fix is inside the radius
+ * minus an accuracy-dependent margin and left once it is beyond the radius plus
+ * that margin, so GPS jitter around the boundary does not flap the state.
+ * Fixes that moved less than the distance to the nearest threshold are skipped
+ * without touching any zone.
+ * Zone schedules are compiled to week-minute bitmasks at load; a zone outside
+ * its schedule keeps its last state and reports nothing until it is active again.
+ */
+public class GeofenceEngine {
+
+    private final String childId;
+    private final List<ZoneState> zones;
+    private final TimeZone timeZone;
+
+    private GeoDistance.Anchor lastFix;
+    private float lastAccuracy;
+
+    // Distance the child can move before any zone could change state
+    private double slack;
+
+    public GeofenceEngine(String childId, List<SafeZoneEntity> safeZones) {
+        this(childId, safeZones, TimeZone.getDefault());
+    }
+
+    public GeofenceEngine(String childId, List<SafeZoneEntity> safeZones, TimeZone timeZone) {
+        this.childId = childId;
+        this.timeZone = timeZone;
+        this.zones = new ArrayList<>(safeZones.size());
+        for (SafeZoneEntity zone : safeZones) {
+            if (zone.isActive()) {
+                zones.add(new ZoneState(zone, wasInsideAtLoad(zone)));
+            }
+        }
+    }
+
+    /**
+     * Feed a new fix and return the transitions it caused (usually none)
+     */
+    public List<GeofenceTransition> evaluate(double latitude, double longitude, float accuracy, Date timestamp) {
+        int weekMinute = ZoneSchedule.weekMinute(
+                timestamp != null ? timestamp.getTime() : System.currentTimeMillis(), timeZone);
+        boolean scheduleChanged = false;
+        for (ZoneState state : zones) {
+            boolean active = state.schedule.isActiveAt(weekMinute);
+            if (active != state.active) {
+                state.active = active;
+                scheduleChanged = true;
+            }
+        }
+
+        if (lastFix != null && !scheduleChanged) {
+            double moved = lastFix.distanceTo(latitude, longitude);
+            // Margins shift by at most the change in accuracy, so this bound stays conservative
+            if (moved + Math.abs(accuracy - lastAccuracy) < slack) {
+                return Collections.emptyList();
+            }
+        }
+
+        List<GeofenceTransition> transitions = null;
+        double nearestThreshold = Double.MAX_VALUE;
+
+        for (ZoneState state : zones) {
+            if (!state.active) {
+                continue;
+            }
+            SafeZoneEntity zone = state.zone;
+            double distance = state.center.distanceTo(latitude, longitude);
+            double margin = hysteresisMargin(zone.getRadius(), accuracy);
+
+            if (state.inside && distance > zone.getRadius() + margin) {
+                state.inside = false;
+                transitions = add(transitions, new GeofenceTransition(childId, zone.getId(), zone.getName(),
+                        GeofenceTransition.TYPE_EXIT, timestamp, distance, zone.isExitNotifications()));
+            } else if (!state.inside && distance <= zone.getRadius() - margin) {
+                state.inside = true;
+                transitions = add(transitions, new GeofenceTransition(childId, zone.getId(), zone.getName(),
+                        GeofenceTransition.TYPE_ENTER, timestamp, distance, zone.isEntryNotifications()));
+            }
+
+            double threshold = state.inside ? zone.getRadius() + margin : zone.getRadius() - margin;
+            nearestThreshold = Math.min(nearestThreshold, Math.abs(threshold - distance));
+        }
+
+        lastFix = new GeoDistance.Anchor(latitude, longitude);
+        lastAccuracy = accuracy;
+        slack = nearestThreshold;
+
+        return transitions == null ? Collections.emptyList() : transitions;
+    }
+
+    /**
+     * Check the last known state of a zone
+     */
+    public boolean isInside(String safeZoneId) {
+        for (ZoneState state : zones) {
+            if (state.zone.getId().equals(safeZoneId)) {
+                return state.inside;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Zones the child is currently inside, in load order; zones outside their schedule are left out
+     */
+    public List<SafeZoneEntity> getOccupiedZones() {
+        List<SafeZoneEntity> occupied = new ArrayList<>();
+        for (ZoneState state : zones) {
+            if (state.inside && state.active) {
+                occupied.add(state.zone);
+            }
+        }
+        return occupied;
+    }
+
+    /**
+     * Distance from the last evaluated fix to the nearest enter/exit threshold.
+     * 0 before the first fix, Double.MAX_VALUE when the child has no zones.
+     */
+    public double getBoundarySlack() {
+        return lastFix == null ? 0 : slack;
+    }
+
+    public String getChildId() {
+        return childId;
+    }
+
+    public int getZoneCount() {
+        return zones.size();
+    }
+
+    /**
+     * Half-width of the hysteresis band: the reported accuracy, never below the
+     * configured minimum and never more than half the radius so small zones stay enterable
+     */
+    static double hysteresisMargin(int radius, float accuracy) {
+        double margin = Math.max(Constants.GEOFENCE_MIN_HYSTERESIS, accuracy);
+        return Math.min(margin, radius / 2.0);
+    }
+
+    private static boolean wasInsideAtLoad(SafeZoneEntity zone) {
+        Date entered = zone.getLastEntered();
+        Date exited = zone.getLastExited();
+        return entered != null && (exited == null || entered.after(exited));
+    }
+
+    private static List<GeofenceTransition> add(List<GeofenceTransition> transitions, GeofenceTransition transition) {
+        if (transitions == null) {
+            transitions = new ArrayList<>(2);
+        }
+        transitions.add(transition);
+        return transitions;
+    }
+
+    private static class ZoneState {
+        final SafeZoneEntity zone;
+        final GeoDistance.Anchor center;
+        final ZoneSchedule schedule;
+        boolean inside;
+        boolean active = true;
+
+        ZoneState(SafeZoneEntity zone, boolean inside) {
+            this.zone = zone;
+            this.center = new GeoDistance.Anchor(zone.getLatitude(), zone.getLongitude());
+            this.schedule = ZoneSchedule.compile(zone.getSchedule());
+            this.inside = inside;
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.curionext.mobile.core.util;
+
+import com.curionext.mobile.core.data.model.LocationData;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Quadtree over location fixes for map marker clustering.
+ * Points live in primitive arrays in Web Mercator space ([0, 1) on both
+ * axes, the same space map tiles are cut from); every quadtree node keeps the
+ * count and coordinate sums of the points below it. A viewport query descends
+ * only to the depth matching the zoom level and returns whole nodes as clusters,
+ * so its cost is the tree depth plus the number of clusters on screen, no
+ * matter how many fixes are indexed. New fixes are inserted in O(depth).
+ * Build it off the main thread; all methods are synchronized so later
+ * incremental adds and queries can come from any thread.
+ */
+public class LocationClusterer {
+
+    // Cluster cell is 1/8 of a 256px tile, i.e. markers merge within ~32px
+    private static final int CELL_ZOOM_OFFSET = 3;
+    private static final int LEAF_CAPACITY = 16;
+    private static final int MAX_DEPTH = 30;
+    private static final double MAX_LATITUDE = 85.05112878;
+
+    private double[] xs;
+    private double[] ys;
+    private int size;
+
+    private final Node root = new Node();
+
+    public LocationClusterer() {
+        this(64);
+    }
+
+    private LocationClusterer(int initialCapacity) {
+        xs = new double[Math.max(initialCapacity, 1)];
+        ys = new double[xs.length];
+    }
+
+    /**
+     * Build from parallel coordinate arrays; point i keeps index i in the returned clusters
+     */
+    public static LocationClusterer build(double[] latitudes, double[] longitudes, int count) {
+        LocationClusterer clusterer = new LocationClusterer(count);
+        for (int i = 0; i < count; i++) {
+            clusterer.add(latitudes[i], longitudes[i]);
+        }
+        return clusterer;
+    }
+
+    /**
+     * Build from location history; point indices match positions in the list
+     */
+    public static LocationClusterer build(List<LocationData> locations) {
+        int count = locations.size();
+        double[] latitudes = new double[count];
+        double[] longitudes = new double[count];
+        for (int i = 0; i < count; i++) {
+            latitudes[i] = locations.get(i).getLatitude();
+            longitudes[i] = locations.get(i).getLongitude();
+        }
+        return build(latitudes, longitudes, count);
+    }
+
+    /**
+     * Insert a fix and return its point index
+     */
+    public synchronized int add(double latitude, double longitude) {
+        if (size == xs.length) {
+            xs = Arrays.copyOf(xs, size * 2);
+            ys = Arrays.copyOf(ys, size * 2);
+        }
+        int index = size++;
+        xs[index] = projectX(longitude);
+        ys[index] = projectY(latitude);
+        insert(index);
+        return index;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Clusters intersecting the viewport at the given map zoom level.
+     * A viewport with west > east crosses the antimeridian.
+     */
+    public synchronized List<Cluster> getClusters(double south, double west, double north, double east, int zoom) {
+        int depth = Math.max(0, Math.min(MAX_DEPTH, zoom + CELL_ZOOM_OFFSET));
+        double minY = projectY(north);
+        double maxY = projectY(south);
+
+        List<Cluster> clusters = new ArrayList<>();
+        if (west <= east) {
+            query(root, 0, 0, 0, 1, projectX(west), minY, projectX(east), maxY, depth, clusters);
+        } else {
+            query(root, 0, 0, 0, 1, projectX(west), minY, 1, maxY, depth, clusters);
+            query(root, 0, 0, 0, 1, 0, minY, projectX(east), maxY, depth, clusters);
+        }
+        return clusters;
+    }
+
+    private void insert(int index) {
+        double x = xs[index];
+        double y = ys[index];
+        Node node = root;
+        double nodeX = 0;
+        double nodeY = 0;
+        double nodeSize = 1;
+        int depth = 0;
+
+        while (true) {
+            node.count++;
+            node.sumX += x;
+            node.sumY += y;
+
+            if (node.children == null) {
+                node.addPoint(index);
+                if (node.pointCount > LEAF_CAPACITY && depth < MAX_DEPTH) {
+                    split(node, nodeX, nodeY, nodeSize);
+                }
+                return;
+            }
+
+            double half = nodeSize / 2;
+            int quadrant = quadrant(x, y, nodeX + half, nodeY + half);
+            node = node.children[quadrant];
+            nodeX += (quadrant & 1) * half;
+            nodeY += (quadrant >> 1) * half;
+            nodeSize = half;
+            depth++;
+        }
+    }
+
+    private void split(Node node, double nodeX, double nodeY, double nodeSize) {
+        double half = nodeSize / 2;
+        node.children = new Node[]{new Node(), new Node(), new Node(), new Node()};
+        for (int i = 0; i < node.pointCount; i++) {
+            int index = node.points[i];
+            Node child = node.children[quadrant(xs[index], ys[index], nodeX + half, nodeY + half)];
+            child.count++;
+            child.sumX += xs[index];
+            child.sumY += ys[index];
+            child.addPoint(index);
+        }
+        // Identical points land in one child again; leave the rest to the next insert
+        node.points = null;
+        node.pointCount = 0;
+    }
+
+    private void query(Node node, int depth, double nodeX, double nodeY, double nodeSize,
+                       double minX, double minY, double maxX, double maxY, int targetDepth, List<Cluster> out) {
+        if (node.count == 0 || nodeX > maxX || nodeX + nodeSize < minX || nodeY > maxY || nodeY + nodeSize < minY) {
+            return;
+        }
+
+        if (depth >= targetDepth) {
+            out.add(new Cluster(unprojectY(node.sumY / node.count), unprojectX(node.sumX / node.count),
+                    node.count, node.count == 1 && node.points != null ? node.points[0] : -1));
+            return;
+        }
+
+        if (node.children == null) {
+            emitLeaf(node, minX, minY, maxX, maxY, targetDepth, out);
+            return;
+        }
+
+        double half = nodeSize / 2;
+        for (int quadrant = 0; quadrant < 4; quadrant++) {
+            query(node.children[quadrant], depth + 1, nodeX + (quadrant & 1) * half, nodeY + (quadrant >> 1) * half,
+                    half, minX, minY, maxX, maxY, targetDepth, out);
+        }
+    }
+
+    // A leaf above the target depth holds few points; group those sharing a target cell
+    private void emitLeaf(Node node, double minX, double minY, double maxX, double maxY,
+                          int targetDepth, List<Cluster> out) {
+        double cells = Math.pow(2, targetDepth);
+        long[] keys = new long[node.pointCount];
+        int[] counts = new int[node.pointCount];
+        double[] sumX = new double[node.pointCount];
+        double[] sumY = new double[node.pointCount];
+        int[] first = new int[node.pointCount];
+        int groups = 0;
+
+        for (int i = 0; i < node.pointCount; i++) {
+            int index = node.points[i];
+            double x = xs[index];
+            double y = ys[index];
+            if (x < minX || x > maxX || y < minY || y > maxY) {
+                continue;
+            }
+            long key = ((long) (x * cells) << 32) | ((long) (y * cells) & 0xffffffffL);
+            int group = 0;
+            while (group < groups && keys[group] != key) {
+                group++;
+            }
+            if (group == groups) {
+                keys[group] = key;
+                first[group] = index;
+                groups++;
+            }
+            counts[group]++;
+            sumX[group] += x;
+            sumY[group] += y;
+        }
+
+        for (int group = 0; group < groups; group++) {
+            out.add(new Cluster(unprojectY(sumY[group] / counts[group]), unprojectX(sumX[group] / counts[group]),
+                    counts[group], counts[group] == 1 ? first[group] : -1));
+        }
+    }
+
+    private static int quadrant(double x, double y, double midX, double midY) {
+        return (x >= midX ? 1 : 0) | (y >= midY ? 2 : 0);
+    }
+
+    static double projectX(double longitude) {
+        double x = (longitude + 180.0) / 360.0;
+        return Math.min(Math.max(x, 0), Math.nextDown(1.0));
+    }
+
+    static double projectY(double latitude) {
+        double clamped = Math.toRadians(Math.min(Math.max(latitude, -MAX_LATITUDE), MAX_LATITUDE));
+        double y = (1 - Math.log(Math.tan(clamped) + 1 / Math.cos(clamped)) / Math.PI) / 2;
+        return Math.min(Math.max(y, 0), Math.nextDown(1.0));
+    }
+
+    static double unprojectX(double x) {
+        return x * 360.0 - 180.0;
+    }
+
+    static double unprojectY(double y) {
+        return Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2 * y))));
+    }
+
+    private static class Node {
+        int count;
+        double sumX;
+        double sumY;
+        Node[] children;
+        int[] points;
+        int pointCount;
+
+        void addPoint(int index) {
+            if (points == null) {
+                points = new int[4];
+            } else if (pointCount == points.length) {
+                points = Arrays.copyOf(points, pointCount * 2);
+            }
+            points[pointCount++] = index;
+        }
+    }
+
+    /**
+     * One marker: the centroid of the fixes it stands for
+     */
+    public static class Cluster {
+        private final double latitude;
+        private final double longitude;
+        private final int count;
+        private final int index;
+
+        Cluster(double latitude, double longitude, int count, int index) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.count = count;
+            this.index = index;
+        }
+
+        public double getLatitude() { return latitude; }
+        public double getLongitude() { return longitude; }
+        public int getCount() { return count; }
+
+        /**
+         * Index of the single fix this marker stands for, or -1 for a multi-fix cluster
+         */
+        public int getIndex() { return index; }
+
+        public boolean isSinglePoint() { return count == 1; }
+    }
+}
@@ -18,22 +18,11 @@ import java.util.Locale;
 
 public class LocationUtils {
 
-    private static final double EARTH_RADIUS_METERS = 6371000.0;
-
     /**
      * Calculate distance between two geographic points using Haversine formula
      */
     public static double calculateDistance(double lat1, double lng1, double lat2, double lng2) {
-        double dLat = Math.toRadians(lat2 - lat1);
-        double dLng = Math.toRadians(lng2 - lng1);
-
-        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
-                Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) *
-                        Math.sin(dLng / 2) * Math.sin(dLng / 2);
-
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-
-        return EARTH_RADIUS_METERS * c;
+        return GeoDistance.haversine(lat1, lng1, lat2, lng2);
     }
 
     /**
@@ -54,12 +43,11 @@ public class LocationUtils {
             return false;
         }
 
-        double distance = calculateDistance(
+        return GeoDistance.isWithin(
                 location.getLatitude(), location.getLongitude(),
-                safeZone.getLatitude(), safeZone.getLongitude()
+                safeZone.getLatitude(), safeZone.getLongitude(),
+                safeZone.getRadius()
         );
-
-        return distance <= safeZone.getRadius();
     }
 
     /**
@@ -75,7 +63,8 @@ public class LocationUtils {
     }
 
     /**
-     * Get human-readable address from coordinates using Geocoder
+     * Get human-readable address from coordinates using Geocoder.
+     * Blocks on the network; UI code should go through AddressRepository instead.
      */
     public static String getAddressFromLocation(Context context, double latitude, double longitude) {
         try {
@@ -83,38 +72,49 @@ public class LocationUtils {
             List<Address> addresses = geocoder.getFromLocation(latitude, longitude, 1);
 
             if (addresses != null && !addresses.isEmpty()) {
-                Address address = addresses.get(0);
+                return formatAddress(addresses.get(0));
+            }
+        } catch (IOException e) {
+            // Geocoding failed
+        }
 
-                // Build readable address string
-                StringBuilder addressBuilder = new StringBuilder();
+        return formatCoordinates(latitude, longitude);
+    }
 
-                if (address.getFeatureName() != null) {
-                    addressBuilder.append(address.getFeatureName()).append(", ");
-                }
+    /**
+     * Build readable address string from a Geocoder result
+     */
+    public static String formatAddress(Address address) {
+        StringBuilder addressBuilder = new StringBuilder();
 
-                if (address.getThoroughfare() != null) {
-                    addressBuilder.append(address.getThoroughfare()).append(", ");
-                }
+        if (address.getFeatureName() != null) {
+            addressBuilder.append(address.getFeatureName()).append(", ");
+        }
 
-                if (address.getSubLocality() != null) {
-                    addressBuilder.append(address.getSubLocality()).append(", ");
-                }
+        if (address.getThoroughfare() != null) {
+            addressBuilder.append(address.getThoroughfare()).append(", ");
+        }
 
-                if (address.getLocality() != null) {
-                    addressBuilder.append(address.getLocality());
-                }
+        if (address.getSubLocality() != null) {
+            addressBuilder.append(address.getSubLocality()).append(", ");
+        }
 
-                String result = addressBuilder.toString();
-                if (result.endsWith(", ")) {
-                    result = result.substring(0, result.length() - 2);
-                }
+        if (address.getLocality() != null) {
+            addressBuilder.append(address.getLocality());
+        }
 
-                return result.isEmpty() ? "Unknown Location" : result;
-            }
-        } catch (IOException e) {
-            // Geocoding failed
+        String result = addressBuilder.toString();
+        if (result.endsWith(", ")) {
+            result = result.substring(0, result.length() - 2);
         }
 
+        return result.isEmpty() ? "Unknown Location" : result;
+    }
+
+    /**
+     * Fallback label when no address is available
+     */
+    public static String formatCoordinates(double latitude, double longitude) {
         return "Lat: " + String.format(Locale.getDefault(), "%.6f", latitude) +
                 ", Lng: " + String.format(Locale.getDefault(), "%.6f", longitude);
     }
@@ -262,7 +262,14 @@ public class LocationUtils {
      * Check if device is stationary based on speed threshold
      */
     public static boolean isStationary(LocationData location) {
-        return location.getSpeed() < 1.0f; // Less than 1 m/s (3.6 km/h)
+        return isStationary(location.getSpeed());
+    }
+
+    /**
+     * Check if a speed in m/s counts as stationary
+     */
+    public static boolean isStationary(float speedMps) {
+        return speedMps < 1.0f; // Less than 1 m/s (3.6 km/h)
     }
 
     /**
@@ -0,0 +1,188 @@
+package com.curionext.mobile.core.util;
+
+import com.curionext.mobile.core.data.model.SafeZone;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Grid-bucketed spatial index over a set of safe zones.
+ * Every zone is registered in each grid cell its bounding box overlaps, so a
+ * containment query only has to verify the few zones sharing the point's cell
+ * instead of running a distance check against the whole list.
+ */
+public class SafeZoneIndex {
+
+    private static final double METERS_PER_DEGREE = 111000.0;
+    private static final double MIN_CELL_SIZE_METERS = 250.0;
+
+    private final List<SafeZone> source;
+    private final List<SafeZone> zones;
+    private final double cellSizeDegrees;
+    private final Map<Long, List<SafeZone>> cells = new HashMap<>();
+    private final Map<SafeZone, GeoDistance.Anchor> anchors = new IdentityHashMap<>();
+    private final Map<SafeZone, Integer> positions = new IdentityHashMap<>();
+
+    private SafeZoneIndex(List<SafeZone> source, List<SafeZone> zones, double cellSizeDegrees) {
+        this.source = source;
+        this.zones = zones;
+        this.cellSizeDegrees = cellSizeDegrees;
+
+        // zones is the active subsequence of source, so one forward walk finds every position
+        int position = 0;
+        for (SafeZone zone : zones) {
+            while (source.get(position) != zone) {
+                position++;
+            }
+            positions.put(zone, position);
+            anchors.put(zone, new GeoDistance.Anchor(zone.getLatitude(), zone.getLongitude()));
+
+            double[] box = LocationUtils.calculateBoundingBox(
+                    zone.getLatitude(), zone.getLongitude(), zone.getRadius());
+
+            int minLatCell = cellOf(box[0]);
+            int maxLatCell = cellOf(box[1]);
+            int minLngCell = cellOf(box[2]);
+            int maxLngCell = cellOf(box[3]);
+
+            for (int latCell = minLatCell; latCell <= maxLatCell; latCell++) {
+                for (int lngCell = minLngCell; lngCell <= maxLngCell; lngCell++) {
+                    List<SafeZone> bucket = cells.get(key(latCell, lngCell));
+                    if (bucket == null) {
+                        bucket = new ArrayList<>(2);
+                        cells.put(key(latCell, lngCell), bucket);
+                    }
+                    bucket.add(zone);
+                }
+            }
+        }
+    }
+
+    /**
+     * Build an index over the active zones of the given list.
+     * The cell size follows the largest radius so each zone spans only a handful of cells.
+     */
+    public static SafeZoneIndex build(List<SafeZone> safeZones) {
+        if (safeZones == null || safeZones.isEmpty()) {
+            return new SafeZoneIndex(safeZones, Collections.emptyList(), 1.0);
+        }
+
+        List<SafeZone> activeZones = new ArrayList<>(safeZones.size());
+        int maxRadius = 0;
+        for (SafeZone zone : safeZones) {
+            if (zone.isActive()) {
+                activeZones.add(zone);
+                maxRadius = Math.max(maxRadius, zone.getRadius());
+            }
+        }
+
+        double cellSizeMeters = Math.max(MIN_CELL_SIZE_METERS, 2.0 * maxRadius);
+        return new SafeZoneIndex(safeZones, activeZones, cellSizeMeters / METERS_PER_DEGREE);
+    }
+
+    /**
+     * Find the first indexed zone (in original list order) containing the point, or null
+     */
+    public SafeZone findContainingZone(double latitude, double longitude) {
+        List<SafeZone> bucket = cells.get(key(cellOf(latitude), cellOf(longitude)));
+        if (bucket == null) {
+            return null;
+        }
+
+        for (SafeZone zone : bucket) {
+            if (contains(zone, latitude, longitude)) {
+                return zone;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Position in the source list of the first indexed zone containing the point, or -1.
+     * Lets a caller holding an equal list (see hasSameZones) map the hit onto its own instances.
+     */
+    public int indexOfContainingZone(double latitude, double longitude) {
+        SafeZone zone = findContainingZone(latitude, longitude);
+        return zone == null ? -1 : positions.get(zone);
+    }
+
+    /**
+     * Find every indexed zone containing the point
+     */
+    public List<SafeZone> findContainingZones(double latitude, double longitude) {
+        List<SafeZone> bucket = cells.get(key(cellOf(latitude), cellOf(longitude)));
+        if (bucket == null) {
+            return Collections.emptyList();
+        }
+
+        List<SafeZone> result = new ArrayList<>(1);
+        for (SafeZone zone : bucket) {
+            if (contains(zone, latitude, longitude)) {
+                result.add(zone);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Check if the point falls within any indexed zone
+     */
+    public boolean isInAnyZone(double latitude, double longitude) {
+        return findContainingZone(latitude, longitude) != null;
+    }
+
+    /**
+     * Check if the list holds, position by position, the zones this index was built from:
+     * same ids, centers, radii and active flags. Room emits a fresh list on every
+     * table change, so this is what decides whether an index can be reused.
+     */
+    public boolean hasSameZones(List<SafeZone> safeZones) {
+        if (source == safeZones) {
+            return true;
+        }
+        if (source == null || safeZones == null || source.size() != safeZones.size()) {
+            return false;
+        }
+        for (int i = 0; i < source.size(); i++) {
+            SafeZone indexed = source.get(i);
+            SafeZone other = safeZones.get(i);
+            if (!Objects.equals(indexed.getId(), other.getId())
+                    || indexed.getLatitude() != other.getLatitude()
+                    || indexed.getLongitude() != other.getLongitude()
+                    || indexed.getRadius() != other.getRadius()
+                    || indexed.isActive() != other.isActive()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public List<SafeZone> getZones() {
+        return Collections.unmodifiableList(zones);
+    }
+
+    public int size() {
+        return zones.size();
+    }
+
+    public boolean isEmpty() {
+        return zones.isEmpty();
+    }
+
+    private boolean contains(SafeZone zone, double latitude, double longitude) {
+        return anchors.get(zone).isWithin(latitude, longitude, zone.getRadius());
+    }
+
+    private int cellOf(double degrees) {
+        return (int) Math.floor(degrees / cellSizeDegrees);
+    }
+
+    private static long key(int latCell, int lngCell) {
+        return ((long) latCell << 32) | (lngCell & 0xffffffffL);
+    }
+}
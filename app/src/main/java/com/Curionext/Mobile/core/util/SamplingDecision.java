@@ -0,0 +1,34 @@
+package com.curionext.mobile.core.util;
+
+import java.util.Locale;
+
+/**
+ * Location request parameters chosen by a SamplingPolicy
+ */
+public class SamplingDecision {
+
+    public static final SamplingDecision DEFAULT = new SamplingDecision(
+            Constants.LOCATION_UPDATE_INTERVAL, Constants.LOCATION_FASTEST_INTERVAL, Constants.LOCATION_DISPLACEMENT);
+
+    private final long intervalMillis;
+    private final long fastestIntervalMillis;
+    private final float displacementMeters;
+
+    public SamplingDecision(long intervalMillis, long fastestIntervalMillis, float displacementMeters) {
+        this.intervalMillis = intervalMillis;
+        this.fastestIntervalMillis = fastestIntervalMillis;
+        this.displacementMeters = displacementMeters;
+    }
+
+    public long getIntervalMillis() { return intervalMillis; }
+
+    public long getFastestIntervalMillis() { return fastestIntervalMillis; }
+
+    public float getDisplacementMeters() { return displacementMeters; }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "SamplingDecision{interval=%dms, fastest=%dms, displacement=%.1fm}",
+                intervalMillis, fastestIntervalMillis, displacementMeters);
+    }
+}
@@ -0,0 +1,16 @@
+package com.curionext.mobile.core.util;
+
+import com.curionext.mobile.core.data.model.LocationData;
+
+/**
+ * Strategy deciding how often the next location fix should be requested
+ */
+public interface SamplingPolicy {
+
+    /**
+     * Pick the request parameters to use after a fix.
+     * boundaryDistance is how far (meters) the child is from the nearest
+     * geofence enter/exit threshold; Double.MAX_VALUE when there are no zones.
+     */
+    SamplingDecision decide(LocationData location, double boundaryDistance);
+}
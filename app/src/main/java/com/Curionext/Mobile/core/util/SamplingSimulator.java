@@ -0,0 +1,156 @@
+package com.curionext.mobile.core.util;
+
+import com.curionext.mobile.core.data.local.entity.LocationEntity;
+import com.curionext.mobile.core.data.local.entity.SafeZoneEntity;
+import com.curionext.mobile.core.data.model.GeofenceTransition;
+import com.curionext.mobile.core.data.model.LocationData;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Replays a recorded location trace through a SamplingPolicy.
+ * Every recorded fix is fed to a reference geofence engine; the policy only
+ * gets the fixes a fused provider would have delivered under its last
+ * decision (interval elapsed and displacement exceeded). The report compares
+ * the fixes used and the geofence transitions detected by both runs.
+ */
+public class SamplingSimulator {
+
+    private final String childId;
+    private final List<SafeZoneEntity> safeZones;
+
+    public SamplingSimulator(String childId, List<SafeZoneEntity> safeZones) {
+        this.childId = childId;
+        this.safeZones = safeZones;
+    }
+
+    public Report replay(List<LocationEntity> trace, SamplingPolicy policy) {
+        List<LocationEntity> fixes = new ArrayList<>(trace);
+        Collections.sort(fixes, Comparator.comparing(LocationEntity::getTimestamp));
+
+        GeofenceEngine reference = new GeofenceEngine(childId, safeZones);
+        GeofenceEngine sampled = new GeofenceEngine(childId, safeZones);
+        List<GeofenceTransition> expected = new ArrayList<>();
+        List<GeofenceTransition> detected = new ArrayList<>();
+
+        SamplingDecision decision = null;
+        LocationEntity lastDelivered = null;
+        int delivered = 0;
+
+        for (LocationEntity fix : fixes) {
+            Date timestamp = fix.getTimestamp();
+            expected.addAll(reference.evaluate(fix.getLatitude(), fix.getLongitude(), fix.getAccuracy(), timestamp));
+
+            if (decision != null) {
+                long elapsed = timestamp.getTime() - lastDelivered.getTimestamp().getTime();
+                double moved = GeoDistance.haversine(lastDelivered.getLatitude(), lastDelivered.getLongitude(),
+                        fix.getLatitude(), fix.getLongitude());
+                if (elapsed < decision.getIntervalMillis() || moved < decision.getDisplacementMeters()) {
+                    continue;
+                }
+            }
+
+            delivered++;
+            lastDelivered = fix;
+            detected.addAll(sampled.evaluate(fix.getLatitude(), fix.getLongitude(), fix.getAccuracy(), timestamp));
+            decision = policy.decide(toLocationData(fix), sampled.getBoundarySlack());
+        }
+
+        return match(fixes.size(), delivered, expected, detected);
+    }
+
+    /**
+     * An expected transition counts as detected when the sampled run reports the
+     * same zone and type before that zone's next expected transition
+     */
+    private static Report match(int tracePoints, int delivered, List<GeofenceTransition> expected,
+                                List<GeofenceTransition> detected) {
+        boolean[] used = new boolean[detected.size()];
+        int missed = 0;
+        long totalDelay = 0;
+
+        for (int i = 0; i < expected.size(); i++) {
+            GeofenceTransition transition = expected.get(i);
+            long from = transition.getTimestamp().getTime();
+            long until = Long.MAX_VALUE;
+            for (int j = i + 1; j < expected.size(); j++) {
+                if (expected.get(j).getSafeZoneId().equals(transition.getSafeZoneId())) {
+                    until = expected.get(j).getTimestamp().getTime();
+                    break;
+                }
+            }
+
+            boolean found = false;
+            for (int k = 0; k < detected.size() && !found; k++) {
+                GeofenceTransition candidate = detected.get(k);
+                long time = candidate.getTimestamp().getTime();
+                if (!used[k] && time >= from && time < until
+                        && candidate.getSafeZoneId().equals(transition.getSafeZoneId())
+                        && candidate.getType().equals(transition.getType())) {
+                    used[k] = true;
+                    totalDelay += time - from;
+                    found = true;
+                }
+            }
+            if (!found) {
+                missed++;
+            }
+        }
+
+        int matched = expected.size() - missed;
+        return new Report(tracePoints, delivered, expected.size(), missed, matched == 0 ? 0 : totalDelay / matched);
+    }
+
+    private static LocationData toLocationData(LocationEntity entity) {
+        LocationData data = new LocationData(entity.getChildId(), entity.getLatitude(), entity.getLongitude(),
+                entity.getAccuracy());
+        data.setTimestamp(entity.getTimestamp());
+        data.setBatteryLevel(entity.getBatteryLevel());
+        // Stored speed is km/h, policies work in m/s
+        data.setSpeed(entity.getSpeed() / 3.6f);
+        return data;
+    }
+
+    public static class Report {
+        private final int tracePoints;
+        private final int fixesUsed;
+        private final int transitions;
+        private final int transitionsMissed;
+        private final long meanDetectionDelay;
+
+        Report(int tracePoints, int fixesUsed, int transitions, int transitionsMissed, long meanDetectionDelay) {
+            this.tracePoints = tracePoints;
+            this.fixesUsed = fixesUsed;
+            this.transitions = transitions;
+            this.transitionsMissed = transitionsMissed;
+            this.meanDetectionDelay = meanDetectionDelay;
+        }
+
+        public int getTracePoints() { return tracePoints; }
+
+        public int getFixesUsed() { return fixesUsed; }
+
+        public int getFixesSaved() { return tracePoints - fixesUsed; }
+
+        public int getTransitions() { return transitions; }
+
+        public int getTransitionsMissed() { return transitionsMissed; }
+
+        /**
+         * Mean time (ms) between a transition happening and the sampled run noticing it
+         */
+        public long getMeanDetectionDelay() { return meanDetectionDelay; }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "fixes %d/%d (saved %d), transitions missed %d/%d, mean delay %ds",
+                    fixesUsed, tracePoints, getFixesSaved(), transitionsMissed, transitions,
+                    meanDetectionDelay / 1000);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.curionext.mobile.core.util;
+
+import com.curionext.mobile.core.data.local.entity.LocationEntity;
+import com.curionext.mobile.core.data.local.entity.StayPointEntity;
+
+import java.util.Date;
+
+/**
+ * Streaming stay-point detector for one child's location stream.
+ * Fixes within STAY_RADIUS of the running centroid extend the current
+ * candidate; the first fix outside it is held back, and only a second
+ * consecutive fix outside closes the candidate, so a single GPS spike does
+ * not split a visit. A closed candidate that lasted STAY_MIN_DURATION is
+ * reported as a stay point. Uses constant memory per child.
+ */
+public class StayPointDetector {
+
+    private final String childId;
+
+    private int count;
+    private double latitudeSum;
+    private double longitudeSum;
+    private long arrival;
+    private long lastTime;
+
+    // First fix outside the candidate, waiting for confirmation
+    private LocationEntity pendingExit;
+
+    public StayPointDetector(String childId) {
+        this.childId = childId;
+    }
+
+    /**
+     * Feed a fix; returns the stay point it completed, or null
+     */
+    public StayPointEntity offer(LocationEntity location) {
+        if (location.getAccuracy() > Constants.STAY_MAX_ACCURACY) {
+            return null;
+        }
+        long time = location.getTimestamp() != null ? location.getTimestamp().getTime() : System.currentTimeMillis();
+        if (count > 0 && time < lastTime) {
+            return null;
+        }
+
+        if (count == 0) {
+            start(location, time);
+            return null;
+        }
+
+        if (isInside(location)) {
+            // Back inside: the held fix was noise
+            pendingExit = null;
+            add(location, time);
+            return null;
+        }
+
+        if (pendingExit == null) {
+            pendingExit = location;
+            return null;
+        }
+
+        StayPointEntity stay = getOpenStay();
+        LocationEntity first = pendingExit;
+        pendingExit = null;
+        start(first, first.getTimestamp() != null ? first.getTimestamp().getTime() : time);
+        if (isInside(location)) {
+            add(location, time);
+        } else {
+            pendingExit = location;
+        }
+        return stay;
+    }
+
+    /**
+     * The visit in progress if it already qualifies as a stay (departure = last fix), otherwise null
+     */
+    public StayPointEntity getOpenStay() {
+        return count > 0 && lastTime - arrival >= Constants.STAY_MIN_DURATION ? toStayPoint() : null;
+    }
+
+    /**
+     * Close the current candidate, e.g. when tracking stops; returns it if it qualifies
+     */
+    public StayPointEntity flush() {
+        StayPointEntity stay = getOpenStay();
+        count = 0;
+        pendingExit = null;
+        return stay;
+    }
+
+    private boolean isInside(LocationEntity location) {
+        return GeoDistance.isWithin(latitudeSum / count, longitudeSum / count,
+                location.getLatitude(), location.getLongitude(), Constants.STAY_RADIUS);
+    }
+
+    private void start(LocationEntity location, long time) {
+        count = 0;
+        latitudeSum = 0;
+        longitudeSum = 0;
+        arrival = time;
+        add(location, time);
+    }
+
+    private void add(LocationEntity location, long time) {
+        count++;
+        latitudeSum += location.getLatitude();
+        longitudeSum += location.getLongitude();
+        lastTime = time;
+    }
+
+    private StayPointEntity toStayPoint() {
+        return new StayPointEntity(childId, latitudeSum / count, longitudeSum / count,
+                new Date(arrival), new Date(lastTime), count);
+    }
+}
@@ -0,0 +1,105 @@
+package com.curionext.mobile.core.util;
+
+import com.curionext.mobile.core.data.local.entity.LocationEntity;
+
+/**
+ * Streaming dead-reckoning simplifier for one child's location stream.
+ * The last kept fix and the velocity between the last two kept fixes predict
+ * where the child should be; a new fix is only kept when it deviates from that
+ * prediction by more than an accuracy-dependent tolerance, when the safe-zone
+ * status changes, or when nothing was kept for TRAJECTORY_MAX_GAP.
+ * Runs in constant time and memory per fix.
+ */
+public class TrajectorySimplifier {
+
+    private static final double METERS_PER_DEGREE = 111320.0;
+
+    private boolean hasKept;
+    private double keptLatitude;
+    private double keptLongitude;
+    private double keptCosLat;
+    private long keptTime;
+    private boolean keptInSafeZone;
+    private String keptSafeZoneName;
+
+    // Velocity between the last two kept fixes, meters per millisecond
+    private double velocityNorth;
+    private double velocityEast;
+
+    private long pointsSeen;
+    private long pointsKept;
+
+    /**
+     * Decide whether a newly ingested fix is significant and should be stored
+     */
+    public boolean offer(LocationEntity location) {
+        long time = location.getTimestamp() != null ? location.getTimestamp().getTime() : System.currentTimeMillis();
+        pointsSeen++;
+
+        if (!hasKept) {
+            keep(location, time, 0, 0);
+            return true;
+        }
+
+        long elapsed = time - keptTime;
+        double north = (location.getLatitude() - keptLatitude) * METERS_PER_DEGREE;
+        double east = (location.getLongitude() - keptLongitude) * METERS_PER_DEGREE * keptCosLat;
+
+        boolean zoneChanged = location.isInSafeZone() != keptInSafeZone
+                || !equalNames(location.getSafeZoneName(), keptSafeZoneName);
+        boolean gapExceeded = elapsed >= Constants.TRAJECTORY_MAX_GAP;
+
+        double deviationNorth = north - velocityNorth * elapsed;
+        double deviationEast = east - velocityEast * elapsed;
+        double deviation = Math.sqrt(deviationNorth * deviationNorth + deviationEast * deviationEast);
+
+        if (zoneChanged || gapExceeded || deviation > tolerance(location.getAccuracy())) {
+            if (elapsed > 0) {
+                keep(location, time, north / elapsed, east / elapsed);
+            } else {
+                keep(location, time, velocityNorth, velocityEast);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Ratio of fixes seen to fixes kept (1.0 means nothing was dropped)
+     */
+    public double getCompressionRatio() {
+        return pointsKept == 0 ? 1.0 : (double) pointsSeen / pointsKept;
+    }
+
+    public long getPointsSeen() {
+        return pointsSeen;
+    }
+
+    public long getPointsKept() {
+        return pointsKept;
+    }
+
+    /**
+     * Allowed deviation: the fix's own accuracy, never tighter than the configured minimum
+     */
+    static double tolerance(float accuracy) {
+        return Math.max(Constants.TRAJECTORY_MIN_TOLERANCE, accuracy);
+    }
+
+    private void keep(LocationEntity location, long time, double velocityNorth, double velocityEast) {
+        hasKept = true;
+        keptLatitude = location.getLatitude();
+        keptLongitude = location.getLongitude();
+        keptCosLat = Math.cos(Math.toRadians(keptLatitude));
+        keptTime = time;
+        keptInSafeZone = location.isInSafeZone();
+        keptSafeZoneName = location.getSafeZoneName();
+        this.velocityNorth = velocityNorth;
+        this.velocityEast = velocityEast;
+        pointsKept++;
+    }
+
+    private static boolean equalNames(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
@@ -0,0 +1,177 @@
+package com.curionext.mobile.core.util;
+
+import com.curionext.mobile.core.data.local.entity.LocationEntity;
+import com.curionext.mobile.core.data.local.entity.TripEntity;
+
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Splits one child's fix stream into trips in constant memory.
+ * A trip starts at the last fix before movement (LocationUtils.isStationary
+ * on the reported speed, or on the speed derived from displacement when the
+ * device reports none) and ends where the child stopped once they have been
+ * stationary for TRIP_END_DWELL, or at the last fix before a TRIP_MAX_GAP
+ * gap. Distance, duration, speeds and start/end zones are kept up to date
+ * per fix. offer reports a trip when it closes; the trip in progress stays
+ * here and is read with getOpenTrip. Trips shorter than TRIP_MIN_DISTANCE
+ * are never reported.
+ */
+public class TripSegmenter {
+
+    private final String childId;
+
+    private LocationEntity last;
+    private TripEntity trip;
+
+    // Where the current stop began; -1 while moving
+    private long stopTime = -1;
+    private double stopLatitude;
+    private double stopLongitude;
+    private String stopZoneName;
+    private double distanceAtStop;
+
+    public TripSegmenter(String childId) {
+        this.childId = childId;
+    }
+
+    /**
+     * Feed a fix; returns the trip it closed, or null
+     */
+    public TripEntity offer(LocationEntity location) {
+        long time = timeOf(location);
+        if (last == null) {
+            last = location;
+            return null;
+        }
+        long elapsed = time - timeOf(last);
+        if (elapsed <= 0) {
+            return null;
+        }
+
+        double meters = GeoDistance.haversine(last.getLatitude(), last.getLongitude(),
+                location.getLatitude(), location.getLongitude());
+        float speed = speedOf(location, meters, elapsed);
+        boolean moving = !LocationUtils.isStationary(speed);
+
+        if (elapsed > Constants.TRIP_MAX_GAP) {
+            // Nothing is known about the gap: end any trip at the fix before it and start over from this one
+            TripEntity closed = trip != null
+                    ? close(timeOf(last), last.getLatitude(), last.getLongitude(), zoneOf(last), trip.getDistance())
+                    : null;
+            last = location;
+            return closed;
+        }
+
+        TripEntity result = null;
+
+        if (trip == null) {
+            if (moving) {
+                trip = new TripEntity(UUID.randomUUID().toString(), childId, new Date(timeOf(last)),
+                        last.getLatitude(), last.getLongitude());
+                trip.setStartZoneName(zoneOf(last));
+                extend(location, time, meters, speed);
+                stopTime = -1;
+            }
+        } else {
+            extend(location, time, meters, speed);
+            if (moving) {
+                stopTime = -1;
+            } else if (stopTime < 0) {
+                stopTime = time;
+                stopLatitude = location.getLatitude();
+                stopLongitude = location.getLongitude();
+                stopZoneName = zoneOf(location);
+                distanceAtStop = trip.getDistance();
+            } else if (time - stopTime >= Constants.TRIP_END_DWELL) {
+                // Jitter while standing still is not travel: end the trip where the stop began
+                result = close(stopTime, stopLatitude, stopLongitude, stopZoneName, distanceAtStop);
+            }
+        }
+
+        last = location;
+        return result;
+    }
+
+    /**
+     * Snapshot of the trip in progress once it is long enough to report, else null
+     */
+    public TripEntity getOpenTrip() {
+        return trip != null && trip.getDistance() >= Constants.TRIP_MIN_DISTANCE ? snapshot(trip) : null;
+    }
+
+    /**
+     * Close the trip in progress, e.g. when tracking stops; returns it if long enough
+     */
+    public TripEntity flush() {
+        if (trip == null) {
+            return null;
+        }
+        return close(trip.getEndTime().getTime(), trip.getEndLatitude(), trip.getEndLongitude(),
+                trip.getEndZoneName(), trip.getDistance());
+    }
+
+    private void extend(LocationEntity location, long time, double meters, float speed) {
+        trip.setEndTime(new Date(time));
+        trip.setEndLatitude(location.getLatitude());
+        trip.setEndLongitude(location.getLongitude());
+        trip.setEndZoneName(zoneOf(location));
+        trip.setDistance(trip.getDistance() + meters);
+        trip.setMaxSpeed(Math.max(trip.getMaxSpeed(), speed * 3.6f));
+        trip.setPointCount(trip.getPointCount() + 1);
+    }
+
+    private TripEntity close(long endTime, double latitude, double longitude, String zoneName, double distance) {
+        TripEntity closed = trip;
+        trip = null;
+        stopTime = -1;
+
+        closed.setEndTime(new Date(endTime));
+        closed.setEndLatitude(latitude);
+        closed.setEndLongitude(longitude);
+        closed.setEndZoneName(zoneName);
+        closed.setDistance(distance);
+        closed.setOpen(false);
+        return closed.getDistance() >= Constants.TRIP_MIN_DISTANCE ? snapshot(closed) : null;
+    }
+
+    // Copy so the caller can persist it while later fixes keep mutating the trip
+    private static TripEntity snapshot(TripEntity trip) {
+        TripEntity copy = new TripEntity(trip.getId(), trip.getChildId(), trip.getStartTime(),
+                trip.getStartLatitude(), trip.getStartLongitude());
+        copy.setEndTime(trip.getEndTime());
+        copy.setEndLatitude(trip.getEndLatitude());
+        copy.setEndLongitude(trip.getEndLongitude());
+        copy.setDistance(trip.getDistance());
+        copy.setMaxSpeed(trip.getMaxSpeed());
+        long duration = trip.getDuration();
+        copy.setAverageSpeed(duration > 0 ? (float) (trip.getDistance() / duration * 3600) : 0f);
+        copy.setPointCount(trip.getPointCount());
+        copy.setStartZoneName(trip.getStartZoneName());
+        copy.setEndZoneName(trip.getEndZoneName());
+        copy.setOpen(trip.isOpen());
+        return copy;
+    }
+
+    /**
+     * Reported speed in m/s (stored as km/h); if the device reported none, the
+     * displacement speed, but only when the move exceeds the fixes' accuracy
+     */
+    private float speedOf(LocationEntity location, double meters, long elapsed) {
+        if (location.getSpeed() > 0) {
+            return location.getSpeed() / 3.6f;
+        }
+        if (meters > Math.max(location.getAccuracy(), last.getAccuracy())) {
+            return (float) (meters / (elapsed / 1000.0));
+        }
+        return 0f;
+    }
+
+    private static String zoneOf(LocationEntity location) {
+        return location.isInSafeZone() ? location.getSafeZoneName() : null;
+    }
+
+    private static long timeOf(LocationEntity location) {
+        return location.getTimestamp() != null ? location.getTimestamp().getTime() : System.currentTimeMillis();
+    }
+}
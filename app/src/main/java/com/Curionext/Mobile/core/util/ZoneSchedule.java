@@ -0,0 +1,200 @@
+package com.curionext.mobile.core.util;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Safe-zone schedule compiled to one bit per minute of the week (Monday 00:00 is bit 0).
+ * The schedule string is parsed once; checking whether a zone is active at an
+ * instant is then a single bit test.
+ *
+ * Accepted format: rules separated by ';', each made of day and time tokens in
+ * any order, e.g. "All days, All hours", "Weekdays 8-15", "Mon-Fri, 08:00-15:30",
+ * "Sat Sun 10:00-12:00 14:00-18:00", "Daily 22:00-06:00". Days default to all
+ * days and hours to all hours; a time range ending before it starts runs past
+ * midnight. A blank or unreadable schedule compiles to always-active, which is
+ * how zones behaved before schedules were evaluated.
+ */
+public final class ZoneSchedule {
+
+    public static final int MINUTES_PER_DAY = 1440;
+    public static final int MINUTES_PER_WEEK = 7 * MINUTES_PER_DAY;
+
+    // 1970-01-01 was a Thursday, day 3 counting from Monday
+    private static final int EPOCH_DAY_OF_WEEK = 3;
+
+    private static final String[] DAY_NAMES = {"mon", "tue", "wed", "thu", "fri", "sat", "sun"};
+
+    public static final ZoneSchedule ALWAYS = new ZoneSchedule(fullMask(), true);
+
+    private final long[] mask;
+    private final boolean always;
+
+    private ZoneSchedule(long[] mask, boolean always) {
+        this.mask = mask;
+        this.always = always;
+    }
+
+    /**
+     * Compile a schedule string; never throws, unreadable input means always active
+     */
+    public static ZoneSchedule compile(String schedule) {
+        if (schedule == null || schedule.trim().isEmpty()) {
+            return ALWAYS;
+        }
+
+        long[] mask = new long[(MINUTES_PER_WEEK + 63) / 64];
+        try {
+            for (String rule : schedule.toLowerCase(Locale.US).split(";")) {
+                if (!rule.trim().isEmpty()) {
+                    compileRule(rule, mask);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            return ALWAYS;
+        }
+
+        boolean always = true;
+        for (int minute = 0; minute < MINUTES_PER_WEEK && always; minute++) {
+            always = isSet(mask, minute);
+        }
+        return always ? ALWAYS : new ZoneSchedule(mask, false);
+    }
+
+    /**
+     * Minute of the week (Monday 00:00 = 0) for an instant in the given time zone
+     */
+    public static int weekMinute(long timeMillis, TimeZone timeZone) {
+        long localMinutes = Math.floorDiv(timeMillis + timeZone.getOffset(timeMillis), 60000L);
+        return Math.floorMod(localMinutes + (long) EPOCH_DAY_OF_WEEK * MINUTES_PER_DAY, MINUTES_PER_WEEK);
+    }
+
+    public boolean isActiveAt(int weekMinute) {
+        return always || isSet(mask, weekMinute);
+    }
+
+    public boolean isActiveAt(long timeMillis, TimeZone timeZone) {
+        return always || isSet(mask, weekMinute(timeMillis, timeZone));
+    }
+
+    /**
+     * True when the schedule covers the whole week
+     */
+    public boolean isAlways() {
+        return always;
+    }
+
+    private static void compileRule(String rule, long[] mask) {
+        boolean[] days = new boolean[7];
+        boolean anyDay = false;
+        int[][] ranges = new int[8][];
+        int rangeCount = 0;
+
+        String[] tokens = rule.replace('\u2013', '-').replace('\u2014', '-')
+                .replaceAll("\\s*-\\s*", "-")
+                .split("[\\s,/]+");
+        for (String token : tokens) {
+            if (token.isEmpty() || token.equals("all") || token.equals("hours") || token.equals("days")) {
+                continue;
+            }
+            if (token.equals("daily") || token.equals("everyday")) {
+                Arrays.fill(days, true);
+                anyDay = true;
+            } else if (token.equals("weekdays")) {
+                fillDays(days, 0, 4);
+                anyDay = true;
+            } else if (token.equals("weekends") || token.equals("weekend")) {
+                fillDays(days, 5, 6);
+                anyDay = true;
+            } else if (Character.isDigit(token.charAt(0))) {
+                int dash = token.indexOf('-');
+                if (dash < 0) {
+                    throw new IllegalArgumentException("Time range without end: " + token);
+                }
+                if (rangeCount == ranges.length) {
+                    ranges = Arrays.copyOf(ranges, rangeCount * 2);
+                }
+                ranges[rangeCount++] = new int[]{parseTime(token.substring(0, dash)),
+                        parseTime(token.substring(dash + 1))};
+            } else {
+                int dash = token.indexOf('-');
+                int from = parseDay(dash < 0 ? token : token.substring(0, dash));
+                int to = dash < 0 ? from : parseDay(token.substring(dash + 1));
+                fillDays(days, from, to);
+                anyDay = true;
+            }
+        }
+
+        if (!anyDay) {
+            Arrays.fill(days, true);
+        }
+        if (rangeCount == 0) {
+            ranges[rangeCount++] = new int[]{0, MINUTES_PER_DAY};
+        }
+
+        for (int day = 0; day < 7; day++) {
+            if (!days[day]) {
+                continue;
+            }
+            for (int i = 0; i < rangeCount; i++) {
+                int start = ranges[i][0];
+                int end = ranges[i][1];
+                int length = end > start ? end - start : end + MINUTES_PER_DAY - start;
+                int base = day * MINUTES_PER_DAY + start;
+                for (int minute = 0; minute < length; minute++) {
+                    set(mask, (base + minute) % MINUTES_PER_WEEK);
+                }
+            }
+        }
+    }
+
+    // "8", "08:30", "8.30", "24"
+    private static int parseTime(String text) {
+        String[] parts = text.split("[:.h]", 2);
+        int hours = Integer.parseInt(parts[0]);
+        int minutes = parts.length > 1 && !parts[1].isEmpty() ? Integer.parseInt(parts[1]) : 0;
+        if (hours < 0 || hours > 24 || minutes < 0 || minutes > 59 || (hours == 24 && minutes > 0)) {
+            throw new IllegalArgumentException("Invalid time: " + text);
+        }
+        return hours * 60 + minutes;
+    }
+
+    // Accepts any prefix of at least three letters: "mon", "monday", "thurs"
+    private static int parseDay(String text) {
+        if (text.length() >= 3) {
+            for (int day = 0; day < DAY_NAMES.length; day++) {
+                if (text.startsWith(DAY_NAMES[day])) {
+                    return day;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unknown day: " + text);
+    }
+
+    // Inclusive, wrapping ranges such as Fri-Mon are allowed
+    private static void fillDays(boolean[] days, int from, int to) {
+        for (int day = from; ; day = (day + 1) % 7) {
+            days[day] = true;
+            if (day == to) {
+                break;
+            }
+        }
+    }
+
+    private static long[] fullMask() {
+        long[] mask = new long[(MINUTES_PER_WEEK + 63) / 64];
+        for (int minute = 0; minute < MINUTES_PER_WEEK; minute++) {
+            set(mask, minute);
+        }
+        return mask;
+    }
+
+    private static void set(long[] mask, int minute) {
+        mask[minute >>> 6] |= 1L << minute;
+    }
+
+    private static boolean isSet(long[] mask, int minute) {
+        return (mask[minute >>> 6] & (1L << minute)) != 0;
+    }
+}
@@ -10,6 +10,7 @@ import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
 import com.curionext.mobile.CurioNextApplication;
 import com.curionext.mobile.R;
+import com.curionext.mobile.core.data.local.entity.ChildStatsEntity;
 import com.curionext.mobile.core.data.model.Child;
 import com.curionext.mobile.core.data.model.Interest;
 import com.curionext.mobile.core.data.model.NotificationItem;
@@ -117,6 +118,9 @@ public class DashboardActivity extends AppCompatActivity {
         // Observe weekly summary
         viewModel.getWeeklySummary().observe(this, this::updateWeeklySummary);
 
+        // Observe badge counts
+        viewModel.getChildStats().observe(this, this::updateBadges);
+
         // Observe loading state
         viewModel.getIsLoading().observe(this, isLoading -> {
             swipeRefreshLayout.setRefreshing(isLoading);
@@ -154,6 +158,17 @@ public class DashboardActivity extends AppCompatActivity {
         adapter.updateWeeklySummary(summary);
     }
 
+    private void updateBadges(ChildStatsEntity stats) {
+        if (stats.getUrgentUnreadCount() > 0) {
+            toolbar.setSubtitle(String.format(Locale.getDefault(), "%d unread, %d urgent",
+                    stats.getUnreadCount(), stats.getUrgentUnreadCount()));
+        } else if (stats.getUnreadCount() > 0) {
+            toolbar.setSubtitle(String.format(Locale.getDefault(), "%d unread", stats.getUnreadCount()));
+        } else {
+            toolbar.setSubtitle(null);
+        }
+    }
+
     private void updateGreetingAndDate() {
         Date now = new Date();
         int hour = Integer.parseInt(new SimpleDateFormat("HH", Locale.getDefault()).format(now));
@@ -4,6 +4,7 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 
+import com.curionext.mobile.core.data.local.entity.ChildStatsEntity;
 import com.curionext.mobile.core.data.model.Child;
 import com.curionext.mobile.core.data.model.Interest;
 import com.curionext.mobile.core.data.model.NotificationItem;
@@ -17,6 +18,7 @@ import java.util.List;
 import javax.inject.Inject;
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
 import io.reactivex.rxjava3.disposables.CompositeDisposable;
+import io.reactivex.rxjava3.disposables.SerialDisposable;
 import io.reactivex.rxjava3.schedulers.Schedulers;
 
 public class DashboardViewModel extends ViewModel {
@@ -25,11 +27,15 @@ public class DashboardViewModel extends ViewModel {
     private final InterestRepository interestRepository;
     private final NotificationRepository notificationRepository;
     private final CompositeDisposable disposables = new CompositeDisposable();
+    private final SerialDisposable interestsObserver = new SerialDisposable();
+    private final SerialDisposable notificationsObserver = new SerialDisposable();
+    private final SerialDisposable statsObserver = new SerialDisposable();
 
     private final MutableLiveData<Child> childProfile = new MutableLiveData<>();
     private final MutableLiveData<List<Interest>> interests = new MutableLiveData<>();
     private final MutableLiveData<List<NotificationItem>> notifications = new MutableLiveData<>();
     private final MutableLiveData<WeeklySummary> weeklySummary = new MutableLiveData<>();
+    private final MutableLiveData<ChildStatsEntity> childStats = new MutableLiveData<>();
     private final MutableLiveData<Boolean> isLoading = new MutableLiveData<>(false);
     private final MutableLiveData<String> errorMessage = new MutableLiveData<>();
 
@@ -44,6 +50,7 @@ public class DashboardViewModel extends ViewModel {
         this.childRepository = childRepository;
         this.interestRepository = interestRepository;
         this.notificationRepository = notificationRepository;
+        disposables.addAll(interestsObserver, notificationsObserver, statsObserver);
     }
 
     // Getters for LiveData
@@ -51,6 +58,7 @@ public class DashboardViewModel extends ViewModel {
     public LiveData<List<Interest>> getInterests() { return interests; }
     public LiveData<List<NotificationItem>> getNotifications() { return notifications; }
     public LiveData<WeeklySummary> getWeeklySummary() { return weeklySummary; }
+    public LiveData<ChildStatsEntity> getChildStats() { return childStats; }
     public LiveData<Boolean> getIsLoading() { return isLoading; }
     public LiveData<String> getErrorMessage() { return errorMessage; }
 
@@ -63,49 +71,59 @@ public class DashboardViewModel extends ViewModel {
                         .subscribeOn(Schedulers.io())
                         .observeOn(AndroidSchedulers.mainThread())
                         .subscribe(
-                                child -> {
-                                    childProfile.setValue(child);
-                                    loadInterests();
-                                },
+                                child -> childProfile.setValue(child),
                                 throwable -> {
                                     isLoading.setValue(false);
                                     errorMessage.setValue("Failed to load child profile: " + throwable.getMessage());
                                 }
                         )
         );
+
+        observeInterests();
+        observeNotifications();
+        observeStats();
+        loadWeeklySummary();
     }
 
-    private void loadInterests() {
-        disposables.add(
+    // Stays subscribed: Room re-emits the list after every local write
+    private void observeInterests() {
+        interestsObserver.set(
                 interestRepository.getTopInterests(CHILD_ID, 5)
                         .subscribeOn(Schedulers.io())
                         .observeOn(AndroidSchedulers.mainThread())
                         .subscribe(
-                                interestList -> {
-                                    interests.setValue(interestList);
-                                    loadNotifications();
-                                },
+                                interestList -> interests.setValue(interestList),
                                 throwable -> {
                                     errorMessage.setValue("Failed to load interests: " + throwable.getMessage());
-                                    loadNotifications(); // Continue loading other data
                                 }
                         )
         );
     }
 
-    private void loadNotifications() {
-        disposables.add(
+    private void observeNotifications() {
+        notificationsObserver.set(
                 notificationRepository.getRecentNotifications(CHILD_ID, 5)
                         .subscribeOn(Schedulers.io())
                         .observeOn(AndroidSchedulers.mainThread())
                         .subscribe(
-                                notificationList -> {
-                                    notifications.setValue(notificationList);
-                                    loadWeeklySummary();
-                                },
+                                notificationList -> notifications.setValue(notificationList),
                                 throwable -> {
                                     errorMessage.setValue("Failed to load notifications: " + throwable.getMessage());
-                                    loadWeeklySummary(); // Continue loading other data
+                                }
+                        )
+        );
+    }
+
+    // Badge counts: one child_stats row instead of counting the stored notifications
+    private void observeStats() {
+        statsObserver.set(
+                childRepository.observeStats(CHILD_ID)
+                        .subscribeOn(Schedulers.io())
+                        .observeOn(AndroidSchedulers.mainThread())
+                        .subscribe(
+                                stats -> childStats.setValue(stats),
+                                throwable -> {
+                                    errorMessage.setValue("Failed to load badge counts: " + throwable.getMessage());
                                 }
                         )
         );
@@ -139,9 +157,8 @@ public class DashboardViewModel extends ViewModel {
                         .subscribeOn(Schedulers.io())
                         .observeOn(AndroidSchedulers.mainThread())
                         .subscribe(
-                                () -> {
-                                    // Refresh notifications
-                                    loadNotifications();
+                                result -> {
+                                    // The local write reaches the notifications observer
                                 },
                                 throwable -> {
                                     errorMessage.setValue("Failed to mark notification as read: " + throwable.getMessage());
@@ -17,6 +17,7 @@ import javax.inject.Inject;
 import dagger.hilt.android.lifecycle.HiltViewModel;
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
 import io.reactivex.rxjava3.disposables.CompositeDisposable;
+import io.reactivex.rxjava3.disposables.SerialDisposable;
 import io.reactivex.rxjava3.schedulers.Schedulers;
 
 @HiltViewModel
@@ -24,6 +25,8 @@ public class InterestViewModel extends ViewModel {
 
     private final InterestRepository interestRepository;
     private final CompositeDisposable disposables = new CompositeDisposable();
+    private final SerialDisposable allInterestsObserver = new SerialDisposable();
+    private final SerialDisposable topInterestsObserver = new SerialDisposable();
 
     private final MutableLiveData<List<Interest>> allInterests = new MutableLiveData<>();
     private final MutableLiveData<List<Interest>> topInterests = new MutableLiveData<>();
@@ -42,6 +45,7 @@ public class InterestViewModel extends ViewModel {
     @Inject
     public InterestViewModel(InterestRepository interestRepository) {
         this.interestRepository = interestRepository;
+        disposables.addAll(allInterestsObserver, topInterestsObserver);
 
         // Load initial data
         loadAllInterests();
@@ -64,7 +68,7 @@ public class InterestViewModel extends ViewModel {
     public void loadAllInterests() {
         isLoading.setValue(true);
 
-        disposables.add(
+        allInterestsObserver.set(
                 interestRepository.getChildInterests(CHILD_ID)
                         .subscribeOn(Schedulers.io())
                         .observeOn(AndroidSchedulers.mainThread())
@@ -84,7 +88,7 @@ public class InterestViewModel extends ViewModel {
     }
 
     public void loadTopInterests() {
-        disposables.add(
+        topInterestsObserver.set(
                 interestRepository.getTopInterests(CHILD_ID, 10)
                         .subscribeOn(Schedulers.io())
                         .observeOn(AndroidSchedulers.mainThread())
@@ -142,22 +146,26 @@ public class InterestViewModel extends ViewModel {
     }
 
     public void searchInterests(String query) {
-        List<Interest> currentInterests = allInterests.getValue();
-        if (currentInterests != null && !query.trim().isEmpty()) {
-            List<Interest> filtered = currentInterests.stream()
-                    .filter(interest ->
-                            interest.getTopic().toLowerCase().contains(query.toLowerCase()) ||
-                                    interest.getCategory().toLowerCase().contains(query.toLowerCase()) ||
-                                    (interest.getKeywords() != null &&
-                                            String.join(" ", interest.getKeywords()).toLowerCase().contains(query.toLowerCase()))
-                    )
-                    .collect(Collectors.toList());
-
-            allInterests.setValue(filtered);
-            statusMessage.setValue("Found " + filtered.size() + " interests matching '" + query + "'");
-        } else {
+        if (query.trim().isEmpty()) {
             loadAllInterests(); // Reset to full list
+            return;
         }
+
+        // Replaces the full-list observer, so table changes don't overwrite the results
+        allInterestsObserver.set(
+                interestRepository.searchInterests(CHILD_ID, query)
+                        .subscribeOn(Schedulers.io())
+                        .observeOn(AndroidSchedulers.mainThread())
+                        .subscribe(
+                                found -> {
+                                    allInterests.setValue(found);
+                                    statusMessage.setValue("Found " + found.size() + " interests matching '" + query + "'");
+                                },
+                                throwable -> {
+                                    errorMessage.setValue("Search failed: " + throwable.getMessage());
+                                }
+                        )
+        );
     }
 
     public void onInterestClicked(Interest interest) {
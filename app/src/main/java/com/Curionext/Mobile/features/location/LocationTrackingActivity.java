@@ -15,6 +15,8 @@ import com.curionext.mobile.CurioNextApplication;
 import com.curionext.mobile.R;
 import com.curionext.mobile.core.data.model.LocationData;
 import com.curionext.mobile.core.data.model.SafeZone;
+import com.curionext.mobile.core.data.repository.AddressRepository;
+import com.curionext.mobile.core.util.Constants;
 import com.curionext.mobile.features.location.adapter.LocationHistoryAdapter;
 import com.curionext.mobile.features.location.adapter.SafeZoneAdapter;
 import com.curionext.mobile.features.location.viewmodel.LocationViewModel;
@@ -39,6 +41,9 @@ public class LocationTrackingActivity extends AppCompatActivity {
     @Inject
     LocationViewModelFactory viewModelFactory;
 
+    @Inject
+    AddressRepository addressRepository;
+
     private LocationViewModel viewModel;
     private MaterialToolbar toolbar;
     private SwitchMaterial trackingSwitch;
@@ -94,7 +99,12 @@ public class LocationTrackingActivity extends AppCompatActivity {
         });
 
         // Set up refresh button
-        refreshButton.setOnClickListener(v -> viewModel.refreshCurrentLocation());
+        refreshButton.setOnClickListener(v -> {
+            viewModel.refreshCurrentLocation();
+            if (contentRecyclerView.getAdapter() == locationHistoryAdapter) {
+                locationHistoryAdapter.retryPageLoad();
+            }
+        });
     }
 
     private void setupTabs() {
@@ -135,7 +145,7 @@ public class LocationTrackingActivity extends AppCompatActivity {
 
         // Initialize adapters
         safeZoneAdapter = new SafeZoneAdapter(this);
-        locationHistoryAdapter = new LocationHistoryAdapter(this);
+        locationHistoryAdapter = new LocationHistoryAdapter(this, addressRepository);
 
         // Set click listeners
         safeZoneAdapter.setOnSafeZoneClickListener(safeZone -> {
@@ -163,8 +173,12 @@ public class LocationTrackingActivity extends AppCompatActivity {
         // Observe safe zones
         viewModel.getSafeZones().observe(this, this::updateSafeZones);
 
-        // Observe location history
-        viewModel.getLocationHistory().observe(this, this::updateLocationHistory);
+        // Restart the history list once fetched history has been stored
+        viewModel.getHistoryPager().observe(this, pager -> {
+            if (contentRecyclerView.getAdapter() == locationHistoryAdapter) {
+                locationHistoryAdapter.setPager(pager, Constants.PAGE_PREFETCH_DISTANCE);
+            }
+        });
 
         // Observe loading state
         viewModel.getIsLoading().observe(this, isLoading -> {
@@ -203,10 +217,6 @@ public class LocationTrackingActivity extends AppCompatActivity {
         safeZoneAdapter.updateSafeZones(safeZones);
     }
 
-    private void updateLocationHistory(List<LocationData> locationHistory) {
-        locationHistoryAdapter.updateLocationHistory(locationHistory);
-    }
-
     private void showLiveMap() {
         // Show map view (implement with Google Maps or similar)
         contentRecyclerView.setVisibility(View.GONE);
@@ -222,6 +232,8 @@ public class LocationTrackingActivity extends AppCompatActivity {
     private void showLocationHistory() {
         contentRecyclerView.setVisibility(View.VISIBLE);
         contentRecyclerView.setAdapter(locationHistoryAdapter);
+        locationHistoryAdapter.setPager(viewModel.pageLocationHistory(), Constants.PAGE_PREFETCH_DISTANCE);
+        // Stores today's fixes from the server, then restarts the list; they also feed the map clusters
         viewModel.loadLocationHistory();
     }
 
@@ -1,6 +1,7 @@
 package com.curionext.mobile.features.location.adapter;
 
 import android.content.Context;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -13,22 +14,39 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.curionext.mobile.R;
 import com.curionext.mobile.core.data.model.LocationData;
+import com.curionext.mobile.core.data.paging.KeysetPager;
+import com.curionext.mobile.core.data.repository.AddressRepository;
 import com.curionext.mobile.core.util.DateUtils;
 import com.curionext.mobile.core.util.LocationUtils;
 import com.google.android.material.card.MaterialCardView;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.disposables.CompositeDisposable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
 
 public class LocationHistoryAdapter extends RecyclerView.Adapter<LocationHistoryAdapter.LocationHistoryViewHolder> {
 
+    private static final String TAG = "LocationHistoryAdapter";
+
     private final Context context;
+    private final AddressRepository addressRepository;
     private final List<LocationData> locationHistory = new ArrayList<>();
+    private final CompositeDisposable addressLookups = new CompositeDisposable();
+    private final Set<LocationData> withoutAddress = new HashSet<>();
+    private final CompositeDisposable pageLoads = new CompositeDisposable();
 
     private OnLocationClickListener onLocationClickListener;
+    private KeysetPager<LocationData> pager;
+    private int prefetchDistance;
 
-    public LocationHistoryAdapter(Context context) {
+    public LocationHistoryAdapter(Context context, AddressRepository addressRepository) {
         this.context = context;
+        this.addressRepository = addressRepository;
     }
 
     @NonNull
@@ -42,15 +60,25 @@ public class LocationHistoryAdapter extends RecyclerView.Adapter<LocationHistory
     public void onBindViewHolder(@NonNull LocationHistoryViewHolder holder, int position) {
         LocationData location = locationHistory.get(position);
 
+        // Fetch the next page before the user reaches the end
+        if (pager != null && position >= locationHistory.size() - prefetchDistance) {
+            loadNextPage();
+        }
+
         // Set address
         if (location.getAddress() != null && !location.getAddress().isEmpty()) {
             holder.addressText.setText(location.getAddress());
         } else {
-            holder.addressText.setText("Getting address...");
-            // Try to get address from coordinates
-            String address = LocationUtils.getAddressFromLocation(context,
-                    location.getLatitude(), location.getLongitude());
-            holder.addressText.setText(address);
+            String cached = addressRepository.peekAddress(location.getLatitude(), location.getLongitude());
+            if (cached != null) {
+                location.setAddress(cached);
+                holder.addressText.setText(cached);
+            } else if (withoutAddress.contains(location)) {
+                holder.addressText.setText(LocationUtils.formatCoordinates(location.getLatitude(), location.getLongitude()));
+            } else {
+                holder.addressText.setText("Getting address...");
+                resolveAddress(location);
+            }
         }
 
         // Set time
@@ -141,13 +169,36 @@ public class LocationHistoryAdapter extends RecyclerView.Adapter<LocationHistory
         });
     }
 
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        addressLookups.clear();
+        pageLoads.clear();
+    }
+
     @Override
     public int getItemCount() {
         return locationHistory.size();
     }
 
+    /**
+     * Show the history a page at a time from the pager, starting with its first page
+     */
+    public void setPager(KeysetPager<LocationData> pager, int prefetchDistance) {
+        this.pager = pager;
+        this.prefetchDistance = prefetchDistance;
+        pageLoads.clear();
+        locationHistory.clear();
+        withoutAddress.clear();
+        notifyDataSetChanged();
+        loadNextPage();
+    }
+
     public void updateLocationHistory(List<LocationData> newHistory) {
+        pager = null;
+        pageLoads.clear();
         locationHistory.clear();
+        withoutAddress.clear();
         if (newHistory != null) {
             locationHistory.addAll(newHistory);
         }
@@ -159,8 +210,67 @@ public class LocationHistoryAdapter extends RecyclerView.Adapter<LocationHistory
         notifyItemInserted(0);
     }
 
+    private void loadNextPage() {
+        if (pager.isExhausted()) {
+            return;
+        }
+        KeysetPager<LocationData> source = pager;
+        pageLoads.add(
+                source.nextPage()
+                        .subscribeOn(Schedulers.io())
+                        .observeOn(AndroidSchedulers.mainThread())
+                        .subscribe(page -> appendPage(source, page),
+                                // The pager stays where it was, so the next bind or retryPageLoad() tries again
+                                throwable -> Log.w(TAG, "Failed to load page", throwable))
+        );
+    }
+
+    /**
+     * Load the next page again after a failed load, e.g. on pull to refresh
+     */
+    public void retryPageLoad() {
+        if (pager != null) {
+            loadNextPage();
+        }
+    }
+
+    private void appendPage(KeysetPager<LocationData> source, List<LocationData> page) {
+        if (source != pager || page.isEmpty()) {
+            return; // Replaced while loading
+        }
+        int start = locationHistory.size();
+        locationHistory.addAll(page);
+        notifyItemRangeInserted(start, page.size());
+    }
+
+    // Geocode off the main thread and rebind the row once the lookup is done; a failed lookup is retried on the next bind
+    private void resolveAddress(LocationData location) {
+        addressLookups.add(
+                addressRepository.resolveAddress(location.getLatitude(), location.getLongitude())
+                        .observeOn(AndroidSchedulers.mainThread())
+                        .subscribe(address -> {
+                            location.setAddress(address);
+                            rebind(location);
+                        }, throwable -> Log.w(TAG, "Address lookup failed", throwable), () -> {
+                            // No address for these coordinates; show them instead, without storing anything
+                            withoutAddress.add(location);
+                            rebind(location);
+                        })
+        );
+    }
+
+    private void rebind(LocationData location) {
+        int position = locationHistory.indexOf(location);
+        if (position >= 0) {
+            notifyItemChanged(position);
+        }
+    }
+
     public void clearHistory() {
+        pager = null;
+        pageLoads.clear();
         locationHistory.clear();
+        withoutAddress.clear();
         notifyDataSetChanged();
     }
 
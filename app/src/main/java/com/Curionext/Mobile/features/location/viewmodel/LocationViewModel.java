@@ -6,10 +6,14 @@ import androidx.lifecycle.ViewModel;
 
 import com.curionext.mobile.core.data.model.LocationData;
 import com.curionext.mobile.core.data.model.SafeZone;
+import com.curionext.mobile.core.data.paging.KeysetPager;
 import com.curionext.mobile.core.data.repository.LocationRepository;
 import com.curionext.mobile.core.data.repository.SafetyRepository;
+import com.curionext.mobile.core.util.LocationClusterer;
 
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
@@ -17,7 +21,9 @@ import java.util.Locale;
 import javax.inject.Inject;
 import dagger.hilt.android.lifecycle.HiltViewModel;
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Single;
 import io.reactivex.rxjava3.disposables.CompositeDisposable;
+import io.reactivex.rxjava3.disposables.SerialDisposable;
 import io.reactivex.rxjava3.schedulers.Schedulers;
 
 @HiltViewModel
@@ -26,10 +32,13 @@ public class LocationViewModel extends ViewModel {
     private final LocationRepository locationRepository;
     private final SafetyRepository safetyRepository;
     private final CompositeDisposable disposables = new CompositeDisposable();
+    private final SerialDisposable safeZonesObserver = new SerialDisposable();
 
     private final MutableLiveData<LocationData> currentLocation = new MutableLiveData<>();
     private final MutableLiveData<List<SafeZone>> safeZones = new MutableLiveData<>();
     private final MutableLiveData<List<LocationData>> locationHistory = new MutableLiveData<>();
+    private final MutableLiveData<LocationClusterer> historyClusterer = new MutableLiveData<>();
+    private final MutableLiveData<KeysetPager<LocationData>> historyPager = new MutableLiveData<>();
     private final MutableLiveData<Boolean> isTrackingEnabled = new MutableLiveData<>(true);
     private final MutableLiveData<Boolean> isLoading = new MutableLiveData<>(false);
     private final MutableLiveData<String> errorMessage = new MutableLiveData<>();
@@ -44,6 +53,7 @@ public class LocationViewModel extends ViewModel {
     ) {
         this.locationRepository = locationRepository;
         this.safetyRepository = safetyRepository;
+        disposables.add(safeZonesObserver);
 
         // Load initial data
         loadCurrentLocation();
@@ -54,6 +64,8 @@ public class LocationViewModel extends ViewModel {
     public LiveData<LocationData> getCurrentLocation() { return currentLocation; }
     public LiveData<List<SafeZone>> getSafeZones() { return safeZones; }
     public LiveData<List<LocationData>> getLocationHistory() { return locationHistory; }
+    public LiveData<LocationClusterer> getHistoryClusterer() { return historyClusterer; }
+    public LiveData<KeysetPager<LocationData>> getHistoryPager() { return historyPager; }
     public LiveData<Boolean> getIsTrackingEnabled() { return isTrackingEnabled; }
     public LiveData<Boolean> getIsLoading() { return isLoading; }
     public LiveData<String> getErrorMessage() { return errorMessage; }
@@ -75,6 +87,18 @@ public class LocationViewModel extends ViewModel {
             startLocationTracking();
         } else {
             stopLocationTracking();
+            // Switched off by the user, unlike onDestroy: the visit and trip in progress are over
+            disposables.add(
+                    locationRepository.stopTracking(CHILD_ID)
+                            .subscribeOn(Schedulers.io())
+                            .observeOn(AndroidSchedulers.mainThread())
+                            .subscribe(
+                                    () -> { },
+                                    throwable -> {
+                                        errorMessage.setValue("Failed to close the current trip: " + throwable.getMessage());
+                                    }
+                            )
+            );
         }
     }
 
@@ -88,6 +112,7 @@ public class LocationViewModel extends ViewModel {
                         .subscribe(
                                 location -> {
                                     currentLocation.setValue(location);
+                                    appendToHistory(location);
                                     isLoading.setValue(false);
                                     updateLocationStatus(location);
                                 },
@@ -104,8 +129,9 @@ public class LocationViewModel extends ViewModel {
         loadCurrentLocation();
     }
 
+    // Stays subscribed: zone edits reach the list through Room, no reload needed
     public void loadSafeZones() {
-        disposables.add(
+        safeZonesObserver.set(
                 safetyRepository.getActiveSafeZones(CHILD_ID)
                         .subscribeOn(Schedulers.io())
                         .observeOn(AndroidSchedulers.mainThread())
@@ -136,6 +162,9 @@ public class LocationViewModel extends ViewModel {
                         .subscribe(
                                 history -> {
                                     locationHistory.setValue(history);
+                                    buildHistoryClusters(history);
+                                    // The fetched fixes are stored now; start the list over so it shows them
+                                    historyPager.setValue(pageLocationHistory());
                                 },
                                 throwable -> {
                                     errorMessage.setValue("Failed to load location history: " + throwable.getMessage());
@@ -144,6 +173,25 @@ public class LocationViewModel extends ViewModel {
         );
     }
 
+    /**
+     * A fresh pager over the stored history, newest first, for the history list
+     */
+    public KeysetPager<LocationData> pageLocationHistory() {
+        return locationRepository.pageLocationHistory(CHILD_ID);
+    }
+
+    /**
+     * Markers for the map viewport at the given zoom; empty until the history clusterer is built
+     */
+    public List<LocationClusterer.Cluster> getHistoryClusters(double south, double west, double north, double east,
+                                                              int zoom) {
+        LocationClusterer clusterer = historyClusterer.getValue();
+        if (clusterer == null) {
+            return Collections.emptyList();
+        }
+        return clusterer.getClusters(south, west, north, east, zoom);
+    }
+
     public void createSafeZone(SafeZone safeZone) {
         isLoading.setValue(true);
 
@@ -154,7 +202,6 @@ public class LocationViewModel extends ViewModel {
                         .subscribe(
                                 createdZone -> {
                                     isLoading.setValue(false);
-                                    loadSafeZones(); // Refresh the list
                                     locationStatus.setValue("Safe zone '" + createdZone.getName() + "' created");
                                 },
                                 throwable -> {
@@ -183,7 +230,6 @@ public class LocationViewModel extends ViewModel {
                                     .observeOn(AndroidSchedulers.mainThread())
                                     .subscribe(
                                             updatedZone -> {
-                                                loadSafeZones(); // Refresh the list
                                                 locationStatus.setValue("Safe zone " + (enabled ? "enabled" : "disabled"));
                                             },
                                             throwable -> {
@@ -203,8 +249,7 @@ public class LocationViewModel extends ViewModel {
                         .subscribeOn(Schedulers.io())
                         .observeOn(AndroidSchedulers.mainThread())
                         .subscribe(
-                                () -> {
-                                    loadSafeZones(); // Refresh the list
+                                result -> {
                                     locationStatus.setValue("Safe zone deleted");
                                 },
                                 throwable -> {
@@ -219,6 +264,43 @@ public class LocationViewModel extends ViewModel {
         locationStatus.setValue("Showing location on map: " + location.getAddress());
     }
 
+    private void buildHistoryClusters(List<LocationData> history) {
+        disposables.add(
+                Single.fromCallable(() -> LocationClusterer.build(history))
+                        .subscribeOn(Schedulers.computation())
+                        .observeOn(AndroidSchedulers.mainThread())
+                        .subscribe(
+                                historyClusterer::setValue,
+                                throwable -> {
+                                    errorMessage.setValue("Failed to cluster location history: " + throwable.getMessage());
+                                }
+                        )
+        );
+    }
+
+    // A newer fix goes at the end of the history and straight into the existing tree instead of
+    // rebuilding it, so cluster indices keep matching history positions; repeated polls are skipped
+    private void appendToHistory(LocationData location) {
+        List<LocationData> history = locationHistory.getValue();
+        LocationClusterer clusterer = historyClusterer.getValue();
+        if (history == null || clusterer == null || clusterer.size() != history.size()
+                || location.getTimestamp() == null) {
+            return;
+        }
+        if (!history.isEmpty()) {
+            Date latest = history.get(history.size() - 1).getTimestamp();
+            if (latest != null && !location.getTimestamp().after(latest)) {
+                return;
+            }
+        }
+
+        List<LocationData> appended = new ArrayList<>(history.size() + 1);
+        appended.addAll(history);
+        appended.add(location);
+        locationHistory.setValue(appended);
+        clusterer.add(location.getLatitude(), location.getLongitude());
+    }
+
     private void updateLocationStatus(LocationData location) {
         if (location.isInSafeZone()) {
             locationStatus.setValue("In " + location.getSafeZoneName() + " safe zone");
@@ -229,7 +311,7 @@ public class LocationViewModel extends ViewModel {
 
     private void checkSafeZoneStatus(LocationData location, List<SafeZone> zones) {
         disposables.add(
-                safetyRepository.isLocationInSafeZone(
+                safetyRepository.findContainingSafeZone(
                                 location.getLatitude(),
                                 location.getLongitude(),
                                 zones
@@ -237,48 +319,25 @@ public class LocationViewModel extends ViewModel {
                         .subscribeOn(Schedulers.io())
                         .observeOn(AndroidSchedulers.mainThread())
                         .subscribe(
-                                isInSafeZone -> {
-                                    location.setInSafeZone(isInSafeZone);
-                                    if (isInSafeZone) {
-                                        // Find which safe zone
-                                        for (SafeZone zone : zones) {
-                                            if (isLocationInZone(location, zone)) {
-                                                location.setSafeZoneName(zone.getName());
-                                                break;
-                                            }
-                                        }
-                                    } else {
-                                        location.setSafeZoneName(null);
-                                    }
+                                zone -> {
+                                    location.setInSafeZone(true);
+                                    location.setSafeZoneName(zone.getName());
                                     currentLocation.setValue(location);
                                     updateLocationStatus(location);
                                 },
                                 throwable -> {
                                     errorMessage.setValue("Failed to check safe zone status: " + throwable.getMessage());
+                                },
+                                () -> {
+                                    location.setInSafeZone(false);
+                                    location.setSafeZoneName(null);
+                                    currentLocation.setValue(location);
+                                    updateLocationStatus(location);
                                 }
                         )
         );
     }
 
-    private boolean isLocationInZone(LocationData location, SafeZone zone) {
-        double distance = calculateDistance(
-                location.getLatitude(), location.getLongitude(),
-                zone.getLatitude(), zone.getLongitude()
-        );
-        return distance <= zone.getRadius();
-    }
-
-    private double calculateDistance(double lat1, double lng1, double lat2, double lng2) {
-        double earthRadius = 6371000; // meters
-        double dLat = Math.toRadians(lat2 - lat1);
-        double dLng = Math.toRadians(lng2 - lng1);
-        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
-                Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) *
-                        Math.sin(dLng / 2) * Math.sin(dLng / 2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        return earthRadius * c;
-    }
-
     @Override
     protected void onCleared() {
         super.onCleared();
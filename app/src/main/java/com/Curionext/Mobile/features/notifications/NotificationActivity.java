@@ -16,7 +16,9 @@ import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
 import com.curionext.mobile.R;
+import com.curionext.mobile.core.data.local.entity.ChildStatsEntity;
 import com.curionext.mobile.core.data.model.NotificationItem;
+import com.curionext.mobile.core.data.repository.ChildRepository;
 import com.curionext.mobile.core.util.Constants;
 import com.curionext.mobile.features.notifications.adapter.NotificationAdapter;
 import com.curionext.mobile.features.notifications.viewmodel.NotificationViewModel;
@@ -28,10 +30,11 @@ import com.google.android.material.chip.ChipGroup;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import com.google.android.material.textview.MaterialTextView;
 
-import java.util.List;
-
 import javax.inject.Inject;
 import dagger.hilt.android.AndroidEntryPoint;
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.disposables.SerialDisposable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
 
 @AndroidEntryPoint
 public class NotificationActivity extends AppCompatActivity {
@@ -39,6 +42,11 @@ public class NotificationActivity extends AppCompatActivity {
     @Inject
     NotificationViewModel viewModel;
 
+    @Inject
+    ChildRepository childRepository;
+
+    private static final String CHILD_ID = "avani_001"; // In real app, get from preferences
+
     private MaterialToolbar toolbar;
     private MaterialTextView summaryText;
     private MaterialTextView unreadCountText;
@@ -53,6 +61,8 @@ public class NotificationActivity extends AppCompatActivity {
 
     private NotificationAdapter adapter;
     private SearchView searchView;
+    private boolean pagingAll; // Unfiltered list is paged from Room, filters and search come from the ViewModel
+    private final SerialDisposable statsObserver = new SerialDisposable();
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -66,11 +76,22 @@ public class NotificationActivity extends AppCompatActivity {
         setupRecyclerView();
         setupFilterChips();
         observeViewModel();
+        observeStats();
 
         // Load initial data
+        showAllNotifications();
         viewModel.loadNotifications();
     }
 
+    private void showAllNotifications() {
+        pagingAll = true;
+        adapter.setPager(viewModel.pageNotifications(), Constants.PAGE_PREFETCH_DISTANCE);
+    }
+
+    private void showNotificationSubset() {
+        pagingAll = false;
+    }
+
     private void initViews() {
         toolbar = findViewById(R.id.toolbar);
         summaryText = findViewById(R.id.summary_text);
@@ -93,6 +114,9 @@ public class NotificationActivity extends AppCompatActivity {
         // Set up swipe refresh
         swipeRefreshLayout.setOnRefreshListener(() -> {
             viewModel.refreshNotifications();
+            if (pagingAll) {
+                adapter.retryPageLoad();
+            }
         });
 
         // Set up button click listeners
@@ -115,6 +139,7 @@ public class NotificationActivity extends AppCompatActivity {
             @Override
             public void onNotificationClick(NotificationItem notification) {
                 viewModel.markAsRead(notification.getId());
+                adapter.markAsRead(notification.getId());
                 handleNotificationAction(notification);
             }
 
@@ -131,6 +156,7 @@ public class NotificationActivity extends AppCompatActivity {
             @Override
             public void onDismissClick(NotificationItem notification) {
                 viewModel.dismissNotification(notification.getId());
+                adapter.removeNotification(notification.getId());
             }
         });
     }
@@ -157,6 +183,11 @@ public class NotificationActivity extends AppCompatActivity {
             if (!checkedIds.isEmpty()) {
                 Chip selectedChip = findViewById(checkedIds.get(0));
                 String filter = selectedChip.getText().toString();
+                if ("All".equals(filter)) {
+                    showAllNotifications();
+                } else {
+                    showNotificationSubset();
+                }
                 viewModel.filterNotifications(filter);
             }
         });
@@ -166,17 +197,17 @@ public class NotificationActivity extends AppCompatActivity {
         // Observe notifications
         viewModel.getNotifications().observe(this, notifications -> {
             if (notifications != null) {
-                adapter.updateNotifications(notifications);
+                if (!pagingAll) {
+                    adapter.updateNotifications(notifications);
+                }
                 updateEmptyView(notifications.isEmpty());
-                updateSummaryCard(notifications);
             }
         });
 
-        // Observe unread count
-        viewModel.getUnreadCount().observe(this, unreadCount -> {
-            if (unreadCount != null) {
-                unreadCountText.setText(unreadCount + " unread");
-                markAllReadButton.setEnabled(unreadCount > 0);
+        // Start the paged list over when the stored rows change, e.g. once a refresh has written them
+        viewModel.getNotificationPager().observe(this, pager -> {
+            if (pagingAll) {
+                adapter.setPager(pager, Constants.PAGE_PREFETCH_DISTANCE);
             }
         });
 
@@ -200,9 +231,26 @@ public class NotificationActivity extends AppCompatActivity {
         });
     }
 
-    private void updateSummaryCard(List<NotificationItem> notifications) {
-        int total = notifications.size();
-        int unread = adapter.getUnreadCount();
+    // Counts come from child_stats, so they cover every stored notification whatever the list shows
+    private void observeStats() {
+        statsObserver.set(
+                childRepository.observeStats(CHILD_ID)
+                        .subscribeOn(Schedulers.io())
+                        .observeOn(AndroidSchedulers.mainThread())
+                        .subscribe(
+                                this::updateSummaryCard,
+                                throwable -> Toast.makeText(this, "Failed to load notification counts: "
+                                        + throwable.getMessage(), Toast.LENGTH_LONG).show()
+                        )
+        );
+    }
+
+    private void updateSummaryCard(ChildStatsEntity stats) {
+        int total = stats.getNotificationCount();
+        int unread = stats.getUnreadCount();
+
+        unreadCountText.setText(unread + " unread");
+        markAllReadButton.setEnabled(unread > 0);
 
         String summaryMessage = String.format(
                 "You have %d total notifications with %d unread. " +
@@ -339,6 +387,7 @@ public class NotificationActivity extends AppCompatActivity {
         searchView.setOnQueryTextListener(new SearchView.OnQueryTextListener() {
             @Override
             public boolean onQueryTextSubmit(String query) {
+                showNotificationSubset();
                 viewModel.searchNotifications(query);
                 return true;
             }
@@ -346,8 +395,10 @@ public class NotificationActivity extends AppCompatActivity {
             @Override
             public boolean onQueryTextChange(String newText) {
                 if (newText.length() > 2) {
+                    showNotificationSubset();
                     viewModel.searchNotifications(newText);
                 } else if (newText.isEmpty()) {
+                    showAllNotifications();
                     viewModel.loadNotifications(); // Reset to full list
                 }
                 return true;
@@ -388,4 +439,10 @@ public class NotificationActivity extends AppCompatActivity {
         // Refresh data when returning to this activity
         viewModel.refreshNotifications();
     }
+
+    @Override
+    protected void onDestroy() {
+        statsObserver.dispose();
+        super.onDestroy();
+    }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.curionext.mobile.features.notifications.adapter;
 
 import android.content.Context;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -13,6 +14,7 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.curionext.mobile.R;
 import com.curionext.mobile.core.data.model.NotificationItem;
+import com.curionext.mobile.core.data.paging.KeysetPager;
 import com.curionext.mobile.core.util.Constants;
 import com.curionext.mobile.core.util.DateUtils;
 import com.google.android.material.card.MaterialCardView;
@@ -21,12 +23,21 @@ import com.google.android.material.button.MaterialButton;
 import java.util.ArrayList;
 import java.util.List;
 
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.disposables.CompositeDisposable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
 public class NotificationAdapter extends RecyclerView.Adapter<NotificationAdapter.NotificationViewHolder> {
 
+    private static final String TAG = "NotificationAdapter";
+
     private final Context context;
     private final List<NotificationItem> notifications = new ArrayList<>();
+    private final CompositeDisposable pageLoads = new CompositeDisposable();
 
     private OnNotificationClickListener onNotificationClickListener;
+    private KeysetPager<NotificationItem> pager;
+    private int prefetchDistance;
 
     public NotificationAdapter(Context context) {
         this.context = context;
@@ -43,6 +54,11 @@ public class NotificationAdapter extends RecyclerView.Adapter<NotificationAdapte
     public void onBindViewHolder(@NonNull NotificationViewHolder holder, int position) {
         NotificationItem notification = notifications.get(position);
 
+        // Fetch the next page before the user reaches the end
+        if (pager != null && position >= notifications.size() - prefetchDistance) {
+            loadNextPage();
+        }
+
         // Set basic content
         holder.titleText.setText(notification.getTitle());
         holder.descriptionText.setText(notification.getDescription());
@@ -108,12 +124,32 @@ public class NotificationAdapter extends RecyclerView.Adapter<NotificationAdapte
         });
     }
 
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        pageLoads.clear();
+    }
+
     @Override
     public int getItemCount() {
         return notifications.size();
     }
 
+    /**
+     * Show notifications a page at a time from the pager, starting with its first page
+     */
+    public void setPager(KeysetPager<NotificationItem> pager, int prefetchDistance) {
+        this.pager = pager;
+        this.prefetchDistance = prefetchDistance;
+        pageLoads.clear();
+        notifications.clear();
+        notifyDataSetChanged();
+        loadNextPage();
+    }
+
     public void updateNotifications(List<NotificationItem> newNotifications) {
+        pager = null;
+        pageLoads.clear();
         notifications.clear();
         if (newNotifications != null) {
             notifications.addAll(newNotifications);
@@ -148,10 +184,44 @@ public class NotificationAdapter extends RecyclerView.Adapter<NotificationAdapte
     }
 
     public void clearAllNotifications() {
+        pager = null;
+        pageLoads.clear();
         notifications.clear();
         notifyDataSetChanged();
     }
 
+    private void loadNextPage() {
+        if (pager.isExhausted()) {
+            return;
+        }
+        KeysetPager<NotificationItem> source = pager;
+        pageLoads.add(
+                source.nextPage()
+                        .subscribeOn(Schedulers.io())
+                        .observeOn(AndroidSchedulers.mainThread())
+                        .subscribe(page -> appendPage(source, page),
+                                throwable -> Log.w(TAG, "Failed to load page", throwable))
+        );
+    }
+
+    /**
+     * Try the next page again, e.g. after a failed load left the list short
+     */
+    public void retryPageLoad() {
+        if (pager != null) {
+            loadNextPage();
+        }
+    }
+
+    private void appendPage(KeysetPager<NotificationItem> source, List<NotificationItem> page) {
+        if (source != pager || page.isEmpty()) {
+            return; // Replaced while loading
+        }
+        int start = notifications.size();
+        notifications.addAll(page);
+        notifyItemRangeInserted(start, page.size());
+    }
+
     private void setPriorityIndicator(NotificationViewHolder holder, String priority) {
         switch (priority) {
             case Constants.PRIORITY_URGENT:
@@ -341,12 +411,6 @@ public class NotificationAdapter extends RecyclerView.Adapter<NotificationAdapte
     }
 
     // Utility methods
-    public int getUnreadCount() {
-        return (int) notifications.stream()
-                .filter(notification -> !notification.isRead())
-                .count();
-    }
-
     public List<NotificationItem> getUnreadNotifications() {
         return notifications.stream()
                 .filter(notification -> !notification.isRead())
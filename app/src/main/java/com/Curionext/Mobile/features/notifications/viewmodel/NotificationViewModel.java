@@ -0,0 +1,201 @@
+package com.curionext.mobile.features.notifications.viewmodel;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.ViewModel;
+
+import com.curionext.mobile.core.data.model.NotificationItem;
+import com.curionext.mobile.core.data.paging.KeysetPager;
+import com.curionext.mobile.core.data.repository.NotificationRepository;
+import com.curionext.mobile.core.util.Constants;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+import dagger.hilt.android.lifecycle.HiltViewModel;
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.disposables.CompositeDisposable;
+import io.reactivex.rxjava3.disposables.SerialDisposable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+@HiltViewModel
+public class NotificationViewModel extends ViewModel {
+
+    private final NotificationRepository notificationRepository;
+    private final CompositeDisposable disposables = new CompositeDisposable();
+    private final SerialDisposable notificationsObserver = new SerialDisposable();
+
+    private final MutableLiveData<List<NotificationItem>> notifications = new MutableLiveData<>();
+    private final MutableLiveData<KeysetPager<NotificationItem>> notificationPager = new MutableLiveData<>();
+    private final MutableLiveData<Boolean> isLoading = new MutableLiveData<>(false);
+    private final MutableLiveData<String> errorMessage = new MutableLiveData<>();
+    private final MutableLiveData<String> statusMessage = new MutableLiveData<>();
+
+    private List<NotificationItem> allNotifications = Collections.emptyList();
+    private Set<String> pagedIds; // Rows stored when the current pager was created
+    private String filter = "All";
+    private String query;
+
+    private static final String CHILD_ID = "avani_001"; // In real app, get from preferences
+
+    @Inject
+    public NotificationViewModel(NotificationRepository notificationRepository) {
+        this.notificationRepository = notificationRepository;
+        disposables.add(notificationsObserver);
+    }
+
+    // Getters for LiveData
+    public LiveData<List<NotificationItem>> getNotifications() { return notifications; }
+    public LiveData<KeysetPager<NotificationItem>> getNotificationPager() { return notificationPager; }
+    public LiveData<Boolean> getIsLoading() { return isLoading; }
+    public LiveData<String> getErrorMessage() { return errorMessage; }
+    public LiveData<String> getStatusMessage() { return statusMessage; }
+
+    /**
+     * A fresh pager over the stored notifications, newest first, for the unfiltered list
+     */
+    public KeysetPager<NotificationItem> pageNotifications() {
+        return notificationRepository.pageNotifications(CHILD_ID);
+    }
+
+    public void loadNotifications() {
+        isLoading.setValue(true);
+        query = null;
+
+        notificationsObserver.set(
+                notificationRepository.getNotifications(CHILD_ID)
+                        .subscribeOn(Schedulers.io())
+                        .observeOn(AndroidSchedulers.mainThread())
+                        .subscribe(
+                                stored -> {
+                                    isLoading.setValue(false);
+                                    allNotifications = stored;
+                                    resetPagerIfRowsChanged(stored);
+                                    publish();
+                                },
+                                throwable -> {
+                                    isLoading.setValue(false);
+                                    errorMessage.setValue("Failed to load notifications: " + throwable.getMessage());
+                                }
+                        )
+        );
+    }
+
+    public void refreshNotifications() {
+        loadNotifications();
+    }
+
+    public void filterNotifications(String filter) {
+        this.filter = filter;
+        query = null;
+        publish();
+    }
+
+    public void searchNotifications(String query) {
+        this.query = query.trim().isEmpty() ? null : query;
+        publish();
+        if (this.query != null) {
+            statusMessage.setValue("Found " + notifications.getValue().size()
+                    + " notifications matching '" + query + "'");
+        }
+    }
+
+    public void markAsRead(String notificationId) {
+        run(notificationRepository.markAsRead(notificationId).ignoreElement(), null,
+                "Failed to mark notification as read");
+    }
+
+    public void dismissNotification(String notificationId) {
+        run(notificationRepository.deleteNotification(notificationId), null,
+                "Failed to dismiss notification");
+    }
+
+    public void deleteNotification(String notificationId) {
+        run(notificationRepository.deleteNotification(notificationId), "Notification deleted",
+                "Failed to delete notification");
+    }
+
+    public void markAllAsRead() {
+        run(notificationRepository.markAllAsRead(CHILD_ID), "All notifications marked as read",
+                "Failed to mark notifications as read");
+    }
+
+    public void clearAllNotifications() {
+        run(notificationRepository.clearNotifications(CHILD_ID), "All notifications cleared",
+                "Failed to clear notifications");
+    }
+
+    // A pager reads Room once per page and stops at the first short page, so one created before
+    // the refresh wrote anything would stay empty; hand out a new one whenever rows come or go
+    private void resetPagerIfRowsChanged(List<NotificationItem> stored) {
+        Set<String> ids = new HashSet<>();
+        for (NotificationItem notification : stored) {
+            ids.add(notification.getId());
+        }
+        if (!ids.equals(pagedIds)) {
+            pagedIds = ids;
+            notificationPager.setValue(pageNotifications());
+        }
+    }
+
+    private void publish() {
+        String category = categoryOf(filter);
+        String needle = query != null ? query.toLowerCase(Locale.getDefault()) : null;
+        notifications.setValue(allNotifications.stream()
+                .filter(notification -> category == null || category.equals(notification.getCategory()))
+                .filter(notification -> needle == null || matches(notification, needle))
+                .collect(Collectors.toList()));
+    }
+
+    private static boolean matches(NotificationItem notification, String needle) {
+        return contains(notification.getTitle(), needle) || contains(notification.getDescription(), needle);
+    }
+
+    private static boolean contains(String text, String needle) {
+        return text != null && text.toLowerCase(Locale.getDefault()).contains(needle);
+    }
+
+    private static String categoryOf(String filter) {
+        switch (filter) {
+            case "Learning":
+                return Constants.NOTIFICATION_CATEGORY_LEARNING;
+            case "Safety":
+                return Constants.NOTIFICATION_CATEGORY_SAFETY;
+            case "Reports":
+                return Constants.NOTIFICATION_CATEGORY_REPORT;
+            case "System":
+                return Constants.NOTIFICATION_CATEGORY_SYSTEM;
+            default:
+                return null;
+        }
+    }
+
+    private void run(Completable action, String success, String failure) {
+        disposables.add(
+                action.subscribeOn(Schedulers.io())
+                        .observeOn(AndroidSchedulers.mainThread())
+                        .subscribe(
+                                () -> {
+                                    if (success != null) {
+                                        statusMessage.setValue(success);
+                                    }
+                                },
+                                throwable -> {
+                                    errorMessage.setValue(failure + ": " + throwable.getMessage());
+                                }
+                        )
+        );
+    }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        disposables.clear();
+    }
+}
@@ -5,6 +5,7 @@ import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 
 import com.curionext.mobile.core.data.model.Preference;
+import com.curionext.mobile.core.data.repository.ChildRepository;
 import com.curionext.mobile.core.data.repository.PreferenceRepository;
 import com.curionext.mobile.core.util.Constants;
 
@@ -18,13 +19,19 @@ import javax.inject.Inject;
 import dagger.hilt.android.lifecycle.HiltViewModel;
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
 import io.reactivex.rxjava3.disposables.CompositeDisposable;
+import io.reactivex.rxjava3.disposables.SerialDisposable;
 import io.reactivex.rxjava3.schedulers.Schedulers;
 
 @HiltViewModel
 public class PreferenceViewModel extends ViewModel {
 
     private final PreferenceRepository preferenceRepository;
+    private final ChildRepository childRepository;
     private final CompositeDisposable disposables = new CompositeDisposable();
+    private final SerialDisposable allPreferencesObserver = new SerialDisposable();
+    private final SerialDisposable likesObserver = new SerialDisposable();
+    private final SerialDisposable dislikesObserver = new SerialDisposable();
+    private final SerialDisposable statsObserver = new SerialDisposable();
 
     private final MutableLiveData<List<Preference>> allPreferences = new MutableLiveData<>();
     private final MutableLiveData<List<Preference>> likes = new MutableLiveData<>();
@@ -43,11 +50,14 @@ public class PreferenceViewModel extends ViewModel {
     private static final String CHILD_ID = "avani_001"; // In real app, get from preferences
 
     @Inject
-    public PreferenceViewModel(PreferenceRepository preferenceRepository) {
+    public PreferenceViewModel(PreferenceRepository preferenceRepository, ChildRepository childRepository) {
         this.preferenceRepository = preferenceRepository;
+        this.childRepository = childRepository;
+        disposables.addAll(allPreferencesObserver, likesObserver, dislikesObserver, statsObserver);
 
         // Load initial data
         loadAllPreferences();
+        observeAverages();
     }
 
     // Getters for LiveData
@@ -68,7 +78,7 @@ public class PreferenceViewModel extends ViewModel {
     public void loadAllPreferences() {
         isLoading.setValue(true);
 
-        disposables.add(
+        allPreferencesObserver.set(
                 preferenceRepository.getPreferences(CHILD_ID)
                         .subscribeOn(Schedulers.io())
                         .observeOn(AndroidSchedulers.mainThread())
@@ -87,8 +97,28 @@ public class PreferenceViewModel extends ViewModel {
         );
     }
 
+    // Averages over every stored preference, kept current by child_stats rather than summed per emission
+    private void observeAverages() {
+        statsObserver.set(
+                childRepository.observeStats(CHILD_ID)
+                        .subscribeOn(Schedulers.io())
+                        .observeOn(AndroidSchedulers.mainThread())
+                        .subscribe(
+                                stats -> {
+                                    if (stats.getPreferenceCount() > 0) {
+                                        averageSentiment.setValue(stats.getAverageSentiment());
+                                        averageConfidence.setValue(stats.getAverageConfidence());
+                                    }
+                                },
+                                throwable -> {
+                                    errorMessage.setValue("Failed to load preference averages: " + throwable.getMessage());
+                                }
+                        )
+        );
+    }
+
     public void loadTopLikes() {
-        disposables.add(
+        likesObserver.set(
                 preferenceRepository.getTopLikes(CHILD_ID, 10)
                         .subscribeOn(Schedulers.io())
                         .observeOn(AndroidSchedulers.mainThread())
@@ -105,7 +135,7 @@ public class PreferenceViewModel extends ViewModel {
     }
 
     public void loadTopDislikes() {
-        disposables.add(
+        dislikesObserver.set(
                 preferenceRepository.getTopDislikes(CHILD_ID, 10)
                         .subscribeOn(Schedulers.io())
                         .observeOn(AndroidSchedulers.mainThread())
@@ -155,22 +185,26 @@ public class PreferenceViewModel extends ViewModel {
     }
 
     public void searchPreferences(String query) {
-        List<Preference> currentPreferences = allPreferences.getValue();
-        if (currentPreferences != null && !query.trim().isEmpty()) {
-            List<Preference> filtered = currentPreferences.stream()
-                    .filter(preference ->
-                            preference.getTopic().toLowerCase().contains(query.toLowerCase()) ||
-                                    preference.getCategory().toLowerCase().contains(query.toLowerCase()) ||
-                                    (preference.getKeywords() != null &&
-                                            String.join(" ", preference.getKeywords()).toLowerCase().contains(query.toLowerCase()))
-                    )
-                    .collect(Collectors.toList());
-
-            allPreferences.setValue(filtered);
-            statusMessage.setValue("Found " + filtered.size() + " preferences matching '" + query + "'");
-        } else {
+        if (query.trim().isEmpty()) {
             loadAllPreferences(); // Reset to full list
+            return;
         }
+
+        // Takes over the full-list subscription; clearing the search restarts it
+        allPreferencesObserver.set(
+                preferenceRepository.searchPreferences(CHILD_ID, query)
+                        .subscribeOn(Schedulers.io())
+                        .observeOn(AndroidSchedulers.mainThread())
+                        .subscribe(
+                                found -> {
+                                    allPreferences.setValue(found);
+                                    statusMessage.setValue("Found " + found.size() + " preferences matching '" + query + "'");
+                                },
+                                throwable -> {
+                                    errorMessage.setValue("Search failed: " + throwable.getMessage());
+                                }
+                        )
+        );
     }
 
     public void refreshPreferences() {
@@ -207,13 +241,7 @@ public class PreferenceViewModel extends ViewModel {
         List<Preference> negativeList = new ArrayList<>();
         List<Preference> neutralList = new ArrayList<>();
 
-        double totalSentiment = 0.0;
-        double totalConfidence = 0.0;
-
         for (Preference preference : preferences) {
-            totalSentiment += preference.getSentiment();
-            totalConfidence += preference.getConfidence();
-
             if (preference.isPositive()) {
                 positiveList.add(preference);
             } else if (preference.isNegative()) {
@@ -231,12 +259,6 @@ public class PreferenceViewModel extends ViewModel {
         dislikes.setValue(negativeList);
         neutralPreferences.setValue(neutralList);
 
-        // Calculate averages
-        if (!preferences.isEmpty()) {
-            averageSentiment.setValue(totalSentiment / preferences.size());
-            averageConfidence.setValue(totalConfidence / preferences.size());
-        }
-
         // Group by category
         Map<String, List<Preference>> grouped = preferences.stream()
                 .collect(Collectors.groupingBy(Preference::getCategory));
@@ -18,6 +18,7 @@ import javax.inject.Inject;
 import dagger.hilt.android.lifecycle.HiltViewModel;
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
 import io.reactivex.rxjava3.disposables.CompositeDisposable;
+import io.reactivex.rxjava3.disposables.SerialDisposable;
 import io.reactivex.rxjava3.schedulers.Schedulers;
 
 @HiltViewModel
@@ -26,6 +27,7 @@ public class ProfileViewModel extends ViewModel {
     private final ChildRepository childRepository;
     private final InterestRepository interestRepository;
     private final CompositeDisposable disposables = new CompositeDisposable();
+    private final SerialDisposable interestsObserver = new SerialDisposable();
 
     private final MutableLiveData<Child> childProfile = new MutableLiveData<>();
     private final MutableLiveData<List<Interest>> childInterests = new MutableLiveData<>();
@@ -47,6 +49,7 @@ public class ProfileViewModel extends ViewModel {
     ) {
         this.childRepository = childRepository;
         this.interestRepository = interestRepository;
+        disposables.add(interestsObserver);
 
         // Load initial data
         loadChildProfile();
@@ -75,21 +78,24 @@ public class ProfileViewModel extends ViewModel {
                                 child -> {
                                     childProfile.setValue(child);
                                     avatarUrl.setValue(child.getAvatarUrl());
-                                    loadChildInterests();
-                                    loadWeeklySummary();
                                     isLoading.setValue(false);
-                                    statusMessage.setValue("Profile loaded successfully");
                                 },
                                 throwable -> {
                                     isLoading.setValue(false);
                                     errorMessage.setValue("Failed to load child profile: " + throwable.getMessage());
+                                },
+                                () -> {
+                                    // Stored and refreshed copies both arrived
+                                    loadChildInterests();
+                                    loadWeeklySummary();
+                                    statusMessage.setValue("Profile loaded successfully");
                                 }
                         )
         );
     }
 
     public void loadChildInterests() {
-        disposables.add(
+        interestsObserver.set(
                 interestRepository.getTopInterests(CHILD_ID, 5)
                         .subscribeOn(Schedulers.io())
                         .observeOn(AndroidSchedulers.mainThread())
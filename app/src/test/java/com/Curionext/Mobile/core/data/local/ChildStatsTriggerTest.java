@@ -0,0 +1,223 @@
+package com.curionext.mobile.core.data.local;
+
+import com.curionext.mobile.core.util.Constants;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Applies random insert/replace/update/delete sequences to notifications,
+ * preferences and interests and checks after each step that child_stats
+ * equals the COUNT/AVG queries it replaces.
+ */
+public class ChildStatsTriggerTest {
+
+    private static final String[] CHILDREN = {"child_a", "child_b", "child_c"};
+    private static final String[] PRIORITIES = {"low", "medium", "urgent", null};
+    private static final int IDS = 40; // Small id space so inserts often replace
+    private static final int STEPS = 3000;
+    private static final double EPSILON = 1e-6;
+
+    private static final String EXPECTED = "SELECT"
+            + " (SELECT COUNT(*) FROM notifications WHERE child_id = ?1),"
+            + " (SELECT COUNT(*) FROM notifications WHERE child_id = ?1 AND is_read = 0),"
+            + " (SELECT COUNT(*) FROM notifications WHERE child_id = ?1 AND priority = 'urgent' AND is_read = 0),"
+            + " (SELECT COUNT(*) FROM preferences WHERE child_id = ?1),"
+            + " (SELECT COUNT(*) FROM preferences WHERE child_id = ?1 AND sentiment > 0.1),"
+            + " (SELECT COUNT(*) FROM preferences WHERE child_id = ?1 AND sentiment < -0.1),"
+            + " (SELECT TOTAL(sentiment) FROM preferences WHERE child_id = ?1),"
+            + " (SELECT TOTAL(confidence) FROM preferences WHERE child_id = ?1),"
+            + " (SELECT COUNT(*) FROM interests WHERE child_id = ?1),"
+            + " (SELECT TOTAL(interest_level) FROM interests WHERE child_id = ?1)";
+    private static final String ACTUAL = "SELECT notification_count, unread_count, urgent_unread_count,"
+            + " preference_count, likes_count, dislikes_count, sentiment_sum, confidence_sum,"
+            + " interest_count, interest_level_sum FROM child_stats WHERE child_id = ?";
+
+    private Connection connection;
+    private Random random;
+
+    @Before
+    public void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        exec("PRAGMA foreign_keys = ON");
+        exec("PRAGMA recursive_triggers = ON");
+        RoomSchema.create(connection, Constants.DB_VERSION);
+        for (String child : CHILDREN) {
+            insertChild(child);
+        }
+        random = new Random(21);
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    public void countersFollowRandomMutations() throws SQLException {
+        createTriggers();
+        for (int step = 0; step < STEPS; step++) {
+            String operation = mutate();
+            for (String child : CHILDREN) {
+                assertStats("step " + step + " (" + operation + ")", child);
+            }
+        }
+    }
+
+    @Test
+    public void rebuildCountsRowsWrittenBeforeTriggers() throws SQLException {
+        for (int step = 0; step < STEPS / 10; step++) {
+            mutate();
+        }
+        createTriggers();
+        for (String sql : ChildStatsCallback.rebuildStatements()) {
+            exec(sql);
+        }
+        for (String child : CHILDREN) {
+            assertStats("after rebuild", child);
+        }
+
+        for (int step = 0; step < STEPS / 10; step++) {
+            String operation = mutate();
+            for (String child : CHILDREN) {
+                assertStats("step " + step + " (" + operation + ")", child);
+            }
+        }
+    }
+
+    // Applies one random write the app can issue and names it for the failure message
+    private String mutate() throws SQLException {
+        String child = random.nextInt(20) == 0 ? null : pick(CHILDREN);
+        String id = String.valueOf(random.nextInt(IDS));
+        switch (random.nextInt(15)) {
+            case 0:
+                update("INSERT OR REPLACE INTO notifications (id, child_id, is_read, priority) VALUES (?, ?, ?, ?)",
+                        "n" + id, child, random.nextInt(2), pick(PRIORITIES));
+                return "replace notification";
+            case 1:
+                update("UPDATE notifications SET is_read = 1 WHERE id = ?", "n" + id);
+                return "mark read";
+            case 2:
+                update("UPDATE notifications SET is_read = 1 WHERE child_id = ?", child);
+                return "mark all read";
+            case 3:
+                update("UPDATE notifications SET priority = ?, is_read = ? WHERE id = ?",
+                        pick(PRIORITIES), random.nextInt(2), "n" + id);
+                return "reprioritize notification";
+            case 4:
+                update("DELETE FROM notifications WHERE id = ?", "n" + id);
+                return "delete notification";
+            case 5:
+                update("INSERT OR REPLACE INTO preferences (id, child_id, sentiment, confidence, frequency, intensity)"
+                        + " VALUES (?, ?, ?, ?, 1, 0)", "p" + id, child, sentiment(), random.nextDouble());
+                return "replace preference";
+            case 6:
+                update("UPDATE preferences SET sentiment = ?, confidence = ? WHERE id = ?",
+                        sentiment(), random.nextDouble(), "p" + id);
+                return "update preference";
+            case 7:
+                update("DELETE FROM preferences WHERE id = ?", "p" + id);
+                return "delete preference";
+            case 8:
+                update("INSERT OR REPLACE INTO interests (id, child_id, interest_level, frequency) VALUES (?, ?, ?, 1)",
+                        "i" + id, child, random.nextDouble() * Constants.MAX_INTEREST_LEVEL);
+                return "replace interest";
+            case 9:
+                update("UPDATE interests SET interest_level = ?, frequency = frequency + 1 WHERE id = ?",
+                        random.nextDouble() * Constants.MAX_INTEREST_LEVEL, "i" + id);
+                return "update interest";
+            case 10:
+                update("DELETE FROM interests WHERE id = ?", "i" + id);
+                return "delete interest";
+            case 11:
+                update("UPDATE " + pick(new String[]{"notifications", "preferences", "interests"})
+                        + " SET child_id = ? WHERE id IN (?, ?, ?)", child, "n" + id, "p" + id, "i" + id);
+                return "move to other child";
+            case 12:
+                update("DELETE FROM " + pick(new String[]{"notifications", "preferences", "interests"})
+                        + " WHERE child_id = ?", child);
+                return "delete all of child";
+            case 13:
+                // Cascades to the child's notifications, preferences and interests
+                update("DELETE FROM children WHERE child_id = ?", child);
+                insertChild(child == null ? CHILDREN[0] : child);
+                return "delete child";
+            default:
+                // Only frequency changes; the counters must not move
+                update("UPDATE preferences SET frequency = frequency + 1 WHERE child_id = ?", child);
+                return "touch preferences";
+        }
+    }
+
+    private void assertStats(String when, String child) throws SQLException {
+        double[] expected = row(EXPECTED, child);
+        double[] actual = row(ACTUAL, child);
+        if (actual == null) {
+            actual = new double[expected.length];
+        }
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(when + ", " + child + ", column " + i, expected[i], actual[i], EPSILON);
+        }
+    }
+
+    private double[] row(String sql, String child) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, child);
+            try (ResultSet result = statement.executeQuery()) {
+                if (!result.next()) {
+                    return null;
+                }
+                double[] values = new double[result.getMetaData().getColumnCount()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = result.getDouble(i + 1);
+                }
+                return values;
+            }
+        }
+    }
+
+    private void createTriggers() throws SQLException {
+        for (String sql : ChildStatsCallback.createTriggerStatements()) {
+            exec(sql);
+        }
+    }
+
+    private void insertChild(String child) throws SQLException {
+        update("INSERT OR IGNORE INTO children (child_id) VALUES (?)", child);
+    }
+
+    // Steps of 0.05 so the like/dislike thresholds are hit exactly
+    private double sentiment() {
+        return (random.nextInt(41) - 20) / 20.0;
+    }
+
+    private <T> T pick(T[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private void update(String sql, Object... args) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < args.length; i++) {
+                statement.setObject(i + 1, args[i]);
+            }
+            statement.executeUpdate();
+        }
+    }
+
+    private void exec(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.curionext.mobile.core.data.local;
+
+import com.curionext.mobile.core.util.Constants;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Runs EXPLAIN QUERY PLAN for every @Query of the main DAOs against the
+ * current schema file (see RoomSchema), and fails on full table scans and
+ * temp B-tree sorts. Room's annotations are not visible at runtime, so the
+ * SQL is read from the DAO sources. A sort of only the right part of an
+ * ORDER BY is accepted: the index already delivers rows in order of the
+ * leading terms and only ties are sorted. Anything else that has to scan or
+ * sort must be listed in ALLOWED with the reason.
+ */
+public class DaoQueryPlanTest {
+
+    private static final String DAO_DIR = "src/main/java/com/Curionext/Mobile/core/data/local/dao";
+    private static final String[] DAOS = {
+            "ChildDao", "ChildStatsDao", "InterestDao", "KeywordDao", "LocationDao", "NotificationDao", "PreferenceDao", "SafeZoneDao"
+    };
+
+    private static final Pattern QUERY = Pattern.compile(
+            "@Query\\(((?:\\s*\"(?:[^\"\\\\]|\\\\.)*\"\\s*\\+?)+)\\)\\s*(?:@\\w+(?:\\([^)]*\\))?\\s*)*[\\w<>,\\s]*?(\\w+)\\s*\\(");
+    private static final Pattern LITERAL = Pattern.compile("\"((?:[^\"\\\\]|\\\\.)*)\"");
+    private static final Pattern PARAMETER = Pattern.compile(":\\w+");
+    private static final Pattern FULL_SCAN = Pattern.compile("^SCAN (TABLE )?\\w+( AS \\w+)?$");
+    // Emptying a table visits every row by design once triggers are attached to it
+    private static final Pattern DELETE_ALL = Pattern.compile("^DELETE FROM \\w+$", Pattern.CASE_INSENSITIVE);
+
+    private static final Map<String, String> ALLOWED = new HashMap<>();
+
+    static {
+        ALLOWED.put("ChildDao.getAllActiveChildren", "a device holds a handful of children");
+        ALLOWED.put("KeywordDao.getKeywordCounts",
+                "the scan and sorts are over one child's links, taken from the primary key");
+        ALLOWED.put("LocationDao.getVisitedSafeZones",
+                "occasional stats query; an index on safe_zone_name would cost every location insert");
+        ALLOWED.put("PreferenceDao.getHighConfidencePreferences",
+                "the confidence range is more selective than walking (child_id, sentiment)");
+        ALLOWED.put("PreferenceDao.getStrongPreferences", "rarely used; intensity is not worth an index");
+        String smallTable = "a child has a few safe zones; indexing visit columns would slow every transition";
+        ALLOWED.put("SafeZoneDao.getSafeZonesByChild", smallTable);
+        ALLOWED.put("SafeZoneDao.observeSafeZonesByChild", smallTable);
+        ALLOWED.put("SafeZoneDao.getActiveSafeZonesByChild", smallTable);
+        ALLOWED.put("SafeZoneDao.observeActiveSafeZonesByChild", smallTable);
+        ALLOWED.put("SafeZoneDao.getMostVisitedSafeZones", smallTable);
+        ALLOWED.put("SafeZoneDao.getRecentlyVisitedSafeZones", smallTable);
+    }
+
+    private static Connection connection;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        RoomSchema.create(connection, Constants.DB_VERSION);
+    }
+
+    @AfterClass
+    public static void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    public void queriesUseIndexes() throws Exception {
+        List<String> violations = new ArrayList<>();
+        List<String> seen = new ArrayList<>();
+
+        for (String dao : DAOS) {
+            List<String[]> queries = readQueries(dao);
+            assertTrue("no @Query found in " + dao, !queries.isEmpty());
+
+            for (String[] query : queries) {
+                String name = dao + "." + query[0];
+                seen.add(name);
+                List<String> plan = explain(query[1]);
+                String problem = DELETE_ALL.matcher(query[1].trim()).matches() ? null : findProblem(plan);
+                if (problem != null && !ALLOWED.containsKey(name)) {
+                    violations.add(name + ": " + problem + "\n    " + query[1] + "\n    " + String.join(" | ", plan));
+                }
+            }
+        }
+
+        for (String name : ALLOWED.keySet()) {
+            assertTrue("ALLOWED names a query that no longer exists: " + name, seen.contains(name));
+        }
+        if (!violations.isEmpty()) {
+            fail(violations.size() + " queries scan or sort without an index:\n" + String.join("\n", violations));
+        }
+    }
+
+    private static String findProblem(List<String> plan) {
+        for (String step : plan) {
+            if (FULL_SCAN.matcher(step).matches()) {
+                return "full scan";
+            }
+            if (step.contains("USE TEMP B-TREE") && !step.contains("RIGHT PART OF ORDER BY")) {
+                return "temp B-tree";
+            }
+        }
+        return null;
+    }
+
+    private static List<String> explain(String sql) throws SQLException {
+        String bound = PARAMETER.matcher(sql).replaceAll("?");
+        List<String> plan = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN QUERY PLAN " + bound)) {
+            int parameters = statement.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                statement.setObject(i, null);
+            }
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    plan.add(result.getString("detail"));
+                }
+            }
+        }
+        return plan;
+    }
+
+    // {method name, SQL} for each @Query in the DAO source
+    private static List<String[]> readQueries(String dao) throws IOException {
+        String source = new String(Files.readAllBytes(new File(DAO_DIR, dao + ".java").toPath()),
+                StandardCharsets.UTF_8);
+        List<String[]> queries = new ArrayList<>();
+        Matcher matcher = QUERY.matcher(source);
+        while (matcher.find()) {
+            StringBuilder sql = new StringBuilder();
+            Matcher literal = LITERAL.matcher(matcher.group(1));
+            while (literal.find()) {
+                sql.append(literal.group(1));
+            }
+            queries.add(new String[]{matcher.group(2), sql.toString()});
+        }
+        return queries;
+    }
+}
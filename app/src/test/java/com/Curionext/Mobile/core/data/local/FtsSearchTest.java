@@ -0,0 +1,76 @@
+package com.curionext.mobile.core.data.local;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class FtsSearchTest {
+
+    @Test
+    public void everyWordBecomesAPrefixTerm() {
+        assertEquals("dino*", FtsSearch.matchQuery("Dino"));
+        assertEquals("space* rock*", FtsSearch.matchQuery("  space  ROCK"));
+        assertEquals("café*", FtsSearch.matchQuery("Café"));
+    }
+
+    @Test
+    public void operatorsAndSyntaxAreStripped() {
+        assertEquals("a* or* b*", FtsSearch.matchQuery("a OR b"));
+        assertEquals("t* rex*", FtsSearch.matchQuery("\"t-rex\"*"));
+        assertEquals("near* topic*", FtsSearch.matchQuery("NEAR(topic:"));
+        assertNull(FtsSearch.matchQuery(" -*\" "));
+        assertNull(FtsSearch.matchQuery(null));
+    }
+
+    @Test
+    public void topicMatchOutranksCategoryMatch() {
+        // One phrase, three columns (topic, category, keywords)
+        byte[] topic = matchInfo(1, 3, 2, 0, 0);
+        byte[] category = matchInfo(1, 3, 0, 1, 0);
+        byte[] keywords = matchInfo(1, 3, 0, 0, 3);
+
+        assertEquals(0.5, FtsSearch.relevance(topic), 1e-9);
+        assertTrue(FtsSearch.relevance(topic) > FtsSearch.relevance(keywords));
+        assertTrue(FtsSearch.relevance(keywords) > FtsSearch.relevance(category));
+        assertEquals(1.0, FtsSearch.relevance(matchInfo(1, 3, 1, 1, 1)), 1e-9);
+    }
+
+    @Test
+    public void boostOrdersEqualMatchesOnly() {
+        byte[] topic = matchInfo(1, 3, 1, 0, 0);
+        byte[] category = matchInfo(1, 3, 0, 1, 0);
+
+        assertTrue(FtsSearch.score(topic, 0.9) > FtsSearch.score(topic, 0.2));
+        assertTrue(FtsSearch.score(topic, 0.0) > FtsSearch.score(category, 1.0));
+
+        byte[] keywords = matchInfo(1, 3, 0, 0, 1);
+        assertTrue(FtsSearch.score(keywords, 0.0) > FtsSearch.score(category, 1.0));
+
+        // Smallest possible gap: MAX_TERMS phrases, one extra category hit
+        byte[] better = matchInfo(8, 3, 1, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+        byte[] worse = matchInfo(8, 3, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+        assertTrue(FtsSearch.score(better, 0.0) > FtsSearch.score(worse, 1.0));
+    }
+
+    @Test
+    public void everyTermCounts() {
+        // Two phrases: the first hits the topic, the second nothing
+        byte[] half = matchInfo(2, 3, 1, 0, 0, 0, 0, 0);
+        assertEquals(0.25, FtsSearch.relevance(half), 1e-9);
+    }
+
+    // matchinfo 'pcx' blob with the given per (phrase, column) hit counts in this row
+    private static byte[] matchInfo(int phrases, int columns, int... hits) {
+        ByteBuffer buffer = ByteBuffer.allocate(4 * (2 + 3 * phrases * columns)).order(ByteOrder.nativeOrder());
+        buffer.putInt(phrases).putInt(columns);
+        for (int hit : hits) {
+            buffer.putInt(hit).putInt(hit + 5).putInt(hit > 0 ? 1 : 0);
+        }
+        return buffer.array();
+    }
+}
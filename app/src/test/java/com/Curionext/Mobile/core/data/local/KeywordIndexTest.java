@@ -0,0 +1,293 @@
+package com.curionext.mobile.core.data.local;
+
+import com.curionext.mobile.core.data.local.dao.KeywordDao;
+import com.curionext.mobile.core.data.local.entity.InterestEntity;
+import com.curionext.mobile.core.data.local.entity.InterestKeywordEntity;
+import com.curionext.mobile.core.data.local.entity.KeywordCount;
+import com.curionext.mobile.core.data.local.entity.KeywordEntity;
+import com.curionext.mobile.core.data.local.entity.PreferenceEntity;
+import com.curionext.mobile.core.data.local.entity.PreferenceKeywordEntity;
+import com.curionext.mobile.core.data.mapper.KeywordCodec;
+import com.curionext.mobile.core.util.Constants;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Single;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Drives KeywordIndex against the exported schema, with KeywordDao backed by
+ * plain JDBC running the same statements Room generates.
+ */
+public class KeywordIndexTest {
+
+    private Connection connection;
+    private KeywordDao dao;
+
+    @Before
+    public void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        exec("PRAGMA foreign_keys = ON");
+        RoomSchema.create(connection, Constants.DB_VERSION);
+        exec("INSERT INTO children (child_id) VALUES ('a'), ('b')");
+        dao = new JdbcKeywordDao();
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    public void lookupMatchesNormalizedKeywordsOfTheChildOnly() throws SQLException {
+        writePreferences(preference("p1", "a", " Dinosaurs", "fossils"),
+                preference("p2", "a", "dinosaurs", "DINOSAURS"),
+                preference("p3", "b", "dinosaurs"),
+                preference("p4", "a", "space"));
+
+        assertEquals(Arrays.asList("p1", "p2"), preferenceIds("a", "dinosaurs"));
+        assertEquals(Collections.singletonList("p3"), preferenceIds("b", "dinosaurs"));
+        assertEquals(Collections.emptyList(), preferenceIds("a", "rockets"));
+    }
+
+    @Test
+    public void rewritingARowReplacesItsLinks() throws SQLException {
+        writePreferences(preference("p1", "a", "space", "rockets"));
+        writePreferences(preference("p1", "a", "space", "planets"));
+
+        assertEquals(Collections.emptyList(), preferenceIds("a", "rockets"));
+        assertEquals(Collections.singletonList("p1"), preferenceIds("a", "planets"));
+        assertEquals(2, count("SELECT COUNT(*) FROM preference_keywords"));
+    }
+
+    @Test
+    public void deletingRowsDropsTheirLinks() throws SQLException {
+        writePreferences(preference("p1", "a", "space"), preference("p2", "b", "space"));
+        writeInterests(interest("i1", "a", "space"));
+
+        exec("DELETE FROM preferences WHERE id = 'p1'");
+        assertEquals(Collections.emptyList(), preferenceIds("a", "space"));
+        exec("DELETE FROM children WHERE child_id = 'a'");
+
+        assertEquals(1, count("SELECT COUNT(*) FROM preference_keywords"));
+        assertEquals(0, count("SELECT COUNT(*) FROM interest_keywords"));
+        assertEquals(1, count("SELECT COUNT(*) FROM keywords"));
+    }
+
+    @Test
+    public void countsCoverPreferencesAndInterests() throws SQLException {
+        writePreferences(preference("p1", "a", "space", "music"), preference("p2", "a", "space"),
+                preference("p3", "b", "music"));
+        writeInterests(interest("i1", "a", "space", "lego"), interest("i2", "a", "music"));
+
+        List<KeywordCount> counts = dao.getKeywordCounts("a", 10).blockingGet();
+
+        assertEquals(3, counts.size());
+        assertEquals("space", counts.get(0).getKeyword());
+        assertEquals(3, counts.get(0).getCount());
+        assertEquals("music", counts.get(1).getKeyword());
+        assertEquals(2, counts.get(1).getCount());
+        assertEquals("lego", counts.get(2).getKeyword());
+        assertEquals(1, counts.get(2).getCount());
+        assertEquals(1, dao.getKeywordCounts("a", 1).blockingGet().size());
+    }
+
+    // INSERT OR REPLACE, as PreferenceDao.insertPreferences does, then relink
+    private void writePreferences(PreferenceEntity... preferences) throws SQLException {
+        for (PreferenceEntity preference : preferences) {
+            update("INSERT OR REPLACE INTO preferences (id, child_id, keywords, sentiment, confidence, frequency,"
+                    + " intensity) VALUES (?, ?, ?, 0, 0, 1, 0)", preference.getId(), preference.getChildId(),
+                    preference.getKeywords());
+        }
+        KeywordIndex.indexPreferences(dao, Arrays.asList(preferences)).blockingAwait();
+    }
+
+    private void writeInterests(InterestEntity... interests) throws SQLException {
+        for (InterestEntity interest : interests) {
+            update("INSERT OR REPLACE INTO interests (id, child_id, keywords, interest_level, frequency)"
+                    + " VALUES (?, ?, ?, 0, 1)", interest.getId(), interest.getChildId(), interest.getKeywords());
+        }
+        KeywordIndex.indexInterests(dao, Arrays.asList(interests)).blockingAwait();
+    }
+
+    private List<String> preferenceIds(String childId, String keyword) {
+        List<String> ids = new ArrayList<>();
+        for (PreferenceEntity preference : dao.getPreferencesByKeyword(childId, keyword).blockingGet()) {
+            ids.add(preference.getId());
+        }
+        Collections.sort(ids);
+        return ids;
+    }
+
+    private static PreferenceEntity preference(String id, String childId, String... keywords) {
+        PreferenceEntity preference = new PreferenceEntity(id, childId, id, 0, 0, null);
+        preference.setKeywords(KeywordCodec.encode(keywords));
+        return preference;
+    }
+
+    private static InterestEntity interest(String id, String childId, String... keywords) {
+        InterestEntity interest = new InterestEntity(id, childId, id, null, 0);
+        interest.setKeywords(KeywordCodec.encode(keywords));
+        return interest;
+    }
+
+    private int count(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet result = statement.executeQuery(sql)) {
+            return result.getInt(1);
+        }
+    }
+
+    private void update(String sql, Object... args) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < args.length; i++) {
+                statement.setObject(i + 1, args[i]);
+            }
+            statement.executeUpdate();
+        }
+    }
+
+    private void exec(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    // The SQL of KeywordDao's @Query methods, with list parameters expanded the way Room does
+    private class JdbcKeywordDao implements KeywordDao {
+
+        @Override
+        public Single<List<PreferenceEntity>> getPreferencesByKeyword(String childId, String keyword) {
+            return Single.fromCallable(() -> {
+                List<PreferenceEntity> preferences = new ArrayList<>();
+                try (PreparedStatement statement = connection.prepareStatement("SELECT preferences.id FROM keywords"
+                        + " JOIN preference_keywords ON preference_keywords.child_id = ?"
+                        + " AND preference_keywords.keyword_id = keywords.id"
+                        + " JOIN preferences ON preferences.id = preference_keywords.preference_id"
+                        + " WHERE keywords.keyword = ?")) {
+                    statement.setString(1, childId);
+                    statement.setString(2, keyword);
+                    try (ResultSet result = statement.executeQuery()) {
+                        while (result.next()) {
+                            preferences.add(new PreferenceEntity(result.getString(1), childId, null, 0, 0, null));
+                        }
+                    }
+                }
+                return preferences;
+            });
+        }
+
+        @Override
+        public Single<List<InterestEntity>> getInterestsByKeyword(String childId, String keyword) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Single<List<KeywordCount>> getKeywordCounts(String childId, int limit) {
+            return Single.fromCallable(() -> {
+                List<KeywordCount> counts = new ArrayList<>();
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "SELECT keywords.keyword AS keyword, COUNT(*) AS count FROM"
+                                + " (SELECT keyword_id FROM preference_keywords WHERE child_id = ?1"
+                                + " UNION ALL SELECT keyword_id FROM interest_keywords WHERE child_id = ?1) AS links"
+                                + " JOIN keywords ON keywords.id = links.keyword_id"
+                                + " GROUP BY links.keyword_id ORDER BY count DESC, keywords.keyword LIMIT ?2")) {
+                    statement.setString(1, childId);
+                    statement.setInt(2, limit);
+                    try (ResultSet result = statement.executeQuery()) {
+                        while (result.next()) {
+                            KeywordCount count = new KeywordCount();
+                            count.keyword = result.getString("keyword");
+                            count.count = result.getInt("count");
+                            counts.add(count);
+                        }
+                    }
+                }
+                return counts;
+            });
+        }
+
+        @Override
+        public Single<List<KeywordEntity>> getKeywords(List<String> keywords) {
+            return Single.fromCallable(() -> {
+                List<KeywordEntity> entries = new ArrayList<>();
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "SELECT id, keyword FROM keywords WHERE keyword IN (" + placeholders(keywords.size()) + ")")) {
+                    for (int i = 0; i < keywords.size(); i++) {
+                        statement.setString(i + 1, keywords.get(i));
+                    }
+                    try (ResultSet result = statement.executeQuery()) {
+                        while (result.next()) {
+                            KeywordEntity entry = new KeywordEntity(result.getString(2));
+                            entry.id = result.getLong(1);
+                            entries.add(entry);
+                        }
+                    }
+                }
+                return entries;
+            });
+        }
+
+        @Override
+        public Single<List<Long>> insertKeywords(List<KeywordEntity> keywords) {
+            return Single.fromCallable(() -> {
+                List<Long> ids = new ArrayList<>();
+                for (KeywordEntity keyword : keywords) {
+                    update("INSERT OR IGNORE INTO keywords (keyword) VALUES (?)", keyword.getKeyword());
+                    ids.add((long) count("SELECT CASE changes() WHEN 0 THEN -1 ELSE last_insert_rowid() END"));
+                }
+                return ids;
+            });
+        }
+
+        @Override
+        public Completable insertPreferenceLinks(List<PreferenceKeywordEntity> links) {
+            return Completable.fromAction(() -> {
+                for (PreferenceKeywordEntity link : links) {
+                    update("INSERT OR IGNORE INTO preference_keywords (child_id, keyword_id, preference_id)"
+                            + " VALUES (?, ?, ?)", link.getChildId(), link.getKeywordId(), link.getPreferenceId());
+                }
+            });
+        }
+
+        @Override
+        public Completable insertInterestLinks(List<InterestKeywordEntity> links) {
+            return Completable.fromAction(() -> {
+                for (InterestKeywordEntity link : links) {
+                    update("INSERT OR IGNORE INTO interest_keywords (child_id, keyword_id, interest_id)"
+                            + " VALUES (?, ?, ?)", link.getChildId(), link.getKeywordId(), link.getInterestId());
+                }
+            });
+        }
+
+        @Override
+        public Completable deletePreferenceLinks(List<String> preferenceIds) {
+            return Completable.fromAction(() -> update("DELETE FROM preference_keywords WHERE preference_id IN ("
+                    + placeholders(preferenceIds.size()) + ")", preferenceIds.toArray()));
+        }
+
+        @Override
+        public Completable deleteInterestLinks(List<String> interestIds) {
+            return Completable.fromAction(() -> update("DELETE FROM interest_keywords WHERE interest_id IN ("
+                    + placeholders(interestIds.size()) + ")", interestIds.toArray()));
+        }
+    }
+}
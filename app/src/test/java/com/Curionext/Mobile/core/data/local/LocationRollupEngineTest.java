@@ -0,0 +1,101 @@
+package com.curionext.mobile.core.data.local;
+
+import com.curionext.mobile.core.data.local.entity.LocationEntity;
+import com.curionext.mobile.core.data.local.entity.LocationRollupEntity;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LocationRollupEngineTest {
+
+    private static final long T0 = 1_700_000_040_000L; // minute-aligned
+
+    @Test
+    public void rawFixesCollapseIntoMinuteBuckets() {
+        List<LocationRollupEntity> samples = Arrays.asList(
+                sample("child_1", T0, 10.0, 20.0, 3f, "Home"),
+                sample("child_1", T0 + 20000, 10.2, 20.2, 9f, "Home"),
+                sample("child_1", T0 + 59999, 10.4, 20.4, 6f, null),
+                sample("child_1", T0 + 60000, 11.0, 21.0, 1f, null),
+                sample("child_2", T0 + 1000, 50.0, 60.0, 2f, "School"));
+
+        List<LocationRollupEntity> rollups = LocationRollupEngine.aggregate(samples, LocationRollupEntity.BUCKET_MINUTE);
+
+        assertEquals(3, rollups.size());
+        LocationRollupEntity first = rollups.get(0);
+        assertEquals("child_1", first.getChildId());
+        assertEquals(T0, first.getBucketStart().getTime());
+        assertEquals(LocationRollupEntity.BUCKET_MINUTE, first.getBucketSize());
+        assertEquals(3, first.getSampleCount());
+        assertEquals(10.2, first.getLatitude(), 1e-9);
+        assertEquals(20.2, first.getLongitude(), 1e-9);
+        assertEquals(9f, first.getMaxSpeed(), 0f);
+        assertTrue(first.isInSafeZone());
+        assertEquals("Home", first.getSafeZoneName());
+
+        LocationRollupEntity second = rollups.get(1);
+        assertEquals(T0 + 60000, second.getBucketStart().getTime());
+        assertFalse(second.isInSafeZone());
+        assertNull(second.getSafeZoneName());
+
+        assertEquals("child_2", rollups.get(2).getChildId());
+    }
+
+    @Test
+    public void minuteRollupsCollapseIntoHoursWeightedByCount() {
+        long hour = Math.floorDiv(T0, LocationRollupEntity.BUCKET_HOUR) * LocationRollupEntity.BUCKET_HOUR;
+        List<LocationRollupEntity> minutes = new ArrayList<>();
+        minutes.add(new LocationRollupEntity("child_1", LocationRollupEntity.BUCKET_MINUTE, new Date(hour),
+                10.0, 20.0, 4f, true, "Home", 3));
+        minutes.add(new LocationRollupEntity("child_1", LocationRollupEntity.BUCKET_MINUTE, new Date(hour + 60000),
+                14.0, 24.0, 12f, false, null, 1));
+
+        List<LocationRollupEntity> hours = LocationRollupEngine.aggregate(minutes, LocationRollupEntity.BUCKET_HOUR);
+
+        assertEquals(1, hours.size());
+        LocationRollupEntity rollup = hours.get(0);
+        assertEquals(hour, rollup.getBucketStart().getTime());
+        assertEquals(4, rollup.getSampleCount());
+        assertEquals(11.0, rollup.getLatitude(), 1e-9);
+        assertEquals(21.0, rollup.getLongitude(), 1e-9);
+        assertEquals(12f, rollup.getMaxSpeed(), 0f);
+        assertEquals("Home", rollup.getSafeZoneName());
+    }
+
+    @Test
+    public void bucketSplitAcrossBatchesMergesIntoExistingRow() {
+        LocationRollupEntity existing = new LocationRollupEntity("child_1", LocationRollupEntity.BUCKET_MINUTE,
+                new Date(T0), 10.0, 20.0, 5f, true, "Home", 3);
+        existing.setId(42);
+        LocationRollupEntity rollup = new LocationRollupEntity("child_1", LocationRollupEntity.BUCKET_MINUTE,
+                new Date(T0), 14.0, 24.0, 2f, false, null, 1);
+
+        LocationRollupEngine.merge(existing, rollup);
+
+        assertEquals(42, rollup.getId());
+        assertEquals(4, rollup.getSampleCount());
+        assertEquals(11.0, rollup.getLatitude(), 1e-9);
+        assertEquals(5f, rollup.getMaxSpeed(), 0f);
+        assertTrue(rollup.isInSafeZone());
+        assertEquals("Home", rollup.getSafeZoneName());
+    }
+
+    private static LocationRollupEntity sample(String childId, long time, double lat, double lng, float speed,
+                                               String zone) {
+        LocationEntity location = new LocationEntity("id_" + time + childId, childId, lat, lng, 10f);
+        location.setTimestamp(new Date(time));
+        location.setSpeed(speed);
+        location.setInSafeZone(zone != null);
+        location.setSafeZoneName(zone);
+        return LocationRollupEngine.toSample(location);
+    }
+}
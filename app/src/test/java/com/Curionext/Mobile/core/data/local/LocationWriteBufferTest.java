@@ -0,0 +1,113 @@
+package com.curionext.mobile.core.data.local;
+
+import android.database.sqlite.SQLiteConstraintException;
+
+import com.curionext.mobile.core.data.local.dao.LocationDao;
+import com.curionext.mobile.core.data.local.entity.LocationEntity;
+import com.curionext.mobile.core.util.Constants;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.schedulers.TestScheduler;
+
+import static org.junit.Assert.assertEquals;
+
+public class LocationWriteBufferTest {
+
+    private static final int BATCH_SIZE = 100;
+
+    private final List<String> written = new ArrayList<>();
+    private RuntimeException transientFailure;
+    private int insertCalls;
+    private LocationWriteBuffer buffer;
+
+    @Before
+    public void setUp() {
+        // insertLocations behaves like Room's: one transaction, all or nothing
+        LocationDao dao = (LocationDao) Proxy.newProxyInstance(LocationDao.class.getClassLoader(),
+                new Class<?>[]{LocationDao.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("insertLocations")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    @SuppressWarnings("unchecked")
+                    List<LocationEntity> rows = (List<LocationEntity>) args[0];
+                    return Completable.fromAction(() -> {
+                        insertCalls++;
+                        if (transientFailure != null) {
+                            throw transientFailure;
+                        }
+                        for (LocationEntity row : rows) {
+                            if (row.getChildId().equals("orphan")) {
+                                throw new SQLiteConstraintException("FOREIGN KEY constraint failed");
+                            }
+                        }
+                        for (LocationEntity row : rows) {
+                            written.add(row.getId());
+                        }
+                    });
+                });
+        buffer = new LocationWriteBuffer(dao, new TestScheduler(), BATCH_SIZE, 60000);
+    }
+
+    @Test
+    public void constraintViolationDropsOnlyTheOffendingRows() {
+        buffer.enqueue(location("a", "child_1"));
+        buffer.enqueue(location("b", "orphan"));
+        buffer.enqueue(location("c", "child_1"));
+
+        buffer.flush().blockingAwait();
+
+        assertEquals(Arrays.asList("a", "c"), written);
+        assertEquals(0, buffer.getPendingCount());
+
+        // The next batch is unaffected
+        buffer.enqueue(location("d", "child_1"));
+        buffer.flush().blockingAwait();
+        assertEquals(Arrays.asList("a", "c", "d"), written);
+    }
+
+    @Test
+    public void transientFailureIsRetriedAheadOfNewerRows() {
+        buffer.enqueue(location("a", "child_1"));
+        transientFailure = new IllegalStateException("database is locked");
+        flushIgnoringError();
+        assertEquals(1, buffer.getPendingCount());
+
+        transientFailure = null;
+        buffer.enqueue(location("b", "child_1"));
+        buffer.flush().blockingAwait();
+
+        assertEquals(Arrays.asList("a", "b"), written);
+        assertEquals(0, buffer.getPendingCount());
+    }
+
+    @Test
+    public void batchIsDroppedAfterMaxAttempts() {
+        buffer.enqueue(location("a", "child_1"));
+        transientFailure = new IllegalStateException("disk I/O error");
+
+        for (int i = 1; i < Constants.LOCATION_WRITE_MAX_ATTEMPTS; i++) {
+            flushIgnoringError();
+            assertEquals(1, buffer.getPendingCount());
+        }
+        flushIgnoringError();
+
+        assertEquals(0, buffer.getPendingCount());
+        assertEquals(Constants.LOCATION_WRITE_MAX_ATTEMPTS, insertCalls);
+    }
+
+    private void flushIgnoringError() {
+        buffer.flush().onErrorComplete().blockingAwait();
+    }
+
+    private static LocationEntity location(String id, String childId) {
+        return new LocationEntity(id, childId, 12.97, 77.59, 10f);
+    }
+}
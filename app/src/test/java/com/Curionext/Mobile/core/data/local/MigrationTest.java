@@ -0,0 +1,205 @@
+package com.curionext.mobile.core.data.local;
+
+import com.curionext.mobile.core.util.Constants;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Runs every Migrations step on the schema file of its start version (see
+ * RoomSchema) and checks the result against the file of the next version, then upgrades
+ * one database from version 1 and checks the device-owned rows are still there.
+ */
+public class MigrationTest {
+
+    private static final String CHILD_ID = "child_1";
+    private static final String[] DEVICE_OWNED = {
+            "children", "locations", "location_outbox", "location_rollups", "stay_points", "trips"
+    };
+
+    private final List<Connection> connections = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        assertEquals(Constants.DB_VERSION - 1, Migrations.STEPS.length);
+        assertEquals(Constants.DB_VERSION - 1, Migrations.all().length);
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        for (Connection connection : connections) {
+            connection.close();
+        }
+    }
+
+    @Test
+    public void eachStepProducesTheNextSchema() throws Exception {
+        for (int version = 1; version < Constants.DB_VERSION; version++) {
+            Connection migrated = open(version);
+            migrate(migrated, version, version + 1);
+
+            assertEquals("migration " + version + " -> " + (version + 1),
+                    describe(open(version + 1)), describe(migrated));
+        }
+    }
+
+    @Test
+    public void deviceOwnedRowsSurviveEveryUpgrade() throws Exception {
+        Connection connection = open(1);
+        insertRow(connection, "children");
+        insertRow(connection, "locations");
+        insertRow(connection, "interests");
+        insertRow(connection, "preferences");
+
+        for (int version = 1; version < Constants.DB_VERSION; version++) {
+            migrate(connection, version, version + 1);
+            // Fill each table as it appears, so later steps have to carry its row forward
+            for (String table : DEVICE_OWNED) {
+                if (exists(connection, table) && count(connection, table) == 0) {
+                    insertRow(connection, table);
+                }
+            }
+            if (version + 1 == 7) {
+                cacheKey(connection, "interests/" + CHILD_ID);
+                cacheKey(connection, "safe_zones/" + CHILD_ID);
+            }
+        }
+
+        for (String table : DEVICE_OWNED) {
+            assertEquals(table, 1, count(connection, table));
+        }
+        // Server copies stored in an old format are refetched
+        assertEquals(0, count(connection, "interests"));
+        assertEquals(0, count(connection, "preferences"));
+        assertEquals(1, count(connection, "cache_metadata"));
+    }
+
+    private Connection open(int version) throws Exception {
+        Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        connections.add(connection);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PRAGMA foreign_keys = ON");
+        }
+        RoomSchema.create(connection, version);
+        return connection;
+    }
+
+    private static void migrate(Connection connection, int from, int to) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (int version = from; version < to; version++) {
+                for (String sql : Migrations.STEPS[version - 1]) {
+                    statement.execute(sql);
+                }
+            }
+        }
+    }
+
+    // Columns compared as a set, as Room's own validation does; ALTER TABLE appends at the end
+    private static Map<String, String> describe(Connection connection) throws SQLException {
+        Map<String, String> objects = new TreeMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT type, name, sql FROM sqlite_master"
+                     + " WHERE name NOT LIKE 'sqlite_%'")) {
+            while (rows.next()) {
+                String name = rows.getString(2);
+                String sql = rows.getString(3);
+                boolean plainTable = rows.getString(1).equals("table") && !sql.startsWith("CREATE VIRTUAL");
+                objects.put(rows.getString(1) + " " + name, plainTable ? describeTable(connection, name) : sql);
+            }
+        }
+        return objects;
+    }
+
+    private static String describeTable(Connection connection, String table) throws SQLException {
+        List<String> parts = new ArrayList<>();
+        try (Statement statement = connection.createStatement()) {
+            try (ResultSet columns = statement.executeQuery("PRAGMA table_info(`" + table + "`)")) {
+                while (columns.next()) {
+                    parts.add(columns.getString("name") + " " + columns.getString("type")
+                            + " notnull=" + columns.getInt("notnull") + " default=" + columns.getString("dflt_value")
+                            + " pk=" + columns.getInt("pk"));
+                }
+            }
+            try (ResultSet keys = statement.executeQuery("PRAGMA foreign_key_list(`" + table + "`)")) {
+                while (keys.next()) {
+                    parts.add("fk " + keys.getString("from") + " -> " + keys.getString("table")
+                            + "." + keys.getString("to") + " on delete " + keys.getString("on_delete"));
+                }
+            }
+        }
+        parts.sort(null);
+        return String.join(", ", parts);
+    }
+
+    // One row with a value for every column; child_id always points at the one child
+    private static void insertRow(Connection connection, String table) throws SQLException {
+        List<String> names = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet columns = statement.executeQuery("PRAGMA table_info(`" + table + "`)")) {
+            while (columns.next()) {
+                String name = columns.getString("name");
+                String type = columns.getString("type");
+                names.add("`" + name + "`");
+                if (name.equals("child_id")) {
+                    values.add(CHILD_ID);
+                } else if (type.equals("TEXT")) {
+                    values.add(table + "_" + name);
+                } else if (type.equals("REAL")) {
+                    values.add(1.5);
+                } else {
+                    values.add(1L);
+                }
+            }
+        }
+        String placeholders = String.join(", ", Collections.nCopies(names.size(), "?"));
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO `" + table + "` ("
+                + String.join(", ", names) + ") VALUES (" + placeholders + ")")) {
+            for (int i = 0; i < values.size(); i++) {
+                insert.setObject(i + 1, values.get(i));
+            }
+            insert.executeUpdate();
+        }
+    }
+
+    private static void cacheKey(Connection connection, String key) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO cache_metadata (cache_key, fetched_at) VALUES (?, 0)")) {
+            insert.setString(1, key);
+            insert.executeUpdate();
+        }
+    }
+
+    private static boolean exists(Connection connection, String table) throws SQLException {
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = ?")) {
+            query.setString(1, table);
+            try (ResultSet rows = query.executeQuery()) {
+                return rows.next();
+            }
+        }
+    }
+
+    private static int count(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT COUNT(*) FROM `" + table + "`")) {
+            rows.next();
+            return rows.getInt(1);
+        }
+    }
+}
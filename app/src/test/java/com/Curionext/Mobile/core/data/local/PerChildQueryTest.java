@@ -0,0 +1,118 @@
+package com.curionext.mobile.core.data.local;
+
+import com.curionext.mobile.core.util.Constants;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Runs PerChildQuery's compound SELECT against the exported schema, checking
+ * that each child is capped separately and read through its own index range.
+ */
+public class PerChildQueryTest {
+
+    private static final List<String> CHILDREN = Arrays.asList("c", "a", "b");
+    private static final int LIMIT = 5;
+
+    private static Connection connection;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        RoomSchema.create(connection, Constants.DB_VERSION);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO children (child_id) VALUES ('a'), ('b'), ('c'), ('d')");
+        }
+        // a has more than LIMIT interests, b fewer, c none; d must never show up
+        insertInterests("a", 12);
+        insertInterests("b", 3);
+        insertInterests("d", 8);
+    }
+
+    @AfterClass
+    public static void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    public void eachChildGetsItsOwnLimitInTheOrderGiven() throws SQLException {
+        List<String[]> rows = new ArrayList<>();
+        String sql = "SELECT child_id, interest_level FROM ("
+                + PerChildQuery.sql("interests", "interest_level DESC", CHILDREN.size()) + ")";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            bind(statement);
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    rows.add(new String[]{result.getString(1), result.getString(2)});
+                }
+            }
+        }
+
+        assertEquals(LIMIT + 3, rows.size());
+        for (int i = 0; i < LIMIT; i++) {
+            assertEquals("a", rows.get(i)[0]);
+            assertEquals(12.0 - i, Double.parseDouble(rows.get(i)[1]), 0);
+        }
+        for (int i = LIMIT; i < rows.size(); i++) {
+            assertEquals("b", rows.get(i)[0]);
+        }
+    }
+
+    @Test
+    public void everyChildIsAnIndexSeek() throws SQLException {
+        for (String[] table : new String[][]{{"interests", "interest_level DESC"}, {"notifications", "timestamp DESC"}}) {
+            List<String> plan = new ArrayList<>();
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "EXPLAIN QUERY PLAN " + PerChildQuery.sql(table[0], table[1], CHILDREN.size()))) {
+                bind(statement);
+                try (ResultSet result = statement.executeQuery()) {
+                    while (result.next()) {
+                        plan.add(result.getString("detail"));
+                    }
+                }
+            }
+            int seeks = 0;
+            for (String step : plan) {
+                assertFalse(String.join(" | ", plan), step.startsWith("SCAN " + table[0]));
+                assertFalse(String.join(" | ", plan), step.contains("TEMP B-TREE"));
+                if (step.startsWith("SEARCH " + table[0])) {
+                    seeks++;
+                }
+            }
+            assertEquals(String.join(" | ", plan), CHILDREN.size(), seeks);
+        }
+    }
+
+    private static void bind(PreparedStatement statement) throws SQLException {
+        for (int i = 0; i < CHILDREN.size(); i++) {
+            statement.setString(i * 2 + 1, CHILDREN.get(i));
+            statement.setInt(i * 2 + 2, LIMIT);
+        }
+    }
+
+    private static void insertInterests(String childId, int count) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO interests (id, child_id, interest_level, frequency) VALUES (?, ?, ?, 1)")) {
+            for (int i = 1; i <= count; i++) {
+                statement.setString(1, childId + i);
+                statement.setString(2, childId);
+                statement.setDouble(3, i);
+                statement.executeUpdate();
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.curionext.mobile.core.data.local;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Creates the tables, indices, FTS sync triggers and views of one schema file
+ * under schemas/ on a plain JDBC SQLite connection.
+ * The files are in Room's export format but were reconstructed from the entity
+ * sources of each version, not written by the annotation processor, so they
+ * have no identityHash or setupQueries. A build with room.schemaLocation set
+ * rewrites the file of the current version; any difference it shows in git is
+ * a mistake in the reconstruction.
+ */
+final class RoomSchema {
+
+    private static final String SCHEMA_DIR = "schemas/com.curionext.mobile.core.data.local.CurioNextDatabase";
+
+    private RoomSchema() {
+        throw new UnsupportedOperationException("RoomSchema class cannot be instantiated");
+    }
+
+    static void create(Connection connection, int version) throws IOException, SQLException {
+        File schemaFile = new File(SCHEMA_DIR, version + ".json");
+        assertTrue("No schema file for version " + version + ": " + schemaFile.getAbsolutePath(), schemaFile.exists());
+        JsonObject database = JsonParser.parseString(
+                new String(Files.readAllBytes(schemaFile.toPath()), StandardCharsets.UTF_8))
+                .getAsJsonObject().getAsJsonObject("database");
+
+        try (Statement statement = connection.createStatement()) {
+            for (JsonElement element : database.getAsJsonArray("entities")) {
+                JsonObject entity = element.getAsJsonObject();
+                String table = entity.get("tableName").getAsString();
+                statement.execute(tableSql(entity.get("createSql").getAsString(), table));
+                execAll(statement, entity.getAsJsonArray("indices"), table);
+                execAll(statement, entity.getAsJsonArray("contentSyncTriggers"), table);
+            }
+            if (database.has("views")) {
+                for (JsonElement element : database.getAsJsonArray("views")) {
+                    JsonObject view = element.getAsJsonObject();
+                    statement.execute(view.get("createSql").getAsString()
+                            .replace("${VIEW_NAME}", view.get("viewName").getAsString()));
+                }
+            }
+        }
+    }
+
+    private static void execAll(Statement statement, JsonArray items, String table) throws SQLException {
+        if (items == null) {
+            return;
+        }
+        for (JsonElement item : items) {
+            String sql = item.isJsonObject() ? item.getAsJsonObject().get("createSql").getAsString() : item.getAsString();
+            statement.execute(tableSql(sql, table));
+        }
+    }
+
+    private static String tableSql(String sql, String table) {
+        return sql.replace("${TABLE_NAME}", table);
+    }
+}
@@ -0,0 +1,201 @@
+package com.curionext.mobile.core.data.local;
+
+import com.curionext.mobile.core.data.local.entity.NotificationEntity;
+import com.curionext.mobile.core.data.local.entity.RowVersion;
+import com.curionext.mobile.core.data.mapper.NotificationMapper;
+import com.curionext.mobile.core.data.model.NotificationItem;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Single;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SyncWriterTest {
+
+    private static final String CHILD_ID = "child";
+
+    // Stand-in for the notifications table of one child
+    private final Map<String, NotificationEntity> table = new LinkedHashMap<>();
+    private int statements;
+    private int rowsWritten;
+    private int largestDelete;
+
+    @Before
+    public void setUp() {
+        table.clear();
+        statements = 0;
+        rowsWritten = 0;
+        largestDelete = 0;
+    }
+
+    @Test
+    public void firstSyncInsertsEverything() {
+        SyncWriter.Result result = sync(server(50));
+
+        assertEquals(50, result.getInserted());
+        assertEquals(50, result.getTouched());
+        assertEquals(50, table.size());
+    }
+
+    @Test
+    public void identicalResyncWritesNothing() {
+        sync(server(200));
+        statements = 0;
+        rowsWritten = 0;
+
+        SyncWriter.Result result = sync(server(200));
+
+        assertEquals(0, result.getTouched());
+        assertEquals(200, result.getUnchanged());
+        assertEquals(0, statements);
+        assertEquals(0, rowsWritten);
+    }
+
+    @Test
+    public void onlyChangedAndVanishedRowsAreWritten() {
+        sync(server(100));
+        rowsWritten = 0;
+
+        List<NotificationItem> next = server(100);
+        next.get(3).setRead(true);
+        next.get(40).setTitle("Renamed");
+        next.remove(99);
+        next.remove(98);
+        next.add(item(500));
+
+        SyncWriter.Result result = sync(next);
+
+        assertEquals(1, result.getInserted());
+        assertEquals(2, result.getUpdated());
+        assertEquals(2, result.getDeleted());
+        assertEquals(96, result.getUnchanged());
+        assertEquals(5, rowsWritten);
+        assertTrue(table.get("n3").isRead());
+        assertEquals("Renamed", table.get("n40").getTitle());
+        assertEquals(99, table.size());
+    }
+
+    @Test
+    public void unchangedRowsKeepLocalEdits() {
+        sync(server(10));
+        // Marked read on the device; the server copy has not changed since the last sync
+        table.get("n5").setRead(true);
+
+        sync(server(10));
+
+        assertTrue(table.get("n5").isRead());
+    }
+
+    @Test
+    public void deletesAreBatchedUnderTheVariableLimit() {
+        sync(server(1200));
+
+        SyncWriter.Result result = sync(server(0));
+
+        assertEquals(1200, result.getDeleted());
+        assertTrue(table.isEmpty());
+        assertTrue(largestDelete <= 500);
+    }
+
+    @Test
+    public void repeatedIdKeepsTheLastCopy() {
+        NotificationItem first = item(1);
+        NotificationItem second = item(1);
+        second.setTitle("Second");
+
+        SyncWriter.Result result = sync(Arrays.asList(first, second));
+
+        assertEquals(1, result.getInserted());
+        assertEquals("Second", table.get("n1").getTitle());
+    }
+
+    @Test
+    public void hashCoversServerFieldsOnly() {
+        NotificationItem notification = item(7);
+        notification.setTimestamp(null); // The entity falls back to "now"
+        long hash = NotificationMapper.toEntity(CHILD_ID, notification).getContentHash();
+
+        assertEquals(hash, NotificationMapper.toEntity(CHILD_ID, notification).getContentHash());
+        notification.setMetadata("{\"zone\":\"school\"}");
+        assertNotEquals(hash, NotificationMapper.toEntity(CHILD_ID, notification).getContentHash());
+    }
+
+    private SyncWriter.Result sync(List<NotificationItem> items) {
+        List<NotificationEntity> fresh = new ArrayList<>();
+        for (NotificationItem item : items) {
+            fresh.add(NotificationMapper.toEntity(CHILD_ID, item));
+        }
+        return SyncWriter.sync(fresh, Single.fromCallable(this::versions), this::insert, this::update, this::delete);
+    }
+
+    private List<RowVersion> versions() {
+        List<RowVersion> versions = new ArrayList<>();
+        for (NotificationEntity row : table.values()) {
+            versions.add(new RowVersion(row.getId(), row.getContentHash()));
+        }
+        return versions;
+    }
+
+    private Completable insert(List<NotificationEntity> rows) {
+        return Completable.fromAction(() -> {
+            statements++;
+            for (NotificationEntity row : rows) {
+                assertTrue("insert of stored row " + row.getId(), table.put(row.getId(), row) == null);
+                rowsWritten++;
+            }
+        });
+    }
+
+    private Completable update(List<NotificationEntity> rows) {
+        return Completable.fromAction(() -> {
+            statements++;
+            for (NotificationEntity row : rows) {
+                assertTrue("update of missing row " + row.getId(), table.put(row.getId(), row) != null);
+                rowsWritten++;
+            }
+        });
+    }
+
+    private Completable delete(List<String> ids) {
+        return Completable.fromAction(() -> {
+            statements++;
+            largestDelete = Math.max(largestDelete, ids.size());
+            for (String id : ids) {
+                assertTrue("delete of missing row " + id, table.remove(id) != null);
+                rowsWritten++;
+            }
+        });
+    }
+
+    private static List<NotificationItem> server(int count) {
+        List<NotificationItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(item(i));
+        }
+        return items;
+    }
+
+    private static NotificationItem item(int i) {
+        NotificationItem item = new NotificationItem();
+        item.setId("n" + i);
+        item.setTitle("Title " + i);
+        item.setDescription("Something happened, entry " + i);
+        item.setType("interest");
+        item.setCategory("learning");
+        item.setTimestamp(new Date(1700000000000L + i * 60000L));
+        item.setPriority(i % 10 == 0 ? "urgent" : "medium");
+        return item;
+    }
+}
@@ -0,0 +1,116 @@
+package com.curionext.mobile.core.data.mapper;
+
+import com.curionext.mobile.core.data.local.entity.InterestEntity;
+import com.curionext.mobile.core.data.local.entity.PreferenceEntity;
+import com.curionext.mobile.core.data.model.Interest;
+import com.curionext.mobile.core.data.model.Preference;
+
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class KeywordCodecTest {
+
+    @Test
+    public void roundTripsAwkwardKeywords() {
+        String[][] cases = {
+                {},
+                {""},
+                {"", ""},
+                {"space"},
+                {"rocks, minerals", "t-rex"},
+                {"\"quoted\"", "[bracket]", "back\\slash", "trailing\\"},
+                {"sep\u001Farated", "\u001F", "\\\u001F"},
+                {"café", "恐竜", "🦖"},
+        };
+        for (String[] keywords : cases) {
+            String stored = KeywordCodec.encode(keywords);
+            assertArrayEquals(stored, keywords, KeywordCodec.decode(stored));
+            assertEquals(keywords.length, KeywordCodec.count(stored));
+        }
+    }
+
+    @Test
+    public void nullsAndDamagedValuesDecodeLeniently() {
+        assertNull(KeywordCodec.encode(null));
+        assertArrayEquals(new String[0], KeywordCodec.decode(null));
+        assertArrayEquals(new String[]{"a", ""}, KeywordCodec.decode(KeywordCodec.encode(new String[]{"a", null})));
+        // Unterminated last keyword and a dangling escape
+        assertArrayEquals(new String[]{"a", "b"}, KeywordCodec.decode("a\u001Fb"));
+        assertArrayEquals(new String[]{"a\\"}, KeywordCodec.decode("a\\"));
+        assertEquals(1, KeywordCodec.count("a\\"));
+    }
+
+    @Test
+    public void mappedModelsDecodeOnFirstRead() {
+        InterestEntity entity = new InterestEntity("i1", "child", "Dinosaurs", "science", 5);
+        entity.setKeywords(KeywordCodec.encode(new String[]{"t-rex", "fossils, bones"}));
+
+        Interest interest = InterestMapper.toModel(entity);
+        String[] keywords = interest.getKeywords();
+
+        assertArrayEquals(new String[]{"t-rex", "fossils, bones"}, keywords);
+        assertSame(keywords, interest.getKeywords());
+        assertEquals(entity.getKeywords(), InterestMapper.toEntity("child", interest).getKeywords());
+
+        entity.setKeywords(null);
+        assertArrayEquals(new String[0], InterestMapper.toModel(entity).getKeywords());
+    }
+
+    @Test
+    public void mappedListsLeaveKeywordsUndecodedUntilRead() throws Exception {
+        String stored = KeywordCodec.encode(new String[]{"space", "rocks, minerals"});
+        PreferenceEntity preferenceEntity = new PreferenceEntity("p1", "child", "Space", 0.8, 0.9, "science");
+        preferenceEntity.setKeywords(stored);
+        InterestEntity interestEntity = new InterestEntity("i1", "child", "Rocks", "science", 7);
+        interestEntity.setKeywords(stored);
+
+        // What a list screen showing topics only does
+        Preference preference = PreferenceMapper.toModels(Collections.singletonList(preferenceEntity)).get(0);
+        Interest interest = InterestMapper.toModels(Collections.singletonList(interestEntity)).get(0);
+        assertEquals("Space", preference.getTopic());
+        assertEquals("Rocks", interest.getTopic());
+        assertEquals(stored, undecoded(preference));
+        assertEquals(stored, undecoded(interest));
+
+        assertArrayEquals(new String[]{"space", "rocks, minerals"}, preference.getKeywords());
+        assertNull(undecoded(preference));
+        assertEquals(stored, undecoded(interest));
+    }
+
+    @Test
+    public void storedTextTokenizesAsTheKeywords() throws Exception {
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE VIRTUAL TABLE fts USING fts4(keywords, tokenize=unicode61)");
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO fts (keywords) VALUES (?)")) {
+                insert.setString(1, KeywordCodec.encode(new String[]{"volcano", "rocks, minerals", "back\\slash"}));
+                insert.executeUpdate();
+            }
+            for (String match : new String[]{"volcano", "minerals", "rocks", "slash", "volc*"}) {
+                try (ResultSet result = statement.executeQuery(
+                        "SELECT COUNT(*) FROM fts WHERE fts MATCH '" + match + "'")) {
+                    assertEquals(match, 1, result.getInt(1));
+                }
+            }
+        }
+    }
+
+    // The column text a mapped model holds until its first getKeywords(); null once decoded
+    private static String undecoded(Object model) throws ReflectiveOperationException {
+        Field field = model.getClass().getDeclaredField("storedKeywords");
+        field.setAccessible(true);
+        return (String) field.get(model);
+    }
+}
@@ -0,0 +1,125 @@
+package com.curionext.mobile.core.data.mapper;
+
+import com.curionext.mobile.core.data.local.entity.InterestEntity;
+import com.curionext.mobile.core.data.local.entity.PreferenceEntity;
+import com.curionext.mobile.core.data.model.Interest;
+import com.curionext.mobile.core.data.model.Preference;
+import com.google.gson.Gson;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Keyword decode cost per 10k preference/interest rows: the compact codec
+ * against the JSON arrays the columns held before, and mapping a list with
+ * lazy decoding against decoding every row up front. Reports timings only;
+ * correctness is covered by KeywordCodecTest. Excluded from the unit test run, use
+ * ./gradlew testDebugUnitTest -Pbenchmarks --tests '*KeywordDecodeBenchmark'
+ */
+public class KeywordDecodeBenchmark {
+
+    private static final int ROWS = 10000;
+    private static final int ROUNDS = 20;
+    private static final String[] WORDS = {"space", "rocket", "planets", "dinosaurs", "fossils", "t-rex",
+            "drawing", "colours", "music", "piano", "rocks, minerals", "\"lego\"", "football", "volcano"};
+
+    private static final Gson GSON = new Gson();
+
+    private static List<String> compact;
+    private static List<String> json;
+    private static List<PreferenceEntity> preferences;
+    private static List<InterestEntity> interests;
+
+    @BeforeClass
+    public static void setUp() {
+        Random random = new Random(23);
+        compact = new ArrayList<>(ROWS);
+        json = new ArrayList<>(ROWS);
+        preferences = new ArrayList<>(ROWS);
+        interests = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            String[] row = new String[2 + random.nextInt(6)];
+            for (int k = 0; k < row.length; k++) {
+                row[k] = WORDS[random.nextInt(WORDS.length)];
+            }
+            compact.add(KeywordCodec.encode(row));
+            json.add(GSON.toJson(row));
+
+            PreferenceEntity preference = new PreferenceEntity("p" + i, "child", "Topic " + i,
+                    random.nextDouble() * 2 - 1, random.nextDouble(), "science");
+            preference.setKeywords(compact.get(i));
+            preferences.add(preference);
+            InterestEntity interest = new InterestEntity("i" + i, "child", "Topic " + i, "science",
+                    random.nextDouble() * 10);
+            interest.setKeywords(compact.get(i));
+            interests.add(interest);
+        }
+    }
+
+    @Test
+    public void compactDecodeVersusJson() {
+        double gsonMillis = 0;
+        double compactMillis = 0;
+        int sink = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (String stored : json) {
+                sink += GSON.fromJson(stored, String[].class).length;
+            }
+            gsonMillis += (System.nanoTime() - start) / 1e6;
+
+            start = System.nanoTime();
+            for (String stored : compact) {
+                sink += KeywordCodec.decode(stored).length;
+            }
+            compactMillis += (System.nanoTime() - start) / 1e6;
+        }
+        gsonMillis /= ROUNDS;
+        compactMillis /= ROUNDS;
+
+        System.out.printf("Decode %d keyword columns: Gson JSON %.2f ms, compact %.2f ms (%.1fx)%n",
+                ROWS, gsonMillis, compactMillis, gsonMillis / compactMillis);
+        if (sink == 0) {
+            throw new IllegalStateException("nothing was decoded");
+        }
+    }
+
+    @Test
+    public void lazyVersusEagerMapping() {
+        double eagerMillis = 0;
+        double lazyMillis = 0;
+        int sink = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (Preference preference : PreferenceMapper.toModels(preferences)) {
+                sink += preference.getKeywords().length;
+            }
+            for (Interest interest : InterestMapper.toModels(interests)) {
+                sink += interest.getKeywords().length;
+            }
+            eagerMillis += (System.nanoTime() - start) / 1e6;
+
+            // What a list screen showing topic and sentiment only does
+            start = System.nanoTime();
+            for (Preference preference : PreferenceMapper.toModels(preferences)) {
+                sink += preference.getTopic().length();
+            }
+            for (Interest interest : InterestMapper.toModels(interests)) {
+                sink += interest.getTopic().length();
+            }
+            lazyMillis += (System.nanoTime() - start) / 1e6;
+        }
+        eagerMillis /= ROUNDS;
+        lazyMillis /= ROUNDS;
+
+        System.out.printf("Map %d preferences + %d interests: keywords read %.2f ms, keywords untouched %.2f ms%n",
+                ROWS, ROWS, eagerMillis, lazyMillis);
+        if (sink == 0) {
+            throw new IllegalStateException("nothing was mapped");
+        }
+    }
+}
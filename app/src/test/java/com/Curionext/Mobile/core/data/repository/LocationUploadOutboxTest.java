@@ -0,0 +1,280 @@
+package com.curionext.mobile.core.data.repository;
+
+import com.curionext.mobile.core.data.local.dao.LocationOutboxDao;
+import com.curionext.mobile.core.data.local.entity.LocationOutboxEntity;
+import com.curionext.mobile.core.data.model.LocationData;
+import com.curionext.mobile.core.network.ApiService;
+import com.curionext.mobile.core.util.Constants;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonParser;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import io.reactivex.rxjava3.schedulers.TestScheduler;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import retrofit2.Retrofit;
+import retrofit2.adapter.rxjava3.RxJava3CallAdapterFactory;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class LocationUploadOutboxTest {
+
+    private static final String CHILD_ID = "child_1";
+
+    private MockWebServer server;
+    private ApiService apiService;
+    private InMemoryOutboxDao outboxDao;
+    private AtomicLong now;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        apiService = new Retrofit.Builder()
+                .baseUrl(server.url("/api/"))
+                .addConverterFactory(GsonConverterFactory.create())
+                .addCallAdapterFactory(RxJava3CallAdapterFactory.create())
+                .build()
+                .create(ApiService.class);
+        outboxDao = new InMemoryOutboxDao();
+        now = new AtomicLong(1_700_000_000_000L);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void fullBatchIsUploadedGzippedWithIdempotencyKey() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(200));
+        LocationUploadOutbox outbox = newOutbox();
+
+        for (int i = 0; i < Constants.OUTBOX_BATCH_SIZE; i++) {
+            outbox.enqueue(CHILD_ID, new LocationData(CHILD_ID, 12.9 + i * 1e-4, 77.5, 10f)).blockingAwait();
+        }
+
+        RecordedRequest request = server.takeRequest(1, TimeUnit.SECONDS);
+        assertNotNull(request);
+        assertEquals("/api/locations/" + CHILD_ID + "/batch", request.getPath());
+        assertEquals("gzip", request.getHeader("Content-Encoding"));
+        assertNotNull(request.getHeader("Idempotency-Key"));
+
+        JsonArray batch = JsonParser.parseReader(new InputStreamReader(
+                new GZIPInputStream(request.getBody().inputStream()), StandardCharsets.UTF_8)).getAsJsonArray();
+        assertEquals(Constants.OUTBOX_BATCH_SIZE, batch.size());
+        assertEquals(0, outboxDao.entries.size());
+    }
+
+    @Test
+    public void enqueueCompletesBeforeTheUpload() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(200));
+        TestScheduler flushScheduler = new TestScheduler();
+        LocationUploadOutbox outbox = newOutbox(flushScheduler);
+
+        for (int i = 0; i < Constants.OUTBOX_BATCH_SIZE; i++) {
+            outbox.enqueue(CHILD_ID, new LocationData(CHILD_ID, 12.9 + i * 1e-4, 77.5, 10f)).blockingAwait();
+        }
+        assertEquals(Constants.OUTBOX_BATCH_SIZE, outboxDao.entries.size());
+        assertEquals(0, server.getRequestCount());
+
+        flushScheduler.triggerActions();
+
+        assertEquals(1, server.getRequestCount());
+        assertEquals(0, outboxDao.entries.size());
+    }
+
+    @Test
+    public void partialBatchWaitsForMaxAge() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(200));
+        LocationUploadOutbox outbox = newOutbox();
+
+        outbox.enqueue(CHILD_ID, new LocationData(CHILD_ID, 12.9, 77.5, 10f)).blockingAwait();
+        assertEquals(0, server.getRequestCount());
+
+        now.addAndGet(Constants.OUTBOX_MAX_AGE);
+        outbox.flushDue().blockingAwait();
+
+        assertEquals(1, server.getRequestCount());
+        assertEquals(0, outboxDao.entries.size());
+    }
+
+    @Test
+    public void failedBatchBacksOffAndRetriesWithSameKeyAfterRestart() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setResponseCode(200));
+
+        LocationUploadOutbox outbox = newOutbox();
+        outbox.enqueue(CHILD_ID, new LocationData(CHILD_ID, 12.9, 77.5, 10f)).blockingAwait();
+        outbox.flushAll().blockingAwait();
+        String firstKey = server.takeRequest().getHeader("Idempotency-Key");
+        assertEquals(1, outboxDao.entries.size());
+
+        // Still inside the backoff window: nothing is sent
+        outbox.flushAll().blockingAwait();
+        assertEquals(1, server.getRequestCount());
+
+        // A fresh instance over the same table stands in for a restarted process
+        LocationUploadOutbox restarted = newOutbox();
+        now.addAndGet(LocationUploadOutbox.backoffDelay(1));
+        restarted.flushDue().blockingAwait();
+
+        assertEquals(firstKey, server.takeRequest().getHeader("Idempotency-Key"));
+        assertEquals(0, outboxDao.entries.size());
+    }
+
+    @Test
+    public void rejectedBatchIsDropped() {
+        server.enqueue(new MockResponse().setResponseCode(422));
+        LocationUploadOutbox outbox = newOutbox();
+
+        outbox.enqueue(CHILD_ID, new LocationData(CHILD_ID, 12.9, 77.5, 10f)).blockingAwait();
+        outbox.flushAll().blockingAwait();
+
+        assertEquals(0, outboxDao.entries.size());
+    }
+
+    @Test
+    public void backoffDoublesUpToCap() {
+        assertEquals(Constants.OUTBOX_BASE_BACKOFF, LocationUploadOutbox.backoffDelay(1));
+        assertEquals(2 * Constants.OUTBOX_BASE_BACKOFF, LocationUploadOutbox.backoffDelay(2));
+        assertEquals(Constants.OUTBOX_MAX_BACKOFF, LocationUploadOutbox.backoffDelay(30));
+    }
+
+    private LocationUploadOutbox newOutbox() {
+        return newOutbox(Schedulers.trampoline());
+    }
+
+    private LocationUploadOutbox newOutbox(Scheduler flushScheduler) {
+        return new LocationUploadOutbox(outboxDao, apiService, new Gson(), now::get, flushScheduler);
+    }
+
+    /**
+     * Mirrors the SQL in LocationOutboxDao over a list
+     */
+    private static class InMemoryOutboxDao implements LocationOutboxDao {
+        final List<LocationOutboxEntity> entries = new ArrayList<>();
+        private long nextId = 1;
+
+        @Override
+        public Completable insertEntry(LocationOutboxEntity entry) {
+            return Completable.fromAction(() -> {
+                entry.setId(nextId++);
+                entries.add(entry);
+            });
+        }
+
+        @Override
+        public Single<List<String>> getChildrenWithUnbatchedEntries() {
+            return Single.fromCallable(() -> {
+                Set<String> children = new LinkedHashSet<>();
+                for (LocationOutboxEntity entry : entries) {
+                    if (entry.getBatchId() == null) {
+                        children.add(entry.getChildId());
+                    }
+                }
+                return new ArrayList<>(children);
+            });
+        }
+
+        @Override
+        public Single<List<LocationOutboxEntity>> getUnbatchedEntries(String childId, int limit) {
+            return Single.fromCallable(() -> {
+                List<LocationOutboxEntity> result = new ArrayList<>();
+                for (LocationOutboxEntity entry : entries) {
+                    if (result.size() < limit && entry.getBatchId() == null && childId.equals(entry.getChildId())) {
+                        result.add(entry);
+                    }
+                }
+                return result;
+            });
+        }
+
+        @Override
+        public Single<List<String>> getDueBatchIds(Date now) {
+            return Single.fromCallable(() -> {
+                Set<String> batchIds = new LinkedHashSet<>();
+                for (LocationOutboxEntity entry : entries) {
+                    if (entry.getBatchId() != null
+                            && (entry.getNextAttemptAt() == null || !entry.getNextAttemptAt().after(now))) {
+                        batchIds.add(entry.getBatchId());
+                    }
+                }
+                return new ArrayList<>(batchIds);
+            });
+        }
+
+        @Override
+        public Single<List<LocationOutboxEntity>> getBatchEntries(String batchId) {
+            return Single.fromCallable(() -> {
+                List<LocationOutboxEntity> result = new ArrayList<>();
+                for (LocationOutboxEntity entry : entries) {
+                    if (batchId.equals(entry.getBatchId())) {
+                        result.add(entry);
+                    }
+                }
+                return result;
+            });
+        }
+
+        @Override
+        public Completable assignBatch(String batchId, List<Long> entryIds) {
+            return Completable.fromAction(() -> {
+                for (LocationOutboxEntity entry : entries) {
+                    if (entryIds.contains(entry.getId())) {
+                        entry.setBatchId(batchId);
+                    }
+                }
+            });
+        }
+
+        @Override
+        public Completable markBatchFailed(String batchId, Date nextAttemptAt) {
+            return Completable.fromAction(() -> {
+                for (LocationOutboxEntity entry : entries) {
+                    if (batchId.equals(entry.getBatchId())) {
+                        entry.setAttempts(entry.getAttempts() + 1);
+                        entry.setNextAttemptAt(nextAttemptAt);
+                    }
+                }
+            });
+        }
+
+        @Override
+        public Completable deleteBatch(String batchId) {
+            return Completable.fromAction(() -> entries.removeIf(entry -> batchId.equals(entry.getBatchId())));
+        }
+
+        @Override
+        public Single<Integer> getPendingCount() {
+            return Single.fromCallable(entries::size);
+        }
+
+        @Override
+        public Completable deleteAllEntries() {
+            return Completable.fromAction(entries::clear);
+        }
+    }
+}
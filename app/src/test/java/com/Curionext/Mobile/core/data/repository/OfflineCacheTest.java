@@ -0,0 +1,237 @@
+package com.curionext.mobile.core.data.repository;
+
+import com.curionext.mobile.core.data.local.dao.CacheMetadataDao;
+import com.curionext.mobile.core.data.local.entity.CacheMetadataEntity;
+import com.curionext.mobile.core.util.Constants;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.processors.BehaviorProcessor;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The four paths of each read over an in-memory store and cache_metadata:
+ * fresh copy, expired copy with a refresh, expired copy with a failing
+ * refresh, and nothing fetched yet.
+ */
+public class OfflineCacheTest {
+
+    private static final String KEY = "interests/child_1";
+    private static final String OTHER_KEY = "interests/child_2";
+
+    private final Map<String, CacheMetadataEntity> metadata = new HashMap<>();
+    private final AtomicInteger remoteCalls = new AtomicInteger();
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+    private CacheMetadataDao dao;
+    private OfflineCache cache;
+    private String stored;
+
+    @Before
+    public void setUp() {
+        dao = (CacheMetadataDao) Proxy.newProxyInstance(CacheMetadataDao.class.getClassLoader(),
+                new Class<?>[]{CacheMetadataDao.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getEntry":
+                            return Maybe.fromCallable(() -> metadata.get((String) args[0]));
+                        case "getEntries":
+                            return Single.fromCallable(() -> {
+                                List<CacheMetadataEntity> entries = new ArrayList<>();
+                                for (Object key : (List<?>) args[0]) {
+                                    if (metadata.containsKey(key)) {
+                                        entries.add(metadata.get(key));
+                                    }
+                                }
+                                return entries;
+                            });
+                        case "insertEntries":
+                            return Completable.fromAction(() -> {
+                                for (Object entry : (List<?>) args[0]) {
+                                    CacheMetadataEntity metadataEntry = (CacheMetadataEntity) entry;
+                                    metadata.put(metadataEntry.getCacheKey(), metadataEntry);
+                                }
+                            });
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        cache = new OfflineCache(Runnable::run, dao, now::get);
+    }
+
+    @Test
+    public void loadServesFreshCopyWithoutNetwork() {
+        cached("stored", 0);
+
+        load(remote("server")).test().assertValues("stored").assertComplete();
+        assertEquals(0, remoteCalls.get());
+    }
+
+    @Test
+    public void loadServesExpiredCopyThenRefreshes() {
+        cached("stored", Constants.CACHE_EXPIRY_TIME);
+
+        load(remote("server")).test().assertValues("stored", "server").assertComplete();
+        assertEquals("server", stored);
+        assertEquals(now.get(), metadata.get(KEY).getFetchedAt().getTime());
+    }
+
+    @Test
+    public void loadKeepsExpiredCopyWhenRefreshFails() {
+        cached("stored", Constants.CACHE_EXPIRY_TIME);
+
+        load(failing()).test().assertValues("stored").assertComplete();
+        assertEquals("stored", stored);
+        assertEquals(now.get() - Constants.CACHE_EXPIRY_TIME, metadata.get(KEY).getFetchedAt().getTime());
+    }
+
+    @Test
+    public void loadWithoutCacheWaitsForNetwork() {
+        load(remote("server")).test().assertValues("server").assertComplete();
+        assertEquals(now.get(), metadata.get(KEY).getFetchedAt().getTime());
+
+        metadata.clear();
+        load(failing()).test().assertNoValues().assertError(IOException.class);
+    }
+
+    @Test
+    public void observeServesFreshCopyWithoutNetwork() {
+        cached("stored", 0);
+        BehaviorProcessor<String> table = BehaviorProcessor.createDefault(stored);
+
+        observe(table, remote("server")).test().assertValues("stored").assertNotComplete();
+        assertEquals(0, remoteCalls.get());
+    }
+
+    @Test
+    public void observeServesExpiredCopyThenRefreshes() {
+        cached("stored", Constants.CACHE_EXPIRY_TIME);
+        BehaviorProcessor<String> table = BehaviorProcessor.createDefault(stored);
+
+        observe(table, remote("server")).test().assertValues("stored", "server").assertNoErrors();
+        assertEquals(now.get(), metadata.get(KEY).getFetchedAt().getTime());
+    }
+
+    @Test
+    public void observeKeepsExpiredCopyWhenRefreshFails() {
+        cached("stored", Constants.CACHE_EXPIRY_TIME);
+        BehaviorProcessor<String> table = BehaviorProcessor.createDefault(stored);
+
+        observe(table, failing()).test().assertValues("stored").assertNoErrors().assertNotComplete();
+    }
+
+    @Test
+    public void observeWithoutCacheSkipsTheEmptyTable() {
+        BehaviorProcessor<String> table = BehaviorProcessor.createDefault("");
+
+        observe(table, remote("server")).test().assertValues("server").assertNoErrors();
+        assertEquals(now.get(), metadata.get(KEY).getFetchedAt().getTime());
+    }
+
+    @Test
+    public void observeRunsAfterCommitOutsideTheTransaction() {
+        AtomicBoolean inTransaction = new AtomicBoolean();
+        cache = new OfflineCache(body -> {
+            inTransaction.set(true);
+            body.run();
+            inTransaction.set(false);
+        }, dao, now::get);
+        cached("stored", Constants.CACHE_EXPIRY_TIME);
+        BehaviorProcessor<String> table = BehaviorProcessor.createDefault(stored);
+        List<Boolean> committed = new ArrayList<>();
+
+        cache.observe(KEY, table, remote("server"), fresh -> stored = fresh,
+                () -> committed.add(!inTransaction.get() && "server".equals(stored))).test().assertNoErrors();
+        assertEquals(Collections.singletonList(true), committed);
+    }
+
+    @Test
+    public void loadAllRefreshesEveryKeyWhenOneExpired() {
+        cached("stored", 0);
+        metadata.put(OTHER_KEY, new CacheMetadataEntity(OTHER_KEY,
+                new Date(now.get() - Constants.CACHE_EXPIRY_TIME)));
+
+        loadAll(remote("server")).test().assertValues("stored", "server").assertComplete();
+        assertEquals(now.get(), metadata.get(KEY).getFetchedAt().getTime());
+        assertEquals(now.get(), metadata.get(OTHER_KEY).getFetchedAt().getTime());
+    }
+
+    @Test
+    public void loadAllServesFreshCopiesWithoutNetwork() {
+        cached("stored", 0);
+        metadata.put(OTHER_KEY, new CacheMetadataEntity(OTHER_KEY, new Date(now.get())));
+
+        loadAll(remote("server")).test().assertValues("stored").assertComplete();
+        assertEquals(0, remoteCalls.get());
+    }
+
+    @Test
+    public void loadAllKeepsCopiesWhenRefreshFails() {
+        cached("stored", Constants.CACHE_EXPIRY_TIME);
+        metadata.put(OTHER_KEY, new CacheMetadataEntity(OTHER_KEY, new Date(now.get())));
+
+        loadAll(failing()).test().assertValues("stored").assertComplete();
+    }
+
+    @Test
+    public void loadAllWaitsForNetworkWhenOneKeyMissing() {
+        cached("stored", 0);
+
+        loadAll(remote("server")).test().assertValues("server").assertComplete();
+        assertEquals(now.get(), metadata.get(OTHER_KEY).getFetchedAt().getTime());
+    }
+
+    private Observable<String> load(Single<String> remote) {
+        return cache.load(KEY, Single.fromCallable(() -> stored), remote, fresh -> stored = fresh);
+    }
+
+    private Observable<String> loadAll(Single<String> remote) {
+        return cache.loadAll(Arrays.asList(KEY, OTHER_KEY), Single.fromCallable(() -> stored), remote,
+                fresh -> stored = fresh);
+    }
+
+    // The processor stands in for a Room Flowable: writes reach it the way table invalidation would
+    private Flowable<String> observe(BehaviorProcessor<String> table, Single<String> remote) {
+        return cache.observe(KEY, table, remote, fresh -> {
+            stored = fresh;
+            table.onNext(fresh);
+        });
+    }
+
+    private void cached(String value, long age) {
+        stored = value;
+        metadata.put(KEY, new CacheMetadataEntity(KEY, new Date(now.get() - age)));
+    }
+
+    private Single<String> remote(String value) {
+        return Single.fromCallable(() -> {
+            remoteCalls.incrementAndGet();
+            return value;
+        });
+    }
+
+    private Single<String> failing() {
+        return Single.defer(() -> {
+            remoteCalls.incrementAndGet();
+            return Single.error(new IOException("offline"));
+        });
+    }
+}
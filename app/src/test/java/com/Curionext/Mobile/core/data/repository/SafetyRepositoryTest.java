@@ -0,0 +1,53 @@
+package com.curionext.mobile.core.data.repository;
+
+import com.curionext.mobile.core.data.model.SafeZone;
+import com.curionext.mobile.core.util.SafeZoneIndex;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class SafetyRepositoryTest {
+
+    private static final String CHILD_ID = "child_1";
+
+    // Zone lookups never reach LocationRepository
+    private final SafetyRepository repository = new SafetyRepository(null);
+
+    @Test
+    public void equalListFromANewEmissionReusesTheIndex() {
+        List<SafeZone> first = zones(200);
+        repository.findContainingSafeZone(12.97, 77.59, first).blockingGet();
+        SafeZoneIndex index = repository.getSafeZoneIndex(CHILD_ID);
+
+        List<SafeZone> second = zones(200);
+        SafeZone found = repository.findContainingSafeZone(12.97, 77.59, second).blockingGet();
+
+        assertSame(index, repository.getSafeZoneIndex(CHILD_ID));
+        // The hit comes from the caller's list, not the one the index was built from
+        assertSame(second.get(0), found);
+    }
+
+    @Test
+    public void changedGeometryRebuildsTheIndex() {
+        repository.findContainingSafeZone(12.97, 77.59, zones(200)).blockingGet();
+        SafeZoneIndex index = repository.getSafeZoneIndex(CHILD_ID);
+
+        List<SafeZone> shrunk = zones(10);
+        assertNull(repository.findContainingSafeZone(12.9705, 77.59, shrunk).blockingGet());
+        assertNotSame(index, repository.getSafeZoneIndex(CHILD_ID));
+    }
+
+    private static List<SafeZone> zones(int homeRadius) {
+        SafeZone home = new SafeZone(CHILD_ID, "Home", null, 12.97, 77.59, homeRadius);
+        home.setId("home");
+        SafeZone school = new SafeZone(CHILD_ID, "School", null, 12.99, 77.61, 300);
+        school.setId("school");
+        return Arrays.asList(home, school);
+    }
+}
@@ -0,0 +1,90 @@
+package com.curionext.mobile.core.data.repository;
+
+import com.curionext.mobile.core.data.local.dao.TripDao;
+import com.curionext.mobile.core.data.local.entity.LocationEntity;
+import com.curionext.mobile.core.data.local.entity.TripEntity;
+import com.curionext.mobile.core.util.Constants;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import io.reactivex.rxjava3.core.Completable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TripRepositoryTest {
+
+    private static final String CHILD_ID = "child_1";
+    private static final double METERS = 1 / 111320.0; // degrees of latitude per meter
+    private static final long STEP = 10000; // 10 second fixes
+
+    private final List<TripEntity> written = new ArrayList<>();
+    private TripRepository repository;
+    private long time;
+    private double latitude;
+
+    @Before
+    public void setUp() {
+        TripDao dao = (TripDao) Proxy.newProxyInstance(TripDao.class.getClassLoader(),
+                new Class<?>[]{TripDao.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("upsertTrip")) {
+                        return Completable.fromAction(() -> written.add((TripEntity) args[0]));
+                    }
+                    if (method.getName().equals("closeOpenTrips")) {
+                        return Completable.complete();
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        repository = new TripRepository(dao);
+        time = 1_700_000_000_000L;
+        latitude = 12.9716;
+    }
+
+    @Test
+    public void openTripIsCheckpointedNotWrittenPerFix() {
+        offer(0, 0);
+        // Half an hour at 9 m/s: 180 fixes
+        int fixes = (int) (30 * 60000 / STEP);
+        for (int i = 0; i < fixes; i++) {
+            offer(90, 32.4f);
+        }
+
+        // Once when it first passes TRIP_MIN_DISTANCE, then once per interval
+        int expected = 1 + (int) (fixes * STEP / Constants.TRIP_CHECKPOINT_INTERVAL);
+        assertTrue(written.size() + " writes", Math.abs(written.size() - expected) <= 1);
+        for (TripEntity trip : written) {
+            assertTrue(trip.isOpen());
+            assertEquals(written.get(0).getId(), trip.getId());
+        }
+    }
+
+    @Test
+    public void closedTripIsWrittenAtOnce() {
+        offer(0, 0);
+        for (int i = 0; i < 30; i++) {
+            offer(90, 32.4f);
+        }
+        int checkpoints = written.size();
+
+        repository.flush(CHILD_ID).blockingAwait();
+
+        assertEquals(checkpoints + 1, written.size());
+        assertFalse(written.get(written.size() - 1).isOpen());
+    }
+
+    private void offer(double northMeters, float speed) {
+        time += STEP;
+        latitude += northMeters * METERS;
+        LocationEntity location = new LocationEntity("fix_" + time, CHILD_ID, latitude, 77.5946, 10f);
+        location.setTimestamp(new Date(time));
+        location.setSpeed(speed);
+        repository.offer(location).blockingAwait();
+    }
+}
@@ -0,0 +1,96 @@
+package com.curionext.mobile.core.util;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Randomized checks of the two claims in the GeoDistance class comment,
+ * against plain Haversine: the fast-path error bound and the early-reject
+ * lower bound, including pairs near the poles and across the antimeridian.
+ */
+public class GeoDistanceTest {
+
+    private static final int PAIRS = 200000;
+    private static final double METERS_PER_DEGREE = 111320.0;
+
+    @Test
+    public void fastPathStaysWithinItsErrorBound() {
+        Random random = new Random(1);
+        double worst = 0;
+        for (int i = 0; i < PAIRS; i++) {
+            double[] pair = nearbyPair(random, GeoDistance.FAST_PATH_MAX_LATITUDE, GeoDistance.FAST_PATH_MAX_DISTANCE);
+            double exact = GeoDistance.haversine(pair[0], pair[1], pair[2], pair[3]);
+            if (exact == 0 || exact > GeoDistance.FAST_PATH_MAX_DISTANCE) {
+                continue;
+            }
+            double error = Math.abs(GeoDistance.fastDistance(pair[0], pair[1], pair[2], pair[3]) - exact) / exact;
+            worst = Math.max(worst, error);
+        }
+        assertTrue("worst relative error " + worst, worst < GeoDistance.FAST_PATH_RELATIVE_ERROR);
+    }
+
+    @Test
+    public void lowerBoundNeverExceedsHaversine() {
+        Random random = new Random(2);
+        for (int i = 0; i < PAIRS; i++) {
+            double[] pair = i % 2 == 0
+                    ? anywherePair(random)
+                    : nearbyPair(random, 90, 50000 * random.nextDouble());
+            double exact = GeoDistance.haversine(pair[0], pair[1], pair[2], pair[3]);
+            double bound = GeoDistance.lowerBound(pair[0], pair[1], pair[2], pair[3]);
+            assertTrue(describe(pair) + " bound " + bound + " > " + exact, bound <= exact * (1 + 1e-12) + 1e-9);
+        }
+    }
+
+    @Test
+    public void radiusTestAgreesWithHaversineNearTheEdge() {
+        Random random = new Random(3);
+        for (int i = 0; i < PAIRS; i++) {
+            double[] pair = nearbyPair(random, 90, 30000);
+            double exact = GeoDistance.haversine(pair[0], pair[1], pair[2], pair[3]);
+            // Within 0.2% of the edge, where the fast path has to defer to Haversine
+            double radius = exact * (0.998 + random.nextDouble() * 0.004);
+            assertEquals(describe(pair) + " radius " + radius, exact <= radius,
+                    GeoDistance.isWithin(pair[0], pair[1], pair[2], pair[3], radius));
+        }
+    }
+
+    @Test
+    public void antimeridianIsNotAHalfWorldDetour() {
+        double distance = GeoDistance.haversine(10, 179.999, 10, -179.999);
+        assertEquals(distance, GeoDistance.fastDistance(10, 179.999, 10, -179.999),
+                distance * GeoDistance.FAST_PATH_RELATIVE_ERROR);
+        assertEquals(distance, GeoDistance.equirectangular(10, 179.999, 10, -179.999),
+                distance * GeoDistance.FAST_PATH_RELATIVE_ERROR);
+        assertTrue(GeoDistance.isWithin(10, 179.999, 10, -179.999, distance * 1.01));
+    }
+
+    // Second point at a random bearing within maxMeters of the first; a quarter of pairs straddle 180°
+    private static double[] nearbyPair(Random random, double maxLatitude, double maxMeters) {
+        double lat1 = (random.nextDouble() * 2 - 1) * maxLatitude;
+        double lng1 = random.nextInt(4) == 0 ? 180 - random.nextDouble() * 0.1 : random.nextDouble() * 360 - 180;
+        double meters = random.nextDouble() * maxMeters;
+        double bearing = random.nextDouble() * 2 * Math.PI;
+        double lat2 = lat1 + meters * Math.cos(bearing) / METERS_PER_DEGREE;
+        double lng2 = lng1 + meters * Math.sin(bearing) / (METERS_PER_DEGREE * Math.max(Math.cos(Math.toRadians(lat1)), 1e-3));
+        lat2 = Math.max(-maxLatitude, Math.min(maxLatitude, lat2));
+        return new double[]{lat1, wrap(lng1), lat2, wrap(lng2)};
+    }
+
+    private static double[] anywherePair(Random random) {
+        return new double[]{random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180,
+                random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180};
+    }
+
+    private static double wrap(double longitude) {
+        return ((longitude + 540) % 360) - 180;
+    }
+
+    private static String describe(double[] pair) {
+        return "(" + pair[0] + ", " + pair[1] + ") -> (" + pair[2] + ", " + pair[3] + ")";
+    }
+}
@@ -0,0 +1,244 @@
+package com.curionext.mobile.core.util;
+
+import com.curionext.mobile.core.data.local.entity.SafeZoneEntity;
+import com.curionext.mobile.core.data.model.GeofenceTransition;
+import com.curionext.mobile.core.data.model.LocationData;
+import com.curionext.mobile.core.data.model.SafeZone;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Replays a trace through one safe-zone evaluator and scores it.
+ * Ground truth comes from exact Haversine containment of the fixes' true
+ * positions; a reported transition counts as correct if a true transition of
+ * the same zone and type happened within MATCH_WINDOW, otherwise it is a false
+ * enter/exit. True transitions nothing matched are reported as missed.
+ * Latency is measured per fix around the evaluator call only.
+ */
+public final class GeofenceReplay {
+
+    static final long MATCH_WINDOW = 180000; // 3 minutes, hysteresis may delay a transition
+
+    private GeofenceReplay() {
+        throw new UnsupportedOperationException("GeofenceReplay class cannot be instantiated");
+    }
+
+    /**
+     * Safe-zone code under test: takes one fix, returns the transitions it caused
+     */
+    public interface Evaluator {
+        List<GeofenceTransition> evaluate(GeofenceTraceGenerator.TraceFix fix);
+    }
+
+    /**
+     * LocationUtils.isLocationInSafeZone against every zone, state change on any flip
+     */
+    public static Evaluator linearScan(List<SafeZone> zones) {
+        LocationData location = new LocationData();
+        return new MembershipEvaluator(fix -> {
+            location.setLatitude(fix.latitude);
+            location.setLongitude(fix.longitude);
+            List<SafeZone> inside = new ArrayList<>(2);
+            for (SafeZone zone : zones) {
+                if (LocationUtils.isLocationInSafeZone(location, zone)) {
+                    inside.add(zone);
+                }
+            }
+            return inside;
+        });
+    }
+
+    /**
+     * SafeZoneIndex lookup as used by SafetyRepository, state change on any flip
+     */
+    public static Evaluator indexed(List<SafeZone> zones) {
+        SafeZoneIndex index = SafeZoneIndex.build(zones);
+        return new MembershipEvaluator(fix -> index.findContainingZones(fix.latitude, fix.longitude));
+    }
+
+    /**
+     * GeofenceEngine with its accuracy-aware hysteresis
+     */
+    public static Evaluator engine(List<SafeZoneEntity> zones) {
+        GeofenceEngine engine = new GeofenceEngine(GeofenceTraceGenerator.getChildId(), zones);
+        return fix -> engine.evaluate(fix.latitude, fix.longitude, fix.accuracy, new Date(fix.time));
+    }
+
+    public static Report replay(List<GeofenceTraceGenerator.TraceFix> fixes, List<SafeZoneEntity> zones,
+                                Evaluator evaluator) {
+        List<GeofenceTransition> truth = groundTruth(fixes, zones);
+
+        long[] latencies = new long[fixes.size()];
+        List<GeofenceTransition> reported = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < fixes.size(); i++) {
+            long fixStart = System.nanoTime();
+            List<GeofenceTransition> transitions = evaluator.evaluate(fixes.get(i));
+            latencies[i] = System.nanoTime() - fixStart;
+            reported.addAll(transitions);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Report report = new Report();
+        report.fixes = fixes.size();
+        report.zones = zones.size();
+        report.fixesPerSecond = fixes.size() / (elapsed / 1e9);
+        Arrays.sort(latencies);
+        report.p50Micros = percentile(latencies, 0.50) / 1e3;
+        report.p99Micros = percentile(latencies, 0.99) / 1e3;
+        report.trueTransitions = truth.size();
+        report.reportedTransitions = reported.size();
+        score(truth, reported, report);
+        return report;
+    }
+
+    /**
+     * Enter/exit events of the noise-free path, by exact containment
+     */
+    static List<GeofenceTransition> groundTruth(List<GeofenceTraceGenerator.TraceFix> fixes,
+                                                List<SafeZoneEntity> zones) {
+        List<GeofenceTransition> transitions = new ArrayList<>();
+        boolean[] inside = new boolean[zones.size()];
+        for (GeofenceTraceGenerator.TraceFix fix : fixes) {
+            for (int z = 0; z < zones.size(); z++) {
+                SafeZoneEntity zone = zones.get(z);
+                boolean now = GeoDistance.haversine(fix.trueLatitude, fix.trueLongitude,
+                        zone.getLatitude(), zone.getLongitude()) <= zone.getRadius();
+                if (now != inside[z]) {
+                    inside[z] = now;
+                    transitions.add(new GeofenceTransition(GeofenceTraceGenerator.getChildId(), zone.getId(),
+                            zone.getName(), now ? GeofenceTransition.TYPE_ENTER : GeofenceTransition.TYPE_EXIT,
+                            new Date(fix.time), 0, true));
+                }
+            }
+        }
+        return transitions;
+    }
+
+    private static void score(List<GeofenceTransition> truth, List<GeofenceTransition> reported, Report report) {
+        Map<String, List<GeofenceTransition>> unmatched = new HashMap<>();
+        for (GeofenceTransition transition : truth) {
+            unmatched.computeIfAbsent(key(transition), k -> new ArrayList<>()).add(transition);
+        }
+
+        for (GeofenceTransition transition : reported) {
+            List<GeofenceTransition> candidates = unmatched.getOrDefault(key(transition), Collections.emptyList());
+            GeofenceTransition match = null;
+            long time = transition.getTimestamp().getTime();
+            for (GeofenceTransition candidate : candidates) {
+                if (Math.abs(candidate.getTimestamp().getTime() - time) <= MATCH_WINDOW) {
+                    match = candidate;
+                    break;
+                }
+            }
+            if (match != null) {
+                candidates.remove(match);
+            } else if (transition.isEntry()) {
+                report.falseEnters++;
+            } else {
+                report.falseExits++;
+            }
+        }
+
+        for (List<GeofenceTransition> left : unmatched.values()) {
+            report.missed += left.size();
+        }
+    }
+
+    private static String key(GeofenceTransition transition) {
+        return transition.getSafeZoneId() + '/' + transition.getType();
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(fraction * sorted.length) - 1)];
+    }
+
+    /**
+     * Turns a "zones containing this fix" lookup into enter/exit transitions without hysteresis
+     */
+    private static class MembershipEvaluator implements Evaluator {
+
+        interface Lookup {
+            List<SafeZone> containing(GeofenceTraceGenerator.TraceFix fix);
+        }
+
+        private final Lookup lookup;
+        private Set<String> inside = new HashSet<>();
+        private final Map<String, SafeZone> known = new HashMap<>();
+
+        MembershipEvaluator(Lookup lookup) {
+            this.lookup = lookup;
+        }
+
+        @Override
+        public List<GeofenceTransition> evaluate(GeofenceTraceGenerator.TraceFix fix) {
+            List<SafeZone> containing = lookup.containing(fix);
+            Set<String> now = new HashSet<>(containing.size() * 2);
+            List<GeofenceTransition> transitions = Collections.emptyList();
+
+            for (SafeZone zone : containing) {
+                now.add(zone.getId());
+                if (!inside.contains(zone.getId())) {
+                    known.put(zone.getId(), zone);
+                    transitions = add(transitions, zone, GeofenceTransition.TYPE_ENTER, fix);
+                }
+            }
+            for (String zoneId : inside) {
+                if (!now.contains(zoneId)) {
+                    transitions = add(transitions, known.get(zoneId), GeofenceTransition.TYPE_EXIT, fix);
+                }
+            }
+            inside = now;
+            return transitions;
+        }
+
+        private static List<GeofenceTransition> add(List<GeofenceTransition> transitions, SafeZone zone,
+                                                    String type, GeofenceTraceGenerator.TraceFix fix) {
+            if (transitions.isEmpty()) {
+                transitions = new ArrayList<>(2);
+            }
+            transitions.add(new GeofenceTransition(zone.getChildId(), zone.getId(), zone.getName(), type,
+                    new Date(fix.time), 0, true));
+            return transitions;
+        }
+    }
+
+    /**
+     * Throughput, latency and correctness of one replay
+     */
+    public static class Report {
+        int fixes;
+        int zones;
+        double fixesPerSecond;
+        double p50Micros;
+        double p99Micros;
+        int trueTransitions;
+        int reportedTransitions;
+        int falseEnters;
+        int falseExits;
+        int missed;
+
+        int getFalseTransitions() {
+            return falseEnters + falseExits;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%6d zones: %9.0f fixes/s, p50 %8.1f us, p99 %8.1f us, "
+                            + "transitions %d/%d, false enter %d, false exit %d, missed %d",
+                    zones, fixesPerSecond, p50Micros, p99Micros, reportedTransitions, trueTransitions,
+                    falseEnters, falseExits, missed);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.curionext.mobile.core.util;
+
+import com.curionext.mobile.core.data.local.entity.SafeZoneEntity;
+import com.curionext.mobile.core.data.model.SafeZone;
+
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * Prints GeofenceReplay reports, throughput and latency included, for the
+ * three evaluators on a clean trace with 1 to 10k zones. Excluded from the
+ * unit test run like the other *Benchmark classes; GeofenceReplayTest holds
+ * the assertions.
+ */
+public class GeofenceReplayBenchmark {
+
+    private static final int[] ZONE_COUNTS = {1, 10, 100, 1000, 10000};
+
+    @Test
+    public void replayCleanTrace() {
+        GeofenceTraceGenerator.Options options = new GeofenceTraceGenerator.Options().fixes(2000).jitter(8);
+        GeofenceTraceGenerator.Trace trace = GeofenceTraceGenerator.generate(1, options);
+
+        for (int count : ZONE_COUNTS) {
+            List<SafeZoneEntity> entities = GeofenceTraceGenerator.zones(2, count, trace, options);
+            List<SafeZone> models = GeofenceTraceGenerator.toModels(entities);
+            System.out.println(count + " zones");
+            System.out.println("  linear  " + GeofenceReplay.replay(trace.fixes, entities,
+                    GeofenceReplay.linearScan(models)));
+            System.out.println("  indexed " + GeofenceReplay.replay(trace.fixes, entities,
+                    GeofenceReplay.indexed(models)));
+            System.out.println("  engine  " + GeofenceReplay.replay(trace.fixes, entities,
+                    GeofenceReplay.engine(entities)));
+        }
+    }
+}
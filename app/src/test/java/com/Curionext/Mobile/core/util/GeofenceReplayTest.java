@@ -0,0 +1,79 @@
+package com.curionext.mobile.core.util;
+
+import com.curionext.mobile.core.data.local.entity.SafeZoneEntity;
+import com.curionext.mobile.core.data.model.SafeZone;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Regression gate for safe-zone evaluation: replays synthetic traces through
+ * the linear LocationUtils scan, the SafeZoneIndex lookup and GeofenceEngine
+ * with 1 to 10k zones and checks transition counts against the traces' truth.
+ */
+public class GeofenceReplayTest {
+
+    private static final int[] ZONE_COUNTS = {1, 10, 100, 1000, 10000};
+
+    @Test
+    public void indexAgreesWithLinearScanUpToTenThousandZones() {
+        GeofenceTraceGenerator.Options options = new GeofenceTraceGenerator.Options().fixes(2000).jitter(8);
+        GeofenceTraceGenerator.Trace trace = GeofenceTraceGenerator.generate(1, options);
+
+        for (int count : ZONE_COUNTS) {
+            List<SafeZoneEntity> entities = GeofenceTraceGenerator.zones(2, count, trace, options);
+            List<SafeZone> models = GeofenceTraceGenerator.toModels(entities);
+
+            GeofenceReplay.Report linear = GeofenceReplay.replay(trace.fixes, entities,
+                    GeofenceReplay.linearScan(models));
+            GeofenceReplay.Report indexed = GeofenceReplay.replay(trace.fixes, entities,
+                    GeofenceReplay.indexed(models));
+
+            // Both membership paths use the same containment test and must agree exactly
+            assertEquals(count + " zones", linear.reportedTransitions, indexed.reportedTransitions);
+            assertEquals(count + " zones", linear.falseEnters, indexed.falseEnters);
+        }
+    }
+
+    @Test
+    public void hysteresisSuppressesFlappingUnderNoise() {
+        GeofenceTraceGenerator.Options options = new GeofenceTraceGenerator.Options()
+                .fixes(3000).jitter(20).drift(30).tunnels(0.005, 15);
+        GeofenceTraceGenerator.Trace trace = GeofenceTraceGenerator.generate(3, options);
+        List<SafeZoneEntity> entities = GeofenceTraceGenerator.zones(4, 200, trace, options);
+
+        GeofenceReplay.Report linear = GeofenceReplay.replay(trace.fixes, entities,
+                GeofenceReplay.linearScan(GeofenceTraceGenerator.toModels(entities)));
+        GeofenceReplay.Report engine = GeofenceReplay.replay(trace.fixes, entities,
+                GeofenceReplay.engine(entities));
+
+        assertTrue(linear.getFalseTransitions() > 0);
+        assertTrue(engine.getFalseTransitions() * 4 <= linear.getFalseTransitions());
+    }
+
+    @Test
+    public void loadedTraceIsScoredAgainstItsTruthColumns() throws IOException {
+        // Child stays ~30 m outside a 100 m zone, one fix jumps inside
+        String csv = "# time,lat,lng,accuracy,trueLat,trueLng\n"
+                + "0,12.9700,77.59,10,12.9700,77.59\n"
+                + "10000,12.9713,77.59,10,12.9700,77.59\n"
+                + "20000,12.9700,77.59,10,12.9700,77.59\n";
+        List<GeofenceTraceGenerator.TraceFix> fixes = GeofenceTraceGenerator.load(new StringReader(csv));
+        List<SafeZoneEntity> zones = Collections.singletonList(
+                new SafeZoneEntity("zone", "replay_child", "Zone", null, 12.9712, 77.59, 100));
+
+        GeofenceReplay.Report report = GeofenceReplay.replay(fixes, zones,
+                GeofenceReplay.linearScan(GeofenceTraceGenerator.toModels(zones)));
+
+        assertEquals(0, report.trueTransitions);
+        assertEquals(1, report.falseEnters);
+        assertEquals(1, report.falseExits);
+    }
+}
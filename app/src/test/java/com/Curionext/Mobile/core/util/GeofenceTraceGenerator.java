@@ -0,0 +1,241 @@
+package com.curionext.mobile.core.util;
+
+import com.curionext.mobile.core.data.local.entity.SafeZoneEntity;
+import com.curionext.mobile.core.data.model.SafeZone;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic GPS traces and zone sets for GeofenceReplay.
+ * A trace follows a ground-truth path that walks or rides between waypoints
+ * and dwells at each; the observed fixes add Gaussian jitter, a slowly
+ * wandering drift bias and tunnels (no fixes, then a few badly degraded ones).
+ * Every fix keeps its true position so replays can be scored.
+ */
+public final class GeofenceTraceGenerator {
+
+    private static final double METERS_PER_DEGREE = 111320.0;
+    private static final String CHILD_ID = "replay_child";
+
+    private GeofenceTraceGenerator() {
+        throw new UnsupportedOperationException("GeofenceTraceGenerator class cannot be instantiated");
+    }
+
+    /**
+     * Noise model for a generated trace
+     */
+    public static class Options {
+        int fixes = 5000;
+        long interval = 10000; // 10 seconds between fixes
+        int waypoints = 12;
+        double areaMeters = 8000;
+        double centerLatitude = 12.97;
+        double centerLongitude = 77.59;
+        double jitterMeters = 8; // one-sigma GPS noise
+        double driftMeters = 0; // bound of the wandering bias
+        double tunnelChance = 0; // per fix, chance a tunnel starts
+        int tunnelFixes = 12; // fixes lost per tunnel
+
+        public Options fixes(int fixes) { this.fixes = fixes; return this; }
+        public Options jitter(double meters) { this.jitterMeters = meters; return this; }
+        public Options drift(double meters) { this.driftMeters = meters; return this; }
+        public Options tunnels(double chancePerFix, int fixesLost) {
+            this.tunnelChance = chancePerFix;
+            this.tunnelFixes = fixesLost;
+            return this;
+        }
+    }
+
+    /**
+     * One observed fix with the position the child was really at
+     */
+    public static class TraceFix {
+        final long time;
+        final double latitude;
+        final double longitude;
+        final float accuracy;
+        final double trueLatitude;
+        final double trueLongitude;
+
+        TraceFix(long time, double latitude, double longitude, float accuracy,
+                 double trueLatitude, double trueLongitude) {
+            this.time = time;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.accuracy = accuracy;
+            this.trueLatitude = trueLatitude;
+            this.trueLongitude = trueLongitude;
+        }
+    }
+
+    /**
+     * A generated trace plus the waypoints its path dwells at
+     */
+    public static class Trace {
+        final List<TraceFix> fixes;
+        final double[][] waypoints;
+
+        Trace(List<TraceFix> fixes, double[][] waypoints) {
+            this.fixes = fixes;
+            this.waypoints = waypoints;
+        }
+    }
+
+    public static Trace generate(long seed, Options options) {
+        Random random = new Random(seed);
+        double cosLat = Math.cos(Math.toRadians(options.centerLatitude));
+
+        double[][] waypoints = new double[options.waypoints][];
+        for (int i = 0; i < waypoints.length; i++) {
+            waypoints[i] = new double[]{
+                    options.centerLatitude + (random.nextDouble() - 0.5) * options.areaMeters / METERS_PER_DEGREE,
+                    options.centerLongitude + (random.nextDouble() - 0.5) * options.areaMeters
+                            / (METERS_PER_DEGREE * cosLat)};
+        }
+
+        List<TraceFix> fixes = new ArrayList<>(options.fixes);
+        double latitude = waypoints[0][0];
+        double longitude = waypoints[0][1];
+        int target = 1;
+        int dwellLeft = 30 + random.nextInt(60);
+        double speed = 1.4;
+        double driftNorth = 0;
+        double driftEast = 0;
+        int tunnelLeft = 0;
+        int degradedLeft = 0;
+        long time = 1_700_000_000_000L;
+
+        while (fixes.size() < options.fixes) {
+            time += options.interval;
+
+            // Ground truth: dwell, then head for the next waypoint walking or riding
+            if (dwellLeft > 0) {
+                dwellLeft--;
+            } else {
+                double[] goal = waypoints[target];
+                double north = (goal[0] - latitude) * METERS_PER_DEGREE;
+                double east = (goal[1] - longitude) * METERS_PER_DEGREE * cosLat;
+                double remaining = Math.sqrt(north * north + east * east);
+                double travel = speed * options.interval / 1000.0;
+                if (remaining <= travel) {
+                    latitude = goal[0];
+                    longitude = goal[1];
+                    target = (target + 1) % waypoints.length;
+                    dwellLeft = 30 + random.nextInt(60);
+                    speed = random.nextBoolean() ? 1.4 : 8.0;
+                } else {
+                    latitude += north / remaining * travel / METERS_PER_DEGREE;
+                    longitude += east / remaining * travel / (METERS_PER_DEGREE * cosLat);
+                }
+            }
+
+            if (options.driftMeters > 0) {
+                driftNorth = clamp(driftNorth + random.nextGaussian() * options.driftMeters / 10, options.driftMeters);
+                driftEast = clamp(driftEast + random.nextGaussian() * options.driftMeters / 10, options.driftMeters);
+            }
+
+            if (tunnelLeft > 0) {
+                if (--tunnelLeft == 0) {
+                    degradedLeft = 3;
+                }
+                continue;
+            }
+            if (options.tunnelChance > 0 && random.nextDouble() < options.tunnelChance) {
+                tunnelLeft = options.tunnelFixes;
+                continue;
+            }
+
+            double sigma = options.jitterMeters;
+            if (degradedLeft > 0) {
+                // Reacquiring after a tunnel: coarse fixes that honestly report it
+                sigma = options.jitterMeters * 8;
+                degradedLeft--;
+            }
+            double noiseNorth = random.nextGaussian() * sigma + driftNorth;
+            double noiseEast = random.nextGaussian() * sigma + driftEast;
+            float accuracy = (float) Math.max(5, sigma * 1.5 + Math.abs(random.nextGaussian()) * sigma);
+
+            fixes.add(new TraceFix(time,
+                    latitude + noiseNorth / METERS_PER_DEGREE,
+                    longitude + noiseEast / (METERS_PER_DEGREE * cosLat),
+                    accuracy, latitude, longitude));
+        }
+        return new Trace(fixes, waypoints);
+    }
+
+    /**
+     * Load a recorded trace: one "time,latitude,longitude,accuracy[,trueLatitude,trueLongitude]"
+     * line per fix, '#' starts a comment. Without truth columns the fix is its own truth.
+     */
+    public static List<TraceFix> load(Reader source) throws IOException {
+        List<TraceFix> fixes = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(source);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] parts = line.split(",");
+            double latitude = Double.parseDouble(parts[1]);
+            double longitude = Double.parseDouble(parts[2]);
+            fixes.add(new TraceFix(Long.parseLong(parts[0]), latitude, longitude, Float.parseFloat(parts[3]),
+                    parts.length > 5 ? Double.parseDouble(parts[4]) : latitude,
+                    parts.length > 5 ? Double.parseDouble(parts[5]) : longitude));
+        }
+        return fixes;
+    }
+
+    /**
+     * count zones: one at each of the trace's waypoints (so the path really
+     * enters and leaves them), the rest scattered over the same area
+     */
+    public static List<SafeZoneEntity> zones(long seed, int count, Trace trace, Options options) {
+        Random random = new Random(seed);
+        double cosLat = Math.cos(Math.toRadians(options.centerLatitude));
+        List<SafeZoneEntity> zones = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            double latitude;
+            double longitude;
+            if (i < trace.waypoints.length) {
+                latitude = trace.waypoints[i][0];
+                longitude = trace.waypoints[i][1];
+            } else {
+                latitude = options.centerLatitude
+                        + (random.nextDouble() - 0.5) * options.areaMeters / METERS_PER_DEGREE;
+                longitude = options.centerLongitude
+                        + (random.nextDouble() - 0.5) * options.areaMeters / (METERS_PER_DEGREE * cosLat);
+            }
+            int radius = 80 + random.nextInt(170);
+            zones.add(new SafeZoneEntity("zone_" + i, CHILD_ID, "Zone " + i, null, latitude, longitude, radius));
+        }
+        return zones;
+    }
+
+    /**
+     * The same zones as API models, for the SafeZone-based code paths
+     */
+    public static List<SafeZone> toModels(List<SafeZoneEntity> entities) {
+        List<SafeZone> zones = new ArrayList<>(entities.size());
+        for (SafeZoneEntity entity : entities) {
+            SafeZone zone = new SafeZone(entity.getChildId(), entity.getName(), null,
+                    entity.getLatitude(), entity.getLongitude(), entity.getRadius());
+            zone.setId(entity.getId());
+            zones.add(zone);
+        }
+        return zones;
+    }
+
+    static String getChildId() {
+        return CHILD_ID;
+    }
+
+    private static double clamp(double value, double bound) {
+        return Math.max(-bound, Math.min(bound, value));
+    }
+}
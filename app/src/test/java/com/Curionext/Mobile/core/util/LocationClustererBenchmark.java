@@ -0,0 +1,85 @@
+package com.curionext.mobile.core.util;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Viewport clustering over 50k fixes: the quadtree against a linear pass that
+ * buckets every fix into zoom-level grid cells, which is what drawing the
+ * raw history would need per camera move. Reports timings only; correctness
+ * is covered by LocationClustererTest. Excluded from the unit test run, use
+ * ./gradlew testDebugUnitTest -Pbenchmarks --tests '*LocationClustererBenchmark'
+ */
+public class LocationClustererBenchmark {
+
+    private static final int POINTS = 50000;
+    private static final int QUERIES = 200;
+    private static final double BASE_LAT = 12.90;
+    private static final double BASE_LNG = 77.50;
+    private static final double SPAN = 0.2; // ~22 km
+
+    private final double[] latitudes = new double[POINTS];
+    private final double[] longitudes = new double[POINTS];
+
+    @Test
+    public void quadtreeVersusLinearBucketing() {
+        Random random = new Random(7);
+        for (int i = 0; i < POINTS; i++) {
+            latitudes[i] = BASE_LAT + random.nextDouble() * SPAN;
+            longitudes[i] = BASE_LNG + random.nextDouble() * SPAN;
+        }
+        long start = System.nanoTime();
+        LocationClusterer clusterer = LocationClusterer.build(latitudes, longitudes, POINTS);
+        double buildMillis = (System.nanoTime() - start) / 1e6;
+
+        double[][] viewports = new double[QUERIES][];
+        int[] zooms = new int[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            zooms[i] = 12 + random.nextInt(6);
+            double size = 360.0 / (1 << zooms[i]) * 4; // about four tiles across
+            double lat = BASE_LAT + random.nextDouble() * SPAN;
+            double lng = BASE_LNG + random.nextDouble() * SPAN;
+            viewports[i] = new double[]{lat - size / 2, lng - size / 2, lat + size / 2, lng + size / 2};
+        }
+
+        // Warm up both paths
+        for (int i = 0; i < 20; i++) {
+            clusterer.getClusters(viewports[i][0], viewports[i][1], viewports[i][2], viewports[i][3], zooms[i]);
+            linearBucketing(viewports[i], zooms[i]);
+        }
+
+        start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            linearBucketing(viewports[i], zooms[i]);
+        }
+        double linearMillis = (System.nanoTime() - start) / 1e6 / QUERIES;
+
+        start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            clusterer.getClusters(viewports[i][0], viewports[i][1], viewports[i][2], viewports[i][3], zooms[i]);
+        }
+        double quadtreeMillis = (System.nanoTime() - start) / 1e6 / QUERIES;
+
+        System.out.printf("%d points: build %.1f ms, linear bucketing %.3f ms/query, quadtree %.3f ms/query (%.1fx)%n",
+                POINTS, buildMillis, linearMillis, quadtreeMillis, linearMillis / quadtreeMillis);
+    }
+
+    // Points inside the viewport, bucketed into the same cells the clusterer uses
+    private int linearBucketing(double[] viewport, int zoom) {
+        double cells = Math.pow(2, zoom + 3);
+        Map<Long, Integer> buckets = new HashMap<>();
+        for (int i = 0; i < POINTS; i++) {
+            if (latitudes[i] < viewport[0] || latitudes[i] > viewport[2]
+                    || longitudes[i] < viewport[1] || longitudes[i] > viewport[3]) {
+                continue;
+            }
+            long key = ((long) (LocationClusterer.projectX(longitudes[i]) * cells) << 32)
+                    | (long) (LocationClusterer.projectY(latitudes[i]) * cells);
+            buckets.merge(key, 1, Integer::sum);
+        }
+        return buckets.size();
+    }
+}
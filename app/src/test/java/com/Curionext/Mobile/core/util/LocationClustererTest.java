@@ -0,0 +1,99 @@
+package com.curionext.mobile.core.util;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LocationClustererTest {
+
+    private static final int POINTS = 50000;
+    private static final int QUERIES = 200;
+    private static final double BASE_LAT = 12.90;
+    private static final double BASE_LNG = 77.50;
+    private static final double SPAN = 0.2; // ~22 km
+
+    private static double[] latitudes;
+    private static double[] longitudes;
+    private static LocationClusterer clusterer;
+
+    @BeforeClass
+    public static void setUp() {
+        Random random = new Random(7);
+        latitudes = new double[POINTS];
+        longitudes = new double[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            latitudes[i] = BASE_LAT + random.nextDouble() * SPAN;
+            longitudes[i] = BASE_LNG + random.nextDouble() * SPAN;
+        }
+        clusterer = LocationClusterer.build(latitudes, longitudes, POINTS);
+    }
+
+    @Test
+    public void clustersAccountForEveryPointInView() {
+        for (int zoom = 8; zoom <= 20; zoom += 3) {
+            List<LocationClusterer.Cluster> clusters = clusterer.getClusters(
+                    BASE_LAT - 1, BASE_LNG - 1, BASE_LAT + 1, BASE_LNG + 1, zoom);
+            int total = 0;
+            for (LocationClusterer.Cluster cluster : clusters) {
+                total += cluster.getCount();
+                if (cluster.isSinglePoint()) {
+                    assertEquals(latitudes[cluster.getIndex()], cluster.getLatitude(), 1e-6);
+                    assertEquals(longitudes[cluster.getIndex()], cluster.getLongitude(), 1e-6);
+                }
+            }
+            assertEquals("zoom " + zoom, POINTS, total);
+        }
+    }
+
+    @Test
+    public void incrementalAddsShowUpInQueries() {
+        LocationClusterer small = new LocationClusterer();
+        for (int i = 0; i < 100; i++) {
+            small.add(BASE_LAT, BASE_LNG + i * 1e-7);
+        }
+        int index = small.add(BASE_LAT + 0.5, BASE_LNG + 0.5);
+
+        List<LocationClusterer.Cluster> far = small.getClusters(
+                BASE_LAT + 0.4, BASE_LNG + 0.4, BASE_LAT + 0.6, BASE_LNG + 0.6, 15);
+        assertEquals(1, far.size());
+        assertEquals(index, far.get(0).getIndex());
+
+        List<LocationClusterer.Cluster> near = small.getClusters(
+                BASE_LAT - 0.01, BASE_LNG - 0.01, BASE_LAT + 0.01, BASE_LNG + 0.01, 15);
+        assertEquals(1, near.size());
+        assertEquals(100, near.get(0).getCount());
+    }
+
+    @Test
+    public void viewportClustersCoverEveryPointInside() {
+        Random random = new Random(11);
+        for (int i = 0; i < QUERIES; i++) {
+            int zoom = 12 + random.nextInt(6);
+            double size = 360.0 / (1 << zoom) * 4; // about four tiles across
+            double lat = BASE_LAT + random.nextDouble() * SPAN;
+            double lng = BASE_LNG + random.nextDouble() * SPAN;
+            double south = lat - size / 2;
+            double west = lng - size / 2;
+            double north = lat + size / 2;
+            double east = lng + size / 2;
+
+            int inside = 0;
+            for (int p = 0; p < POINTS; p++) {
+                if (latitudes[p] >= south && latitudes[p] <= north && longitudes[p] >= west && longitudes[p] <= east) {
+                    inside++;
+                }
+            }
+            int total = 0;
+            for (LocationClusterer.Cluster cluster : clusterer.getClusters(south, west, north, east, zoom)) {
+                total += cluster.getCount();
+            }
+            // Edge cells may be partly outside the viewport, so clusters can only over-count
+            assertTrue("viewport " + i + ": " + total + " < " + inside, total >= inside);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.curionext.mobile.core.util;
+
+import com.curionext.mobile.core.data.model.SafeZone;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks SafeZoneIndex against the linear Haversine scan it replaced in
+ * LocationViewModel, with most queries placed just inside or just outside
+ * a zone's edge where a missed grid cell would show.
+ */
+public class SafeZoneIndexTest {
+
+    private static final double METERS_PER_DEGREE = 111320.0;
+
+    @Test
+    public void matchesLinearScanForMixedRadii() {
+        Random random = new Random(1);
+        assertMatchesLinearScan(randomZones(random, 12.97, 77.59, 300, 3000, 50, 800), random, 20000);
+    }
+
+    @Test
+    public void matchesLinearScanWhenCellSizeIsTwiceTheRadius() {
+        // Equal radii put the cell size at exactly one zone diameter, the tightest the index builds
+        Random random = new Random(2);
+        assertMatchesLinearScan(randomZones(random, 12.97, 77.59, 200, 2000, 400, 400), random, 20000);
+        // Below MIN_CELL_SIZE_METERS / 2 the floor takes over
+        assertMatchesLinearScan(randomZones(random, 12.97, 77.59, 200, 800, 124, 125), random, 20000);
+    }
+
+    @Test
+    public void matchesLinearScanAtHighLatitude() {
+        // A longitude degree is half as long at 60°, so boxes span more cells east-west
+        Random random = new Random(3);
+        assertMatchesLinearScan(randomZones(random, 60.17, 24.94, 200, 2500, 100, 600), random, 20000);
+    }
+
+    @Test
+    public void zoneCenteredOnACellCornerIsFoundFromEveryNeighbour() {
+        // With a 400 m radius the cell is 800 m; put the center on a cell corner
+        double cellDegrees = 800 / 111000.0;
+        double latitude = 120 * cellDegrees;
+        double longitude = 970 * cellDegrees;
+        SafeZone zone = zone("corner", latitude, longitude, 400);
+        SafeZoneIndex index = SafeZoneIndex.build(Collections.singletonList(zone));
+
+        for (int bearing = 0; bearing < 360; bearing += 15) {
+            double[] inside = offset(latitude, longitude, bearing, 395);
+            double[] outside = offset(latitude, longitude, bearing, 405);
+            assertSame("bearing " + bearing, zone, index.findContainingZone(inside[0], inside[1]));
+            assertNull("bearing " + bearing, index.findContainingZone(outside[0], outside[1]));
+        }
+    }
+
+    @Test
+    public void inactiveZonesAreNotIndexed() {
+        SafeZone home = zone("home", 12.97, 77.59, 200);
+        SafeZone school = zone("school", 12.97, 77.59, 500);
+        home.setActive(false);
+        SafeZoneIndex index = SafeZoneIndex.build(Arrays.asList(home, school));
+
+        assertEquals(1, index.size());
+        assertSame(school, index.findContainingZone(12.97, 77.59));
+        assertEquals(1, index.indexOfContainingZone(12.97, 77.59));
+    }
+
+    @Test
+    public void sameZonesMeansSameGeometryInTheSameOrder() {
+        List<SafeZone> zones = Arrays.asList(zone("a", 12.97, 77.59, 200), zone("b", 12.98, 77.60, 300));
+        SafeZoneIndex index = SafeZoneIndex.build(zones);
+
+        assertTrue(index.hasSameZones(Arrays.asList(zone("a", 12.97, 77.59, 200), zone("b", 12.98, 77.60, 300))));
+        assertFalse(index.hasSameZones(Arrays.asList(zone("b", 12.98, 77.60, 300), zone("a", 12.97, 77.59, 200))));
+        assertFalse(index.hasSameZones(Arrays.asList(zone("a", 12.97, 77.59, 250), zone("b", 12.98, 77.60, 300))));
+        assertFalse(index.hasSameZones(Collections.singletonList(zone("a", 12.97, 77.59, 200))));
+    }
+
+    private static void assertMatchesLinearScan(List<SafeZone> zones, Random random, int queries) {
+        SafeZoneIndex index = SafeZoneIndex.build(zones);
+        double minLat = Double.MAX_VALUE;
+        double maxLat = -Double.MAX_VALUE;
+        double minLng = Double.MAX_VALUE;
+        double maxLng = -Double.MAX_VALUE;
+        for (SafeZone zone : zones) {
+            minLat = Math.min(minLat, zone.getLatitude());
+            maxLat = Math.max(maxLat, zone.getLatitude());
+            minLng = Math.min(minLng, zone.getLongitude());
+            maxLng = Math.max(maxLng, zone.getLongitude());
+        }
+
+        for (int i = 0; i < queries; i++) {
+            double[] point;
+            if (i % 4 == 0) {
+                point = new double[]{minLat + random.nextDouble() * (maxLat - minLat),
+                        minLng + random.nextDouble() * (maxLng - minLng)};
+            } else {
+                // Within 2% of some zone's edge, on either side
+                SafeZone target = zones.get(random.nextInt(zones.size()));
+                double distance = target.getRadius() * (0.98 + random.nextDouble() * 0.04);
+                point = offset(target.getLatitude(), target.getLongitude(), random.nextDouble() * 360, distance);
+            }
+            assertSame("query " + i, linearScan(zones, point[0], point[1]),
+                    index.findContainingZone(point[0], point[1]));
+        }
+    }
+
+    private static SafeZone linearScan(List<SafeZone> zones, double latitude, double longitude) {
+        for (SafeZone zone : zones) {
+            if (zone.isActive() && GeoDistance.haversine(latitude, longitude, zone.getLatitude(),
+                    zone.getLongitude()) <= zone.getRadius()) {
+                return zone;
+            }
+        }
+        return null;
+    }
+
+    private static List<SafeZone> randomZones(Random random, double latitude, double longitude, int count,
+                                              double areaMeters, int minRadius, int maxRadius) {
+        List<SafeZone> zones = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            double[] center = offset(latitude, longitude, random.nextDouble() * 360,
+                    random.nextDouble() * areaMeters);
+            int radius = minRadius + random.nextInt(maxRadius - minRadius + 1);
+            SafeZone zone = zone("zone_" + i, center[0], center[1], radius);
+            zone.setActive(random.nextInt(10) != 0);
+            zones.add(zone);
+        }
+        return zones;
+    }
+
+    private static SafeZone zone(String id, double latitude, double longitude, int radius) {
+        SafeZone zone = new SafeZone("child", id, null, latitude, longitude, radius);
+        zone.setId(id);
+        return zone;
+    }
+
+    private static double[] offset(double latitude, double longitude, double bearingDegrees, double meters) {
+        double bearing = Math.toRadians(bearingDegrees);
+        return new double[]{
+                latitude + meters * Math.cos(bearing) / METERS_PER_DEGREE,
+                longitude + meters * Math.sin(bearing) / (METERS_PER_DEGREE * Math.cos(Math.toRadians(latitude)))
+        };
+    }
+}
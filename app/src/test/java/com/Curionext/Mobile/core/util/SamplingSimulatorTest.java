@@ -0,0 +1,139 @@
+package com.curionext.mobile.core.util;
+
+import com.curionext.mobile.core.data.local.entity.LocationEntity;
+import com.curionext.mobile.core.data.local.entity.SafeZoneEntity;
+import com.curionext.mobile.core.data.model.LocationData;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SamplingSimulatorTest {
+
+    private static final String CHILD_ID = "child_1";
+    private static final double HOME_LAT = 12.9716;
+    private static final double HOME_LNG = 77.5946;
+    private static final double SCHOOL_LAT = 12.9824; // ~1.2 km north
+    private static final long STEP = 5000;
+
+    private SamplingSimulator simulator;
+    private List<LocationEntity> trace;
+
+    @Before
+    public void setUp() {
+        List<SafeZoneEntity> zones = Arrays.asList(
+                new SafeZoneEntity("home", CHILD_ID, "Home", null, HOME_LAT, HOME_LNG, 150),
+                new SafeZoneEntity("school", CHILD_ID, "School", null, SCHOOL_LAT, HOME_LNG, 200));
+        simulator = new SamplingSimulator(CHILD_ID, zones);
+        trace = schoolDayTrace(80);
+    }
+
+    @Test
+    public void referenceRunSeesEveryTransition() {
+        SamplingSimulator.Report report = simulator.replay(trace, (location, boundaryDistance) ->
+                new SamplingDecision(0, 0, 0));
+
+        assertEquals(trace.size(), report.getFixesUsed());
+        // Zones start unoccupied: enter home, leave, enter school, leave, enter home
+        assertEquals(5, report.getTransitions());
+        assertEquals(0, report.getTransitionsMissed());
+    }
+
+    @Test
+    public void adaptivePolicySavesFixesWithoutMissingTransitions() {
+        SamplingSimulator.Report fixed = simulator.replay(trace, new FixedSamplingPolicy());
+        SamplingSimulator.Report adaptive = simulator.replay(trace, new AdaptiveSamplingPolicy());
+
+        assertEquals(0, adaptive.getTransitionsMissed());
+        assertTrue(adaptive + " vs " + fixed, adaptive.getFixesUsed() < fixed.getFixesUsed());
+    }
+
+    @Test
+    public void lowBatteryStretchesWalkingInterval() {
+        // Walking starts from one minute, well below SAMPLING_MAX_INTERVAL, so the stretch is not clamped away
+        AdaptiveSamplingPolicy policy = new AdaptiveSamplingPolicy();
+        long full = policy.decide(walking(100), Double.MAX_VALUE).getIntervalMillis();
+        long low = policy.decide(walking(Constants.SAMPLING_LOW_BATTERY), Double.MAX_VALUE).getIntervalMillis();
+        long critical = policy.decide(walking(Constants.SAMPLING_CRITICAL_BATTERY), Double.MAX_VALUE)
+                .getIntervalMillis();
+
+        assertEquals(60000, full);
+        assertEquals(90000, low);
+        assertEquals(180000, critical);
+    }
+
+    @Test
+    public void nearBoundaryOverridesLowBattery() {
+        SamplingDecision decision = new AdaptiveSamplingPolicy()
+                .decide(stationary(Constants.SAMPLING_CRITICAL_BATTERY), 20);
+
+        assertEquals(Constants.LOCATION_FASTEST_INTERVAL, decision.getIntervalMillis());
+        assertEquals(10.0f, decision.getDisplacementMeters(), 0.001f);
+    }
+
+    private static LocationData walking(int battery) {
+        LocationData location = stationary(battery);
+        location.setSpeed(1.5f);
+        return location;
+    }
+
+    private static LocationData stationary(int battery) {
+        LocationData location = new LocationData(CHILD_ID, HOME_LAT, HOME_LNG, 10f);
+        location.setBatteryLevel(battery);
+        return location;
+    }
+
+    /**
+     * An hour at home, a walk to school, two hours there and the walk back, one fix every STEP
+     */
+    private static List<LocationEntity> schoolDayTrace(int battery) {
+        Random random = new Random(42);
+        List<LocationEntity> fixes = new ArrayList<>();
+        long time = 1_700_000_000_000L;
+
+        time = dwell(fixes, random, time, HOME_LAT, 60 * 60000, battery);
+        time = walk(fixes, random, time, HOME_LAT, SCHOOL_LAT, battery);
+        time = dwell(fixes, random, time, SCHOOL_LAT, 120 * 60000, battery);
+        time = walk(fixes, random, time, SCHOOL_LAT, HOME_LAT, battery);
+        dwell(fixes, random, time, HOME_LAT, 30 * 60000, battery);
+        return fixes;
+    }
+
+    private static long dwell(List<LocationEntity> fixes, Random random, long time, double lat, long duration,
+                              int battery) {
+        for (long end = time + duration; time < end; time += STEP) {
+            fixes.add(fix(fixes.size(), random, time, lat, 0f, battery));
+        }
+        return time;
+    }
+
+    private static long walk(List<LocationEntity> fixes, Random random, long time, double fromLat, double toLat,
+                             int battery) {
+        double metersPerStep = 1.4 * STEP / 1000;
+        double distance = Math.abs(toLat - fromLat) * 111320.0;
+        int steps = (int) Math.ceil(distance / metersPerStep);
+        for (int i = 1; i <= steps; i++, time += STEP) {
+            fixes.add(fix(fixes.size(), random, time, fromLat + (toLat - fromLat) * i / steps, 5.0f, battery));
+        }
+        return time;
+    }
+
+    private static LocationEntity fix(int index, Random random, long time, double lat, float speedKmh, int battery) {
+        // A few meters of GPS jitter
+        double jitterLat = (random.nextDouble() - 0.5) * 6 / 111320.0;
+        double jitterLng = (random.nextDouble() - 0.5) * 6 / 111320.0;
+        LocationEntity entity = new LocationEntity("fix_" + index, CHILD_ID, lat + jitterLat, HOME_LNG + jitterLng, 10f);
+        entity.setTimestamp(new Date(time));
+        entity.setSpeed(speedKmh);
+        entity.setBatteryLevel(battery);
+        return entity;
+    }
+}
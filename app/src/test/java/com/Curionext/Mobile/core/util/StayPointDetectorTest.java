@@ -0,0 +1,93 @@
+package com.curionext.mobile.core.util;
+
+import com.curionext.mobile.core.data.local.entity.LocationEntity;
+import com.curionext.mobile.core.data.local.entity.StayPointEntity;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class StayPointDetectorTest {
+
+    private static final String CHILD_ID = "child_1";
+    private static final double HOME_LAT = 12.9716;
+    private static final double HOME_LNG = 77.5946;
+    private static final double METERS = 1 / 111320.0; // degrees of latitude per meter
+    private static final long MINUTE = 60000;
+
+    private StayPointDetector detector;
+    private long time;
+
+    @Before
+    public void setUp() {
+        detector = new StayPointDetector(CHILD_ID);
+        time = 1_700_000_000_000L;
+    }
+
+    @Test
+    public void dwellIsReportedWhenChildLeaves() {
+        for (int i = 0; i <= 20; i++) {
+            assertNull(detector.offer(fix(HOME_LAT + (i % 3) * 10 * METERS, MINUTE)));
+        }
+        assertNull(detector.offer(fix(HOME_LAT + 500 * METERS, MINUTE)));
+        StayPointEntity stay = detector.offer(fix(HOME_LAT + 600 * METERS, MINUTE));
+
+        assertNotNull(stay);
+        assertEquals(CHILD_ID, stay.getChildId());
+        assertEquals(21, stay.getSampleCount());
+        assertEquals(20 * MINUTE, stay.getDuration());
+        assertEquals(HOME_LAT + 10 * METERS, stay.getLatitude(), 2 * METERS);
+    }
+
+    @Test
+    public void shortStopIsNotAStay() {
+        for (int i = 0; i < 5; i++) {
+            detector.offer(fix(HOME_LAT, MINUTE));
+        }
+        detector.offer(fix(HOME_LAT + 500 * METERS, MINUTE));
+        assertNull(detector.offer(fix(HOME_LAT + 600 * METERS, MINUTE)));
+    }
+
+    @Test
+    public void singleOutlierDoesNotSplitVisit() {
+        for (int i = 0; i < 10; i++) {
+            detector.offer(fix(HOME_LAT, MINUTE));
+        }
+        assertNull(detector.offer(fix(HOME_LAT + 800 * METERS, MINUTE)));
+        for (int i = 0; i < 10; i++) {
+            assertNull(detector.offer(fix(HOME_LAT, MINUTE)));
+        }
+
+        StayPointEntity open = detector.getOpenStay();
+        assertNotNull(open);
+        assertEquals(20, open.getSampleCount());
+    }
+
+    @Test
+    public void inaccurateFixesAreIgnored() {
+        for (int i = 0; i < 15; i++) {
+            detector.offer(fix(HOME_LAT, MINUTE));
+        }
+        LocationEntity noisy = fix(HOME_LAT + 2000 * METERS, MINUTE);
+        noisy.setAccuracy(Constants.STAY_MAX_ACCURACY + 1);
+        assertNull(detector.offer(noisy));
+        assertNull(detector.offer(noisy));
+
+        StayPointEntity stay = detector.flush();
+        assertNotNull(stay);
+        assertEquals(15, stay.getSampleCount());
+        assertNull(detector.getOpenStay());
+    }
+
+    private LocationEntity fix(double latitude, long step) {
+        time += step;
+        LocationEntity location = new LocationEntity("fix_" + time, CHILD_ID, latitude, HOME_LNG, 10f);
+        location.setTimestamp(new Date(time));
+        return location;
+    }
+}
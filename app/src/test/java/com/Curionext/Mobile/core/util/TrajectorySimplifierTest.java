@@ -0,0 +1,107 @@
+package com.curionext.mobile.core.util;
+
+import com.curionext.mobile.core.data.local.entity.LocationEntity;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TrajectorySimplifierTest {
+
+    private static final String CHILD_ID = "child_1";
+    private static final double START_LAT = 12.9716;
+    private static final double START_LNG = 77.5946;
+    private static final double METERS = 1 / 111320.0; // degrees of latitude per meter
+    private static final long SECOND = 1000;
+    private static final long T0 = 1_700_000_000_000L;
+
+    private TrajectorySimplifier simplifier;
+
+    @Before
+    public void setUp() {
+        simplifier = new TrajectorySimplifier();
+    }
+
+    @Test
+    public void toleranceIsAccuracyWithAFifteenMeterFloor() {
+        assertEquals(15.0, TrajectorySimplifier.tolerance(5f), 0);
+        assertEquals(15.0, TrajectorySimplifier.tolerance(15f), 0);
+        assertEquals(40.0, TrajectorySimplifier.tolerance(40f), 0);
+    }
+
+    @Test
+    public void stationaryJitterInsideToleranceIsDropped() {
+        assertTrue(simplifier.offer(fix(0, 0, 0, 10f)));
+
+        // 14 m off with 10 m accuracy stays under the 15 m floor
+        assertFalse(simplifier.offer(fix(10 * SECOND, 14, 0, 10f)));
+        // 30 m off is dropped when the fix itself only claims 40 m accuracy...
+        assertFalse(simplifier.offer(fix(20 * SECOND, 30, 0, 40f)));
+        // ...and kept when it claims 10 m
+        assertTrue(simplifier.offer(fix(30 * SECOND, 30, 0, 10f)));
+    }
+
+    @Test
+    public void straightConstantSpeedTrackCollapses() {
+        // 1.4 m/s due north for five minutes, one fix every 10 s
+        int kept = 0;
+        for (int i = 0; i <= 30; i++) {
+            if (simplifier.offer(fix(i * 10 * SECOND, i * 14, 0, 5f))) {
+                kept++;
+            }
+        }
+        // The start, plus the fix that first shows the velocity; the rest lies on the prediction
+        assertEquals(2, kept);
+        assertEquals(31, simplifier.getPointsSeen());
+        assertEquals(31 / 2.0, simplifier.getCompressionRatio(), 1e-9);
+    }
+
+    @Test
+    public void turnIsKept() {
+        for (int i = 0; i <= 10; i++) {
+            simplifier.offer(fix(i * 10 * SECOND, i * 14, 0, 5f));
+        }
+        long keptBeforeTurn = simplifier.getPointsKept();
+
+        // Turn east at the same speed: the first fix off the line is 14 m * sqrt(2) from the prediction
+        assertTrue(simplifier.offer(fix(110 * SECOND, 140, 14, 5f)));
+        assertEquals(keptBeforeTurn + 1, simplifier.getPointsKept());
+    }
+
+    @Test
+    public void fixIsKeptAfterTheMaxGapEvenOnThePrediction() {
+        assertTrue(simplifier.offer(fix(0, 0, 0, 5f)));
+        assertTrue(simplifier.offer(fix(20 * SECOND, 30, 0, 5f)));
+
+        long lastKept = 20 * SECOND;
+        for (long t = 30 * SECOND; t < lastKept + Constants.TRAJECTORY_MAX_GAP; t += 30 * SECOND) {
+            assertFalse(simplifier.offer(fix(t, t / SECOND * 1.5, 0, 5f)));
+        }
+        long atGap = lastKept + Constants.TRAJECTORY_MAX_GAP;
+        assertTrue(simplifier.offer(fix(atGap, atGap / SECOND * 1.5, 0, 5f)));
+        assertEquals(3, simplifier.getPointsKept());
+    }
+
+    @Test
+    public void safeZoneChangeIsKept() {
+        assertTrue(simplifier.offer(fix(0, 0, 0, 5f)));
+        LocationEntity arrived = fix(10 * SECOND, 1, 0, 5f);
+        arrived.setInSafeZone(true);
+        arrived.setSafeZoneName("Home");
+
+        assertTrue(simplifier.offer(arrived));
+    }
+
+    private static LocationEntity fix(long offset, double northMeters, double eastMeters, float accuracy) {
+        LocationEntity location = new LocationEntity("fix_" + offset, CHILD_ID,
+                START_LAT + northMeters * METERS,
+                START_LNG + eastMeters * METERS / Math.cos(Math.toRadians(START_LAT)), accuracy);
+        location.setTimestamp(new Date(T0 + offset));
+        return location;
+    }
+}
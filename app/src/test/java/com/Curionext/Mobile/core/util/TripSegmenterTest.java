@@ -0,0 +1,125 @@
+package com.curionext.mobile.core.util;
+
+import com.curionext.mobile.core.data.local.entity.LocationEntity;
+import com.curionext.mobile.core.data.local.entity.TripEntity;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TripSegmenterTest {
+
+    private static final String CHILD_ID = "child_1";
+    private static final double HOME_LAT = 12.9716;
+    private static final double HOME_LNG = 77.5946;
+    private static final double METERS = 1 / 111320.0; // degrees of latitude per meter
+    private static final long MINUTE = 60000;
+    private static final float WALKING = 5.4f; // km/h
+
+    private TripSegmenter segmenter;
+    private long time;
+    private double latitude;
+
+    @Before
+    public void setUp() {
+        segmenter = new TripSegmenter(CHILD_ID);
+        time = 1_700_000_000_000L;
+        latitude = HOME_LAT;
+    }
+
+    @Test
+    public void walkIsClosedWhereTheChildStopped() {
+        segmenter.offer(fix(0, 0, "Home"));
+        long departure = time;
+        for (int i = 0; i < 10; i++) {
+            assertNull(segmenter.offer(fix(90, WALKING, null)));
+        }
+        TripEntity open = segmenter.getOpenTrip();
+        assertNotNull(open);
+        assertTrue(open.isOpen());
+
+        // Standing at school: the first stationary fix marks the stop, later jitter is not travel
+        segmenter.offer(fix(0, 0, "School"));
+        long stopStart = time;
+        TripEntity closed = null;
+        for (int i = 0; i < 4 && closed == null; i++) {
+            closed = segmenter.offer(fix(3, 0, "School"));
+        }
+
+        assertNotNull(closed);
+        assertFalse(closed.isOpen());
+        assertEquals(open.getId(), closed.getId());
+        assertEquals(departure, closed.getStartTime().getTime());
+        assertEquals(stopStart, closed.getEndTime().getTime());
+        assertEquals(900, closed.getDistance(), 5);
+        assertEquals(WALKING, closed.getMaxSpeed(), 0.01);
+        assertEquals(closed.getDistance() / (stopStart - departure) * 3600, closed.getAverageSpeed(), 0.01);
+        assertEquals("Home", closed.getStartZoneName());
+        assertEquals("School", closed.getEndZoneName());
+    }
+
+    @Test
+    public void jitterWithoutReportedSpeedIsNotATrip() {
+        for (int i = 0; i < 30; i++) {
+            assertNull(segmenter.offer(fix(i % 2 == 0 ? 8 : -8, 0, null)));
+        }
+        assertNull(segmenter.flush());
+    }
+
+    @Test
+    public void shortWalkIsNotReported() {
+        segmenter.offer(fix(0, 0, null));
+        for (int i = 0; i < 2; i++) {
+            assertNull(segmenter.offer(fix(90, WALKING, null)));
+            assertNull(segmenter.getOpenTrip());
+        }
+        for (int i = 0; i < 5; i++) {
+            assertNull(segmenter.offer(fix(0, 0, null)));
+        }
+    }
+
+    @Test
+    public void gapClosesTripAtLastFix() {
+        segmenter.offer(fix(0, 0, null));
+        for (int i = 0; i < 5; i++) {
+            segmenter.offer(fix(90, WALKING, null));
+        }
+        long lastFix = time;
+
+        time += Constants.TRIP_MAX_GAP;
+        TripEntity closed = segmenter.offer(fix(90, WALKING, null));
+
+        assertNotNull(closed);
+        assertFalse(closed.isOpen());
+        assertEquals(lastFix, closed.getEndTime().getTime());
+        assertEquals(450, closed.getDistance(), 5);
+
+        // The next trip starts at the fix after the gap, without the distance covered during it
+        long afterGap = time;
+        for (int i = 0; i < 3; i++) {
+            segmenter.offer(fix(90, WALKING, null));
+        }
+        TripEntity next = segmenter.getOpenTrip();
+        assertNotNull(next);
+        assertEquals(afterGap, next.getStartTime().getTime());
+        assertEquals(270, next.getDistance(), 5);
+    }
+
+    private LocationEntity fix(double northMeters, float speed, String zone) {
+        time += MINUTE;
+        latitude += northMeters * METERS;
+        LocationEntity location = new LocationEntity("fix_" + time, CHILD_ID, latitude, HOME_LNG, 10f);
+        location.setTimestamp(new Date(time));
+        location.setSpeed(speed);
+        location.setInSafeZone(zone != null);
+        location.setSafeZoneName(zone);
+        return location;
+    }
+}
@@ -0,0 +1,81 @@
+package com.curionext.mobile.core.util;
+
+import com.curionext.mobile.core.data.local.entity.SafeZoneEntity;
+import com.curionext.mobile.core.data.model.GeofenceTransition;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ZoneScheduleTest {
+
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+    private static final long MONDAY = 1704067200000L; // 2024-01-01 00:00 UTC
+    private static final long HOUR = 3600000;
+    private static final long DAY = 24 * HOUR;
+
+    @Test
+    public void weekMinuteStartsOnMonday() {
+        assertEquals(0, ZoneSchedule.weekMinute(MONDAY, UTC));
+        assertEquals(ZoneSchedule.MINUTES_PER_DAY + 90, ZoneSchedule.weekMinute(MONDAY + DAY + 90 * 60000, UTC));
+        assertEquals(ZoneSchedule.MINUTES_PER_WEEK - 1, ZoneSchedule.weekMinute(MONDAY - 60000, UTC));
+        assertEquals(60, ZoneSchedule.weekMinute(MONDAY, TimeZone.getTimeZone("GMT+01:00")));
+    }
+
+    @Test
+    public void defaultAndUnreadableSchedulesAreAlwaysActive() {
+        assertSame(ZoneSchedule.ALWAYS, ZoneSchedule.compile("All days, All hours"));
+        assertSame(ZoneSchedule.ALWAYS, ZoneSchedule.compile(null));
+        assertSame(ZoneSchedule.ALWAYS, ZoneSchedule.compile("whenever"));
+        assertSame(ZoneSchedule.ALWAYS, ZoneSchedule.compile("Daily 0-24"));
+    }
+
+    @Test
+    public void weekdayWindow() {
+        ZoneSchedule school = ZoneSchedule.compile("Weekdays 8–15");
+
+        assertFalse(school.isAlways());
+        assertFalse(school.isActiveAt(MONDAY + 7 * HOUR + 59 * 60000, UTC));
+        assertTrue(school.isActiveAt(MONDAY + 8 * HOUR, UTC));
+        assertTrue(school.isActiveAt(MONDAY + 4 * DAY + 14 * HOUR + 59 * 60000, UTC));
+        assertFalse(school.isActiveAt(MONDAY + 4 * DAY + 15 * HOUR, UTC));
+        assertFalse(school.isActiveAt(MONDAY + 5 * DAY + 10 * HOUR, UTC));
+    }
+
+    @Test
+    public void rulesAndOvernightRanges() {
+        ZoneSchedule schedule = ZoneSchedule.compile("Mon-Fri, 08:00-15:30; Sat Sun 22:00-06:00");
+
+        assertTrue(schedule.isActiveAt(MONDAY + 15 * HOUR + 29 * 60000, UTC));
+        assertFalse(schedule.isActiveAt(MONDAY + 15 * HOUR + 30 * 60000, UTC));
+        assertTrue(schedule.isActiveAt(MONDAY + 5 * DAY + 23 * HOUR, UTC));
+        // Sunday night runs into Monday morning
+        assertTrue(schedule.isActiveAt(MONDAY + 7 * DAY + 5 * HOUR, UTC));
+        assertFalse(schedule.isActiveAt(MONDAY + DAY + 5 * HOUR, UTC));
+    }
+
+    @Test
+    public void engineIgnoresZoneOutsideItsSchedule() {
+        SafeZoneEntity school = new SafeZoneEntity("school", "child_1", "School", null, 12.97, 77.59, 200);
+        school.setSchedule("Weekdays 8-15");
+        GeofenceEngine engine = new GeofenceEngine("child_1", Collections.singletonList(school), UTC);
+
+        // Saturday at school: no transition, not occupied
+        assertTrue(engine.evaluate(12.97, 77.59, 10f, new Date(MONDAY + 5 * DAY + 10 * HOUR)).isEmpty());
+        assertTrue(engine.getOccupiedZones().isEmpty());
+
+        // Monday at 8 the child has not moved, but the zone just became active
+        List<GeofenceTransition> transitions = engine.evaluate(12.97, 77.59, 10f, new Date(MONDAY + 7 * DAY + 8 * HOUR));
+        assertEquals(1, transitions.size());
+        assertTrue(transitions.get(0).isEntry());
+        assertEquals(1, engine.getOccupiedZones().size());
+    }
+}